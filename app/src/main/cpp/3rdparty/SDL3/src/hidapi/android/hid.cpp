@@ -578,16 +578,21 @@ public:
 		return m_bOpenResult;
 	}
 
-	void ProcessInput( const uint8_t *pBuf, size_t nBufSize )
+	// Returns false if the queue was full and the oldest report had to be dropped
+	bool ProcessInput( const uint8_t *pBuf, size_t nBufSize )
 	{
 		hid_mutex_guard l( &m_dataLock );
 
+		bool bDropped = false;
 		size_t MAX_REPORT_QUEUE_SIZE = 16;
 		if ( m_vecData.size() >= MAX_REPORT_QUEUE_SIZE )
 		{
 			m_vecData.pop_front();
+			bDropped = true;
 		}
+		// The pool recycles entries and their storage, so this is the only copy of the report
 		m_vecData.emplace_back( pBuf, nBufSize );
+		return !bDropped;
 	}
 
 	int GetInput( unsigned char *data, size_t length )
@@ -822,7 +827,7 @@ extern "C"
 JNIEXPORT void JNICALL HID_DEVICE_MANAGER_JAVA_INTERFACE(HIDDeviceDisconnected)(JNIEnv *env, jobject thiz, int nDeviceID);
 
 extern "C"
-JNIEXPORT void JNICALL HID_DEVICE_MANAGER_JAVA_INTERFACE(HIDDeviceInputReport)(JNIEnv *env, jobject thiz, int nDeviceID, jbyteArray value);
+JNIEXPORT jboolean JNICALL HID_DEVICE_MANAGER_JAVA_INTERFACE(HIDDeviceInputReportDirect)(JNIEnv *env, jobject thiz, int nDeviceID, jobject buffer, int nBufSize);
 
 extern "C"
 JNIEXPORT void JNICALL HID_DEVICE_MANAGER_JAVA_INTERFACE(HIDDeviceReportResponse)(JNIEnv *env, jobject thiz, int nDeviceID, jbyteArray value);
@@ -988,19 +993,23 @@ JNIEXPORT void JNICALL HID_DEVICE_MANAGER_JAVA_INTERFACE(HIDDeviceDisconnected)(
 }
 
 extern "C"
-JNIEXPORT void JNICALL HID_DEVICE_MANAGER_JAVA_INTERFACE(HIDDeviceInputReport)(JNIEnv *env, jobject thiz, int nDeviceID, jbyteArray value)
+JNIEXPORT jboolean JNICALL HID_DEVICE_MANAGER_JAVA_INTERFACE(HIDDeviceInputReportDirect)(JNIEnv *env, jobject thiz, int nDeviceID, jobject buffer, int nBufSize)
 {
-	jbyte *pBuf = env->GetByteArrayElements(value, NULL);
-	jsize nBufSize = env->GetArrayLength(value);
+	// The report lives in a preallocated direct buffer owned by the Java side; read it in place.
+	const uint8_t *pBuf = static_cast< const uint8_t* >( env->GetDirectBufferAddress( buffer ) );
+	if ( !pBuf || nBufSize <= 0 || nBufSize > env->GetDirectBufferCapacity( buffer ) )
+	{
+		return JNI_FALSE;
+	}
 
 //	LOGV( "HIDDeviceInput() id=%d len=%u\n", nDeviceID, nBufSize );
 	hid_device_ref<CHIDDevice> pDevice = FindDevice( nDeviceID );
-	if ( pDevice )
+	if ( !pDevice )
 	{
-		pDevice->ProcessInput( reinterpret_cast< const uint8_t* >( pBuf ), nBufSize );
+		return JNI_FALSE;
 	}
 
-	env->ReleaseByteArrayElements(value, pBuf, 0);
+	return pDevice->ProcessInput( pBuf, (size_t)nBufSize ) ? JNI_TRUE : JNI_FALSE;
 }
 
 extern "C"
@@ -1408,7 +1417,7 @@ extern "C"
 JNIEXPORT void JNICALL HID_DEVICE_MANAGER_JAVA_INTERFACE(HIDDeviceDisconnected)(JNIEnv *env, jobject thiz, int nDeviceID);
 
 extern "C"
-JNIEXPORT void JNICALL HID_DEVICE_MANAGER_JAVA_INTERFACE(HIDDeviceInputReport)(JNIEnv *env, jobject thiz, int nDeviceID, jbyteArray value);
+JNIEXPORT jboolean JNICALL HID_DEVICE_MANAGER_JAVA_INTERFACE(HIDDeviceInputReportDirect)(JNIEnv *env, jobject thiz, int nDeviceID, jobject buffer, int nBufSize);
 
 extern "C"
 JNIEXPORT void JNICALL HID_DEVICE_MANAGER_JAVA_INTERFACE(HIDDeviceReportResponse)(JNIEnv *env, jobject thiz, int nDeviceID, jbyteArray value);
@@ -1451,9 +1460,10 @@ JNIEXPORT void JNICALL HID_DEVICE_MANAGER_JAVA_INTERFACE(HIDDeviceDisconnected)(
 }
 
 extern "C"
-JNIEXPORT void JNICALL HID_DEVICE_MANAGER_JAVA_INTERFACE(HIDDeviceInputReport)(JNIEnv *env, jobject thiz, int nDeviceID, jbyteArray value)
+JNIEXPORT jboolean JNICALL HID_DEVICE_MANAGER_JAVA_INTERFACE(HIDDeviceInputReportDirect)(JNIEnv *env, jobject thiz, int nDeviceID, jobject buffer, int nBufSize)
 {
-	LOGV("Stub HIDDeviceInput() id=%d len=%u\n", nDeviceID, nBufSize);
+	LOGV("Stub HIDDeviceInputReportDirect() id=%d len=%d\n", nDeviceID, nBufSize);
+	return JNI_FALSE;
 }
 
 extern "C"
@@ -1472,6 +1482,6 @@ JNINativeMethod HIDDeviceManager_tab[8] = {
         { "HIDDeviceOpenPending", "(I)V", (void*)HID_DEVICE_MANAGER_JAVA_INTERFACE(HIDDeviceOpenPending) },
         { "HIDDeviceOpenResult", "(IZ)V", (void*)HID_DEVICE_MANAGER_JAVA_INTERFACE(HIDDeviceOpenResult) },
         { "HIDDeviceDisconnected", "(I)V", (void*)HID_DEVICE_MANAGER_JAVA_INTERFACE(HIDDeviceDisconnected) },
-        { "HIDDeviceInputReport", "(I[B)V", (void*)HID_DEVICE_MANAGER_JAVA_INTERFACE(HIDDeviceInputReport) },
+        { "HIDDeviceInputReportDirect", "(ILjava/nio/ByteBuffer;I)Z", (void*)HID_DEVICE_MANAGER_JAVA_INTERFACE(HIDDeviceInputReportDirect) },
         { "HIDDeviceReportResponse", "(I[B)V", (void*)HID_DEVICE_MANAGER_JAVA_INTERFACE(HIDDeviceReportResponse) }
 };
@@ -45,6 +45,13 @@ Java_com_izzy2lost_psx2_NativeApp_achievementsGetGameId(JNIEnv* env, jclass claz
 	return static_cast<jint>(Achievements::GetGameID());
 }
 
+JNIEXPORT jlong JNICALL
+Java_com_izzy2lost_psx2_NativeApp_achievementsGetHashTimeSavedMs(JNIEnv* env, jclass clazz)
+{
+	auto lock = Achievements::GetLock();
+	return static_cast<jlong>(Achievements::GetGameHashTimeSaved() * 1000.0);
+}
+
 JNIEXPORT jstring JNICALL
 Java_com_izzy2lost_psx2_NativeApp_achievementsGetRichPresence(JNIEnv* env, jclass clazz)
 {
@@ -7,7 +7,8 @@ include(GNUInstallDirs)
 # Misc option
 #-------------------------------------------------------------------------------
 option(ENABLE_TESTS "Enables building the unit tests" ON)
-option(ENABLE_GSRUNNER "Enables building the GSRunner by default.  It can still be built with `make pcsx2-gsrunner` otherwise." OFF)
+option(ENABLE_GSRUNNER "Enables building the headless GSRunner benchmark tool (Windows/Linux desktop only)." OFF)
+option(ENABLE_BENCHMARKS "Enables building the core micro-benchmarks (desktop only)." OFF)
 option(LTO_PCSX2_CORE "Enable LTO/IPO/LTCG on the subset of pcsx2 that benefits most from it but not anything else")
 option(USE_VTUNE "Plug VTUNE to profile GS JIT.")
 option(PACKAGE_MODE "Use this option to ease packaging of PCSX2 (developer/distribution option)")
@@ -28,6 +29,12 @@ if(UNIX AND NOT APPLE)
 	option(X11_API "Enable X11 support" OFF)
 	option(WAYLAND_API "Enable Wayland support" OFF)
 	option(USE_BACKTRACE "Enable libbacktrace support" OFF)
+
+	# Desktop OpenGL contexts come from EGL on X11 or Wayland, so a headless build has nothing to create one with.
+	if(NOT ANDROID AND USE_OPENGL AND NOT X11_API AND NOT WAYLAND_API)
+		message(STATUS "Neither X11_API nor WAYLAND_API is enabled, building without the OpenGL renderer.")
+		set(USE_OPENGL OFF)
+	endif()
 endif()
 
 if(UNIX)
@@ -26,6 +26,26 @@ set(CMAKE_FIND_FRAMEWORK NEVER)
 #	find_package(Shaderc REQUIRED)
 #endif()
 
+# Bundled dependencies, built with the same versions as the Android app.
+# Added before the platform packages, so anything found there (e.g. libpng) links these.
+if (NOT WIN32)
+	add_subdirectory(3rdparty/zlib EXCLUDE_FROM_ALL)
+	add_subdirectory(3rdparty/zstd EXCLUDE_FROM_ALL)
+	add_subdirectory(3rdparty/lz4 EXCLUDE_FROM_ALL)
+	add_subdirectory(3rdparty/libwebp EXCLUDE_FROM_ALL)
+	if(UNIX AND NOT APPLE AND NOT ANDROID AND NOT X11_API AND NOT WAYLAND_API)
+		# Only used for input and audio in the headless desktop tools, they never open a window.
+		set(SDL_UNIX_CONSOLE_BUILD ON CACHE BOOL "" FORCE)
+	endif()
+	add_subdirectory(3rdparty/SDL3 EXCLUDE_FROM_ALL)
+	add_subdirectory(3rdparty/harfbuzz EXCLUDE_FROM_ALL)
+	add_subdirectory(3rdparty/freetype EXCLUDE_FROM_ALL)
+	add_subdirectory(3rdparty/plutosvg1 EXCLUDE_FROM_ALL)
+	if (NOT TARGET WebP::libwebp)
+		add_library(WebP::libwebp ALIAS webp)
+	endif()
+endif()
+
 # Platform-specific dependencies.
 if (WIN32)
 	add_subdirectory(3rdparty/D3D12MemAlloc EXCLUDE_FROM_ALL)
@@ -34,24 +54,30 @@ if (WIN32)
 	set(FFMPEG_INCLUDE_DIRS "${CMAKE_SOURCE_DIR}/3rdparty/ffmpeg/include")
 	find_package(Vtune)
 elseif (ANDROID)
-	add_subdirectory(3rdparty/zlib EXCLUDE_FROM_ALL)
-	add_subdirectory(3rdparty/zstd EXCLUDE_FROM_ALL)
-	add_subdirectory(3rdparty/lz4 EXCLUDE_FROM_ALL)
-	add_subdirectory(3rdparty/libwebp EXCLUDE_FROM_ALL)
-	add_subdirectory(3rdparty/SDL3 EXCLUDE_FROM_ALL)
-	add_subdirectory(3rdparty/harfbuzz EXCLUDE_FROM_ALL)
-	add_subdirectory(3rdparty/freetype EXCLUDE_FROM_ALL)
 	add_subdirectory(3rdparty/oboe EXCLUDE_FROM_ALL)
-	add_subdirectory(3rdparty/plutosvg1 EXCLUDE_FROM_ALL)
 	find_package(EGL REQUIRED)
 #	include(CheckLib)
 #	check_lib(EGL EGL EGL/egl.h)
 	set(CUBEB_API ON)
 else()
+	find_package(PNG REQUIRED)
+	find_package(JPEG REQUIRED) # No version because flatpak uses libjpeg-turbo.
 	find_package(CURL REQUIRED)
 	find_package(PCAP REQUIRED)
 	find_package(Vtune)
 
+	if(USE_OPENGL)
+		find_package(EGL REQUIRED)
+	endif()
+
+	# shaderc is loaded at runtime, so the bundled headers are enough to build against.
+	if(USE_VULKAN)
+		find_package(Shaderc)
+		if(NOT SHADERC_FOUND)
+			set(SHADERC_INCLUDE_DIR "${CMAKE_SOURCE_DIR}/3rdparty/shaderc/include")
+		endif()
+	endif()
+
 	# Use bundled ffmpeg v4.x.x headers if we can't locate it in the system.
 	# We'll try to load it dynamically at runtime.
 	find_package(FFMPEG COMPONENTS avcodec avformat avutil swresample swscale)
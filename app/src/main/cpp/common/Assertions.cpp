@@ -3,6 +3,7 @@
 
 #include "Assertions.h"
 #include "CrashHandler.h"
+#include "Console.h"
 #include "HostSys.h"
 #include "Threading.h"
 
@@ -81,6 +82,9 @@ void pxOnAssertFail(const char* file, int line, const char* func, const char* ms
 {
 	std::unique_lock guard(s_assertion_failed_mutex);
 
+	// Get whatever led up to this out of the log queues before the other threads are frozen.
+	Log::FlushAsyncOutput();
+
 	void* handle;
 	FreezeThreads(&handle);
 
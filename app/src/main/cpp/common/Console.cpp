@@ -5,16 +5,23 @@
 #include "common/Assertions.h"
 #include "common/FileSystem.h"
 #include "common/SmallString.h"
+#include "common/Threading.h"
 #include "common/Timer.h"
+#include "common/boost_spsc_queue.hpp"
 
 #include "fmt/format.h"
 
+#include <algorithm>
+#include <atomic>
+#include <cstring>
+#include <memory>
 #include <mutex>
 #include <vector>
 
 #ifdef _WIN32
 #include "common/RedtapeWindows.h"
 #else
+#include <sys/resource.h>
 #include <unistd.h>
 #endif
 
@@ -39,13 +46,66 @@ NullLogWriter DbgConWriter;
 
 namespace Log
 {
-	static void WriteToConsole(LOGLEVEL level, ConsoleColors color, std::string_view message);
+	namespace
+	{
+		/// Messages are split into fixed-size chunks so that queueing never allocates.
+		struct AsyncChunk
+		{
+			static constexpr size_t TEXT_SIZE = 240;
+
+			float message_time;
+			LOGLEVEL level;
+			ConsoleColors color;
+			u16 length;
+			bool continued; // further chunks of the same message follow
+			char text[TEXT_SIZE];
+		};
+
+		struct AsyncMessage
+		{
+			float message_time;
+			LOGLEVEL level;
+			ConsoleColors color;
+			std::string text;
+		};
+
+		// 256KB per logging thread, enough to absorb the burst of messages at boot.
+		static constexpr size_t ASYNC_QUEUE_SIZE = 1024;
+
+		struct AsyncQueue
+		{
+			ringbuffer_base<AsyncChunk, ASYNC_QUEUE_SIZE> chunks;
+			std::atomic<u32> dropped{0};
+			std::atomic_bool closed{false};
+
+			// Writer side only, holds a message whose later chunks haven't been queued yet.
+			AsyncMessage partial;
+			bool has_partial = false;
+		};
+
+		struct AsyncQueueOwner
+		{
+			AsyncQueue* queue = nullptr;
+
+			~AsyncQueueOwner();
+		};
+	} // namespace
+
+	static void WriteToConsole(LOGLEVEL level, ConsoleColors color, std::string_view message, float message_time);
 	static void WriteToDebug(LOGLEVEL level, ConsoleColors color, std::string_view message);
-	static void WriteToFile(LOGLEVEL level, ConsoleColors color, std::string_view message);
+	static void WriteToFile(LOGLEVEL level, ConsoleColors color, std::string_view message, float message_time);
 
 	static void UpdateMaxLevel();
 
 	static void ExecuteCallbacks(LOGLEVEL level, ConsoleColors color, std::string_view message);
+	static void DispatchMessage(LOGLEVEL level, ConsoleColors color, std::string_view message, float message_time);
+
+	static void EnqueueAsync(LOGLEVEL level, ConsoleColors color, std::string_view message);
+	static AsyncQueue* RegisterAsyncQueue();
+	static void AsyncWriterThread();
+	static void DrainAsyncQueues();
+	static void WriteAsyncMessage(const AsyncMessage& msg);
+	static void FlushRepeatedAsyncMessage();
 
 	static Common::Timer::Value s_start_timestamp = Common::Timer::GetCurrentValue();
 
@@ -62,6 +122,27 @@ namespace Log
 
 	static HostCallbackType s_host_callback;
 
+	// Consecutive repeats of a message are summarized at most this often.
+	static constexpr float REPEAT_SUMMARY_INTERVAL = 5.0f;
+
+	static std::atomic_bool s_async_enabled{false};
+	static std::atomic_bool s_async_flush_requested{false};
+	static std::mutex s_async_control_mutex;
+	static std::mutex s_async_queues_mutex;
+	static std::vector<std::unique_ptr<AsyncQueue>> s_async_queues;
+	static Threading::WorkSema s_async_work;
+	static Threading::KernelSemaphore s_async_writer_done;
+	static thread_local AsyncQueueOwner s_async_thread_queue;
+	// Trivially destructible, so it can still be read from thread_local destructors which run after the queue's.
+	static thread_local bool s_async_thread_queue_closed = false;
+	static thread_local bool s_is_async_writer = false;
+
+	// Only accessed by the writer thread (or by SetAsyncOutputEnabled() once it has exited).
+	static std::vector<AsyncMessage> s_async_messages;
+	static AsyncMessage s_last_async_message = {0.0f, LOGLEVEL_NONE, Color_Default, {}};
+	static float s_last_async_message_summary_time = 0.0f;
+	static u32 s_last_async_message_repeats = 0;
+
 #ifdef _WIN32
 	static HANDLE s_hConsoleStdIn = NULL;
 	static HANDLE s_hConsoleStdOut = NULL;
@@ -74,10 +155,22 @@ float Log::GetCurrentMessageTime()
 	return static_cast<float>(Common::Timer::ConvertValueToSeconds(Common::Timer::GetCurrentValue() - s_start_timestamp));
 }
 
-__ri void Log::WriteToConsole(LOGLEVEL level, ConsoleColors color, std::string_view message)
+__ri void Log::WriteToConsole(LOGLEVEL level, ConsoleColors color, std::string_view message, float message_time)
 {
 #if defined(__ANDROID__)
-    __android_log_print(ANDROID_LOG_DEBUG, "NDK_LOG", "%s", std::string(message).c_str());
+	static constexpr int s_android_priorities[LOGLEVEL_COUNT] = {
+		ANDROID_LOG_SILENT, // none
+		ANDROID_LOG_ERROR, // error
+		ANDROID_LOG_WARN, // warning
+		ANDROID_LOG_INFO, // info
+		ANDROID_LOG_DEBUG, // dev
+		ANDROID_LOG_VERBOSE, // debug
+		ANDROID_LOG_VERBOSE, // trace
+	};
+
+	// logcat adds its own timestamps, but needs a terminated string.
+	const SmallStackString<512> buffer(message.data(), static_cast<u32>(message.length()));
+	__android_log_write(s_android_priorities[level], "NDK_LOG", buffer.c_str());
 #else
 	static constexpr std::string_view s_ansi_color_codes[ConsoleColors_Count] = {
 		"\033[0m"sv, // default
@@ -110,7 +203,7 @@ __ri void Log::WriteToConsole(LOGLEVEL level, ConsoleColors color, std::string_v
 	buffer.append(s_ansi_color_codes[color]);
 
 	if (s_log_timestamps)
-		buffer.append_format(TIMESTAMP_FORMAT_STRING, Log::GetCurrentMessageTime());
+		buffer.append_format(TIMESTAMP_FORMAT_STRING, message_time);
 
 	buffer.append(message);
 	buffer.append('\n');
@@ -300,7 +393,7 @@ void Log::SetDebugOutputLevel(LOGLEVEL level)
 	UpdateMaxLevel();
 }
 
-__ri void Log::WriteToFile(LOGLEVEL level, ConsoleColors color, std::string_view message)
+__ri void Log::WriteToFile(LOGLEVEL level, ConsoleColors color, std::string_view message, float message_time)
 {
 	std::unique_lock lock(s_file_mutex);
 	if (!s_file_handle) [[unlikely]]
@@ -310,7 +403,7 @@ __ri void Log::WriteToFile(LOGLEVEL level, ConsoleColors color, std::string_view
 	{
 		if (s_log_timestamps)
 		{
-			std::fprintf(s_file_handle.get(), TIMESTAMP_PRINTF_STRING "%.*s\n", GetCurrentMessageTime(),
+			std::fprintf(s_file_handle.get(), TIMESTAMP_PRINTF_STRING "%.*s\n", message_time,
 				static_cast<int>(message.size()), message.data());
 		}
 		else
@@ -322,7 +415,7 @@ __ri void Log::WriteToFile(LOGLEVEL level, ConsoleColors color, std::string_view
 	{
 		if (s_log_timestamps)
 		{
-			std::fprintf(s_file_handle.get(), TIMESTAMP_PRINTF_STRING "\n", GetCurrentMessageTime());
+			std::fprintf(s_file_handle.get(), TIMESTAMP_PRINTF_STRING "\n", message_time);
 		}
 		else
 		{
@@ -361,7 +454,8 @@ bool Log::SetFileOutputLevel(LOGLEVEL level, std::string path)
 					s_file_path = {};
 
 					if (IsConsoleOutputEnabled())
-						WriteToConsole(LOGLEVEL_ERROR, Color_StrongRed, TinyString::from_format("Failed to open log file '{}'", path));
+						WriteToConsole(LOGLEVEL_ERROR, Color_StrongRed, TinyString::from_format("Failed to open log file '{}'", path),
+							GetCurrentMessageTime());
 				}
 			}
 		}
@@ -415,13 +509,256 @@ __ri void Log::UpdateMaxLevel()
 	s_max_level = std::max(s_console_level, std::max(s_debug_level, std::max(s_file_level, s_host_level)));
 }
 
+bool Log::IsAsyncOutputEnabled()
+{
+	return s_async_enabled.load(std::memory_order_relaxed);
+}
+
+void Log::SetAsyncOutputEnabled(bool enabled)
+{
+	std::unique_lock lock(s_async_control_mutex);
+	if (s_async_enabled.load(std::memory_order_relaxed) == enabled)
+		return;
+
+	if (enabled)
+	{
+		s_async_enabled.store(true, std::memory_order_release);
+
+		// Detached so that nothing has to join it at process exit, shutdown goes through s_async_writer_done.
+		Threading::Thread thread;
+		if (thread.Start(&AsyncWriterThread))
+		{
+			thread.Detach();
+			return;
+		}
+
+		s_async_enabled.store(false, std::memory_order_release);
+	}
+	else
+	{
+		s_async_enabled.store(false, std::memory_order_release);
+		s_async_work.NotifyOfWork();
+		s_async_writer_done.Wait();
+	}
+
+	// Write out anything which was queued while the flag was changing.
+	DrainAsyncQueues();
+	FlushRepeatedAsyncMessage();
+}
+
+void Log::FlushAsyncOutput()
+{
+	// The writer can't wait for itself.
+	if (s_is_async_writer)
+		return;
+
+	std::unique_lock lock(s_async_control_mutex);
+	if (!s_async_enabled.load(std::memory_order_relaxed))
+		return;
+
+	s_async_flush_requested.store(true, std::memory_order_release);
+	s_async_work.NotifyOfWork();
+	s_async_work.WaitForEmpty();
+}
+
+Log::AsyncQueueOwner::~AsyncQueueOwner()
+{
+	s_async_thread_queue_closed = true;
+	if (queue)
+		queue->closed.store(true, std::memory_order_release);
+
+	// The writer frees the queue once it has drained it.
+	queue = nullptr;
+}
+
+Log::AsyncQueue* Log::RegisterAsyncQueue()
+{
+	std::unique_ptr<AsyncQueue> queue = std::make_unique<AsyncQueue>();
+	AsyncQueue* ret = queue.get();
+
+	std::unique_lock lock(s_async_queues_mutex);
+	s_async_queues.push_back(std::move(queue));
+	return ret;
+}
+
+void Log::EnqueueAsync(LOGLEVEL level, ConsoleColors color, std::string_view message)
+{
+	if (s_async_thread_queue_closed) [[unlikely]]
+	{
+		// Logged from a thread_local destructor after the thread's queue was closed. Let the writer get
+		// through what the thread queued earlier, then write this one directly so it still comes after.
+		FlushAsyncOutput();
+		DispatchMessage(level, color, message, GetCurrentMessageTime());
+		return;
+	}
+
+	AsyncQueue* queue = s_async_thread_queue.queue;
+	if (!queue) [[unlikely]]
+		queue = s_async_thread_queue.queue = RegisterAsyncQueue();
+
+	// Only the writer frees up space, so the size seen here can be stale but never too small.
+	// Checking up front means a message is either queued in full, or not at all.
+	const size_t num_chunks = std::max<size_t>((message.length() + AsyncChunk::TEXT_SIZE - 1) / AsyncChunk::TEXT_SIZE, 1);
+	if (num_chunks > (ASYNC_QUEUE_SIZE - 1 - queue->chunks.size())) [[unlikely]]
+	{
+		queue->dropped.fetch_add(1, std::memory_order_relaxed);
+		return;
+	}
+
+	AsyncChunk chunk;
+	chunk.message_time = GetCurrentMessageTime();
+	chunk.level = level;
+	chunk.color = color;
+
+	size_t pos = 0;
+	do
+	{
+		const size_t length = std::min(message.length() - pos, AsyncChunk::TEXT_SIZE);
+		std::memcpy(chunk.text, message.data() + pos, length);
+		chunk.length = static_cast<u16>(length);
+		chunk.continued = (pos + length) < message.length();
+		queue->chunks.push(chunk);
+		pos += length;
+	} while (pos < message.length());
+
+	s_async_work.NotifyOfWork();
+}
+
+void Log::AsyncWriterThread()
+{
+	Threading::SetNameOfCurrentThread("Log Writer");
+	s_is_async_writer = true;
+
+#if defined(_WIN32)
+	SetThreadPriority(GetCurrentThread(), THREAD_PRIORITY_BELOW_NORMAL);
+#elif defined(__linux__)
+	// Nice values are per-thread on Linux.
+	setpriority(PRIO_PROCESS, 0, 10);
+#endif
+
+	for (;;)
+	{
+		s_async_work.WaitForWork();
+
+		const bool running = s_async_enabled.load(std::memory_order_acquire);
+		DrainAsyncQueues();
+
+		if (s_async_flush_requested.exchange(false, std::memory_order_acq_rel))
+			FlushRepeatedAsyncMessage();
+
+		if (!running)
+			break;
+	}
+
+	FlushRepeatedAsyncMessage();
+	s_is_async_writer = false;
+	s_async_writer_done.Post();
+}
+
+void Log::DrainAsyncQueues()
+{
+	u32 dropped = 0;
+	{
+		std::unique_lock lock(s_async_queues_mutex);
+		for (auto it = s_async_queues.begin(); it != s_async_queues.end();)
+		{
+			AsyncQueue* queue = it->get();
+
+			// Read before draining, so anything the thread queued before exiting is still picked up.
+			const bool closed = queue->closed.load(std::memory_order_acquire);
+
+			AsyncChunk chunk;
+			while (queue->chunks.pop(chunk))
+			{
+				if (!queue->has_partial)
+				{
+					queue->partial.message_time = chunk.message_time;
+					queue->partial.level = chunk.level;
+					queue->partial.color = chunk.color;
+					queue->partial.text.assign(chunk.text, chunk.length);
+				}
+				else
+				{
+					queue->partial.text.append(chunk.text, chunk.length);
+				}
+
+				queue->has_partial = chunk.continued;
+				if (!chunk.continued)
+					s_async_messages.push_back(std::move(queue->partial));
+			}
+
+			dropped += queue->dropped.exchange(0, std::memory_order_relaxed);
+
+			if (closed)
+				it = s_async_queues.erase(it);
+			else
+				++it;
+		}
+	}
+
+	if (dropped > 0)
+	{
+		s_async_messages.push_back({GetCurrentMessageTime(), LOGLEVEL_WARNING, Color_StrongOrange,
+			fmt::format("Dropped {} log messages, the writer thread fell behind.", dropped)});
+	}
+
+	if (s_async_messages.empty())
+		return;
+
+	// Messages are in order within each thread, interleave the threads by when they were written.
+	std::stable_sort(s_async_messages.begin(), s_async_messages.end(),
+		[](const AsyncMessage& lhs, const AsyncMessage& rhs) { return lhs.message_time < rhs.message_time; });
+
+	for (const AsyncMessage& msg : s_async_messages)
+		WriteAsyncMessage(msg);
+
+	s_async_messages.clear();
+}
+
+void Log::WriteAsyncMessage(const AsyncMessage& msg)
+{
+	// Blank lines are used as separators, don't count them as repeats.
+	if (!msg.text.empty() && msg.level == s_last_async_message.level && msg.color == s_last_async_message.color &&
+		msg.text == s_last_async_message.text)
+	{
+		s_last_async_message_repeats++;
+		s_last_async_message.message_time = msg.message_time;
+		if ((msg.message_time - s_last_async_message_summary_time) >= REPEAT_SUMMARY_INTERVAL)
+			FlushRepeatedAsyncMessage();
+
+		return;
+	}
+
+	FlushRepeatedAsyncMessage();
+	DispatchMessage(msg.level, msg.color, msg.text, msg.message_time);
+
+	s_last_async_message = msg;
+	s_last_async_message_summary_time = msg.message_time;
+}
+
+void Log::FlushRepeatedAsyncMessage()
+{
+	if (s_last_async_message_repeats == 0)
+		return;
+
+	DispatchMessage(s_last_async_message.level, s_last_async_message.color,
+		TinyString::from_format("Last message repeated {} times.", s_last_async_message_repeats),
+		s_last_async_message.message_time);
+
+	s_last_async_message_repeats = 0;
+	s_last_async_message_summary_time = s_last_async_message.message_time;
+}
+
 void Log::ExecuteCallbacks(LOGLEVEL level, ConsoleColors color, std::string_view message)
 {
-	// TODO: Cache the message time.
+	if (s_async_enabled.load(std::memory_order_acquire))
+		EnqueueAsync(level, color, message);
+	else
+		DispatchMessage(level, color, message, GetCurrentMessageTime());
+}
 
-#if defined(__ANDROID__)
-    __android_log_print(ANDROID_LOG_DEBUG, "NDK_LOG", "%s", std::string(message).c_str());
-#else
+void Log::DispatchMessage(LOGLEVEL level, ConsoleColors color, std::string_view message, float message_time)
+{
 	// Split newlines into separate messages.
 	std::string_view::size_type start_pos = 0;
 	if (std::string_view::size_type end_pos = message.find('\n'); end_pos != std::string::npos) [[unlikely]]
@@ -432,7 +769,7 @@ void Log::ExecuteCallbacks(LOGLEVEL level, ConsoleColors color, std::string_view
 			if (start_pos != end_pos)
 				message_line = message.substr(start_pos, (end_pos == std::string_view::npos) ? end_pos : end_pos - start_pos);
 
-			ExecuteCallbacks(level, color, message_line);
+			DispatchMessage(level, color, message_line, message_time);
 
 			if (end_pos == std::string_view::npos)
 				return;
@@ -445,13 +782,13 @@ void Log::ExecuteCallbacks(LOGLEVEL level, ConsoleColors color, std::string_view
 
 	pxAssert(level > LOGLEVEL_NONE);
 	if (level <= s_console_level)
-		WriteToConsole(level, color, message);
+		WriteToConsole(level, color, message, message_time);
 
 	if (level <= s_debug_level)
 		WriteToDebug(level, color, message);
 
 	if (level <= s_file_level)
-		WriteToFile(level, color, message);
+		WriteToFile(level, color, message, message_time);
 
 	if (level <= s_host_level)
 	{
@@ -460,7 +797,6 @@ void Log::ExecuteCallbacks(LOGLEVEL level, ConsoleColors color, std::string_view
 		if (callback)
 			s_host_callback(level, color, message);
 	}
-#endif
 }
 
 void Log::Write(LOGLEVEL level, ConsoleColors color, std::string_view message)
@@ -484,30 +820,25 @@ void Log::Writev(LOGLEVEL level, ConsoleColors color, const char* format, va_lis
 	if (level > s_max_level)
 		return;
 
+	// Format straight into the stack buffer, most messages fit so only long ones are formatted twice.
 	std::va_list ap_copy;
 	va_copy(ap_copy, ap);
-
-#ifdef _WIN32
-	const u32 required_size = static_cast<u32>(_vscprintf(format, ap_copy));
-#else
-	const u32 required_size = std::vsnprintf(nullptr, 0, format, ap_copy);
-#endif
+	char buffer[512];
+	const int len = std::vsnprintf(buffer, std::size(buffer), format, ap_copy);
 	va_end(ap_copy);
 
-	if (required_size < 512)
+	if (len <= 0)
+		return;
+
+	if (static_cast<size_t>(len) < std::size(buffer))
 	{
-		char buffer[512];
-		const int len = std::vsnprintf(buffer, std::size(buffer), format, ap);
-		if (len > 0)
-			ExecuteCallbacks(level, color, std::string_view(buffer, static_cast<size_t>(len)));
+		ExecuteCallbacks(level, color, std::string_view(buffer, static_cast<size_t>(len)));
 	}
 	else
 	{
-		char* buffer = new char[required_size + 1];
-		const int len = std::vsnprintf(buffer, required_size + 1, format, ap);
-		if (len > 0)
-			ExecuteCallbacks(level, color, std::string_view(buffer, static_cast<size_t>(len)));
-		delete[] buffer;
+		std::string large_buffer(static_cast<size_t>(len), '\0');
+		std::vsnprintf(large_buffer.data(), large_buffer.size() + 1, format, ap);
+		ExecuteCallbacks(level, color, large_buffer);
 	}
 }
 
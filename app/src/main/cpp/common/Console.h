@@ -95,6 +95,17 @@ namespace Log
 	// Returns the current global filtering level.
 	LOGLEVEL GetMaxLevel();
 
+	// Moves sink output (console, debug, file, host) to a low-priority writer thread. Each logging
+	// thread gets its own lock-free queue, so writing a message never blocks on I/O; if a queue is
+	// full the message is dropped and counted instead. Consecutive identical messages are collapsed
+	// into a single "repeated N times" line. Messages logged by a thread after its queue has been torn
+	// down (from a thread_local destructor) are written synchronously, after the thread's earlier ones.
+	bool IsAsyncOutputEnabled();
+	void SetAsyncOutputEnabled(bool enabled);
+
+	// Blocks until every message queued so far has been written. No-op when async output is off.
+	void FlushAsyncOutput();
+
 	// writes a message to the log
 	void Write(LOGLEVEL level, ConsoleColors color, std::string_view message);
 	void Writef(LOGLEVEL level, ConsoleColors color, const char* format, ...);
@@ -1296,6 +1296,18 @@ s64 FileSystem::FSize64(std::FILE* fp)
 	return -1;
 }
 
+bool FileSystem::FTruncate64(std::FILE* fp, s64 size)
+{
+	if (std::fflush(fp) != 0)
+		return false;
+
+#ifdef _WIN32
+	return (_chsize_s(_fileno(fp), size) == 0);
+#else
+	return (ftruncate(fileno(fp), static_cast<off_t>(size)) == 0);
+#endif
+}
+
 s64 FileSystem::GetPathFileSize(const char* Path)
 {
 	FILESYSTEM_STAT_DATA sd;
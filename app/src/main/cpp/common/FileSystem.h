@@ -119,6 +119,8 @@ namespace FileSystem
 	int FSeek64(std::FILE* fp, s64 offset, int whence);
 	s64 FTell64(std::FILE* fp);
 	s64 FSize64(std::FILE* fp);
+	/// Cuts the file off at the given size. Needed when rewriting a content URI, which opens without truncating.
+	bool FTruncate64(std::FILE* fp, s64 size);
 
     int OpenFDFileContent(const char* filename);
     int OpenFDFileContentWithMode(const char* filename, const char* mode);
@@ -0,0 +1,97 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "common/FrameLimiter.h"
+#include "common/HostSys.h"
+#include "common/Threading.h"
+
+#include <algorithm>
+
+// Starting guess for the wakeup overshoot, and the range it's kept within. Most kernels wake
+// timers within 50-100us, but a sleep which got preempted can be off by several milliseconds,
+// and that shouldn't make every following frame spin for that long.
+static constexpr u64 INITIAL_OVERSHOOT_US = 100;
+static constexpr u64 MIN_OVERSHOOT_US = 10;
+static constexpr u64 MAX_OVERSHOOT_US = 2000;
+
+// Extra time to wake early by, covering the variation between wakeups.
+static constexpr u64 SPIN_MARGIN_US = 20;
+
+static u64 MicrosecondsToTicks(u64 us)
+{
+	return (GetTickFrequency() * us) / 1000000;
+}
+
+Common::FrameLimiter::FrameLimiter()
+	: m_min_overshoot(MicrosecondsToTicks(MIN_OVERSHOOT_US))
+	, m_max_overshoot(MicrosecondsToTicks(MAX_OVERSHOOT_US))
+	, m_spin_margin(MicrosecondsToTicks(SPIN_MARGIN_US))
+{
+	Reset();
+}
+
+void Common::FrameLimiter::Reset()
+{
+	m_overshoot = MicrosecondsToTicks(INITIAL_OVERSHOOT_US);
+}
+
+Common::FrameLimiter::WaitResult Common::FrameLimiter::WaitUntil(u64 deadline, Mode mode)
+{
+	return (mode == Mode::PreciseSleep) ? WaitPreciseSleep(deadline) : WaitSpin(deadline);
+}
+
+Common::FrameLimiter::WaitResult Common::FrameLimiter::WaitSpin(u64 deadline)
+{
+	u64 now = GetCPUTicks();
+	if (now >= deadline)
+		return {now - deadline, 0};
+
+	// Conversion of the remaining time to milliseconds.
+	const s32 msec = static_cast<s32>(((deadline - now) * 1000) / GetTickFrequency());
+
+	// If any integer value of milliseconds exists, sleep it off.
+	if (msec > 1)
+		Threading::Sleep(msec - 1);
+
+	// Conversion to milliseconds loses some precision; after sleeping off whole milliseconds,
+	// spin the thread without sleeping until we finally reach our expected end time.
+	const u64 spin_start = GetCPUTicks();
+	while ((now = GetCPUTicks()) < deadline)
+	{
+	}
+
+	return {now - deadline, now - std::min(spin_start, now)};
+}
+
+Common::FrameLimiter::WaitResult Common::FrameLimiter::WaitPreciseSleep(u64 deadline)
+{
+	u64 now = GetCPUTicks();
+	if (now >= deadline)
+		return {now - deadline, 0};
+
+	// Only sleep if there's enough time left to wake up before the deadline.
+	const u64 wake_early = m_overshoot + m_spin_margin;
+	if ((deadline - now) > wake_early)
+	{
+		const u64 wake_time = deadline - wake_early;
+		Threading::SleepUntil(wake_time);
+		now = GetCPUTicks();
+
+		// Rise quickly when wakeups get later, so we stop overshooting the deadline, but decay
+		// slowly, so one lucky wakeup doesn't bring back a miss on the next frame.
+		const u64 overshoot = std::clamp(now - std::min(wake_time, now), m_min_overshoot, m_max_overshoot);
+		if (overshoot > m_overshoot)
+			m_overshoot += (overshoot - m_overshoot + 1) / 2;
+		else
+			m_overshoot -= (m_overshoot - overshoot) / 32;
+	}
+
+	const u64 spin_start = now;
+	while (now < deadline)
+	{
+		Threading::SpinWait();
+		now = GetCPUTicks();
+	}
+
+	return {now - deadline, now - spin_start};
+}
@@ -0,0 +1,56 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#pragma once
+
+#include "common/Pcsx2Defs.h"
+
+namespace Common
+{
+	/// Waits for absolute deadlines, measured in GetCPUTicks() units.
+	///
+	/// Spin mode sleeps off whole milliseconds and then busy-waits for the remainder, which is
+	/// accurate but keeps a core busy for up to a millisecond per wait.
+	///
+	/// PreciseSleep mode sleeps until shortly before the deadline with an absolute-deadline timer,
+	/// then spins only for the tail. How early to wake is learned from how late the OS has been
+	/// waking the thread up, so the tail is as short as the platform allows.
+	class FrameLimiter
+	{
+	public:
+		enum class Mode : u8
+		{
+			Spin,
+			PreciseSleep,
+		};
+
+		struct WaitResult
+		{
+			/// How far past the deadline the wait returned, never negative.
+			u64 lateness;
+
+			/// Time spent busy-waiting, rather than sleeping.
+			u64 spin;
+		};
+
+		FrameLimiter();
+
+		/// Forgets the learned wakeup overshoot.
+		void Reset();
+
+		/// Blocks until the deadline. Returns immediately if it has already passed.
+		WaitResult WaitUntil(u64 deadline, Mode mode);
+
+		/// Current estimate of how late sleeps return, in ticks.
+		u64 GetWakeupOvershoot() const { return m_overshoot; }
+
+	private:
+		WaitResult WaitSpin(u64 deadline);
+		WaitResult WaitPreciseSleep(u64 deadline);
+
+		u64 m_overshoot;
+		u64 m_min_overshoot;
+		u64 m_max_overshoot;
+		u64 m_spin_margin;
+	};
+} // namespace Common
@@ -20,9 +20,11 @@
 #include <unistd.h>
 #if !defined(__ANDROID__)
 #include <dbus/dbus.h>
+#if defined(X11_API)
 #include <X11/Xlib.h>
 #include <X11/extensions/XInput2.h>
 #endif
+#endif
 
 #include <cstdlib>
 #include <cstring>
@@ -229,6 +231,7 @@ bool Common::InhibitScreensaver(bool inhibit)
 
 void Common::SetMousePosition(int x, int y)
 {
+#if defined(X11_API)
 	Display* display = XOpenDisplay(nullptr);
 	if (!display)
 		return;
@@ -238,8 +241,10 @@ void Common::SetMousePosition(int x, int y)
 	XFlush(display);
 
 	XCloseDisplay(display);
+#endif
 }
 
+#if defined(X11_API)
 static std::function<void(int, int)> fnMouseMoveCb;
 static std::atomic<bool> trackingMouse = false;
 static std::thread mouseThread;
@@ -308,9 +313,11 @@ void mouseEventLoop()
 
 	XCloseDisplay(display);
 }
+#endif
 
 bool Common::AttachMousePositionCb(std::function<void(int, int)> cb)
 {
+#if defined(X11_API)
 	fnMouseMoveCb = cb;
 
 	if (trackingMouse)
@@ -320,16 +327,21 @@ bool Common::AttachMousePositionCb(std::function<void(int, int)> cb)
 	mouseThread = std::thread(mouseEventLoop);
 	mouseThread.detach();
 	return true;
+#else
+	return false;
+#endif
 }
 
 void Common::DetachMousePositionCb()
 {
+#if defined(X11_API)
 	trackingMouse = false;
 	fnMouseMoveCb = nullptr;
 	if (mouseThread.joinable())
 	{
 		mouseThread.join();
 	}
+#endif
 }
 
 bool Common::PlaySoundAsync(const char* path)
@@ -0,0 +1,143 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "SHA1Digest.h"
+#include <cstring>
+
+// based on the public domain implementation by Steve Reid, as described in FIPS 180-1.
+
+static inline u32 Rol(u32 value, u32 bits)
+{
+  return (value << bits) | (value >> (32 - bits));
+}
+
+static inline u32 LoadBE32(const u8* p)
+{
+  return (static_cast<u32>(p[0]) << 24) | (static_cast<u32>(p[1]) << 16) | (static_cast<u32>(p[2]) << 8) |
+         static_cast<u32>(p[3]);
+}
+
+/* Hash a single 64-byte block. */
+static void SHA1Transform(u32 state[5], const u8 buffer[64])
+{
+  u32 w[80];
+  for (u32 i = 0; i < 16; i++)
+    w[i] = LoadBE32(buffer + i * 4);
+  for (u32 i = 16; i < 80; i++)
+    w[i] = Rol(w[i - 3] ^ w[i - 8] ^ w[i - 14] ^ w[i - 16], 1);
+
+  u32 a = state[0];
+  u32 b = state[1];
+  u32 c = state[2];
+  u32 d = state[3];
+  u32 e = state[4];
+
+  for (u32 i = 0; i < 80; i++)
+  {
+    u32 f, k;
+    if (i < 20)
+    {
+      f = d ^ (b & (c ^ d));
+      k = 0x5A827999;
+    }
+    else if (i < 40)
+    {
+      f = b ^ c ^ d;
+      k = 0x6ED9EBA1;
+    }
+    else if (i < 60)
+    {
+      f = (b & c) | (d & (b | c));
+      k = 0x8F1BBCDC;
+    }
+    else
+    {
+      f = b ^ c ^ d;
+      k = 0xCA62C1D6;
+    }
+
+    const u32 temp = Rol(a, 5) + f + e + k + w[i];
+    e = d;
+    d = c;
+    c = Rol(b, 30);
+    b = a;
+    a = temp;
+  }
+
+  state[0] += a;
+  state[1] += b;
+  state[2] += c;
+  state[3] += d;
+  state[4] += e;
+}
+
+SHA1Digest::SHA1Digest()
+{
+  Reset();
+}
+
+void SHA1Digest::Reset()
+{
+  state[0] = 0x67452301;
+  state[1] = 0xEFCDAB89;
+  state[2] = 0x98BADCFE;
+  state[3] = 0x10325476;
+  state[4] = 0xC3D2E1F0;
+  count = 0;
+
+  std::memset(buffer, 0, sizeof(buffer));
+}
+
+void SHA1Digest::Update(const void* pData, u32 cbData)
+{
+  const u8* pByteData = reinterpret_cast<const u8*>(pData);
+  u32 used = static_cast<u32>(count & 63);
+  count += cbData;
+
+  /* Finish off a partial block first */
+  if (used)
+  {
+    const u32 fill = 64 - used;
+    if (cbData < fill)
+    {
+      std::memcpy(buffer + used, pByteData, cbData);
+      return;
+    }
+    std::memcpy(buffer + used, pByteData, fill);
+    SHA1Transform(state, buffer);
+    pByteData += fill;
+    cbData -= fill;
+  }
+
+  /* Whole blocks straight from the input */
+  while (cbData >= 64)
+  {
+    SHA1Transform(state, pByteData);
+    pByteData += 64;
+    cbData -= 64;
+  }
+
+  std::memcpy(buffer, pByteData, cbData);
+}
+
+void SHA1Digest::Final(u8 Digest[DIGEST_SIZE])
+{
+  const u64 bits = count << 3;
+  u32 used = static_cast<u32>(count & 63);
+
+  /* Pad with a 1 bit, then zeros up to 56 mod 64, then the length in bits */
+  buffer[used++] = 0x80;
+  if (used > 56)
+  {
+    std::memset(buffer + used, 0, 64 - used);
+    SHA1Transform(state, buffer);
+    used = 0;
+  }
+  std::memset(buffer + used, 0, 56 - used);
+  for (u32 i = 0; i < 8; i++)
+    buffer[56 + i] = static_cast<u8>(bits >> (56 - i * 8));
+  SHA1Transform(state, buffer);
+
+  for (u32 i = 0; i < DIGEST_SIZE; i++)
+    Digest[i] = static_cast<u8>(state[i / 4] >> (24 - (i % 4) * 8));
+}
@@ -0,0 +1,268 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "common/Trace.h"
+#include "common/Console.h"
+#include "common/Error.h"
+#include "common/FileSystem.h"
+#include "common/Timer.h"
+
+#include "fmt/format.h"
+
+#include <algorithm>
+#include <memory>
+#include <mutex>
+#include <string>
+#include <vector>
+
+#ifdef __linux__
+#include <sys/prctl.h>
+#include <sys/syscall.h>
+#include <unistd.h>
+#endif
+
+namespace Trace
+{
+	namespace
+	{
+		struct Event
+		{
+			const char* category;
+			const char* name;
+			Common::Timer::Value timestamp;
+			char phase;
+		};
+
+		// 1MB per thread, which is several seconds of activity on the busiest threads.
+		static constexpr u64 BUFFER_SIZE = 32768;
+		static constexpr u64 BUFFER_MASK = BUFFER_SIZE - 1;
+
+		struct ThreadBuffer
+		{
+			std::unique_ptr<Event[]> events = std::make_unique<Event[]>(BUFFER_SIZE);
+
+			// Total number of events ever written; only the owning thread stores to this.
+			std::atomic<u64> head{0};
+
+			// Value of head when the current trace was started. Only touched under s_buffers_mutex.
+			u64 start = 0;
+
+			u64 thread_id = 0;
+			std::string thread_name;
+
+			// Cleared when the owning thread exits, the buffer is released on the next Start().
+			std::atomic_bool alive{true};
+		};
+
+		struct ThreadBufferOwner
+		{
+			ThreadBuffer* buffer = nullptr;
+
+			~ThreadBufferOwner()
+			{
+				if (buffer)
+					buffer->alive.store(false, std::memory_order_release);
+			}
+		};
+	} // namespace
+
+	static ThreadBuffer* RegisterThread();
+	static void Record(char phase, const char* category, const char* name);
+	static void AppendEscaped(fmt::memory_buffer& buf, const char* str);
+
+	static std::mutex s_buffers_mutex;
+	static std::vector<std::unique_ptr<ThreadBuffer>> s_buffers;
+	static Common::Timer::Value s_start_time = 0;
+	static u64 s_next_thread_id = 1;
+
+	static thread_local ThreadBufferOwner s_thread_buffer;
+} // namespace Trace
+
+std::atomic_bool Trace::Internal::s_enabled{false};
+
+Trace::ThreadBuffer* Trace::RegisterThread()
+{
+	std::unique_ptr<ThreadBuffer> buffer = std::make_unique<ThreadBuffer>();
+
+#ifdef __linux__
+	char name[17] = {};
+	prctl(PR_GET_NAME, name, 0, 0, 0);
+	buffer->thread_name = name;
+	buffer->thread_id = static_cast<u64>(syscall(SYS_gettid));
+#endif
+
+	std::unique_lock lock(s_buffers_mutex);
+	if (buffer->thread_id == 0)
+		buffer->thread_id = s_next_thread_id++;
+	if (buffer->thread_name.empty())
+		buffer->thread_name = fmt::format("Thread {}", buffer->thread_id);
+
+	ThreadBuffer* ret = buffer.get();
+	s_buffers.push_back(std::move(buffer));
+	return ret;
+}
+
+__fi void Trace::Record(char phase, const char* category, const char* name)
+{
+	ThreadBuffer* buffer = s_thread_buffer.buffer;
+	if (!buffer) [[unlikely]]
+		buffer = s_thread_buffer.buffer = RegisterThread();
+
+	const u64 pos = buffer->head.load(std::memory_order_relaxed);
+	Event& ev = buffer->events[pos & BUFFER_MASK];
+	ev.category = category;
+	ev.name = name;
+	ev.timestamp = Common::Timer::GetCurrentValue();
+	ev.phase = phase;
+	buffer->head.store(pos + 1, std::memory_order_release);
+}
+
+void Trace::Internal::Begin(const char* category, const char* name)
+{
+	Record('B', category, name);
+}
+
+void Trace::Internal::End(const char* category, const char* name)
+{
+	Record('E', category, name);
+}
+
+void Trace::Internal::Instant(const char* category, const char* name)
+{
+	Record('i', category, name);
+}
+
+void Trace::Start()
+{
+	std::unique_lock lock(s_buffers_mutex);
+
+	// Threads which have exited can't write any more, so their buffers can go.
+	s_buffers.erase(std::remove_if(s_buffers.begin(), s_buffers.end(),
+						[](const std::unique_ptr<ThreadBuffer>& buffer) {
+							return !buffer->alive.load(std::memory_order_acquire);
+						}),
+		s_buffers.end());
+
+	for (const std::unique_ptr<ThreadBuffer>& buffer : s_buffers)
+		buffer->start = buffer->head.load(std::memory_order_acquire);
+
+	s_start_time = Common::Timer::GetCurrentValue();
+	Internal::s_enabled.store(true, std::memory_order_release);
+	Console.WriteLn("Trace: Recording started.");
+}
+
+void Trace::Stop()
+{
+	if (Internal::s_enabled.exchange(false, std::memory_order_acq_rel))
+		Console.WriteLn("Trace: Recording stopped.");
+}
+
+void Trace::AppendEscaped(fmt::memory_buffer& buf, const char* str)
+{
+	for (; *str; str++)
+	{
+		const char ch = *str;
+		if (ch == '"' || ch == '\\')
+		{
+			buf.push_back('\\');
+			buf.push_back(ch);
+		}
+		else if (static_cast<unsigned char>(ch) < 0x20)
+		{
+			fmt::format_to(std::back_inserter(buf), "\\u{:04x}", static_cast<unsigned>(ch));
+		}
+		else
+		{
+			buf.push_back(ch);
+		}
+	}
+}
+
+bool Trace::DumpToFile(const char* path)
+{
+	Error error;
+	auto fp = FileSystem::OpenManagedCFile(path, "wb", &error);
+	if (!fp)
+	{
+		Console.ErrorFmt("Trace: Failed to open '{}': {}", path, error.GetDescription());
+		return false;
+	}
+
+	// Scopes which were already open keep writing their end events, which is handled below.
+	const bool was_enabled = Internal::s_enabled.exchange(false, std::memory_order_acq_rel);
+
+	std::unique_lock lock(s_buffers_mutex);
+
+	fmt::memory_buffer buf;
+	bool first_event = true;
+	u64 event_count = 0;
+	bool write_ok = true;
+
+	const auto flush = [&buf, &fp, &write_ok]() {
+		if (buf.size() > 0 && std::fwrite(buf.data(), buf.size(), 1, fp.get()) != 1)
+			write_ok = false;
+		buf.clear();
+	};
+
+	fmt::format_to(std::back_inserter(buf), "{{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+
+	std::vector<Event> events;
+	for (const std::unique_ptr<ThreadBuffer>& buffer : s_buffers)
+	{
+		const u64 head = buffer->head.load(std::memory_order_acquire);
+		const u64 first = std::max(buffer->start, (head > BUFFER_SIZE) ? (head - BUFFER_SIZE) : 0);
+		if (first >= head)
+			continue;
+
+		events.clear();
+		for (u64 i = first; i < head; i++)
+			events.push_back(buffer->events[i & BUFFER_MASK]);
+
+		// The owning thread may have written more events while we were copying. Anything which
+		// could have been overwritten by those (or by one still being written) is dropped.
+		const u64 head_after = buffer->head.load(std::memory_order_acquire) + 1;
+		const u64 valid_first = (head_after > BUFFER_SIZE) ? (head_after - BUFFER_SIZE) : 0;
+		const size_t skip = (valid_first > first) ? static_cast<size_t>(std::min(valid_first - first, head - first)) : 0;
+
+		fmt::format_to(std::back_inserter(buf),
+			"{}{{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":{},\"args\":{{\"name\":\"",
+			first_event ? "" : ",\n", buffer->thread_id);
+		AppendEscaped(buf, buffer->thread_name.c_str());
+		fmt::format_to(std::back_inserter(buf), "\"}}}}");
+		first_event = false;
+
+		for (size_t i = skip; i < events.size(); i++)
+		{
+			const Event& ev = events[i];
+			const double ts = Common::Timer::ConvertValueToNanoseconds(ev.timestamp - s_start_time) / 1000.0;
+
+			buf.append(std::string_view(",\n{\"name\":\""));
+			AppendEscaped(buf, ev.name);
+			buf.append(std::string_view("\",\"cat\":\""));
+			AppendEscaped(buf, ev.category);
+			fmt::format_to(std::back_inserter(buf), "\",\"ph\":\"{}\",{}\"ts\":{:.3f},\"pid\":1,\"tid\":{}}}",
+				ev.phase, (ev.phase == 'i') ? "\"s\":\"t\"," : "", ts, buffer->thread_id);
+
+			if (buf.size() >= 64 * 1024)
+				flush();
+		}
+
+		event_count += events.size() - skip;
+	}
+
+	fmt::format_to(std::back_inserter(buf), "\n]}}\n");
+	flush();
+
+	lock.unlock();
+	if (was_enabled)
+		Internal::s_enabled.store(true, std::memory_order_release);
+
+	if (!write_ok || std::fflush(fp.get()) != 0)
+	{
+		Console.ErrorFmt("Trace: Failed to write '{}'.", path);
+		return false;
+	}
+
+	Console.WriteLnFmt("Trace: Wrote {} events to '{}'.", event_count, path);
+	return true;
+}
@@ -0,0 +1,86 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#pragma once
+
+#include "common/Pcsx2Defs.h"
+
+#include <atomic>
+
+/// Timeline tracing of emulator thread activity, exported as Chrome trace-event JSON
+/// (loadable in chrome://tracing or ui.perfetto.dev).
+///
+/// Every thread that records an event gets its own ring buffer. Only the first event on a
+/// thread takes a lock (to register the buffer), after that recording is lock-free. When
+/// tracing is disabled, a scope costs a single relaxed load and a branch that is always
+/// predicted not-taken.
+///
+/// Event and category names must be string literals (or otherwise outlive the trace), since
+/// only the pointer is recorded.
+namespace Trace
+{
+	namespace Internal
+	{
+		extern std::atomic_bool s_enabled;
+
+		void Begin(const char* category, const char* name);
+		void End(const char* category, const char* name);
+		void Instant(const char* category, const char* name);
+	} // namespace Internal
+
+	/// Returns true if events are currently being recorded.
+	__fi static bool IsEnabled() { return Internal::s_enabled.load(std::memory_order_relaxed); }
+
+	/// Discards any previously recorded events and starts recording.
+	void Start();
+
+	/// Stops recording. Recorded events are kept until the next Start().
+	void Stop();
+
+	/// Writes the events recorded since the last Start() to the specified file.
+	/// Recording is paused while the buffers are read, and resumed afterwards if it was enabled.
+	bool DumpToFile(const char* path);
+
+	/// Records a zero-duration event, e.g. a vsync tick.
+	__fi static void Instant(const char* category, const char* name)
+	{
+		if (IsEnabled()) [[unlikely]]
+			Internal::Instant(category, name);
+	}
+
+	/// Records a begin event on construction and the matching end event on destruction.
+	/// The enabled state is latched so that toggling tracing mid-scope never produces an
+	/// unbalanced pair.
+	class Scope
+	{
+	public:
+		__fi Scope(const char* category, const char* name)
+			: m_category(category)
+			, m_name(name)
+			, m_active(IsEnabled())
+		{
+			if (m_active) [[unlikely]]
+				Internal::Begin(category, name);
+		}
+
+		__fi ~Scope()
+		{
+			if (m_active) [[unlikely]]
+				Internal::End(m_category, m_name);
+		}
+
+		Scope(const Scope&) = delete;
+		Scope& operator=(const Scope&) = delete;
+
+	private:
+		const char* m_category;
+		const char* m_name;
+		bool m_active;
+	};
+} // namespace Trace
+
+#define TRACE_CONCAT_(a, b) a##b
+#define TRACE_CONCAT(a, b) TRACE_CONCAT_(a, b)
+
+/// Traces the enclosing scope as a begin/end pair.
+#define TRACE_SCOPE(category, name) Trace::Scope TRACE_CONCAT(trace_scope_, __LINE__)(category, name)
@@ -1,6 +1,7 @@
 #include <jni.h>
 #include <android/native_window_jni.h>
 #include <android/log.h>
+#include <fcntl.h>
 #include <unistd.h>
 #include "PrecompiledHeader.h"
 #include "AchievementsJNI.h"
@@ -11,38 +12,53 @@
 #include "pcsx2/GS.h"
 #include "pcsx2/VMManager.h"
 #include "CDVD/CDVD.h"
+#include "CDVD/DiscImageConverter.h"
+#include "CDVD/IsoHasher.h"
 #include "PerformanceMetrics.h"
 #include "GameList.h"
 #include "GS/GSPerfMon.h"
 #include "GSDumpReplayer.h"
 #include "ImGui/ImGuiManager.h"
 #include "common/Path.h"
+#include "common/ProgressCallback.h"
 #include "common/MemorySettingsInterface.h"
+#include "common/Timer.h"
+#include "common/Trace.h"
 #include "pcsx2/INISettingsInterface.h"
 #include "SIO/Pad/Pad.h"
 #include "Input/InputManager.h"
 #include "ImGui/ImGuiFullscreen.h"
 #include "Achievements.h"
 #include "Host.h"
+#include "Host/CPUThreadQueue.h"
 #include "ImGui/FullscreenUI.h"
 #include "SIO/Pad/PadDualshock2.h"
 #include "MTGS.h"
 #include "SDL3/SDL.h"
 #include <algorithm>
+#include <atomic>
+#include <cstddef>
 #include <future>
+#include <mutex>
+#include <thread>
 #ifdef __ANDROID__
 #include "SDL3/SDL.h"
 #endif
 
 
-bool s_execute_exit;
 int s_window_width = 0;
 int s_window_height = 0;
 ANativeWindow* s_window = nullptr;
 
 static MemorySettingsInterface s_settings_interface;
+// Temporary changes which take precedence over per-game settings, e.g. the thermal governor's. Never saved,
+// and cleared whenever a game boots.
+static MemorySettingsInterface s_override_settings_interface;
 static int s_pending_renderer = -1; // -1 = none; else 12=OpenGL,13=SW,14=Vulkan
 
+static bool ApplySettingsChanges(bool renderer_changed = false,
+    std::function<void(ConfigChangeFlags changes, double ms)> on_applied = {});
+
 // Fallback JNI access for content:// when SDL's Android env is not yet ready
 // (no JNI fallback)
 
@@ -152,6 +168,7 @@ Java_com_izzy2lost_psx2_NativeApp_setHudVisible(JNIEnv* env, jclass clazz, jbool
     si.SetBoolValue("EmuCore/GS", "OsdShowHardwareInfo", visible);
     si.SetBoolValue("EmuCore/GS", "OsdShowVideoCapture", visible);
     si.SetBoolValue("EmuCore/GS", "OsdShowInputRec", visible);
+    si.SetBoolValue("EmuCore/GS", "OsdShowThreadStalls", visible);
 
     // Apply changes to the running VM/renderer if active
     VMManager::ApplySettings();
@@ -182,6 +199,8 @@ Java_com_izzy2lost_psx2_NativeApp_initialize(JNIEnv *env, jclass clazz,
     EmuFolders::SetResourcesDirectory();
 
     Log::SetConsoleOutputLevel(LOGLEVEL_DEBUG);
+    // Keep logcat writes off the EE/GS threads.
+    Log::SetAsyncOutputEnabled(true);
     ImGuiManager::SetFontPathAndRange(Path::Combine(EmuFolders::Resources, "fonts" FS_OSPATH_SEPARATOR_STR "Roboto-Regular.ttf"), {});
 
     bool _SettingsIsEmpty = s_settings_interface.IsEmpty();
@@ -189,6 +208,10 @@ Java_com_izzy2lost_psx2_NativeApp_initialize(JNIEnv *env, jclass clazz,
         // don't provide an ini path, or bother loading. we'll store everything in memory.
         MemorySettingsInterface &si = s_settings_interface;
         Host::Internal::SetBaseSettingsLayer(&si);
+        {
+            auto lock = Host::GetSettingsLock();
+            Host::Internal::SetOverrideSettingsLayer(&s_override_settings_interface, lock);
+        }
 
         // Initialize emulator folders and ensure they exist (including GameSettings)
         EmuFolders::SetDefaults(si);
@@ -219,6 +242,8 @@ Java_com_izzy2lost_psx2_NativeApp_initialize(JNIEnv *env, jclass clazz,
         si.SetBoolValue("Logging", "EnableSystemConsole", true);
         si.SetBoolValue("Logging", "EnableTimestamps", true);
         si.SetBoolValue("Logging", "EnableVerbose", true);
+        // Logcat is the console here, emulog.txt is opt-in.
+        si.SetBoolValue("Logging", "EnableFileLogging", false);
 
         // Default to a clean screen: hide HUD/OSD overlays by default
         si.SetBoolValue("EmuCore/GS", "OsdShowSpeed", false);
@@ -236,6 +261,7 @@ Java_com_izzy2lost_psx2_NativeApp_initialize(JNIEnv *env, jclass clazz,
         si.SetBoolValue("EmuCore/GS", "OsdShowHardwareInfo", false);
         si.SetBoolValue("EmuCore/GS", "OsdShowVideoCapture", false);
         si.SetBoolValue("EmuCore/GS", "OsdShowInputRec", false);
+        si.SetBoolValue("EmuCore/GS", "OsdShowThreadStalls", false);
 
 //        // remove memory cards, so we don't have sharing violations
 //        for (u32 i = 0; i < 2; i++)
@@ -361,6 +387,155 @@ Java_com_izzy2lost_psx2_NativeApp_getGameCrc(JNIEnv* env, jclass, jstring p_uri)
     return env->NewStringUTF(crc_hex.c_str());
 }
 
+// Disc image jobs (conversion, verification) run one at a time on the calling thread, and are cancelled from any other.
+static std::mutex s_disc_job_mutex;
+static std::atomic_bool s_disc_job_cancelled{false};
+
+// Forwards a disc image job's progress to its DiscImageJobListener, on the thread running the job.
+class DiscJobProgressCallback final : public BaseProgressCallback
+{
+public:
+    DiscJobProgressCallback(JNIEnv* env, jobject listener)
+        : m_env(env)
+        , m_listener(listener)
+    {
+        if (listener)
+        {
+            jclass cls = env->GetObjectClass(listener);
+            m_on_progress = env->GetMethodID(cls, "onProgress", "(Ljava/lang/String;JJ)V");
+            env->DeleteLocalRef(cls);
+            if (env->ExceptionCheck())
+                env->ExceptionClear();
+        }
+    }
+
+    bool IsCancelled() const override { return s_disc_job_cancelled.load(std::memory_order_relaxed); }
+
+    void SetTitle(const char* title) override {}
+
+    void SetProgressValue(u32 value) override
+    {
+        BaseProgressCallback::SetProgressValue(value);
+        Report(m_status_text.c_str(), static_cast<s64>(m_progress_value) * _1mb, static_cast<s64>(m_progress_range) * _1mb);
+    }
+
+    void Report(const char* status, s64 done, s64 total)
+    {
+        if (!m_on_progress)
+            return;
+
+        jstring j_status = m_env->NewStringUTF(status);
+        m_env->CallVoidMethod(m_listener, m_on_progress, j_status, static_cast<jlong>(done), static_cast<jlong>(total));
+        m_env->DeleteLocalRef(j_status);
+        if (m_env->ExceptionCheck())
+            m_env->ExceptionClear();
+    }
+
+    void DisplayError(const char* message) override { ERROR_LOG("{}", message); }
+    void DisplayWarning(const char* message) override { WARNING_LOG("{}", message); }
+    void DisplayInformation(const char* message) override { INFO_LOG("{}", message); }
+    void DisplayDebugMessage(const char* message) override { DEV_LOG("{}", message); }
+    void ModalError(const char* message) override { ERROR_LOG("{}", message); }
+    bool ModalConfirmation(const char* message) override { return true; }
+    void ModalInformation(const char* message) override { INFO_LOG("{}", message); }
+
+private:
+    JNIEnv* m_env;
+    jobject m_listener;
+    jmethodID m_on_progress = nullptr;
+};
+
+extern "C"
+JNIEXPORT jstring JNICALL
+Java_com_izzy2lost_psx2_NativeApp_nativeConvertDiscImage(JNIEnv* env, jclass, jstring p_src, jstring p_dst, jint p_format,
+                                                         jobject p_listener)
+{
+    if (!p_src || !p_dst)
+        return env->NewStringUTF("No source or destination.");
+
+    std::unique_lock lock(s_disc_job_mutex, std::try_to_lock);
+    if (!lock.owns_lock())
+        return env->NewStringUTF("Another disc image job is running.");
+    s_disc_job_cancelled.store(false, std::memory_order_relaxed);
+
+    const std::string src = GetJavaString(env, p_src);
+    const std::string dst = GetJavaString(env, p_dst);
+    const DiscImageConverter::Format format = (p_format == 1) ? DiscImageConverter::Format::ZSO : DiscImageConverter::Format::CSO;
+
+    DiscJobProgressCallback progress(env, p_listener);
+    DiscImageConverter::Stats stats = {};
+    Error error;
+    if (!DiscImageConverter::Convert(src, dst, format, &progress, &stats, &error))
+        return env->NewStringUTF(error.GetDescription().c_str());
+
+    const double seconds = std::max(stats.compress_seconds, 0.001);
+    progress.Report(fmt::format("{} MB to {} MB, {:.1f} MB/s", stats.input_bytes / _1mb, stats.output_bytes / _1mb,
+                        static_cast<double>(stats.input_bytes - stats.resumed_bytes) / _1mb / seconds).c_str(),
+        static_cast<s64>(stats.input_bytes), static_cast<s64>(stats.input_bytes));
+    return nullptr;
+}
+
+extern "C"
+JNIEXPORT jstring JNICALL
+Java_com_izzy2lost_psx2_NativeApp_nativeVerifyDiscImage(JNIEnv* env, jclass, jstring p_uri, jobject p_listener)
+{
+    if (!p_uri)
+        return env->NewStringUTF("No image.");
+
+    std::unique_lock lock(s_disc_job_mutex, std::try_to_lock);
+    if (!lock.owns_lock())
+        return env->NewStringUTF("Another disc image job is running.");
+    s_disc_job_cancelled.store(false, std::memory_order_relaxed);
+
+    IsoHasher hasher;
+    Error error;
+    if (!hasher.Open(GetJavaString(env, p_uri), &error))
+        return env->NewStringUTF(error.GetDescription().c_str());
+
+    DiscJobProgressCallback progress(env, p_listener);
+    hasher.ComputeHashes(&progress);
+    if (!hasher.HasAllHashes())
+        return env->NewStringUTF(progress.IsCancelled() ? "Verification was cancelled." : "Failed to read the image.");
+
+    jmethodID on_track_hashed = nullptr;
+    if (p_listener)
+    {
+        jclass cls = env->GetObjectClass(p_listener);
+        on_track_hashed = env->GetMethodID(cls, "onTrackHashed",
+            "(ILjava/lang/String;JLjava/lang/String;Ljava/lang/String;Ljava/lang/String;)V");
+        env->DeleteLocalRef(cls);
+        if (env->ExceptionCheck())
+            env->ExceptionClear();
+    }
+    if (on_track_hashed)
+    {
+        for (const IsoHasher::Track& track : hasher.GetTracks())
+        {
+            jstring j_type = env->NewStringUTF(std::string(IsoHasher::GetTrackTypeString(track.type)).c_str());
+            jstring j_md5 = env->NewStringUTF(track.hash.c_str());
+            jstring j_sha1 = env->NewStringUTF(track.sha1.c_str());
+            jstring j_crc32 = env->NewStringUTF(fmt::format("{:08x}", track.crc32).c_str());
+            env->CallVoidMethod(p_listener, on_track_hashed, static_cast<jint>(track.number), j_type,
+                static_cast<jlong>(track.size), j_md5, j_sha1, j_crc32);
+            env->DeleteLocalRef(j_type);
+            env->DeleteLocalRef(j_md5);
+            env->DeleteLocalRef(j_sha1);
+            env->DeleteLocalRef(j_crc32);
+            if (env->ExceptionCheck())
+                env->ExceptionClear();
+        }
+    }
+
+    return nullptr;
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_izzy2lost_psx2_NativeApp_cancelDiscImageJob(JNIEnv*, jclass)
+{
+    s_disc_job_cancelled.store(true, std::memory_order_relaxed);
+}
+
 
 extern "C"
 JNIEXPORT void JNICALL
@@ -452,12 +627,43 @@ extern "C"
 JNIEXPORT void JNICALL
 Java_com_izzy2lost_psx2_NativeApp_speedhackEecyclerate(JNIEnv *env, jclass clazz,
                                                           jint p_value) {
+    p_value = std::clamp<jint>(p_value, Pcsx2Config::SpeedhackOptions::MIN_EE_CYCLE_RATE,
+                               Pcsx2Config::SpeedhackOptions::MAX_EE_CYCLE_RATE);
+    s_settings_interface.SetIntValue("EmuCore/Speedhacks", "EECycleRate", p_value);
+
+    if (VMManager::HasValidVM()) {
+        VMManager::ApplySettings();
+    }
 }
 
 extern "C"
 JNIEXPORT void JNICALL
 Java_com_izzy2lost_psx2_NativeApp_speedhackEecycleskip(JNIEnv *env, jclass clazz,
                                                           jint p_value) {
+    p_value = std::clamp<jint>(p_value, 0, Pcsx2Config::SpeedhackOptions::MAX_EE_CYCLE_SKIP);
+    s_settings_interface.SetIntValue("EmuCore/Speedhacks", "EECycleSkip", p_value);
+
+    if (VMManager::HasValidVM()) {
+        VMManager::ApplySettings();
+    }
+}
+
+extern "C"
+JNIEXPORT jfloatArray JNICALL
+Java_com_izzy2lost_psx2_NativeApp_getPerformanceKnobs(JNIEnv *env, jclass clazz) {
+    // Effective values, including any per-game overrides:
+    // upscale multiplier, blending accuracy, EE cycle rate, EE cycle skip.
+    const jfloat values[4] = {
+        EmuConfig.GS.UpscaleMultiplier,
+        static_cast<jfloat>(static_cast<int>(EmuConfig.GS.AccurateBlendingUnit)),
+        static_cast<jfloat>(EmuConfig.Speedhacks.EECycleRate),
+        static_cast<jfloat>(EmuConfig.Speedhacks.EECycleSkip),
+    };
+
+    jfloatArray result = env->NewFloatArray(4);
+    if (result)
+        env->SetFloatArrayRegion(result, 0, 4, values);
+    return result;
 }
 
 extern "C"
@@ -803,6 +1009,7 @@ Java_com_izzy2lost_psx2_NativeApp_applyGlobalSettingsBatch(JNIEnv* env, jclass,
     // Update in-memory settings layer
     // Renderer may be -1 (Auto) or 12/13/14; store and set into EmuConfig for immediate effect
     s_settings_interface.SetIntValue("EmuCore/GS", "Renderer", (int)renderer);
+    const bool renderer_changed = (EmuConfig.GS.Renderer != static_cast<GSRendererType>(renderer));
     EmuConfig.GS.Renderer = static_cast<GSRendererType>(renderer);
 
     s_settings_interface.SetFloatValue("EmuCore/GS", "upscale_multiplier", upscaleMultiplier);
@@ -838,12 +1045,11 @@ Java_com_izzy2lost_psx2_NativeApp_applyGlobalSettingsBatch(JNIEnv* env, jclass,
     s_settings_interface.SetBoolValue("EmuCore/GS", "OsdShowHardwareInfo", hv);
     s_settings_interface.SetBoolValue("EmuCore/GS", "OsdShowVideoCapture", hv);
     s_settings_interface.SetBoolValue("EmuCore/GS", "OsdShowInputRec", hv);
+    s_settings_interface.SetBoolValue("EmuCore/GS", "OsdShowThreadStalls", hv);
 
-    // Apply once
-    if (VMManager::HasValidVM())
-        VMManager::ApplySettings();
-    if (MTGS::IsOpen())
-        MTGS::ApplySettings();
+    // Apply once. The renderer was written to EmuConfig directly above, so the
+    // config diff can't see it; push it to the GS explicitly.
+    ApplySettingsChanges(renderer_changed);
 }
 
 // Apply per-game settings quickly without touching global-only fields
@@ -864,6 +1070,7 @@ Java_com_izzy2lost_psx2_NativeApp_applyPerGameSettingsBatch(JNIEnv* env, jclass,
 
     // Renderer (allow -1/12/13/14)
     s_settings_interface.SetIntValue("EmuCore/GS", "Renderer", (int)renderer);
+    const bool renderer_changed = (EmuConfig.GS.Renderer != static_cast<GSRendererType>(renderer));
     EmuConfig.GS.Renderer = static_cast<GSRendererType>(renderer);
 
     // Core per-game options
@@ -875,11 +1082,269 @@ Java_com_izzy2lost_psx2_NativeApp_applyPerGameSettingsBatch(JNIEnv* env, jclass,
     s_settings_interface.SetBoolValue("EmuCore", "EnablePatches", (enablePatches == JNI_TRUE));
     s_settings_interface.SetBoolValue("EmuCore", "EnableCheats", (enableCheats == JNI_TRUE));
 
-    // Apply once
-    if (VMManager::HasValidVM())
-        VMManager::ApplySettings();
-    if (MTGS::IsOpen())
-        MTGS::ApplySettings();
+    // Apply once. The renderer was written to EmuConfig directly above, so the
+    // config diff can't see it; push it to the GS explicitly.
+    ApplySettingsChanges(renderer_changed);
+}
+
+// Settings transactions: the UI stages any number of typed key/value puts and commits
+// them together. Puts that match the current value are dropped, and the rest are applied
+// with a single ApplySettings() on the CPU thread, which only reconfigures the subsystems
+// whose options actually changed.
+struct PendingSetting
+{
+    enum class Type : u8
+    {
+        Bool,
+        Int,
+        Float,
+        String,
+    };
+
+    std::string section;
+    std::string key;
+    Type type;
+    bool bool_value = false;
+    s32 int_value = 0;
+    float float_value = 0.0f;
+    std::string string_value;
+};
+
+static std::mutex s_settings_transaction_mutex;
+static std::vector<PendingSetting> s_settings_transaction;
+static bool s_settings_transaction_override = false;
+
+// Keys currently held by the override layer, so that a commit can drop the ones it no longer sets.
+// Guarded by the settings lock.
+static std::vector<std::pair<std::string, std::string>> s_override_keys;
+
+// Writes one staged setting to a layer, returns false if it was already set to that value.
+static bool StoreSettingIfChanged(MemorySettingsInterface& si, const PendingSetting& ps)
+{
+    const char* section = ps.section.c_str();
+    const char* key = ps.key.c_str();
+    switch (ps.type)
+    {
+        case PendingSetting::Type::Bool:
+        {
+            bool cur;
+            if (si.GetBoolValue(section, key, &cur) && cur == ps.bool_value)
+                return false;
+            si.SetBoolValue(section, key, ps.bool_value);
+            return true;
+        }
+        case PendingSetting::Type::Int:
+        {
+            s32 cur;
+            if (si.GetIntValue(section, key, &cur) && cur == ps.int_value)
+                return false;
+            si.SetIntValue(section, key, ps.int_value);
+            return true;
+        }
+        case PendingSetting::Type::Float:
+        {
+            float cur;
+            if (si.GetFloatValue(section, key, &cur) && cur == ps.float_value)
+                return false;
+            si.SetFloatValue(section, key, ps.float_value);
+            return true;
+        }
+        case PendingSetting::Type::String:
+        default:
+        {
+            std::string cur;
+            if (si.GetStringValue(section, key, &cur) && cur == ps.string_value)
+                return false;
+            si.SetStringValue(section, key, ps.string_value.c_str());
+            return true;
+        }
+    }
+}
+
+static std::string DescribeConfigChanges(ConfigChangeFlags changes)
+{
+    static constexpr std::pair<ConfigChangeFlags, const char*> names[] = {
+        {ConfigChangeFlags::CPU, "CPU"},
+        {ConfigChangeFlags::GS, "GS"},
+        {ConfigChangeFlags::EmulationSpeed, "EmulationSpeed"},
+        {ConfigChangeFlags::Patches, "Patches"},
+        {ConfigChangeFlags::SPU2, "SPU2"},
+        {ConfigChangeFlags::DEV9, "DEV9"},
+        {ConfigChangeFlags::MemoryCards, "MemoryCards"},
+        {ConfigChangeFlags::USB, "USB"},
+        {ConfigChangeFlags::Achievements, "Achievements"},
+    };
+
+    std::string ret;
+    for (const auto& [flag, name] : names)
+    {
+        if (!(changes & flag))
+            continue;
+        if (!ret.empty())
+            ret += ",";
+        ret += name;
+    }
+    return ret.empty() ? std::string("none") : ret;
+}
+
+// Queues a reload of EmuConfig from the settings layers on the CPU thread. This is called from the UI
+// thread, which mustn't wait behind a frame or a renderer restart, so what was reconfigured is handed
+// to on_applied, on the CPU thread, once it gets to it. Returns false when nothing is running, the new
+// values are then picked up at boot and on_applied is never called.
+static bool ApplySettingsChanges(bool renderer_changed, std::function<void(ConfigChangeFlags changes, double ms)> on_applied)
+{
+    if (!VMManager::HasValidVM() && !MTGS::IsOpen())
+        return false;
+
+    Host::RunOnCPUThread([renderer_changed, on_applied = std::move(on_applied)]() {
+        Common::Timer timer;
+        const ConfigChangeFlags changes = VMManager::ApplySettings();
+        if (renderer_changed && MTGS::IsOpen())
+            MTGS::ApplySettings();
+        const double ms = timer.GetTimeMilliseconds();
+        Console.WriteLn("Settings applied, reconfigured: %s (%.2f ms)", DescribeConfigChanges(changes).c_str(), ms);
+        if (on_applied)
+            on_applied(changes, ms);
+    });
+    return true;
+}
+
+// Hands a committed transaction's report to its SettingsCommitListener, and drops the global reference
+// the commit took on it. Called on whichever thread finished the commit.
+static void ReportSettingsCommit(jobject listener, const std::string& report)
+{
+    if (!listener)
+        return;
+
+    auto* env = static_cast<JNIEnv*>(SDL_GetAndroidJNIEnv());
+    if (!env)
+        return;
+
+    jclass cls = env->GetObjectClass(listener);
+    jmethodID on_applied = env->GetMethodID(cls, "onSettingsApplied", "(Ljava/lang/String;)V");
+    env->DeleteLocalRef(cls);
+    if (on_applied)
+    {
+        jstring j_report = env->NewStringUTF(report.c_str());
+        env->CallVoidMethod(listener, on_applied, j_report);
+        env->DeleteLocalRef(j_report);
+    }
+    if (env->ExceptionCheck())
+        env->ExceptionClear();
+    env->DeleteGlobalRef(listener);
+}
+
+static void StageSetting(PendingSetting ps)
+{
+    std::unique_lock lock(s_settings_transaction_mutex);
+    s_settings_transaction.push_back(std::move(ps));
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_izzy2lost_psx2_NativeApp_beginSettingsTransaction(JNIEnv*, jclass)
+{
+    std::unique_lock lock(s_settings_transaction_mutex);
+    s_settings_transaction.clear();
+    s_settings_transaction_override = false;
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_izzy2lost_psx2_NativeApp_beginSettingsOverrideTransaction(JNIEnv*, jclass)
+{
+    std::unique_lock lock(s_settings_transaction_mutex);
+    s_settings_transaction.clear();
+    s_settings_transaction_override = true;
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_izzy2lost_psx2_NativeApp_settingsTransactionPutBool(JNIEnv* env, jclass, jstring p_section, jstring p_key, jboolean p_value)
+{
+    PendingSetting ps{GetJavaString(env, p_section), GetJavaString(env, p_key), PendingSetting::Type::Bool};
+    ps.bool_value = (p_value == JNI_TRUE);
+    StageSetting(std::move(ps));
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_izzy2lost_psx2_NativeApp_settingsTransactionPutInt(JNIEnv* env, jclass, jstring p_section, jstring p_key, jint p_value)
+{
+    PendingSetting ps{GetJavaString(env, p_section), GetJavaString(env, p_key), PendingSetting::Type::Int};
+    ps.int_value = static_cast<s32>(p_value);
+    StageSetting(std::move(ps));
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_izzy2lost_psx2_NativeApp_settingsTransactionPutFloat(JNIEnv* env, jclass, jstring p_section, jstring p_key, jfloat p_value)
+{
+    PendingSetting ps{GetJavaString(env, p_section), GetJavaString(env, p_key), PendingSetting::Type::Float};
+    ps.float_value = static_cast<float>(p_value);
+    StageSetting(std::move(ps));
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_izzy2lost_psx2_NativeApp_settingsTransactionPutString(JNIEnv* env, jclass, jstring p_section, jstring p_key, jstring p_value)
+{
+    PendingSetting ps{GetJavaString(env, p_section), GetJavaString(env, p_key), PendingSetting::Type::String};
+    ps.string_value = GetJavaString(env, p_value);
+    StageSetting(std::move(ps));
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_izzy2lost_psx2_NativeApp_commitSettingsTransaction(JNIEnv* env, jclass, jobject p_listener)
+{
+    std::vector<PendingSetting> pending;
+    bool is_override;
+    {
+        std::unique_lock lock(s_settings_transaction_mutex);
+        pending.swap(s_settings_transaction);
+        is_override = std::exchange(s_settings_transaction_override, false);
+    }
+
+    u32 changed_keys = 0;
+    {
+        auto lock = Host::GetSettingsLock();
+        if (is_override)
+        {
+            // Overrides are replaced as a whole, anything not staged again falls back to the layers below.
+            for (const auto& [section, key] : s_override_keys)
+            {
+                if (std::none_of(pending.begin(), pending.end(),
+                        [&section, &key](const PendingSetting& ps) { return ps.section == section && ps.key == key; }))
+                {
+                    s_override_settings_interface.DeleteValue(section.c_str(), key.c_str());
+                    changed_keys++;
+                }
+            }
+            s_override_keys.clear();
+            for (const PendingSetting& ps : pending)
+                s_override_keys.emplace_back(ps.section, ps.key);
+        }
+
+        MemorySettingsInterface& si = is_override ? s_override_settings_interface : s_settings_interface;
+        for (const PendingSetting& ps : pending)
+            changed_keys += StoreSettingIfChanged(si, ps) ? 1 : 0;
+    }
+
+    const std::string keys = StringUtil::StdStringFromFormat("%u/%zu keys changed", changed_keys, pending.size());
+    jobject listener = p_listener ? env->NewGlobalRef(p_listener) : nullptr;
+    if (changed_keys == 0)
+    {
+        ReportSettingsCommit(listener, keys + ", reconfigured: none");
+        return;
+    }
+
+    const bool queued = ApplySettingsChanges(false, [keys, listener](ConfigChangeFlags changes, double ms) {
+        ReportSettingsCommit(listener, StringUtil::StdStringFromFormat("%s, reconfigured: %s (%.2f ms)", keys.c_str(),
+            DescribeConfigChanges(changes).c_str(), ms));
+    });
+    if (!queued)
+        ReportSettingsCommit(listener, keys + ", applied at boot");
 }
 
 extern "C"
@@ -1011,23 +1476,80 @@ void Host::OnGameChanged(const std::string& title, const std::string& elf_overri
                          const std::string& disc_serial, u32 disc_crc, u32 current_crc) {
 }
 
+// Only a pause from Running or a resume from Paused is applied, so a late command can't undo a stop
+// or repeat the pause side effects (OSD, audio, vibration).
+static CPUThreadQueue s_cpu_thread_queue([](bool paused) {
+    const VMState state = VMManager::GetState();
+    if (paused ? (state == VMState::Running) : (state == VMState::Paused))
+        VMManager::SetPaused(paused);
+});
+
 void Host::PumpMessagesOnCPUThread() {
+    s_cpu_thread_queue.Drain();
 }
 
-int FileSystem::OpenFDFileContent(const char* filename)
+void Host::RunOnCPUThread(std::function<void()> function, bool block /* = false */)
+{
+    s_cpu_thread_queue.Run(std::move(function), block);
+}
+
+// Opens a Storage Access Framework document through NativeApp.openContentUriMode(), which hands
+// back a detached descriptor that the caller owns. Readers use it with pread()/mmap(), so the
+// descriptor's file offset is never shared state.
+static int OpenContentUriFD(const char* uri, const char* mode)
 {
     auto *env = static_cast<JNIEnv *>(SDL_GetAndroidJNIEnv());
-    if(env == nullptr) {
+    if (env == nullptr) {
+        return -1;
+    }
+
+    // Looked up once; FindClass() can fail on threads which were attached without the app's class loader.
+    static std::mutex s_lookup_mutex;
+    static jclass s_native_app = nullptr;
+    static jmethodID s_open_content_uri_mode = nullptr;
+    {
+        std::unique_lock lock(s_lookup_mutex);
+        if (!s_open_content_uri_mode) {
+            jclass local = env->FindClass("com/izzy2lost/psx2/NativeApp");
+            if (local) {
+                s_native_app = static_cast<jclass>(env->NewGlobalRef(local));
+                env->DeleteLocalRef(local);
+                s_open_content_uri_mode = env->GetStaticMethodID(s_native_app, "openContentUriMode",
+                                                                 "(Ljava/lang/String;Ljava/lang/String;)I");
+            }
+            if (env->ExceptionCheck()) {
+                env->ExceptionClear();
+                return -1;
+            }
+            if (!s_open_content_uri_mode) {
+                return -1;
+            }
+        }
+    }
+
+    jstring j_uri = env->NewStringUTF(uri);
+    jstring j_mode = env->NewStringUTF(mode);
+    int fd = env->CallStaticIntMethod(s_native_app, s_open_content_uri_mode, j_uri, j_mode);
+    env->DeleteLocalRef(j_mode);
+    env->DeleteLocalRef(j_uri);
+    if (env->ExceptionCheck()) {
+        env->ExceptionClear();
         return -1;
     }
-    jclass NativeApp = env->FindClass("com/izzy2lost/psx2/NativeApp");
-    jmethodID openContentUri = env->GetStaticMethodID(NativeApp, "openContentUri", "(Ljava/lang/String;)I");
 
-    jstring j_filename = env->NewStringUTF(filename);
-    int fd = env->CallStaticIntMethod(NativeApp, openContentUri, j_filename);
+    // Binder hands the descriptor over without close-on-exec.
+    if (fd >= 0) {
+        fcntl(fd, F_SETFD, fcntl(fd, F_GETFD) | FD_CLOEXEC);
+    }
+
     return fd;
 }
 
+int FileSystem::OpenFDFileContent(const char* filename)
+{
+    return OpenContentUriFD(filename, "r");
+}
+
 #ifdef __ANDROID__
 // Helpers callable from core for SAF bridging
 static jclass GetNativeAppClass(JNIEnv* env)
@@ -1132,16 +1654,7 @@ std::vector<std::string> SafListFilesFlatJNI(const char* relative_dir)
 
 int FileSystem::OpenFDFileContentWithMode(const char* filename, const char* mode)
 {
-    auto *env = static_cast<JNIEnv *>(SDL_GetAndroidJNIEnv());
-    if(env == nullptr) {
-        return -1;
-    }
-    jclass NativeApp = env->FindClass("com/izzy2lost/psx2/NativeApp");
-    jmethodID openContentUriMode = env->GetStaticMethodID(NativeApp, "openContentUriMode", "(Ljava/lang/String;Ljava/lang/String;)I");
-    jstring j_filename = env->NewStringUTF(filename);
-    jstring j_mode = env->NewStringUTF(mode);
-    int fd = env->CallStaticIntMethod(NativeApp, openContentUriMode, j_filename, j_mode);
-    return fd;
+    return OpenContentUriFD(filename, mode);
 }
 
 std::string ResolveSafChildUriJNI(const char* subdir, const char* filename, bool create)
@@ -1170,8 +1683,6 @@ Java_com_izzy2lost_psx2_NativeApp_runVMThread(JNIEnv *env, jclass clazz,
 
     /////////////////////////////
 
-    s_execute_exit = false;
-
 //    const char* error;
 //    if (!VMManager::PerformEarlyHardwareChecks(&error)) {
 //        return false;
@@ -1194,15 +1705,26 @@ Java_com_izzy2lost_psx2_NativeApp_runVMThread(JNIEnv *env, jclass clazz,
     // Apply per-game settings (if any) before applying core settings
     ApplyPerGameSettingsForPath(_szPath);
 
+    // Overrides were made for whatever ran before.
+    {
+        auto lock = Host::GetSettingsLock();
+        s_override_settings_interface.Clear();
+        s_override_keys.clear();
+    }
+
     // Ensure VM is properly shut down before initializing
     if (VMManager::HasValidVM()) {
         Console.Warning("VM still running from previous session, shutting down...");
         VMManager::Shutdown(false);
     }
 
+    // This is the CPU thread from here on, commands sent while booting wait for the loop below.
+    s_cpu_thread_queue.Attach();
+
     if (!VMManager::Internal::CPUThreadInitialize()) {
         Console.Error("CPUThreadInitialize failed");
         VMManager::Internal::CPUThreadShutdown();
+        s_cpu_thread_queue.Detach();
         return false;
     }
 
@@ -1223,15 +1745,17 @@ Java_com_izzy2lost_psx2_NativeApp_runVMThread(JNIEnv *env, jclass clazz,
         VMManager::SetState(_vmState);
         ////
         while (true) {
+            s_cpu_thread_queue.Drain();
+
             _vmState = VMManager::GetState();
             if (_vmState == VMState::Stopping || _vmState == VMState::Shutdown) {
                 break;
             } else if (_vmState == VMState::Running) {
-                s_execute_exit = false;
                 VMManager::Execute();
-                s_execute_exit = true;
             } else {
-                usleep(250000);
+                // Paused: sleep until a command arrives. The timeout only covers state
+                // changes made without going through the queue.
+                s_cpu_thread_queue.WaitForCommand(std::chrono::milliseconds(100));
             }
         }
         ////
@@ -1240,40 +1764,52 @@ Java_com_izzy2lost_psx2_NativeApp_runVMThread(JNIEnv *env, jclass clazz,
     ////
     VMManager::Internal::CPUThreadShutdown();
 
+    // Only now, with the VM gone, stop taking commands. Anything queued meanwhile (boot, shutdown)
+    // runs here on this thread, so blocking callers return and nothing runs on the caller's thread.
+    s_cpu_thread_queue.Detach();
+
     return true;
 }
 
 extern "C"
 JNIEXPORT void JNICALL
 Java_com_izzy2lost_psx2_NativeApp_pause(JNIEnv *env, jclass clazz) {
-    std::thread([] {
-        VMManager::SetPaused(true);
-    }).detach();
+    s_cpu_thread_queue.QueuePause(true);
 }
 
 extern "C"
 JNIEXPORT void JNICALL
 Java_com_izzy2lost_psx2_NativeApp_resume(JNIEnv *env, jclass clazz) {
-    std::thread([] {
-        VMManager::SetPaused(false);
-    }).detach();
+    s_cpu_thread_queue.QueuePause(false);
 }
 
 extern "C"
 JNIEXPORT jboolean JNICALL
 Java_com_izzy2lost_psx2_NativeApp_isPaused(JNIEnv *env, jclass clazz) {
+    // Report the most recent request until the CPU thread has caught up with it,
+    // so toggles issued back-to-back see the state they asked for.
+    if (const std::optional<bool> requested = s_cpu_thread_queue.GetRequestedPause())
+        return requested.value() && VMManager::HasValidVM();
     return VMManager::GetState() == VMState::Paused;
 }
 
 extern "C"
 JNIEXPORT void JNICALL
 Java_com_izzy2lost_psx2_NativeApp_shutdown(JNIEnv *env, jclass clazz) {
-    std::thread([] {
-        VMManager::SetState(VMState::Stopping);
-    }).detach();
+    Host::RunOnCPUThread([] {
+        if (VMManager::HasValidVM())
+            VMManager::SetState(VMState::Stopping);
+    });
 }
 
 
+// Pauses the VM and waits for the CPU thread to apply it. The state is then saved or loaded by a
+// command queued behind the pause, on the CPU thread, so it never races the emulator.
+static bool PauseForSaveState()
+{
+    return s_cpu_thread_queue.QueuePause(true).wait_for(std::chrono::seconds(5)) == std::future_status::ready;
+}
+
 extern "C"
 JNIEXPORT jboolean JNICALL
 Java_com_izzy2lost_psx2_NativeApp_saveStateToSlot(JNIEnv *env, jclass clazz, jint p_slot) {
@@ -1283,24 +1819,12 @@ Java_com_izzy2lost_psx2_NativeApp_saveStateToSlot(JNIEnv *env, jclass clazz, jin
 
     std::future<bool> ret = std::async([p_slot]
     {
-       if(VMManager::GetDiscCRC() != 0) {
-           if(VMManager::GetState() != VMState::Paused) {
-               VMManager::SetPaused(true);
-           }
-
-           // wait 5 sec
-           for (int i = 0; i < 5; ++i) {
-               if (s_execute_exit) {
-                   if(VMManager::SaveStateToSlot(p_slot, false)) {
-                       return true;
-                   }
-                   break;
-               }
-               sleep(1);
-           }
-       }
-       return false;
+       if (VMManager::GetDiscCRC() == 0 || !PauseForSaveState())
+           return false;
 
+       bool saved = false;
+       Host::RunOnCPUThread([p_slot, &saved]() { saved = VMManager::SaveStateToSlot(p_slot, false); }, true);
+       return saved;
     });
 
     return ret.get();
@@ -1316,25 +1840,14 @@ Java_com_izzy2lost_psx2_NativeApp_loadStateFromSlot(JNIEnv *env, jclass clazz, j
     std::future<bool> ret = std::async([p_slot]
     {
        u32 _crc = VMManager::GetDiscCRC();
-       if(_crc != 0) {
-           if (VMManager::HasSaveStateInSlot(VMManager::GetDiscSerial().c_str(), _crc, p_slot)) {
-               if(VMManager::GetState() != VMState::Paused) {
-                   VMManager::SetPaused(true);
-               }
-
-               // wait 5 sec
-               for (int i = 0; i < 5; ++i) {
-                   if (s_execute_exit) {
-                       if(VMManager::LoadStateFromSlot(p_slot)) {
-                           return true;
-                       }
-                       break;
-                   }
-                   sleep(1);
-               }
-           }
+       if (_crc == 0 || !VMManager::HasSaveStateInSlot(VMManager::GetDiscSerial().c_str(), _crc, p_slot) ||
+           !PauseForSaveState()) {
+           return false;
        }
-       return false;
+
+       bool loaded = false;
+       Host::RunOnCPUThread([p_slot, &loaded]() { loaded = VMManager::LoadStateFromSlot(p_slot); }, true);
+       return loaded;
     });
 
     return ret.get();
@@ -1582,6 +2095,174 @@ void Host::OnPerformanceMetricsUpdated()
 {
 }
 
+// Performance metrics published to Java through a direct ByteBuffer.
+// The GS thread rewrites the block after every vsync. The sequence counter is a
+// seqlock: odd while a write is in progress, and a snapshot is only valid if the
+// counter was even and unchanged across the copy. Java can't fence its reads below
+// API 33, so it only polls the counter and takes snapshots with copyPerformanceMetrics().
+// Layout must stay in sync with PerformanceMetricsReader.java.
+static constexpr u32 METRICS_BLOCK_VERSION = 1;
+static constexpr u32 METRICS_MAX_GS_SW_THREADS = 32;
+
+struct alignas(8) MetricsBlock
+{
+    std::atomic<u32> sequence;
+    u32 version;
+    u64 frame_number;
+    float fps;
+    float internal_fps;
+    float speed;
+    float minimum_frame_time;
+    float average_frame_time;
+    float maximum_frame_time;
+    float cpu_thread_usage;
+    float cpu_thread_time;
+    float gs_thread_usage;
+    float gs_thread_time;
+    float vu_thread_usage;
+    float vu_thread_time;
+    float gpu_usage;
+    float gpu_time;
+    u32 internal_fps_method;
+    u32 gs_sw_thread_count;
+    float gs_sw_thread_usage[METRICS_MAX_GS_SW_THREADS];
+    float gs_sw_thread_time[METRICS_MAX_GS_SW_THREADS];
+    u32 frame_time_history_pos;
+    u32 frame_time_history_size;
+    float frame_time_history[PerformanceMetrics::NUM_FRAME_TIME_SAMPLES];
+};
+
+static_assert(std::atomic<u32>::is_always_lock_free);
+static_assert(offsetof(MetricsBlock, frame_number) == 8);
+static_assert(offsetof(MetricsBlock, internal_fps_method) == 72);
+static_assert(offsetof(MetricsBlock, gs_sw_thread_usage) == 80);
+static_assert(offsetof(MetricsBlock, frame_time_history_pos) == 336);
+static_assert(offsetof(MetricsBlock, frame_time_history) == 344);
+
+static MetricsBlock s_metrics_block = {{0}, METRICS_BLOCK_VERSION};
+
+void Host::OnPerformanceMetricsFrame()
+{
+    MetricsBlock& block = s_metrics_block;
+    const u32 sequence = block.sequence.load(std::memory_order_relaxed);
+    block.sequence.store(sequence + 1, std::memory_order_relaxed);
+    std::atomic_thread_fence(std::memory_order_release);
+
+    block.frame_number = PerformanceMetrics::GetFrameNumber();
+    block.fps = PerformanceMetrics::GetFPS();
+    block.internal_fps = PerformanceMetrics::GetInternalFPS();
+    block.speed = PerformanceMetrics::GetSpeed();
+    block.minimum_frame_time = PerformanceMetrics::GetMinimumFrameTime();
+    block.average_frame_time = PerformanceMetrics::GetAverageFrameTime();
+    block.maximum_frame_time = PerformanceMetrics::GetMaximumFrameTime();
+    block.cpu_thread_usage = static_cast<float>(PerformanceMetrics::GetCPUThreadUsage());
+    block.cpu_thread_time = static_cast<float>(PerformanceMetrics::GetCPUThreadAverageTime());
+    block.gs_thread_usage = PerformanceMetrics::GetGSThreadUsage();
+    block.gs_thread_time = PerformanceMetrics::GetGSThreadAverageTime();
+    block.vu_thread_usage = PerformanceMetrics::GetVUThreadUsage();
+    block.vu_thread_time = PerformanceMetrics::GetVUThreadAverageTime();
+    block.gpu_usage = PerformanceMetrics::GetGPUUsage();
+    block.gpu_time = PerformanceMetrics::GetGPUAverageTime();
+    block.internal_fps_method = static_cast<u32>(PerformanceMetrics::GetInternalFPSMethod());
+
+    const u32 sw_threads = std::min(PerformanceMetrics::GetGSSWThreadCount(), METRICS_MAX_GS_SW_THREADS);
+    block.gs_sw_thread_count = sw_threads;
+    for (u32 i = 0; i < sw_threads; i++)
+    {
+        block.gs_sw_thread_usage[i] = static_cast<float>(PerformanceMetrics::GetGSSWThreadUsage(i));
+        block.gs_sw_thread_time[i] = static_cast<float>(PerformanceMetrics::GetGSSWThreadAverageTime(i));
+    }
+
+    const PerformanceMetrics::FrameTimeHistory& history = PerformanceMetrics::GetFrameTimeHistory();
+    block.frame_time_history_pos = PerformanceMetrics::GetFrameTimeHistoryPos();
+    block.frame_time_history_size = static_cast<u32>(history.size());
+    std::copy(history.begin(), history.end(), block.frame_time_history);
+
+    block.sequence.store(sequence + 2, std::memory_order_release);
+}
+
+extern "C"
+JNIEXPORT jobject JNICALL
+Java_com_izzy2lost_psx2_NativeApp_getPerformanceMetricsBuffer(JNIEnv *env, jclass clazz) {
+    // The block has static storage, so the buffer stays valid for the lifetime of the process.
+    return env->NewDirectByteBuffer(&s_metrics_block, sizeof(s_metrics_block));
+}
+
+extern "C"
+JNIEXPORT jboolean JNICALL
+Java_com_izzy2lost_psx2_NativeApp_copyPerformanceMetrics(JNIEnv *env, jclass clazz, jobject p_dst) {
+    void* dst = env->GetDirectBufferAddress(p_dst);
+    if (!dst || env->GetDirectBufferCapacity(p_dst) < static_cast<jlong>(sizeof(MetricsBlock)))
+        return false;
+
+    // Writes in progress are short, a handful of retries is plenty.
+    for (u32 attempt = 0; attempt < 4; attempt++)
+    {
+        const u32 start = s_metrics_block.sequence.load(std::memory_order_acquire);
+        if (start & 1)
+        {
+            std::this_thread::yield();
+            continue;
+        }
+
+        std::memcpy(dst, reinterpret_cast<const u8*>(&s_metrics_block), sizeof(MetricsBlock));
+
+        // Keeps the copy above from being reordered past the second read of the counter.
+        std::atomic_thread_fence(std::memory_order_acquire);
+        if (s_metrics_block.sequence.load(std::memory_order_relaxed) == start)
+            return true;
+    }
+
+    return false;
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_izzy2lost_psx2_NativeApp_setThreadPlacementEnabled(JNIEnv *env, jclass clazz, jboolean p_enabled) {
+    // Pins EE/VU/GS to the fastest cluster and the GS-SW workers to the next one, and keeps the disc I/O
+    // threads off both. The UI and audio threads are left to the OS.
+    s_settings_interface.SetBoolValue("EmuCore", "EnableThreadPinning", p_enabled);
+
+    if (VMManager::HasValidVM()) {
+        VMManager::ApplySettings();
+    }
+}
+
+extern "C"
+JNIEXPORT jstring JNICALL
+Java_com_izzy2lost_psx2_NativeApp_getThreadPlacementReport(JNIEnv *env, jclass clazz) {
+    return env->NewStringUTF(VMManager::GetThreadPlacementReport().c_str());
+}
+
+extern "C"
+JNIEXPORT void JNICALL
+Java_com_izzy2lost_psx2_NativeApp_setTracingEnabled(JNIEnv *env, jclass clazz, jboolean p_enabled) {
+    if (p_enabled)
+        Trace::Start();
+    else
+        Trace::Stop();
+}
+
+extern "C"
+JNIEXPORT jstring JNICALL
+Java_com_izzy2lost_psx2_NativeApp_dumpTrace(JNIEnv *env, jclass clazz) {
+    const std::string dir = Path::Combine(EmuFolders::DataRoot, "traces");
+    if (!FileSystem::EnsureDirectoryExists(dir.c_str(), false))
+        return nullptr;
+
+    const time_t cur_time = time(nullptr);
+    char local_time[16];
+    if (!strftime(local_time, sizeof(local_time), "%Y%m%d%H%M%S", localtime(&cur_time)))
+        return nullptr;
+
+    // Load the result in chrome://tracing or ui.perfetto.dev.
+    const std::string path = Path::Combine(dir, fmt::format("trace-{}.json", local_time));
+    if (!Trace::DumpToFile(path.c_str()))
+        return nullptr;
+
+    return env->NewStringUTF(path.c_str());
+}
+
 void Host::OnSaveStateLoading(const std::string_view filename)
 {
 }
@@ -1594,11 +2275,6 @@ void Host::OnSaveStateSaved(const std::string_view filename)
 {
 }
 
-void Host::RunOnCPUThread(std::function<void()> function, bool block /* = false */)
-{
-    pxFailRel("Not implemented");
-}
-
 void Host::RefreshGameListAsync(bool invalidate_cache)
 {
 }
@@ -0,0 +1,843 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+// Headless benchmark runner. Replays a GS dump (or boots an ELF) with no window,
+// no audio and no frame limiter, then writes a JSON report built from
+// PerformanceMetrics and GSPerfMon so core performance can be tracked on a desktop
+// machine without a phone or a physical GPU.
+
+#include <algorithm>
+#include <atomic>
+#include <cmath>
+#include <cstdio>
+#include <cstdlib>
+#include <cstring>
+#include <functional>
+#include <mutex>
+#include <string>
+#include <vector>
+
+#include "fmt/format.h"
+
+#include "rapidjson/prettywriter.h"
+#include "rapidjson/stringbuffer.h"
+
+#include "common/Console.h"
+#include "common/FileSystem.h"
+#include "common/MemorySettingsInterface.h"
+#include "common/Path.h"
+#include "common/ProgressCallback.h"
+#include "common/SmallString.h"
+#include "common/StringUtil.h"
+#include "common/Timer.h"
+#include "common/WindowInfo.h"
+
+#include "pcsx2/Achievements.h"
+#include "pcsx2/Config.h"
+#include "pcsx2/GS.h"
+#include "pcsx2/GS/GSPerfMon.h"
+#include "pcsx2/GSDumpReplayer.h"
+#include "pcsx2/Host/CPUThreadQueue.h"
+#include "pcsx2/Host.h"
+#include "pcsx2/ImGui/FullscreenUI.h"
+#include "pcsx2/ImGui/ImGuiFullscreen.h"
+#include "pcsx2/ImGui/ImGuiManager.h"
+#include "pcsx2/Input/InputManager.h"
+#include "pcsx2/PerformanceMetrics.h"
+#include "pcsx2/SIO/Pad/Pad.h"
+#include "pcsx2/VMManager.h"
+
+namespace GSRunner
+{
+	static bool InitializeConfig();
+	static bool ParseCommandLineArgs(int argc, char* argv[], VMBootParameters& params);
+	static void PrintCommandLineHelp(const char* progname);
+	static std::string BuildReport(const VMBootParameters& params, double wall_time);
+} // namespace GSRunner
+
+static constexpr u32 WINDOW_WIDTH = 640;
+static constexpr u32 WINDOW_HEIGHT = 448;
+
+static MemorySettingsInterface s_settings_interface;
+
+static std::string s_report_path;
+static GSRendererType s_renderer = GSRendererType::Null;
+static s32 s_loop_count = 1;
+static u32 s_frame_limit = 0;
+static bool s_verbose = false;
+
+static CPUThreadQueue s_cpu_thread_queue([](bool paused) { VMManager::SetPaused(paused); });
+static std::atomic_bool s_stop_requested{false};
+
+// Owned by the GS thread, read by the CPU thread once the VM has shut down.
+static std::vector<float> s_frame_times;
+static u32 s_last_history_pos = 0;
+static u64 s_vsync_count = 0;
+
+static u64 s_usage_samples = 0;
+static double s_cpu_thread_usage_sum = 0.0;
+static double s_gs_thread_usage_sum = 0.0;
+static double s_vu_thread_usage_sum = 0.0;
+static double s_gpu_usage_sum = 0.0;
+static std::vector<double> s_gs_sw_thread_usage_sum;
+
+static double s_last_internal_draws = 0;
+static double s_last_draws = 0;
+static double s_last_render_passes = 0;
+static double s_last_barriers = 0;
+static double s_last_copies = 0;
+static double s_last_uploads = 0;
+static double s_last_readbacks = 0;
+static u64 s_total_internal_draws = 0;
+static u64 s_total_draws = 0;
+static u64 s_total_render_passes = 0;
+static u64 s_total_barriers = 0;
+static u64 s_total_copies = 0;
+static u64 s_total_uploads = 0;
+static u64 s_total_readbacks = 0;
+static u32 s_total_frames = 0;
+static u32 s_total_drawn_frames = 0;
+
+bool GSRunner::InitializeConfig()
+{
+	EmuFolders::SetAppRoot();
+	if (!EmuFolders::SetResourcesDirectory() || !EmuFolders::SetDataDirectory(nullptr))
+		return false;
+
+	const char* error;
+	if (!VMManager::PerformEarlyHardwareChecks(&error))
+	{
+		Console.Error(error);
+		return false;
+	}
+
+	ImGuiManager::SetFontPathAndRange(Path::Combine(EmuFolders::Resources, "fonts" FS_OSPATH_SEPARATOR_STR "Roboto-Regular.ttf"), {});
+
+	// don't provide an ini path, or bother loading. we'll store everything in memory.
+	MemorySettingsInterface& si = s_settings_interface;
+	Host::Internal::SetBaseSettingsLayer(&si);
+
+	VMManager::SetDefaultSettings(si, true, true, true, true, true);
+
+	// complete as quickly as possible
+	si.SetBoolValue("EmuCore/GS", "FrameLimitEnable", false);
+	si.SetIntValue("EmuCore/GS", "VsyncEnable", false);
+
+	// ensure all input sources are disabled, we're not using them
+	si.SetBoolValue("InputSources", "SDL", false);
+	si.SetBoolValue("InputSources", "XInput", false);
+
+	// we don't need any sound output
+	si.SetStringValue("SPU2/Output", "Backend", "Null");
+
+	// none of the bindings are going to resolve to anything
+	Pad::ClearPortBindings(si, 0);
+	si.ClearSection("Hotkeys");
+
+	// overlays would only add noise to the measurements
+	si.SetBoolValue("EmuCore/GS", "OsdShowFPS", false);
+	si.SetBoolValue("EmuCore/GS", "OsdShowSpeed", false);
+	si.SetBoolValue("EmuCore/GS", "OsdShowGSStats", false);
+
+	si.SetBoolValue("Logging", "EnableSystemConsole", true);
+	si.SetBoolValue("Logging", "EnableTimestamps", true);
+	si.SetBoolValue("Logging", "EnableVerbose", s_verbose);
+
+	// remove memory cards, so we don't have sharing violations
+	for (u32 i = 0; i < 2; i++)
+	{
+		si.SetBoolValue("MemoryCards", fmt::format("Slot{}_Enable", i + 1).c_str(), false);
+		si.SetStringValue("MemoryCards", fmt::format("Slot{}_Filename", i + 1).c_str(), "");
+	}
+
+	si.SetBoolValue("Achievements", "Enabled", false);
+
+	VMManager::Internal::LoadStartupSettings();
+	return true;
+}
+
+void GSRunner::PrintCommandLineHelp(const char* progname)
+{
+	std::fprintf(stderr, "Usage: %s [parameters] [--] <dump or elf file>\n", progname);
+	std::fprintf(stderr, "\n");
+	std::fprintf(stderr, "  -help: Displays this information and exits.\n");
+	std::fprintf(stderr, "  -renderer <null|sw|vulkan|opengl>: Renderer to use (default null).\n");
+	std::fprintf(stderr, "  -frames <count>: Stops after this many frames have been presented.\n");
+	std::fprintf(stderr, "  -loop <count>: Number of times to replay a GS dump (default 1).\n");
+	std::fprintf(stderr, "  -swthreads <count>: Number of extra software renderer threads.\n");
+	std::fprintf(stderr, "  -bios <dir>: Directory containing the BIOS, needed to boot ELF files.\n");
+	std::fprintf(stderr, "  -report <file>: Writes the JSON report to a file instead of stdout.\n");
+	std::fprintf(stderr, "  -verbose: Enables verbose logging.\n");
+	std::fprintf(stderr, "  --: Signals that no more arguments will follow and the remaining\n"
+						 "    parameters make up the filename.\n");
+	std::fprintf(stderr, "\n");
+}
+
+bool GSRunner::ParseCommandLineArgs(int argc, char* argv[], VMBootParameters& params)
+{
+	bool no_more_args = false;
+	for (int i = 1; i < argc; i++)
+	{
+		if (!no_more_args)
+		{
+#define CHECK_ARG(str) !std::strcmp(argv[i], str)
+#define CHECK_ARG_PARAM(str) (!std::strcmp(argv[i], str) && ((i + 1) < argc))
+
+			if (CHECK_ARG("-help"))
+			{
+				PrintCommandLineHelp(argv[0]);
+				return false;
+			}
+			else if (CHECK_ARG_PARAM("-renderer"))
+			{
+				const char* str = argv[++i];
+				if (StringUtil::Strcasecmp(str, "null") == 0)
+					s_renderer = GSRendererType::Null;
+				else if (StringUtil::Strcasecmp(str, "sw") == 0)
+					s_renderer = GSRendererType::SW;
+				else if (StringUtil::Strcasecmp(str, "vulkan") == 0)
+					s_renderer = GSRendererType::VK;
+				else if (StringUtil::Strcasecmp(str, "opengl") == 0)
+					s_renderer = GSRendererType::OGL;
+				else
+				{
+					Console.Error("Unknown renderer '%s'", str);
+					return false;
+				}
+				continue;
+			}
+			else if (CHECK_ARG_PARAM("-frames"))
+			{
+				s_frame_limit = StringUtil::FromChars<u32>(argv[++i]).value_or(0);
+				continue;
+			}
+			else if (CHECK_ARG_PARAM("-loop"))
+			{
+				s_loop_count = std::max(StringUtil::FromChars<s32>(argv[++i]).value_or(1), 1);
+				continue;
+			}
+			else if (CHECK_ARG_PARAM("-swthreads"))
+			{
+				const u32 threads = StringUtil::FromChars<u32>(argv[++i]).value_or(0);
+				s_settings_interface.SetIntValue("EmuCore/GS", "extrathreads", static_cast<int>(threads));
+				continue;
+			}
+			else if (CHECK_ARG_PARAM("-bios"))
+			{
+				s_settings_interface.SetStringValue("Folders", "Bios", argv[++i]);
+				EmuFolders::LoadConfig(s_settings_interface);
+				continue;
+			}
+			else if (CHECK_ARG_PARAM("-report"))
+			{
+				s_report_path = argv[++i];
+				continue;
+			}
+			else if (CHECK_ARG("-verbose"))
+			{
+				s_verbose = true;
+				s_settings_interface.SetBoolValue("Logging", "EnableVerbose", true);
+				continue;
+			}
+			else if (CHECK_ARG("--"))
+			{
+				no_more_args = true;
+				continue;
+			}
+			else if (argv[i][0] == '-')
+			{
+				Console.Error("Unknown parameter: '%s'", argv[i]);
+				return false;
+			}
+
+#undef CHECK_ARG
+#undef CHECK_ARG_PARAM
+		}
+
+		if (!params.filename.empty())
+			params.filename += ' ';
+		params.filename += argv[i];
+	}
+
+	if (params.filename.empty())
+	{
+		Console.Error("No dump or ELF file specified.");
+		PrintCommandLineHelp(argv[0]);
+		return false;
+	}
+
+	if (!FileSystem::FileExists(params.filename.c_str()))
+	{
+		Console.Error("File '%s' does not exist.", params.filename.c_str());
+		return false;
+	}
+
+	// set up the config for the chosen renderer
+	s_settings_interface.SetIntValue("EmuCore/GS", "Renderer", static_cast<int>(s_renderer));
+	params.fast_boot = true;
+	return true;
+}
+
+static const char* GetRendererName(GSRendererType renderer)
+{
+	switch (renderer)
+	{
+		case GSRendererType::Null:
+			return "null";
+		case GSRendererType::SW:
+			return "sw";
+		case GSRendererType::VK:
+			return "vulkan";
+		case GSRendererType::OGL:
+			return "opengl";
+		default:
+			return "unknown";
+	}
+}
+
+static float GetPercentile(const std::vector<float>& sorted, float percentile)
+{
+	if (sorted.empty())
+		return 0.0f;
+
+	const size_t index = static_cast<size_t>(std::ceil(percentile / 100.0f * static_cast<float>(sorted.size()))) - 1;
+	return sorted[std::min(index, sorted.size() - 1)];
+}
+
+std::string GSRunner::BuildReport(const VMBootParameters& params, double wall_time)
+{
+	std::atomic_thread_fence(std::memory_order_acquire);
+
+	std::vector<float> sorted(s_frame_times);
+	std::sort(sorted.begin(), sorted.end());
+
+	double frame_time_sum = 0.0;
+	for (const float ft : sorted)
+		frame_time_sum += ft;
+
+	const double usage_samples = static_cast<double>(std::max<u64>(s_usage_samples, 1));
+	const double drawn_frames = static_cast<double>(std::max<u32>(s_total_drawn_frames, 1));
+
+	rapidjson::StringBuffer buffer;
+	rapidjson::PrettyWriter<rapidjson::StringBuffer> writer(buffer);
+	writer.StartObject();
+
+	writer.Key("file");
+	writer.String(Path::GetFileName(params.filename).data(), static_cast<rapidjson::SizeType>(Path::GetFileName(params.filename).size()));
+	writer.Key("renderer");
+	writer.String(GetRendererName(s_renderer));
+	writer.Key("wall_time_ms");
+	writer.Double(wall_time * 1000.0);
+	writer.Key("frames");
+	writer.Uint64(s_vsync_count);
+	writer.Key("presented_frames");
+	writer.Uint64(s_frame_times.size());
+	writer.Key("fps");
+	writer.Double((wall_time > 0.0) ? (static_cast<double>(s_vsync_count) / wall_time) : 0.0);
+
+	writer.Key("frame_time_ms");
+	writer.StartObject();
+	writer.Key("min");
+	writer.Double(sorted.empty() ? 0.0 : sorted.front());
+	writer.Key("mean");
+	writer.Double(sorted.empty() ? 0.0 : (frame_time_sum / static_cast<double>(sorted.size())));
+	writer.Key("p50");
+	writer.Double(GetPercentile(sorted, 50.0f));
+	writer.Key("p90");
+	writer.Double(GetPercentile(sorted, 90.0f));
+	writer.Key("p95");
+	writer.Double(GetPercentile(sorted, 95.0f));
+	writer.Key("p99");
+	writer.Double(GetPercentile(sorted, 99.0f));
+	writer.Key("max");
+	writer.Double(sorted.empty() ? 0.0 : sorted.back());
+	writer.EndObject();
+
+	writer.Key("thread_usage_percent");
+	writer.StartObject();
+	writer.Key("cpu");
+	writer.Double(s_cpu_thread_usage_sum / usage_samples);
+	writer.Key("gs");
+	writer.Double(s_gs_thread_usage_sum / usage_samples);
+	writer.Key("vu");
+	writer.Double(s_vu_thread_usage_sum / usage_samples);
+	writer.Key("gpu");
+	writer.Double(s_gpu_usage_sum / usage_samples);
+	writer.Key("gs_sw");
+	writer.StartArray();
+	for (const double usage : s_gs_sw_thread_usage_sum)
+		writer.Double(usage / usage_samples);
+	writer.EndArray();
+	writer.EndObject();
+
+	writer.Key("gs_stats");
+	writer.StartObject();
+	writer.Key("frames");
+	writer.Uint(s_total_frames);
+	writer.Key("drawn_frames");
+	writer.Uint(s_total_drawn_frames);
+	writer.Key("internal_draws");
+	writer.Uint64(s_total_internal_draws);
+	writer.Key("draw_calls");
+	writer.Uint64(s_total_draws);
+	writer.Key("draw_calls_per_frame");
+	writer.Double(static_cast<double>(s_total_draws) / drawn_frames);
+	writer.Key("render_passes");
+	writer.Uint64(s_total_render_passes);
+	writer.Key("barriers");
+	writer.Uint64(s_total_barriers);
+	writer.Key("copies");
+	writer.Uint64(s_total_copies);
+	writer.Key("uploads");
+	writer.Uint64(s_total_uploads);
+	writer.Key("uploads_per_frame");
+	writer.Double(static_cast<double>(s_total_uploads) / drawn_frames);
+	writer.Key("readbacks");
+	writer.Uint64(s_total_readbacks);
+	writer.EndObject();
+
+	writer.EndObject();
+	return std::string(buffer.GetString(), buffer.GetSize());
+}
+
+std::optional<WindowInfo> Host::AcquireRenderWindow(bool recreate_window)
+{
+	// Surfaceless, nothing is ever shown on screen.
+	WindowInfo wi;
+	wi.type = WindowInfo::Type::Surfaceless;
+	wi.surface_width = WINDOW_WIDTH;
+	wi.surface_height = WINDOW_HEIGHT;
+	wi.surface_scale = 1.0f;
+	return wi;
+}
+
+void Host::ReleaseRenderWindow()
+{
+}
+
+void Host::BeginPresentFrame()
+{
+	if (GSIsHardwareRenderer())
+	{
+		const u64 last_draws = s_total_internal_draws;
+		const u64 last_uploads = s_total_uploads;
+
+		static constexpr auto update_stat = [](GSPerfMon::counter_t counter, u64& dst, double& last) {
+			// perfmon resets every 30 frames to zero
+			const double val = g_perfmon.GetCounter(counter);
+			dst += static_cast<u64>((val < last) ? val : (val - last));
+			last = val;
+		};
+
+		update_stat(GSPerfMon::Draw, s_total_internal_draws, s_last_internal_draws);
+		update_stat(GSPerfMon::DrawCalls, s_total_draws, s_last_draws);
+		update_stat(GSPerfMon::RenderPasses, s_total_render_passes, s_last_render_passes);
+		update_stat(GSPerfMon::Barriers, s_total_barriers, s_last_barriers);
+		update_stat(GSPerfMon::TextureCopies, s_total_copies, s_last_copies);
+		update_stat(GSPerfMon::TextureUploads, s_total_uploads, s_last_uploads);
+		update_stat(GSPerfMon::Readbacks, s_total_readbacks, s_last_readbacks);
+
+		const bool idle_frame = s_total_frames && (last_draws == s_total_internal_draws && last_uploads == s_total_uploads);
+		if (!idle_frame)
+			s_total_drawn_frames++;
+	}
+	else
+	{
+		s_total_drawn_frames++;
+	}
+
+	s_total_frames++;
+	std::atomic_thread_fence(std::memory_order_release);
+}
+
+void Host::OnGameChanged(const std::string& title, const std::string& elf_override, const std::string& disc_path,
+	const std::string& disc_serial, u32 disc_crc, u32 current_crc)
+{
+}
+
+void Host::PumpMessagesOnCPUThread()
+{
+	if (s_stop_requested.load(std::memory_order_acquire) && VMManager::GetState() == VMState::Running)
+		VMManager::SetState(VMState::Stopping);
+
+	s_cpu_thread_queue.Drain();
+}
+
+void Host::RunOnCPUThread(std::function<void()> function, bool block /* = false */)
+{
+	s_cpu_thread_queue.Run(std::move(function), block);
+}
+
+void Host::CommitBaseSettingChanges()
+{
+	// nothing to save, we're all in memory
+}
+
+void Host::LoadSettings(SettingsInterface& si, std::unique_lock<std::mutex>& lock)
+{
+}
+
+void Host::CheckForSettingsChanges(const Pcsx2Config& old_config)
+{
+}
+
+bool Host::RequestResetSettings(bool folders, bool core, bool controllers, bool hotkeys, bool ui)
+{
+	// not running any UI, so no settings requests will come in
+	return false;
+}
+
+void Host::SetDefaultUISettings(SettingsInterface& si)
+{
+	// nothing
+}
+
+std::unique_ptr<ProgressCallback> Host::CreateHostProgressCallback()
+{
+	return ProgressCallback::CreateNullProgressCallback();
+}
+
+void Host::ReportErrorAsync(const std::string_view title, const std::string_view message)
+{
+	if (!title.empty() && !message.empty())
+		ERROR_LOG("ReportErrorAsync: {}: {}", title, message);
+	else if (!message.empty())
+		ERROR_LOG("ReportErrorAsync: {}", message);
+}
+
+bool Host::ConfirmMessage(const std::string_view title, const std::string_view message)
+{
+	if (!title.empty() && !message.empty())
+		ERROR_LOG("ConfirmMessage: {}: {}", title, message);
+	else if (!message.empty())
+		ERROR_LOG("ConfirmMessage: {}", message);
+
+	return true;
+}
+
+void Host::OpenURL(const std::string_view url)
+{
+	// noop
+}
+
+bool Host::CopyTextToClipboard(const std::string_view text)
+{
+	return false;
+}
+
+void Host::BeginTextInput()
+{
+	// noop
+}
+
+void Host::EndTextInput()
+{
+	// noop
+}
+
+std::optional<WindowInfo> Host::GetTopLevelWindowInfo()
+{
+	return std::nullopt;
+}
+
+void Host::OnInputDeviceConnected(const std::string_view identifier, const std::string_view device_name)
+{
+}
+
+void Host::OnInputDeviceDisconnected(const InputBindingKey key, const std::string_view identifier)
+{
+}
+
+void Host::SetMouseMode(bool relative_mode, bool hide_cursor)
+{
+}
+
+void Host::RequestResizeHostDisplay(s32 width, s32 height)
+{
+}
+
+void Host::OnVMStarting()
+{
+}
+
+void Host::OnVMStarted()
+{
+	// Run as fast as possible; GS dumps read the target speed every vsync.
+	VMManager::SetLimiterMode(LimiterModeType::Unlimited);
+
+	if (GSDumpReplayer::IsReplayingDump())
+		GSDumpReplayer::SetLoopCount(s_loop_count);
+}
+
+void Host::OnVMDestroyed()
+{
+}
+
+void Host::OnVMPaused()
+{
+}
+
+void Host::OnVMResumed()
+{
+}
+
+void Host::OnPerformanceMetricsUpdated()
+{
+	// Called on the GS thread about twice a second, average the samples over the run.
+	s_usage_samples++;
+	s_cpu_thread_usage_sum += PerformanceMetrics::GetCPUThreadUsage();
+	s_gs_thread_usage_sum += PerformanceMetrics::GetGSThreadUsage();
+	s_vu_thread_usage_sum += PerformanceMetrics::GetVUThreadUsage();
+	s_gpu_usage_sum += PerformanceMetrics::GetGPUUsage();
+
+	const u32 sw_threads = PerformanceMetrics::GetGSSWThreadCount();
+	if (s_gs_sw_thread_usage_sum.size() < sw_threads)
+		s_gs_sw_thread_usage_sum.resize(sw_threads, 0.0);
+	for (u32 i = 0; i < sw_threads; i++)
+		s_gs_sw_thread_usage_sum[i] += PerformanceMetrics::GetGSSWThreadUsage(i);
+}
+
+void Host::OnPerformanceMetricsFrame()
+{
+	// The history only advances for presented frames, so skipped frames are not counted twice.
+	s_vsync_count++;
+
+	const u32 pos = PerformanceMetrics::GetFrameTimeHistoryPos();
+	if (pos != s_last_history_pos)
+	{
+		const u32 last = (pos + PerformanceMetrics::NUM_FRAME_TIME_SAMPLES - 1) % PerformanceMetrics::NUM_FRAME_TIME_SAMPLES;
+		s_frame_times.push_back(PerformanceMetrics::GetFrameTimeHistory()[last]);
+		s_last_history_pos = pos;
+	}
+
+	if (s_frame_limit > 0 && s_frame_times.size() >= s_frame_limit)
+		s_stop_requested.store(true, std::memory_order_release);
+}
+
+void Host::OnSaveStateLoading(const std::string_view filename)
+{
+}
+
+void Host::OnSaveStateLoaded(const std::string_view filename, bool was_successful)
+{
+}
+
+void Host::OnSaveStateSaved(const std::string_view filename)
+{
+}
+
+void Host::RefreshGameListAsync(bool invalidate_cache)
+{
+}
+
+void Host::CancelGameListRefresh()
+{
+}
+
+bool Host::IsFullscreen()
+{
+	return false;
+}
+
+void Host::SetFullscreen(bool enabled)
+{
+}
+
+void Host::OnCaptureStarted(const std::string& filename)
+{
+}
+
+void Host::OnCaptureStopped()
+{
+}
+
+void Host::RequestExitApplication(bool allow_confirm)
+{
+}
+
+void Host::RequestExitBigPicture()
+{
+}
+
+void Host::RequestVMShutdown(bool allow_confirm, bool allow_save_state, bool default_save_state)
+{
+	VMManager::SetState(VMState::Stopping);
+}
+
+void Host::OnAchievementsLoginSuccess(const char* username, u32 points, u32 sc_points, u32 unread_messages)
+{
+	// noop
+}
+
+void Host::OnAchievementsLoginRequested(Achievements::LoginRequestReason reason)
+{
+	// noop
+}
+
+void Host::OnAchievementsHardcoreModeChanged(bool enabled)
+{
+	// noop
+}
+
+void Host::OnAchievementsRefreshed()
+{
+	// noop
+}
+
+void Host::OnCoverDownloaderOpenRequested()
+{
+	// noop
+}
+
+void Host::OnCreateMemoryCardOpenRequested()
+{
+	// noop
+}
+
+bool Host::ShouldPreferHostFileSelector()
+{
+	return false;
+}
+
+void Host::OpenHostFileSelectorAsync(std::string_view title, bool select_directory, FileSelectorCallback callback,
+	FileSelectorFilters filters, std::string_view initial_directory)
+{
+	callback(std::string());
+}
+
+BEGIN_HOTKEY_LIST(g_host_hotkeys)
+END_HOTKEY_LIST()
+
+std::optional<u32> InputManager::ConvertHostKeyboardStringToCode(const std::string_view str)
+{
+	return std::nullopt;
+}
+
+std::optional<std::string> InputManager::ConvertHostKeyboardCodeToString(u32 code)
+{
+	return std::nullopt;
+}
+
+const char* InputManager::ConvertHostKeyboardCodeToIcon(u32 code)
+{
+	return nullptr;
+}
+
+s32 Host::Internal::GetTranslatedStringImpl(
+	const std::string_view context, const std::string_view msg, char* tbuf, size_t tbuf_space)
+{
+	if (msg.size() > tbuf_space)
+		return -1;
+	else if (msg.empty())
+		return 0;
+
+	std::memcpy(tbuf, msg.data(), msg.size());
+	return static_cast<s32>(msg.size());
+}
+
+std::string Host::TranslatePluralToString(const char* context, const char* msg, const char* disambiguation, int count)
+{
+	TinyString count_str = TinyString::from_format("{}", count);
+
+	std::string ret(msg);
+	for (;;)
+	{
+		std::string::size_type pos = ret.find("%n");
+		if (pos == std::string::npos)
+			break;
+
+		ret.replace(pos, 2, count_str.view());
+	}
+
+	return ret;
+}
+
+void Host::ReportInfoAsync(const std::string_view title, const std::string_view message)
+{
+}
+
+bool Host::LocaleCircleConfirm()
+{
+	return false;
+}
+
+bool Host::InNoGUIMode()
+{
+	return true;
+}
+
+// Content URIs only exist on Android; everything the runner opens is a plain path.
+int FileSystem::OpenFDFileContent(const char* filename)
+{
+	return -1;
+}
+
+int FileSystem::OpenFDFileContentWithMode(const char* filename, const char* mode)
+{
+	return -1;
+}
+
+int main(int argc, char* argv[])
+{
+	Log::SetConsoleOutputLevel(LOGLEVEL_INFO);
+
+	if (!GSRunner::InitializeConfig())
+	{
+		Console.Error("Failed to initialize config.");
+		return EXIT_FAILURE;
+	}
+
+	VMBootParameters params;
+	if (!GSRunner::ParseCommandLineArgs(argc, argv, params))
+		return EXIT_FAILURE;
+
+	GSDumpReplayer::SetIsDumpRunner(VMManager::IsGSDumpFileName(params.filename));
+
+	// No window or GPU here, the null and software renderers run on a device without either.
+	GSSetHeadless(true);
+
+	s_cpu_thread_queue.Attach();
+	if (!VMManager::Internal::CPUThreadInitialize())
+	{
+		Console.Error("CPUThreadInitialize failed");
+		VMManager::Internal::CPUThreadShutdown();
+		s_cpu_thread_queue.Detach();
+		return EXIT_FAILURE;
+	}
+
+	VMManager::ApplySettings();
+
+	int result = EXIT_FAILURE;
+	if (VMManager::Initialize(params))
+	{
+		Common::Timer wall_timer;
+		VMManager::SetState(VMState::Running);
+		while (VMManager::GetState() == VMState::Running)
+			VMManager::Execute();
+		const double wall_time = wall_timer.GetTimeSeconds();
+
+		// Shutdown stops the GS thread, so the counters it owns are stable afterwards.
+		VMManager::Shutdown(false);
+		const std::string report = GSRunner::BuildReport(params, wall_time);
+
+		if (s_report_path.empty())
+		{
+			std::fwrite(report.data(), 1, report.size(), stdout);
+			std::fputc('\n', stdout);
+			result = EXIT_SUCCESS;
+		}
+		else if (FileSystem::WriteStringToFile(s_report_path.c_str(), report))
+		{
+			Console.WriteLn("Wrote report to '%s'.", s_report_path.c_str());
+			result = EXIT_SUCCESS;
+		}
+		else
+		{
+			Console.Error("Failed to write report to '%s'.", s_report_path.c_str());
+		}
+	}
+
+	s_cpu_thread_queue.Detach();
+	VMManager::Internal::CPUThreadShutdown();
+	return result;
+}
@@ -4,6 +4,7 @@
 #include "Achievements.h"
 #include "BuildVersion.h"
 #include "CDVD/CDVD.h"
+#include "CDVD/DiscImageCache.h"
 #include "Elfheader.h"
 #include "Host.h"
 #include "GS/Renderers/Common/GSTexture.h"
@@ -38,6 +39,7 @@
 #include <array>
 #include <cstdarg>
 #include <cstdlib>
+#include <cstring>
 #include <functional>
 #include <limits>
 #include <optional>
@@ -122,6 +124,7 @@ namespace Achievements
 	static void EndLoadingScreen(bool was_running_idle);
 	static std::string_view GetELFNameForHash(const std::string& elf_path);
 	static std::string GetGameHash(const std::string& elf_path);
+	static std::string GetCachedGameHash(const std::string& elf_path, u32 crc);
 	static void SetHardcoreMode(bool enabled, bool force_display_message);
 	static bool IsLoggedInOrLoggingIn();
 	static bool CanEnableHardcoreMode();
@@ -201,6 +204,7 @@ namespace Achievements
 	static std::string s_game_icon;
 	static std::string s_game_icon_url;
 	static u32 s_game_crc;
+	static double s_game_hash_time_saved = 0.0;
 	static rc_client_user_game_summary_t s_game_summary;
 	static u32 s_game_id = 0;
 
@@ -287,6 +291,25 @@ std::string_view Achievements::GetELFNameForHash(const std::string& elf_path)
 	return std::string_view(elf_path).substr(start, end - start);
 }
 
+
+namespace
+{
+	/// A game hash remembered for one of a disc image's ELFs, stored per image fingerprint.
+	struct CachedGameHash
+	{
+		u32 crc; // of the ELF, recomputed from the disc every boot
+		float hash_seconds; // how long hashing took, which is what each later use saves
+		char elf_path[128];
+		char hash[32];
+	};
+} // namespace
+
+static constexpr u32 GAME_HASH_CACHE_VERSION = 1;
+static constexpr const char* GAME_HASH_CACHE_EXTENSION = "rahash";
+
+// Discs with more ELFs than this are rare, and the oldest entry drops out first.
+static constexpr size_t MAX_CACHED_GAME_HASHES = 8;
+
 std::string Achievements::GetGameHash(const std::string& elf_path)
 {
 	// this.. really shouldn't be invalid
@@ -324,6 +347,70 @@ std::string Achievements::GetGameHash(const std::string& elf_path)
 	return hash_str;
 }
 
+std::string Achievements::GetCachedGameHash(const std::string& elf_path, u32 crc)
+{
+	// The entry has to match the image's fingerprint, so a replaced or modified image is always hashed again,
+	// and the ELF's CRC from this boot, so hardcore never runs on a hash for different data.
+	DiscImageCache::Fingerprint fingerprint;
+	const std::string disc_path = VMManager::GetDiscPath();
+	if (crc == 0 || elf_path.empty() || elf_path.size() >= sizeof(CachedGameHash::elf_path) || disc_path.empty() ||
+		!DiscImageCache::GetFingerprint(disc_path, &fingerprint))
+	{
+		return GetGameHash(elf_path);
+	}
+
+	std::vector<CachedGameHash> entries;
+	if (const std::optional<std::vector<u8>> data =
+			DiscImageCache::Read(fingerprint, GAME_HASH_CACHE_EXTENSION, GAME_HASH_CACHE_VERSION);
+		data.has_value() && (data->size() % sizeof(CachedGameHash)) == 0)
+	{
+		entries.resize(data->size() / sizeof(CachedGameHash));
+		std::memcpy(entries.data(), data->data(), data->size());
+	}
+
+	const auto is_same_elf = [&elf_path](const CachedGameHash& entry) {
+		return std::string_view(entry.elf_path, strnlen(entry.elf_path, sizeof(entry.elf_path))) == elf_path;
+	};
+
+	for (const CachedGameHash& entry : entries)
+	{
+		if (entry.crc == crc && is_same_elf(entry))
+		{
+			std::string hash(entry.hash, sizeof(entry.hash));
+			s_game_hash_time_saved += entry.hash_seconds;
+			Console.WriteLn(fmt::format("Achievements: Cached hash for '{}' ({:.0f} ms saved): {}", GetELFNameForHash(elf_path),
+				entry.hash_seconds * 1000.0f, hash));
+			return hash;
+		}
+	}
+
+	const Common::Timer timer;
+	std::string hash = GetGameHash(elf_path);
+	if (hash.size() != sizeof(CachedGameHash::hash))
+		return hash;
+
+	CachedGameHash entry = {};
+	entry.crc = crc;
+	entry.hash_seconds = static_cast<float>(timer.GetTimeSeconds());
+	StringUtil::Strlcpy(entry.elf_path, elf_path, sizeof(entry.elf_path));
+	std::memcpy(entry.hash, hash.data(), sizeof(entry.hash));
+
+	// A different CRC for the same ELF means the old hash is stale, replace it.
+	std::erase_if(entries, is_same_elf);
+	entries.insert(entries.begin(), entry);
+	if (entries.size() > MAX_CACHED_GAME_HASHES)
+		entries.resize(MAX_CACHED_GAME_HASHES);
+
+	DiscImageCache::Write(fingerprint, GAME_HASH_CACHE_EXTENSION, GAME_HASH_CACHE_VERSION,
+		std::span<const u8>(reinterpret_cast<const u8*>(entries.data()), entries.size() * sizeof(CachedGameHash)));
+	return hash;
+}
+
+double Achievements::GetGameHashTimeSaved()
+{
+	return s_game_hash_time_saved;
+}
+
 
 void Achievements::DownloadImage(std::string url, std::string cache_filename)
 {
@@ -851,7 +938,7 @@ void Achievements::IdentifyGame(u32 disc_crc, u32 crc)
 	if (s_game_crc == crc_to_use)
 		return;
 
-	const std::string game_hash = GetGameHash(booted_elf ? VMManager::GetCurrentELF() : VMManager::GetDiscELF());
+	const std::string game_hash = GetCachedGameHash(booted_elf ? VMManager::GetCurrentELF() : VMManager::GetDiscELF(), crc_to_use);
 	if (s_game_hash == game_hash)
 		return;
 
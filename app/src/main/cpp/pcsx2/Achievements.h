@@ -96,6 +96,10 @@ namespace Achievements
 	/// Returns the RetroAchievements ID for the current game.
 	u32 GetGameID();
 
+	/// Returns how long game identification was spared this session by hashes cached per disc image, in seconds.
+	/// Should be called with the lock held.
+	double GetGameHashTimeSaved();
+
 	/// Returns true if the current game has any achievements or leaderboards.
 	bool HasAchievementsOrLeaderboards();
 
@@ -2,6 +2,9 @@
 // SPDX-License-Identifier: GPL-3.0+
 
 #include "ChdFileReader.h"
+#include "Config.h"
+#include "PerformanceMetrics.h"
+#include "VMManager.h"
 
 #include "common/Assertions.h"
 #include "common/Console.h"
@@ -11,7 +14,10 @@
 #include "common/ProgressCallback.h"
 #include "common/SmallString.h"
 #include "common/StringUtil.h"
+#include "common/Threading.h"
+#include "common/Timer.h"
 
+#include "cpuinfo.h"
 #include "libchdr/chd.h"
 #include "fmt/format.h"
 #include "xxhash.h"
@@ -24,26 +30,43 @@ static constexpr u32 MAX_PARENTS = 32; // Surely someone wouldn't be insane enou
 static std::vector<std::pair<std::string, chd_header>> s_chd_hash_cache; // <filename, header>
 static std::recursive_mutex s_chd_hash_cache_mutex;
 
+static constexpr u32 MAX_DECODE_WORKERS = 3;
+static constexpr u32 SPECULATIVE_DECODE_BYTES = 256 * 1024;
+
 // Provides an implementation of core_file which allows us to control if the underlying FILE handle is freed.
 // Additionally, this class allows greater control and feedback while precaching CHD files.
 // The lifetime of ChdCoreFileWrapper will be equal to that of the relevant chd_file,
 // ChdCoreFileWrapper will also get destroyed if chd_open_core_file fails.
+// Clones share the file and its precached contents but keep their own position, so that each decode
+// worker can have its own chd_file without opening the image again.
 class ChdCoreFileWrapper
 {
 	DeclareNoncopyableObject(ChdCoreFileWrapper);
 
 private:
+	struct SharedFile
+	{
+		std::FILE* file = nullptr;
+		bool free_file = false;
+		// Seeking and reading the FILE has to be done as one step when there's more than one user.
+		std::mutex mutex;
+		std::unique_ptr<u8[]> file_cache;
+		s64 file_cache_size = 0;
+
+		~SharedFile()
+		{
+			if (free_file && file)
+				std::fclose(file);
+		}
+	};
+
 	core_file m_core;
-	std::FILE* m_file;
-	bool m_free_file = false;
+	std::shared_ptr<SharedFile> m_shared;
 	ChdCoreFileWrapper* m_parent = nullptr;
-	std::unique_ptr<u8[]> m_file_cache;
-	s64 m_file_cache_size;
-	s64 m_file_cache_pos;
+	s64 m_pos = 0;
 
-public:
-	ChdCoreFileWrapper(std::FILE* file, ChdCoreFileWrapper* parent)
-		: m_file{file}
+	ChdCoreFileWrapper(std::shared_ptr<SharedFile> shared, ChdCoreFileWrapper* parent)
+		: m_shared{std::move(shared)}
 		, m_parent{parent}
 	{
 		m_core.argp = this;
@@ -53,12 +76,15 @@ public:
 		m_core.fseek = FSeek;
 	}
 
-	~ChdCoreFileWrapper()
+public:
+	ChdCoreFileWrapper(std::FILE* file, ChdCoreFileWrapper* parent)
+		: ChdCoreFileWrapper(std::make_shared<SharedFile>(), parent)
 	{
-		if (m_free_file && m_file)
-			std::fclose(m_file);
+		m_shared->file = file;
 	}
 
+	~ChdCoreFileWrapper() = default;
+
 	core_file* GetCoreFile()
 	{
 		return &m_core;
@@ -71,12 +97,12 @@ public:
 
 	void SetFileOwner(bool isOwner)
 	{
-		m_free_file = isOwner;
+		m_shared->free_file = isOwner;
 	}
 
 	s64 GetPrecacheSize()
 	{
-		const s64 size = static_cast<size_t>(FileSystem::FSize64(m_file));
+		const s64 size = static_cast<size_t>(FileSystem::FSize64(m_shared->file));
 		if (m_parent != nullptr)
 			return m_parent->GetPrecacheSize() + size;
 		else
@@ -91,57 +117,69 @@ public:
 		return PrecacheInternal(progress, error, 0, size);
 	}
 
-private:
-	bool PrecacheInternal(ProgressCallback* progress, Error* error, s64 startSize, s64 finalSize)
+	/// Opens another chd_file for the same image, and its parents, sharing this one's files.
+	chd_file* Clone()
 	{
-		m_file_cache_size = FileSystem::FSize64(m_file);
-		if (m_file_cache_size <= 0)
+		chd_file* parent = nullptr;
+		ChdCoreFileWrapper* parent_wrapper = nullptr;
+		if (m_parent)
 		{
-			Error::SetStringView(error, "Failed to determine file size.");
-			return false;
+			if (!(parent = m_parent->Clone()))
+				return nullptr;
+			parent_wrapper = FromCoreFile(chd_core_file(parent));
+		}
+
+		// libchdr takes ownership of the wrapper and the parent, and frees both on failure.
+		chd_file* chd;
+		ChdCoreFileWrapper* wrapper = new ChdCoreFileWrapper(m_shared, parent_wrapper);
+		const chd_error err = chd_open_core_file(wrapper->GetCoreFile(), CHD_OPEN_READ, parent, &chd);
+		if (err != CHDERR_NONE)
+		{
+			Console.Error(fmt::format("Failed to clone CHD: {}", chd_error_string(err)));
+			return nullptr;
 		}
 
-		// Copy the current file position.
-		m_file_cache_pos = FileSystem::FTell64(m_file);
-		if (m_file_cache_pos <= 0)
+		return chd;
+	}
+
+private:
+	bool PrecacheInternal(ProgressCallback* progress, Error* error, s64 startSize, s64 finalSize)
+	{
+		SharedFile& shared = *m_shared;
+		shared.file_cache_size = FileSystem::FSize64(shared.file);
+		if (shared.file_cache_size <= 0)
 		{
-			Error::SetStringView(error, "Failed to determine file position.");
+			Error::SetStringView(error, "Failed to determine file size.");
 			return false;
 		}
 
-		m_file_cache = std::make_unique_for_overwrite<u8[]>(m_file_cache_size);
-		if (FileSystem::FSeek64(m_file, 0, SEEK_SET) != 0 ||
+		// Positions are tracked per wrapper, so reading the whole file here doesn't disturb anything.
+		std::unique_ptr<u8[]> file_cache = std::make_unique_for_overwrite<u8[]>(shared.file_cache_size);
+		if (FileSystem::FSeek64(shared.file, 0, SEEK_SET) != 0 ||
 			FileSystem::ReadFileWithPartialProgress(
-				m_file, m_file_cache.get(), m_file_cache_size, progress,
+				shared.file, file_cache.get(), shared.file_cache_size, progress,
 				(startSize * 100) / finalSize,
-				((startSize + m_file_cache_size) * 100) / finalSize,
-				error) != static_cast<size_t>(m_file_cache_size))
+				((startSize + shared.file_cache_size) * 100) / finalSize,
+				error) != static_cast<size_t>(shared.file_cache_size))
 		{
-			m_file_cache.reset();
 			// Precache failed, continue using file
-			// Restore file position incase it's used for subsequent reads
-			FileSystem::FSeek64(m_file, m_file_cache_pos, SEEK_SET);
 			Error::SetStringView(error, "Failed to read part of the file.");
 			return false;
 		}
 
-		startSize += m_file_cache_size;
+		startSize += shared.file_cache_size;
 
 		if (m_parent)
 		{
+			// Precache failed, continue using file
 			if (!m_parent->PrecacheInternal(progress, error, startSize, finalSize))
-			{
-				// Precache failed, continue using file
-				// Restore file position incase it's used for subsequent reads
-				FileSystem::FSeek64(m_file, m_file_cache_pos, SEEK_SET);
-				m_file_cache.reset();
 				return false;
-			}
 		}
 
-		if (m_free_file)
-			std::fclose(m_file);
-		m_file = nullptr;
+		shared.file_cache = std::move(file_cache);
+		if (shared.free_file)
+			std::fclose(shared.file);
+		shared.file = nullptr;
 
 		return true;
 	}
@@ -149,30 +187,40 @@ private:
 	static u64 FSize(core_file* file)
 	{
 		ChdCoreFileWrapper* fileWrapper = FromCoreFile(file);
-		if (fileWrapper->m_file_cache)
-			return fileWrapper->m_file_cache_size;
-		else
-			return static_cast<u64>(FileSystem::FSize64(fileWrapper->m_file));
+		SharedFile& shared = *fileWrapper->m_shared;
+		if (shared.file_cache)
+			return shared.file_cache_size;
+
+		std::unique_lock lock(shared.mutex);
+		return static_cast<u64>(FileSystem::FSize64(shared.file));
 	}
 
 	static size_t FRead(void* buffer, size_t elmSize, size_t elmCount, core_file* file)
 	{
 		ChdCoreFileWrapper* fileWrapper = FromCoreFile(file);
-		if (fileWrapper->m_file_cache)
+		SharedFile& shared = *fileWrapper->m_shared;
+		if (shared.file_cache)
 		{
 			// While currently libchdr only uses an elmCount of 1, we can't guarantee that will always be the case.
-			elmCount = std::min<size_t>(elmCount, std::max<s64>(fileWrapper->m_file_cache_size - fileWrapper->m_file_cache_pos, 0) / elmSize);
+			elmCount = std::min<size_t>(elmCount, std::max<s64>(shared.file_cache_size - fileWrapper->m_pos, 0) / elmSize);
 			const size_t size = elmSize * elmCount;
-			std::memcpy(buffer, &fileWrapper->m_file_cache[fileWrapper->m_file_cache_pos], size);
+			std::memcpy(buffer, &shared.file_cache[fileWrapper->m_pos], size);
+			fileWrapper->m_pos += size;
 			return elmCount;
 		}
-		else
-			return std::fread(buffer, elmSize, elmCount, fileWrapper->m_file);
+
+		std::unique_lock lock(shared.mutex);
+		if (FileSystem::FSeek64(shared.file, fileWrapper->m_pos, SEEK_SET) != 0)
+			return 0;
+
+		const size_t count = std::fread(buffer, elmSize, elmCount, shared.file);
+		fileWrapper->m_pos += count * elmSize;
+		return count;
 	}
 
 	static int FClose(core_file* file)
 	{
-		// Destructor handles freeing the FILE handle.
+		// SharedFile handles freeing the FILE handle, once the last clone is gone.
 		delete FromCoreFile(file);
 		return 0;
 	}
@@ -180,27 +228,22 @@ private:
 	static int FSeek(core_file* file, int64_t offset, int whence)
 	{
 		ChdCoreFileWrapper* fileWrapper = FromCoreFile(file);
-		if (fileWrapper->m_file_cache)
+		switch (whence)
 		{
-			switch (whence)
-			{
-				case SEEK_SET:
-					fileWrapper->m_file_cache_pos = offset;
-					break;
-				case SEEK_CUR:
-					fileWrapper->m_file_cache_pos += offset;
-					break;
-				case SEEK_END:
-					fileWrapper->m_file_cache_pos = fileWrapper->m_file_cache_size + offset;
-					break;
-				default:
-					return -1;
-			}
-
-			return 0;
+			case SEEK_SET:
+				fileWrapper->m_pos = offset;
+				break;
+			case SEEK_CUR:
+				fileWrapper->m_pos += offset;
+				break;
+			case SEEK_END:
+				fileWrapper->m_pos = static_cast<s64>(FSize(file)) + offset;
+				break;
+			default:
+				return -1;
 		}
-		else
-			return FileSystem::FSeek64(fileWrapper->m_file, offset, whence);
+
+		return 0;
 	}
 };
 
@@ -410,6 +453,7 @@ bool ChdFileReader::Open2(std::string filename, Error* error)
 
 	const chd_header* chd_header = chd_get_header(ChdFile);
 	hunk_size = chd_header->hunkbytes;
+	hunk_count = chd_header->totalhunks;
 	// CHD likes to use full 2448 byte blocks, but keeps the +24 offset of source ISOs
 	// The rest of PCSX2 likes to use 2448 byte buffers, which can't fit that so trim blocks instead
 	m_internalBlockSize = chd_header->unitbytes;
@@ -427,6 +471,7 @@ bool ChdFileReader::Open2(std::string filename, Error* error)
 		file_size = static_cast<u64>(chd_header->unitbytes) * chd_header->unitcount;
 	}
 
+	StartDecodeWorkers();
 	return true;
 }
 
@@ -436,7 +481,11 @@ bool ChdFileReader::Precache2(ProgressCallback* progress, Error* error)
 	if (!CheckAvailableMemoryForPrecaching(fileWrapper->GetPrecacheSize(), error))
 		return false;
 
-	return fileWrapper->Precache(progress, error);
+	// The workers' clones read through the same files which precaching is about to swap out.
+	StopDecodeWorkers();
+	const bool result = fileWrapper->Precache(progress, error);
+	StartDecodeWorkers();
+	return result;
 }
 
 ThreadedFileReader::Chunk ChdFileReader::ChunkForOffset(u64 offset)
@@ -460,18 +509,221 @@ int ChdFileReader::ReadChunk(void* dst, s64 chunkID)
 	if (chunkID < 0)
 		return -1;
 
-	chd_error error = chd_read(ChdFile, chunkID, dst);
+	const u32 hunk = static_cast<u32>(chunkID);
+	if (m_hunk_cache.GetMaxCapacity() == 0)
+		return DecodeHunk(ChdFile, hunk, dst) ? hunk_size : 0;
+
+	std::unique_lock lock(m_hunk_mutex);
+	QueueSpeculativeDecodes(hunk);
+
+	CachedHunkPtr entry;
+	if (CachedHunkPtr* cached = m_hunk_cache.Lookup(hunk))
+		entry = *cached;
+
+	if (entry && entry->state != CachedHunk::State::Queued)
+	{
+		// Already decompressed, or a worker is partway through it.
+		const bool hit = (entry->state == CachedHunk::State::Ready);
+		m_hunk_cv.wait(lock, [&entry]() { return entry->state != CachedHunk::State::Decoding; });
+		if (entry->state == CachedHunk::State::Ready)
+		{
+			PerformanceMetrics::AddDiscHunkRead(hit);
+			std::memcpy(dst, entry->data.get(), hunk_size);
+			return hunk_size;
+		}
+
+		// The worker failed, try again here so the error gets reported for this read.
+		entry.reset();
+	}
+
+	// Not started yet, decompress it here rather than waiting for a worker to get to it.
+	if (!entry)
+		entry = *m_hunk_cache.Insert(hunk, std::make_shared<CachedHunk>());
+	entry->state = CachedHunk::State::Decoding;
+	lock.unlock();
+
+	PerformanceMetrics::AddDiscHunkRead(false);
+	entry->data = std::make_unique_for_overwrite<u8[]>(hunk_size);
+	const bool result = DecodeHunk(ChdFile, hunk, entry->data.get());
+	if (result)
+		std::memcpy(dst, entry->data.get(), hunk_size);
+
+	lock.lock();
+	entry->state = result ? CachedHunk::State::Ready : CachedHunk::State::Failed;
+	if (!result)
+		m_hunk_cache.Remove(hunk);
+	lock.unlock();
+	m_hunk_cv.notify_all();
+
+	return result ? hunk_size : 0;
+}
+
+bool ChdFileReader::DecodeHunk(chd_file* chd, u32 hunk, void* dst)
+{
+	const Common::Timer::Value start = Common::Timer::GetCurrentValue();
+	const chd_error error = chd_read(chd, hunk, dst);
 	if (error != CHDERR_NONE)
 	{
 		Console.Error("CDVD: chd_read returned error: %s", chd_error_string(error));
-		return 0;
+		return false;
+	}
+
+	PerformanceMetrics::AddDiscHunkDecode(Common::Timer::GetCurrentValue() - start);
+	return true;
+}
+
+void ChdFileReader::QueueSpeculativeDecodes(u32 hunk)
+{
+	if (m_decode_workers.empty())
+		return;
+
+	const s64 distance = static_cast<s64>(hunk) - static_cast<s64>(m_last_hunk);
+	m_last_hunk = hunk;
+	if (distance != 0)
+		m_direction = (distance > 0) ? 1 : -1;
+
+	// A seek makes whatever was queued for the old position useless, and it would only delay the new one.
+	if (static_cast<u64>(std::abs(distance)) > m_speculative_hunks)
+	{
+		DropQueuedDecodes();
+		m_speculative_window = 0;
+	}
+
+	// Speculate further each time reads move on to the neighbouring hunk, the same way the readahead window grows.
+	// Random access rarely gets past the first hunk, so not much work is wasted on it.
+	if (std::abs(distance) != 1)
+		return;
+
+	m_speculative_window = std::clamp<u32>(m_speculative_window * 2, 1, m_speculative_hunks);
+
+	bool queued = false;
+	for (u32 i = 1; i <= m_speculative_window; i++)
+	{
+		const s64 next = static_cast<s64>(hunk) + static_cast<s64>(i) * m_direction;
+		if (next < 0 || next >= static_cast<s64>(hunk_count))
+			break;
+
+		if (m_hunk_cache.Lookup(static_cast<u32>(next)))
+			continue;
+
+		m_hunk_cache.Insert(static_cast<u32>(next), std::make_shared<CachedHunk>());
+		m_decode_queue.push_back(static_cast<u32>(next));
+		queued = true;
+	}
+
+	if (queued)
+		m_decode_cv.notify_all();
+}
+
+void ChdFileReader::DropQueuedDecodes()
+{
+	for (const u32 hunk : m_decode_queue)
+	{
+		CachedHunkPtr* cached = m_hunk_cache.Lookup(hunk);
+		if (cached && (*cached)->state == CachedHunk::State::Queued)
+			m_hunk_cache.Remove(hunk);
 	}
 
-	return hunk_size;
+	m_decode_queue.clear();
+}
+
+void ChdFileReader::DecodeWorkerThread(chd_file* chd)
+{
+	Threading::SetNameOfCurrentThread("CHD Decode");
+
+	std::unique_lock lock(m_hunk_mutex);
+	for (;;)
+	{
+		m_decode_cv.wait(lock, [this]() { return m_decode_workers_quit || !m_decode_queue.empty(); });
+		if (m_decode_workers_quit)
+			break;
+
+		const u32 hunk = m_decode_queue.front();
+		m_decode_queue.pop_front();
+
+		// Evicted, or picked up by the read thread, since it was queued.
+		CachedHunkPtr* cached = m_hunk_cache.Lookup(hunk);
+		if (!cached || (*cached)->state != CachedHunk::State::Queued)
+			continue;
+
+		const CachedHunkPtr entry = *cached;
+		entry->state = CachedHunk::State::Decoding;
+		lock.unlock();
+
+		VMManager::Internal::ApplyAuxiliaryThreadAffinity();
+		entry->data = std::make_unique_for_overwrite<u8[]>(hunk_size);
+		const bool result = DecodeHunk(chd, hunk, entry->data.get());
+
+		lock.lock();
+		entry->state = result ? CachedHunk::State::Ready : CachedHunk::State::Failed;
+		if (!result)
+		{
+			cached = m_hunk_cache.Lookup(hunk);
+			if (cached && *cached == entry)
+				m_hunk_cache.Remove(hunk);
+		}
+		m_hunk_cv.notify_all();
+	}
+
+	lock.unlock();
+	chd_close(chd);
+}
+
+void ChdFileReader::StartDecodeWorkers()
+{
+	pxAssert(m_decode_workers.empty());
+
+	const u64 capacity = (static_cast<u64>(std::max(EmuConfig.CdvdDecompressCacheSize, 0)) * _1mb) / hunk_size;
+	m_hunk_cache.SetMaxCapacity(static_cast<size_t>(capacity));
+	if (capacity == 0)
+		return;
+
+	// Half the processors, since the EE, VU and GS threads are busy too. Beyond a few, reads can't keep them fed.
+	const u32 worker_count = std::min<u32>(cpuinfo_get_processors_count() / 2, MAX_DECODE_WORKERS);
+	m_speculative_hunks = static_cast<u32>(std::min<u64>(
+		std::max(SPECULATIVE_DECODE_BYTES / hunk_size, worker_count * 2), capacity / 2));
+	m_last_hunk = 0;
+	m_direction = 1;
+	m_speculative_window = 0;
+	m_decode_workers_quit = false;
+	if (worker_count == 0 || m_speculative_hunks == 0)
+		return;
+
+	ChdCoreFileWrapper* wrapper = ChdCoreFileWrapper::FromCoreFile(chd_core_file(ChdFile));
+	for (u32 i = 0; i < worker_count; i++)
+	{
+		chd_file* chd = wrapper->Clone();
+		if (!chd)
+			break;
+
+		m_decode_workers.emplace_back(&ChdFileReader::DecodeWorkerThread, this, chd);
+	}
+
+	DevCon.WriteLn(fmt::format("CHD: {} decode workers, {} hunk cache, {} speculative hunks", m_decode_workers.size(),
+		m_hunk_cache.GetMaxCapacity(), m_speculative_hunks));
+}
+
+void ChdFileReader::StopDecodeWorkers()
+{
+	{
+		std::unique_lock lock(m_hunk_mutex);
+		m_decode_workers_quit = true;
+		DropQueuedDecodes();
+	}
+	m_decode_cv.notify_all();
+
+	for (std::thread& thread : m_decode_workers)
+		thread.join();
+	m_decode_workers.clear();
+	m_decode_workers_quit = false;
 }
 
 void ChdFileReader::Close2()
 {
+	StopDecodeWorkers();
+	m_hunk_cache.Clear();
+	m_hunk_cache.SetMaxCapacity(0);
+
 	if (ChdFile)
 	{
 		chd_close(ChdFile);
@@ -3,6 +3,12 @@
 
 #pragma once
 #include "ThreadedFileReader.h"
+#include "common/LRUCache.h"
+#include <condition_variable>
+#include <deque>
+#include <memory>
+#include <mutex>
+#include <thread>
 #include <vector>
 
 typedef struct _chd_file chd_file;
@@ -26,9 +32,49 @@ public:
 	uint GetBlockCount(void) const override;
 
 private:
+	/// A decompressed hunk, or one which is waiting for (or being decompressed by) a worker.
+	struct CachedHunk
+	{
+		enum class State : u8
+		{
+			Queued,
+			Decoding,
+			Ready,
+			Failed,
+		};
+
+		State state = State::Queued;
+		std::unique_ptr<u8[]> data;
+	};
+	using CachedHunkPtr = std::shared_ptr<CachedHunk>;
+
 	bool ParseTOC(u64* out_frame_count);
 
+	bool DecodeHunk(chd_file* chd, u32 hunk, void* dst);
+	void StartDecodeWorkers();
+	void StopDecodeWorkers();
+	void DecodeWorkerThread(chd_file* chd);
+	/// Queues the hunks following this one, in the direction reads are going, for the workers to decompress.
+	/// Call with m_hunk_mutex held.
+	void QueueSpeculativeDecodes(u32 hunk);
+	void DropQueuedDecodes();
+
 	chd_file* ChdFile = nullptr;
 	u64 file_size = 0;
 	u32 hunk_size = 0;
+	u32 hunk_count = 0;
+
+	// Decompressed hunks, filled by both ReadChunk() and the workers. Protected by m_hunk_mutex.
+	// Entries are shared pointers so that eviction doesn't pull a hunk out from under its decoder.
+	LRUCache<u32, CachedHunkPtr> m_hunk_cache{0};
+	std::deque<u32> m_decode_queue;
+	std::mutex m_hunk_mutex;
+	std::condition_variable m_decode_cv; // workers wait here for hunks to decompress
+	std::condition_variable m_hunk_cv; // readers wait here for a worker to finish a hunk
+	std::vector<std::thread> m_decode_workers;
+	u32 m_speculative_hunks = 0; // at most
+	u32 m_speculative_window = 0;
+	u32 m_last_hunk = 0;
+	s32 m_direction = 1;
+	bool m_decode_workers_quit = false;
 };
@@ -2,13 +2,20 @@
 // SPDX-License-Identifier: GPL-3.0+
 
 #include "CDVD/CsoFileReader.h"
+#include "CDVD/DiscImageCache.h"
+#include "Config.h"
+#include "PerformanceMetrics.h"
+#include "VMManager.h"
 
 #include "common/Assertions.h"
 #include "common/Console.h"
 #include "common/FileSystem.h"
 #include "common/Error.h"
 #include "common/StringUtil.h"
+#include "common/Threading.h"
+#include "common/Timer.h"
 
+#include "cpuinfo.h"
 #include "fmt/format.h"
 #include "lz4.h"
 
@@ -29,6 +36,14 @@ struct CsoHeader
 
 static const u32 CSO_READ_BUFFER_SIZE = 256 * 1024;
 
+static constexpr u32 CSO_GROUP_SIZE = 64 * 1024;
+static constexpr u32 MAX_DECODE_WORKERS = 3;
+static constexpr u32 SPECULATIVE_DECODE_BYTES = 256 * 1024;
+
+// Bump when the cached index layout changes.
+static constexpr u32 CSO_INDEX_CACHE_VERSION = 1;
+static constexpr const char* CSO_INDEX_CACHE_EXTENSION = "csoidx";
+
 CsoFileReader::CsoFileReader() = default;
 
 CsoFileReader::~CsoFileReader()
@@ -81,6 +96,8 @@ bool CsoFileReader::Open2(std::string filename, Error* error)
 		Close2();
 		return false;
 	}
+
+	StartDecodeWorkers();
 	return true;
 }
 
@@ -93,6 +110,9 @@ bool CsoFileReader::Precache2(ProgressCallback* progress, Error* error)
 	if (size < 0 || !CheckAvailableMemoryForPrecaching(static_cast<u64>(size), error))
 		return false;
 
+	// The workers read through m_src, which is about to go away.
+	StopDecodeWorkers();
+
 	m_file_cache_size = static_cast<size_t>(size);
 	m_file_cache = std::make_unique_for_overwrite<u8[]>(m_file_cache_size);
 	if (FileSystem::FSeek64(m_src, 0, SEEK_SET) != 0 ||
@@ -100,12 +120,13 @@ bool CsoFileReader::Precache2(ProgressCallback* progress, Error* error)
 			m_src, m_file_cache.get(), m_file_cache_size, progress, error) != m_file_cache_size)
 	{
 		m_file_cache.reset();
+		StartDecodeWorkers();
 		return false;
 	}
 
-	m_readBuffer.reset();
 	std::fclose(m_src);
 	m_src = nullptr;
+	StartDecodeWorkers();
 	return true;
 }
 
@@ -143,7 +164,7 @@ bool CsoFileReader::ReadFileHeader(Error* error)
 bool CsoFileReader::InitializeBuffers(Error* error)
 {
 	// Round up, since part of a frame requires a full frame.
-	u32 numFrames = (u32)((m_totalSize + m_frameSize - 1) / m_frameSize);
+	m_numFrames = (u32)((m_totalSize + m_frameSize - 1) / m_frameSize);
 
 	// We might read a bit of alignment too, so be prepared.
 	if (m_frameSize + (1 << m_indexShift) < CSO_READ_BUFFER_SIZE)
@@ -155,13 +176,8 @@ bool CsoFileReader::InitializeBuffers(Error* error)
 		m_readBuffer = std::make_unique<u8[]>(m_frameSize + (1 << m_indexShift));
 	}
 
-	const u32 indexSize = numFrames + 1;
-	m_index = std::make_unique<u32[]>(indexSize);
-	if (fread(m_index.get(), sizeof(u32), indexSize, m_src) != indexSize)
-	{
-		Error::SetString(error, "Unable to read index data from CSO.");
+	if (!ReadIndex(error))
 		return false;
-	}
 
 	// initialize zlib if not a ZSO
 	if (!m_uselz4)
@@ -176,8 +192,44 @@ bool CsoFileReader::InitializeBuffers(Error* error)
 	return true;
 }
 
+bool CsoFileReader::ReadIndex(Error* error)
+{
+	const u32 indexSize = m_numFrames + 1;
+	m_index = std::make_unique<u32[]>(indexSize);
+	const std::span<u8> indexBytes(reinterpret_cast<u8*>(m_index.get()), indexSize * sizeof(u32));
+
+	// A DVD image has megabytes of index, which is slow to pull through a document provider on every boot.
+	// Local files are read just as quickly from the image itself, so they're left alone.
+	DiscImageCache::Fingerprint fingerprint;
+	const bool useCache = m_filename.starts_with("content://") && DiscImageCache::GetFingerprint(m_filename, m_src, &fingerprint);
+	if (useCache)
+	{
+		const std::optional<std::vector<u8>> cached = DiscImageCache::Read(fingerprint, CSO_INDEX_CACHE_EXTENSION, CSO_INDEX_CACHE_VERSION);
+		if (cached.has_value() && cached->size() == indexBytes.size())
+		{
+			std::memcpy(indexBytes.data(), cached->data(), indexBytes.size());
+			return true;
+		}
+	}
+
+	if (fread(m_index.get(), sizeof(u32), indexSize, m_src) != indexSize)
+	{
+		Error::SetString(error, "Unable to read index data from CSO.");
+		return false;
+	}
+
+	if (useCache)
+		DiscImageCache::Write(fingerprint, CSO_INDEX_CACHE_EXTENSION, CSO_INDEX_CACHE_VERSION, indexBytes);
+
+	return true;
+}
+
 void CsoFileReader::Close2()
 {
+	StopDecodeWorkers();
+	m_group_cache.Clear();
+	m_group_cache.SetMaxCapacity(0);
+
 	m_filename.clear();
 
 	if (m_src)
@@ -191,6 +243,7 @@ void CsoFileReader::Close2()
 		inflateEnd(&m_z_stream);
 
 	m_readBuffer.reset();
+	m_groupReadBuffer = {};
 	m_index.reset();
 }
 
@@ -221,7 +274,116 @@ int CsoFileReader::ReadChunk(void* dst, s64 chunkID)
 		return -1;
 
 	const u32 frame = chunkID;
+	if (m_decode_workers.empty())
+		return ReadFrame(dst, frame);
+
+	const u32 group = frame / m_group_frames;
+	const u32 offset = (frame - group * m_group_frames) * m_frameSize;
+
+	std::unique_lock lock(m_group_mutex);
+	QueueSpeculativeDecodes(group);
+
+	CachedGroupPtr entry;
+	if (CachedGroupPtr* cached = m_group_cache.Lookup(group))
+		entry = *cached;
+
+	if (entry && entry->state != CachedGroup::State::Queued)
+	{
+		// Already decompressed, or a worker is partway through it.
+		const bool hit = (entry->state == CachedGroup::State::Ready);
+		m_group_cv.wait(lock, [&entry]() { return entry->state != CachedGroup::State::Decoding; });
+		if (entry->state == CachedGroup::State::Ready)
+		{
+			PerformanceMetrics::AddDiscHunkRead(hit);
+			std::memcpy(dst, entry->data.get() + offset, m_frameSize);
+			return m_frameSize;
+		}
+
+		// The worker failed, read the frame directly so the error gets reported.
+		lock.unlock();
+		return ReadFrame(dst, frame);
+	}
+
+	// Not wanted ahead of time, so this is probably a one-off read, only decompress the frames that are asked for.
+	if (!entry)
+	{
+		lock.unlock();
+		PerformanceMetrics::AddDiscHunkRead(false);
+		return ReadFrame(dst, frame);
+	}
+
+	// Queued but not started yet, decompress it here rather than waiting for a worker to get to it.
+	entry->state = CachedGroup::State::Decoding;
+	lock.unlock();
+
+	PerformanceMetrics::AddDiscHunkRead(false);
+	entry->data = std::make_unique_for_overwrite<u8[]>(m_group_frames * m_frameSize);
+	const Common::Timer::Value start = Common::Timer::GetCurrentValue();
+	const bool result = DecodeGroup(&m_z_stream, m_groupReadBuffer, group, entry->data.get());
+	if (result)
+	{
+		PerformanceMetrics::AddDiscHunkDecode(Common::Timer::GetCurrentValue() - start);
+		std::memcpy(dst, entry->data.get() + offset, m_frameSize);
+	}
+
+	lock.lock();
+	entry->state = result ? CachedGroup::State::Ready : CachedGroup::State::Failed;
+	if (!result)
+		m_group_cache.Remove(group);
+	lock.unlock();
+	m_group_cv.notify_all();
+
+	return result ? static_cast<int>(m_frameSize) : ReadFrame(dst, frame);
+}
+
+size_t CsoFileReader::ReadRaw(void* dst, u64 pos, size_t size)
+{
+	if (m_file_cache)
+	{
+		if (pos >= m_file_cache_size)
+			return 0;
+
+		const size_t read_count = std::min<size_t>(m_file_cache_size - pos, size);
+		std::memcpy(dst, &m_file_cache[pos], read_count);
+		return read_count;
+	}
+
+	std::unique_lock lock(m_src_mutex);
+	if (FileSystem::FSeek64(m_src, pos, SEEK_SET) != 0)
+	{
+		Console.Error("Unable to seek to CSO data.");
+		return 0;
+	}
+
+	return std::fread(dst, 1, size, m_src);
+}
+
+bool CsoFileReader::DecompressFrame(z_stream* z, const u8* src, u32 src_size, void* dst)
+{
+	if (m_uselz4)
+	{
+		const int src_size_int = static_cast<int>(src_size);
+		const int dst_size = static_cast<int>(m_frameSize);
+		const char* src_buf = reinterpret_cast<const char*>(src);
+		char* dst_buf = static_cast<char*>(dst);
+
+		const int res = LZ4_decompress_safe_partial(src_buf, dst_buf, src_size_int, dst_size, dst_size);
+		return (res > 0);
+	}
+
+	z->next_in = const_cast<Bytef*>(src);
+	z->avail_in = src_size;
+	z->next_out = static_cast<Bytef*>(dst);
+	z->avail_out = m_frameSize;
 
+	const int status = inflate(z, Z_FINISH);
+	const bool success = (status == Z_STREAM_END && z->total_out == m_frameSize);
+	inflateReset(z);
+	return success;
+}
+
+int CsoFileReader::ReadFrame(void* dst, u32 frame)
+{
 	// Grab the index data for the frame we're about to read.
 	const bool compressed = (m_index[frame + 0] & 0x80000000) == 0;
 	const u32 index0 = m_index[frame + 0] & 0x7FFFFFFF;
@@ -233,78 +395,217 @@ int CsoFileReader::ReadChunk(void* dst, s64 chunkID)
 
 	if (!compressed)
 	{
-		if (m_file_cache)
-		{
-			if (frameRawPos >= m_file_cache_size)
-				return 0;
-
-			const size_t read_count = std::min<size_t>(m_file_cache_size - frameRawPos, frameRawSize);
-			std::memcpy(dst, &m_file_cache[frameRawPos], read_count);
-			return static_cast<int>(read_count);
-		}
-
 		// Just read directly, easy.
-		if (FileSystem::FSeek64(m_src, frameRawPos, SEEK_SET) != 0)
-		{
-			Console.Error("Unable to seek to uncompressed CSO data.");
-			return 0;
-		}
-		return fread(dst, 1, m_frameSize, m_src);
+		return static_cast<int>(ReadRaw(dst, frameRawPos, std::min<u64>(frameRawSize, m_frameSize)));
 	}
-	else
+
+	// This might be less bytes than frameRawSize in case of padding on the last frame.
+	// This is because the index positions must be aligned.
+	const u32 readRawBytes = static_cast<u32>(
+		ReadRaw(m_readBuffer.get(), frameRawPos, std::min<u64>(frameRawSize, m_frameSize + (1u << m_indexShift))));
+	const bool success = DecompressFrame(&m_z_stream, m_readBuffer.get(), readRawBytes, dst);
+	if (!success)
+		Console.Error(fmt::format("Unable to decompress CSO frame using {}", (m_uselz4)? "lz4":"zlib"));
+
+	return success ? m_frameSize : 0;
+}
+
+bool CsoFileReader::DecodeGroup(z_stream* z, std::vector<u8>& read_buffer, u32 group, u8* dst)
+{
+	const u32 first = group * m_group_frames;
+	const u32 count = std::min(m_group_frames, m_numFrames - first);
+
+	// Frames are stored in order, so the whole group can be read in one go.
+	const u64 start = static_cast<u64>(m_index[first] & 0x7FFFFFFF) << m_indexShift;
+	const u64 end = static_cast<u64>(m_index[first + count] & 0x7FFFFFFF) << m_indexShift;
+	if (end < start || end - start > static_cast<u64>(count) * (m_frameSize + (1u << m_indexShift)))
+		return false;
+
+	read_buffer.resize(static_cast<size_t>(end - start));
+	const size_t read = ReadRaw(read_buffer.data(), start, read_buffer.size());
+
+	for (u32 i = 0; i < count; i++)
 	{
-		// This might be less bytes than frameRawSize in case of padding on the last frame.
-		// This is because the index positions must be aligned.
-		u32 readRawBytes;
-		u8* readBuffer;
-		if (m_file_cache)
-		{
-			if (frameRawPos >= m_file_cache_size)
-				return 0;
+		const u32 frame = first + i;
+		const bool compressed = (m_index[frame] & 0x80000000) == 0;
+		const u64 pos = (static_cast<u64>(m_index[frame] & 0x7FFFFFFF) << m_indexShift) - start;
+		const u64 next = (static_cast<u64>(m_index[frame + 1] & 0x7FFFFFFF) << m_indexShift) - start;
+		if (next < pos || pos > read)
+			return false;
 
-			readRawBytes = static_cast<u32>(std::min<size_t>(m_file_cache_size - frameRawPos, frameRawSize));
-			readBuffer = &m_file_cache[frameRawPos];
+		// The last frame can come up short, as the file isn't padded out to the alignment.
+		const u32 available = static_cast<u32>(std::min<u64>(next, read) - pos);
+		u8* const out = dst + i * m_frameSize;
+		if (!compressed)
+		{
+			const u32 copy = std::min(available, m_frameSize);
+			std::memcpy(out, &read_buffer[pos], copy);
+			std::memset(out + copy, 0, m_frameSize - copy);
 		}
-		else
+		else if (!DecompressFrame(z, &read_buffer[pos], available, out))
 		{
-			if (FileSystem::FSeek64(m_src, frameRawPos, SEEK_SET) != 0)
-			{
-				Console.Error("Unable to seek to compressed CSO data.");
-				return 0;
-			}
-			readBuffer = m_readBuffer.get();
-			readRawBytes = fread(m_readBuffer.get(), 1, frameRawSize, m_src);
+			return false;
 		}
+	}
+
+	// Past the end of the image, the reads won't look at it, but don't leave it uninitialized.
+	if (count < m_group_frames)
+		std::memset(dst + count * m_frameSize, 0, (m_group_frames - count) * m_frameSize);
+
+	return true;
+}
+
+void CsoFileReader::QueueSpeculativeDecodes(u32 group)
+{
+	if (m_decode_workers.empty())
+		return;
+
+	const s64 distance = static_cast<s64>(group) - static_cast<s64>(m_last_group);
+	m_last_group = group;
+	if (distance != 0)
+		m_direction = (distance > 0) ? 1 : -1;
 
-		bool success = false;
+	// A seek makes whatever was queued for the old position useless, and it would only delay the new one.
+	if (static_cast<u64>(std::abs(distance)) > m_speculative_groups)
+	{
+		DropQueuedDecodes();
+		m_speculative_window = 0;
+	}
+
+	// Speculate further each time reads move on to the neighbouring group, the same way the readahead window grows.
+	// Random access rarely gets past the first group, so not much work is wasted on it.
+	if (std::abs(distance) != 1)
+		return;
+
+	m_speculative_window = std::clamp<u32>(m_speculative_window * 2, 1, m_speculative_groups);
+
+	bool queued = false;
+	for (u32 i = 1; i <= m_speculative_window; i++)
+	{
+		const s64 next = static_cast<s64>(group) + static_cast<s64>(i) * m_direction;
+		if (next < 0 || next >= static_cast<s64>(m_group_count))
+			break;
+
+		if (m_group_cache.Lookup(static_cast<u32>(next)))
+			continue;
+
+		m_group_cache.Insert(static_cast<u32>(next), std::make_shared<CachedGroup>());
+		m_decode_queue.push_back(static_cast<u32>(next));
+		queued = true;
+	}
+
+	if (queued)
+		m_decode_cv.notify_all();
+}
+
+void CsoFileReader::DropQueuedDecodes()
+{
+	for (const u32 group : m_decode_queue)
+	{
+		CachedGroupPtr* cached = m_group_cache.Lookup(group);
+		if (cached && (*cached)->state == CachedGroup::State::Queued)
+			m_group_cache.Remove(group);
+	}
+
+	m_decode_queue.clear();
+}
 
-		if (m_uselz4)
+void CsoFileReader::DecodeWorkerThread()
+{
+	Threading::SetNameOfCurrentThread("CSO Decode");
+
+	z_stream z = {};
+	if (!m_uselz4 && inflateInit2(&z, -15) != Z_OK)
+	{
+		Console.Error("Unable to initialize zlib for CSO decode worker.");
+		return;
+	}
+
+	std::vector<u8> read_buffer;
+	std::unique_lock lock(m_group_mutex);
+	for (;;)
+	{
+		m_decode_cv.wait(lock, [this]() { return m_decode_workers_quit || !m_decode_queue.empty(); });
+		if (m_decode_workers_quit)
+			break;
+
+		const u32 group = m_decode_queue.front();
+		m_decode_queue.pop_front();
+
+		// Evicted, or picked up by the read thread, since it was queued.
+		CachedGroupPtr* cached = m_group_cache.Lookup(group);
+		if (!cached || (*cached)->state != CachedGroup::State::Queued)
+			continue;
+
+		const CachedGroupPtr entry = *cached;
+		entry->state = CachedGroup::State::Decoding;
+		lock.unlock();
+
+		VMManager::Internal::ApplyAuxiliaryThreadAffinity();
+		entry->data = std::make_unique_for_overwrite<u8[]>(m_group_frames * m_frameSize);
+		const Common::Timer::Value start = Common::Timer::GetCurrentValue();
+		const bool result = DecodeGroup(&z, read_buffer, group, entry->data.get());
+		if (result)
+			PerformanceMetrics::AddDiscHunkDecode(Common::Timer::GetCurrentValue() - start);
+
+		lock.lock();
+		entry->state = result ? CachedGroup::State::Ready : CachedGroup::State::Failed;
+		if (!result)
 		{
-			const int src_size = static_cast<int>(readRawBytes);
-			const int dst_size = static_cast<int>(m_frameSize);
-			const char* src_buf = reinterpret_cast<const char*>(readBuffer);
-			char* dst_buf = static_cast<char*>(dst);
-			
-			const int res = LZ4_decompress_safe_partial(src_buf, dst_buf, src_size, dst_size, dst_size);
-			success = (res > 0);
+			cached = m_group_cache.Lookup(group);
+			if (cached && *cached == entry)
+				m_group_cache.Remove(group);
 		}
-		else
-		{
-			m_z_stream.next_in = readBuffer;
-			m_z_stream.avail_in = readRawBytes;
-			m_z_stream.next_out = static_cast<Bytef*>(dst);
-			m_z_stream.avail_out = m_frameSize;
+		m_group_cv.notify_all();
+	}
 
-			const int status = inflate(&m_z_stream, Z_FINISH);
-			success = (status == Z_STREAM_END && m_z_stream.total_out == m_frameSize);
-		}
+	lock.unlock();
+	if (!m_uselz4)
+		inflateEnd(&z);
+}
 
-		if (!success)
-			Console.Error(fmt::format("Unable to decompress CSO frame using {}", (m_uselz4)? "lz4":"zlib"));
-		
-		if (!m_uselz4)
-			inflateReset(&m_z_stream);
+void CsoFileReader::StartDecodeWorkers()
+{
+	pxAssert(m_decode_workers.empty());
+
+	m_group_frames = std::max<u32>(CSO_GROUP_SIZE / m_frameSize, 1);
+	m_group_count = (m_numFrames + m_group_frames - 1) / m_group_frames;
+
+	const u32 group_size = m_group_frames * m_frameSize;
+	const u64 capacity = (static_cast<u64>(std::max(EmuConfig.CdvdDecompressCacheSize, 0)) * _1mb) / group_size;
+	m_group_cache.SetMaxCapacity(static_cast<size_t>(capacity));
+	if (capacity == 0)
+		return;
+
+	// Half the processors, since the EE, VU and GS threads are busy too. Beyond a few, reads can't keep them fed.
+	const u32 worker_count = std::min<u32>(cpuinfo_get_processors_count() / 2, MAX_DECODE_WORKERS);
+	m_speculative_groups = static_cast<u32>(std::min<u64>(
+		std::max(SPECULATIVE_DECODE_BYTES / group_size, worker_count * 2), capacity / 2));
+	m_last_group = 0;
+	m_direction = 1;
+	m_speculative_window = 0;
+	m_decode_workers_quit = false;
+	if (worker_count == 0 || m_speculative_groups == 0)
+		return;
+
+	for (u32 i = 0; i < worker_count; i++)
+		m_decode_workers.emplace_back(&CsoFileReader::DecodeWorkerThread, this);
+
+	DevCon.WriteLn(fmt::format("CSO: {} decode workers, {} group cache, {} speculative groups", m_decode_workers.size(),
+		m_group_cache.GetMaxCapacity(), m_speculative_groups));
+}
 
-		return success ? m_frameSize : 0;
+void CsoFileReader::StopDecodeWorkers()
+{
+	{
+		std::unique_lock lock(m_group_mutex);
+		m_decode_workers_quit = true;
+		DropQueuedDecodes();
 	}
+	m_decode_cv.notify_all();
+
+	for (std::thread& thread : m_decode_workers)
+		thread.join();
+	m_decode_workers.clear();
+	m_decode_workers_quit = false;
 }
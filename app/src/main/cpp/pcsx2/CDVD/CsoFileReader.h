@@ -4,6 +4,13 @@
 #pragma once
 
 #include "ThreadedFileReader.h"
+#include "common/LRUCache.h"
+#include <condition_variable>
+#include <deque>
+#include <memory>
+#include <mutex>
+#include <thread>
+#include <vector>
 #include <zlib.h>
 
 struct CsoHeader;
@@ -28,24 +35,72 @@ public:
 	u32 GetBlockCount() const override;
 
 private:
+	/// Frames are decompressed and cached in groups, as single frames are too small to be worth handing to a worker.
+	struct CachedGroup
+	{
+		enum class State : u8
+		{
+			Queued,
+			Decoding,
+			Ready,
+			Failed,
+		};
+
+		State state = State::Queued;
+		std::unique_ptr<u8[]> data;
+	};
+	using CachedGroupPtr = std::shared_ptr<CachedGroup>;
+
 	static bool ValidateHeader(const CsoHeader& hdr, Error* error);
 	bool ReadFileHeader(Error* error);
 	bool InitializeBuffers(Error* error);
-	int ReadFromFrame(u8* dest, u64 pos, int maxBytes);
-	bool DecompressFrame(Bytef* dst, u32 frame, u32 readBufferSize);
-	bool DecompressFrame(u32 frame, u32 readBufferSize);
+	bool ReadIndex(Error* error);
+
+	/// Reads part of the image file, from the precached copy if there is one. Returns the number of bytes read.
+	size_t ReadRaw(void* dst, u64 pos, size_t size);
+	/// Decompresses one frame whose data has already been read from the file.
+	bool DecompressFrame(z_stream* z, const u8* src, u32 src_size, void* dst);
+	int ReadFrame(void* dst, u32 frame);
+	/// Reads and decompresses every frame in a group, using the caller's stream and read buffer.
+	bool DecodeGroup(z_stream* z, std::vector<u8>& read_buffer, u32 group, u8* dst);
+
+	void StartDecodeWorkers();
+	void StopDecodeWorkers();
+	void DecodeWorkerThread();
+	/// Call with m_group_mutex held.
+	void QueueSpeculativeDecodes(u32 group);
+	void DropQueuedDecodes();
 
 	u32 m_frameSize = 0;
 	u8 m_frameShift = 0;
 	u8 m_indexShift = 0;
 	bool m_uselz4 = false; // flag to enable LZ4 decompression (ZSO files)
 	std::unique_ptr<u8[]> m_readBuffer;
+	std::vector<u8> m_groupReadBuffer;
 
 	std::unique_ptr<u32[]> m_index;
+	u32 m_numFrames = 0;
 	u64 m_totalSize = 0;
 	// The actual source cso file handle.
 	std::FILE* m_src = nullptr;
+	// Seeking and reading m_src has to be done as one step while the decode workers are running.
+	std::mutex m_src_mutex;
 	std::unique_ptr<u8[]> m_file_cache;
 	size_t m_file_cache_size = 0;
 	z_stream m_z_stream = {};
+
+	// Decompressed groups, filled by both ReadChunk() and the workers. Protected by m_group_mutex.
+	LRUCache<u32, CachedGroupPtr> m_group_cache{0};
+	std::deque<u32> m_decode_queue;
+	std::mutex m_group_mutex;
+	std::condition_variable m_decode_cv;
+	std::condition_variable m_group_cv;
+	std::vector<std::thread> m_decode_workers;
+	u32 m_group_frames = 1;
+	u32 m_group_count = 0;
+	u32 m_speculative_groups = 0; // at most
+	u32 m_speculative_window = 0;
+	u32 m_last_group = 0;
+	s32 m_direction = 1;
+	bool m_decode_workers_quit = false;
 };
@@ -0,0 +1,234 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "CDVD/DiscAccessProfile.h"
+
+#include "common/Console.h"
+
+#include "fmt/format.h"
+
+#include <algorithm>
+#include <cstring>
+
+static constexpr u32 PROFILE_VERSION = 1;
+static constexpr const char* PROFILE_EXTENSION = "access";
+
+// Longest run to predict after a jump. Anything longer is a stream, which readahead keeps up with once it starts.
+static constexpr u32 MAX_RUN_REGIONS = 16;
+
+// Keeps a profile to a few hundred KB, even for games which seek all over the disc.
+static constexpr size_t MAX_TRANSITIONS = 16384;
+
+struct ProfileHeader
+{
+	u32 region_shift;
+	u32 region_read_count;
+	u32 transition_count;
+	u32 reserved;
+};
+
+static u64 TransitionKey(u32 from, u32 to)
+{
+	return (static_cast<u64>(from) << 32) | to;
+}
+
+// Older sessions count for less each time a new one is merged, so a profile follows the way the game is played now.
+// Rounds down, so anything not seen again fades to zero and is dropped, however small its count.
+static u32 Decay(u32 count)
+{
+	return static_cast<u32>((static_cast<u64>(count) * 3) / 4);
+}
+
+DiscAccessProfile::DiscAccessProfile() = default;
+
+DiscAccessProfile::~DiscAccessProfile() = default;
+
+void DiscAccessProfile::Open(const DiscImageCache::Fingerprint& fingerprint)
+{
+	Close();
+
+	m_fingerprint = fingerprint;
+	m_active = true;
+	if (Load())
+	{
+		DevCon.WriteLn(fmt::format("Loaded disc access profile ({} regions, {} transitions).", m_region_reads.size(),
+			m_transitions.size()));
+	}
+}
+
+void DiscAccessProfile::Close()
+{
+	if (!m_active)
+		return;
+
+	if (!m_session_reads.empty())
+		Save();
+
+	m_active = false;
+	m_transitions.clear();
+	m_region_reads.clear();
+	m_session_transitions.clear();
+	m_session_reads.clear();
+	m_current_transition = nullptr;
+	m_has_run = false;
+}
+
+bool DiscAccessProfile::Load()
+{
+	const std::optional<std::vector<u8>> data = DiscImageCache::Read(m_fingerprint, PROFILE_EXTENSION, PROFILE_VERSION);
+	if (!data.has_value() || data->size() < sizeof(ProfileHeader))
+		return false;
+
+	ProfileHeader header;
+	std::memcpy(&header, data->data(), sizeof(header));
+	if (header.region_shift != REGION_SHIFT ||
+		data->size() != sizeof(header) + header.region_read_count * sizeof(RegionReads) + header.transition_count * sizeof(Transition))
+	{
+		return false;
+	}
+
+	const u8* ptr = data->data() + sizeof(header);
+	m_region_reads.resize(header.region_read_count);
+	std::memcpy(m_region_reads.data(), ptr, header.region_read_count * sizeof(RegionReads));
+	ptr += header.region_read_count * sizeof(RegionReads);
+	m_transitions.resize(header.transition_count);
+	std::memcpy(m_transitions.data(), ptr, header.transition_count * sizeof(Transition));
+	return true;
+}
+
+void DiscAccessProfile::Save()
+{
+	std::unordered_map<u32, u32> reads;
+	for (const RegionReads& rr : m_region_reads)
+	{
+		if (const u32 count = Decay(rr.reads); count > 0)
+			reads[rr.region] = count;
+	}
+	for (const auto& [region, count] : m_session_reads)
+		reads[region] += count;
+
+	std::unordered_map<u64, Transition> transitions;
+	for (const Transition& t : m_transitions)
+	{
+		Transition& merged = transitions[TransitionKey(t.from, t.to)];
+		merged = t;
+		merged.count = Decay(t.count);
+	}
+	for (const auto& [key, t] : m_session_transitions)
+	{
+		auto it = transitions.find(key);
+		if (it == transitions.end())
+		{
+			transitions.emplace(key, t);
+			continue;
+		}
+
+		// The latest run length wins, the game may have been patched or played differently.
+		it->second.length = t.length;
+		it->second.count += t.count;
+	}
+
+	m_region_reads.clear();
+	m_region_reads.reserve(reads.size());
+	for (const auto& [region, count] : reads)
+		m_region_reads.push_back({region, count});
+	std::sort(m_region_reads.begin(), m_region_reads.end(),
+		[](const RegionReads& lhs, const RegionReads& rhs) { return lhs.region < rhs.region; });
+
+	m_transitions.clear();
+	m_transitions.reserve(transitions.size());
+	for (const auto& [key, t] : transitions)
+	{
+		if (t.count > 0)
+			m_transitions.push_back(t);
+	}
+	if (m_transitions.size() > MAX_TRANSITIONS)
+	{
+		std::nth_element(m_transitions.begin(), m_transitions.begin() + MAX_TRANSITIONS, m_transitions.end(),
+			[](const Transition& lhs, const Transition& rhs) { return lhs.count > rhs.count; });
+		m_transitions.resize(MAX_TRANSITIONS);
+	}
+	std::sort(m_transitions.begin(), m_transitions.end(), [](const Transition& lhs, const Transition& rhs) {
+		return (lhs.from != rhs.from) ? (lhs.from < rhs.from) : (lhs.count > rhs.count);
+	});
+
+	ProfileHeader header = {};
+	header.region_shift = REGION_SHIFT;
+	header.region_read_count = static_cast<u32>(m_region_reads.size());
+	header.transition_count = static_cast<u32>(m_transitions.size());
+
+	std::vector<u8> data(sizeof(header) + m_region_reads.size() * sizeof(RegionReads) + m_transitions.size() * sizeof(Transition));
+	u8* ptr = data.data();
+	std::memcpy(ptr, &header, sizeof(header));
+	ptr += sizeof(header);
+	std::memcpy(ptr, m_region_reads.data(), m_region_reads.size() * sizeof(RegionReads));
+	ptr += m_region_reads.size() * sizeof(RegionReads);
+	std::memcpy(ptr, m_transitions.data(), m_transitions.size() * sizeof(Transition));
+
+	if (DiscImageCache::Write(m_fingerprint, PROFILE_EXTENSION, PROFILE_VERSION, data))
+	{
+		DevCon.WriteLn(fmt::format("Saved disc access profile ({} regions, {} transitions).", m_region_reads.size(),
+			m_transitions.size()));
+	}
+}
+
+bool DiscAccessProfile::RecordRead(u64 offset, u32 size)
+{
+	const u32 first = static_cast<u32>(offset >> REGION_SHIFT);
+	const u32 last = static_cast<u32>((offset + std::max(size, 1u) - 1) >> REGION_SHIFT);
+	for (u32 region = first; region <= last; region++)
+		m_session_reads[region]++;
+
+	const bool moved = !m_has_run || last != m_last_region;
+
+	// Anything within the current run, or carrying on from its end, is part of the same run.
+	if (m_has_run && first + 1 >= m_run_start && first <= m_run_end + 1)
+	{
+		m_run_end = std::max(m_run_end, last);
+		if (m_current_transition)
+			m_current_transition->length = std::max(m_current_transition->length, std::min(m_run_end - m_run_start + 1, MAX_RUN_REGIONS));
+	}
+	else
+	{
+		if (m_has_run)
+		{
+			Transition& t = m_session_transitions[TransitionKey(m_last_region, first)];
+			t.from = m_last_region;
+			t.to = first;
+			t.length = std::max(t.length, std::min(last - first + 1, MAX_RUN_REGIONS));
+			t.count++;
+			m_current_transition = &t;
+		}
+
+		m_has_run = true;
+		m_run_start = first;
+		m_run_end = last;
+	}
+
+	m_last_region = last;
+	return moved;
+}
+
+u32 DiscAccessProfile::GetPredictions(u32 region, Prediction* predictions, u32 max_predictions) const
+{
+	auto it = std::lower_bound(m_transitions.begin(), m_transitions.end(), region,
+		[](const Transition& t, u32 value) { return t.from < value; });
+
+	u32 count = 0;
+	for (; it != m_transitions.end() && it->from == region && count < max_predictions; ++it)
+		predictions[count++] = {it->to, it->length};
+
+	return count;
+}
+
+std::vector<u32> DiscAccessProfile::GetHotRegions() const
+{
+	std::vector<RegionReads> sorted(m_region_reads);
+	std::sort(sorted.begin(), sorted.end(), [](const RegionReads& lhs, const RegionReads& rhs) { return lhs.reads > rhs.reads; });
+
+	std::vector<u32> regions;
+	regions.reserve(sorted.size());
+	for (const RegionReads& rr : sorted)
+		regions.push_back(rr.region);
+	return regions;
+}
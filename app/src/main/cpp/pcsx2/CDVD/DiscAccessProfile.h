@@ -0,0 +1,83 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#pragma once
+
+#include "CDVD/DiscImageCache.h"
+
+#include <unordered_map>
+#include <vector>
+
+/// Learns where a game goes next after reading each part of its disc (boot files, level loads, FMV streams),
+/// so that on later boots those parts can be read ahead of the game asking for them.
+/// The image is split into fixed size regions, and two things are recorded per session and merged into
+/// the stored profile: how often each region is read, and the jumps between regions with how far the
+/// game read sequentially after landing.
+class DiscAccessProfile
+{
+	DeclareNoncopyableObject(DiscAccessProfile);
+
+public:
+	static constexpr u32 REGION_SHIFT = 20;
+	static constexpr u64 REGION_SIZE = u64(1) << REGION_SHIFT;
+
+	/// A run of regions which is likely to be read soon.
+	struct Prediction
+	{
+		u32 region;
+		u32 length;
+	};
+
+	DiscAccessProfile();
+	~DiscAccessProfile();
+
+	bool IsActive() const { return m_active; }
+
+	/// Loads the stored profile for the image, if any, and starts recording.
+	void Open(const DiscImageCache::Fingerprint& fingerprint);
+	/// Merges what was recorded into the stored profile, and stops recording.
+	void Close();
+
+	/// Records a read, in bytes from the start of the image. Returns true if it moved to a different region.
+	bool RecordRead(u64 offset, u32 size);
+
+	/// Gets the runs most often read after the given region, most likely first.
+	u32 GetPredictions(u32 region, Prediction* predictions, u32 max_predictions) const;
+
+	/// Gets the regions read most in previous sessions, most read first.
+	std::vector<u32> GetHotRegions() const;
+
+private:
+	struct Transition
+	{
+		u32 from;
+		u32 to;
+		u32 length; // regions read sequentially after landing
+		u32 count;
+	};
+
+	struct RegionReads
+	{
+		u32 region;
+		u32 reads;
+	};
+
+	bool Load();
+	void Save();
+
+	DiscImageCache::Fingerprint m_fingerprint = {};
+	bool m_active = false;
+
+	// Stored profile, transitions sorted by source region then count (highest first).
+	std::vector<Transition> m_transitions;
+	std::vector<RegionReads> m_region_reads;
+
+	// This session.
+	std::unordered_map<u64, Transition> m_session_transitions;
+	std::unordered_map<u32, u32> m_session_reads;
+	Transition* m_current_transition = nullptr; // the jump which started the current run, to extend its length
+	u32 m_run_start = 0;
+	u32 m_run_end = 0;
+	u32 m_last_region = 0;
+	bool m_has_run = false;
+};
@@ -0,0 +1,139 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "CDVD/DiscImageCache.h"
+#include "Config.h"
+
+#include "common/Console.h"
+#include "common/FileSystem.h"
+#include "common/Path.h"
+
+#include "fmt/format.h"
+
+// Nothing builds xxhash as a library, it is header-only here like in GSXXH.
+#define XXH_INLINE_ALL 1
+#include "xxhash.h"
+
+#include <cstring>
+
+namespace DiscImageCache
+{
+	static constexpr u32 MAGIC = 0x43494450; // PDIC
+
+	struct FileHeader
+	{
+		u32 magic;
+		u32 version;
+		Fingerprint fingerprint;
+		u64 data_size;
+		u64 data_hash;
+	};
+} // namespace DiscImageCache
+
+bool DiscImageCache::GetFingerprint(const std::string& filename, std::FILE* fp, Fingerprint* fingerprint)
+{
+	FILESYSTEM_STAT_DATA sd;
+	if (!FileSystem::StatFile(fp, &sd) || sd.Size <= 0)
+		return false;
+
+	fingerprint->name_hash = XXH64(filename.data(), filename.size(), 0);
+	fingerprint->size = sd.Size;
+	fingerprint->mtime = static_cast<s64>(sd.ModificationTime);
+	return true;
+}
+
+bool DiscImageCache::GetFingerprint(const std::string& filename, Fingerprint* fingerprint)
+{
+	// stat() can't see through content URIs, the descriptor from the provider has to be asked instead.
+	auto fp = FileSystem::OpenManagedCFile(filename.c_str(), "rb");
+	return fp && GetFingerprint(filename, fp.get(), fingerprint);
+}
+
+std::string DiscImageCache::GetPath(const Fingerprint& fingerprint, std::string_view extension)
+{
+	if (EmuFolders::Cache.empty())
+		return {};
+
+	return Path::Combine(EmuFolders::Cache, fmt::format("disc_images/{:016x}.{}", fingerprint.name_hash, extension));
+}
+
+std::optional<std::vector<u8>> DiscImageCache::Read(const Fingerprint& fingerprint, std::string_view extension, u32 version)
+{
+	std::optional<std::vector<u8>> ret;
+
+	const std::string path = GetPath(fingerprint, extension);
+	if (path.empty())
+		return ret;
+
+	auto fp = FileSystem::OpenManagedCFile(path.c_str(), "rb");
+	if (!fp)
+		return ret;
+
+	FileHeader header;
+	if (std::fread(&header, sizeof(header), 1, fp.get()) != 1 || header.magic != MAGIC || header.version != version ||
+		header.fingerprint != fingerprint)
+	{
+		return ret;
+	}
+
+	// Anything past this point means the entry was damaged, rather than just stale.
+	const s64 file_size = FileSystem::FSize64(fp.get());
+	if (file_size < 0 || header.data_size != static_cast<u64>(file_size) - sizeof(header))
+	{
+		WARNING_LOG("Truncated disc image cache entry '{}'", Path::GetFileName(path));
+		return ret;
+	}
+
+	ret.emplace(static_cast<size_t>(header.data_size));
+	if ((header.data_size > 0 && std::fread(ret->data(), ret->size(), 1, fp.get()) != 1) ||
+		XXH64(ret->data(), ret->size(), 0) != header.data_hash)
+	{
+		WARNING_LOG("Corrupted disc image cache entry '{}'", Path::GetFileName(path));
+		ret.reset();
+	}
+
+	return ret;
+}
+
+bool DiscImageCache::Write(const Fingerprint& fingerprint, std::string_view extension, u32 version, std::span<const u8> data)
+{
+	const std::string path = GetPath(fingerprint, extension);
+	if (path.empty() || !FileSystem::EnsureDirectoryExists(std::string(Path::GetDirectory(path)).c_str(), true))
+		return false;
+
+	FileHeader header;
+	std::memset(&header, 0, sizeof(header));
+	header.magic = MAGIC;
+	header.version = version;
+	header.fingerprint = fingerprint;
+	header.data_size = data.size();
+	header.data_hash = XXH64(data.data(), data.size(), 0);
+
+	const std::string temp_path = path + ".tmp";
+	{
+		auto fp = FileSystem::OpenManagedCFile(temp_path.c_str(), "wb");
+		if (!fp || std::fwrite(&header, sizeof(header), 1, fp.get()) != 1 ||
+			(!data.empty() && std::fwrite(data.data(), data.size(), 1, fp.get()) != 1) || std::fflush(fp.get()) != 0)
+		{
+			ERROR_LOG("Failed to write disc image cache entry '{}'", Path::GetFileName(path));
+			fp.reset();
+			FileSystem::DeleteFilePath(temp_path.c_str());
+			return false;
+		}
+	}
+
+	if (!FileSystem::RenamePath(temp_path.c_str(), path.c_str()))
+	{
+		FileSystem::DeleteFilePath(temp_path.c_str());
+		return false;
+	}
+
+	return true;
+}
+
+void DiscImageCache::Remove(const Fingerprint& fingerprint, std::string_view extension)
+{
+	const std::string path = GetPath(fingerprint, extension);
+	if (!path.empty() && FileSystem::FileExists(path.c_str()))
+		FileSystem::DeleteFilePath(path.c_str());
+}
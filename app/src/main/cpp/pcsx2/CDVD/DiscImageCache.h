@@ -0,0 +1,44 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#pragma once
+
+#include "common/Pcsx2Defs.h"
+
+#include <cstdio>
+#include <optional>
+#include <span>
+#include <string>
+#include <string_view>
+#include <vector>
+
+/// Data derived from a disc image (indices, hashes, access profiles) which is expensive to rebuild,
+/// kept in the cache directory rather than next to the image, since content URIs have nowhere to write.
+namespace DiscImageCache
+{
+	/// Identifies an image without reading its contents. A changed size or modification time means
+	/// anything derived from the old contents has to be rebuilt.
+	struct Fingerprint
+	{
+		u64 name_hash; // of the path, or the content URI which carries the document id
+		s64 size;
+		s64 mtime;
+
+		bool operator==(const Fingerprint&) const = default;
+	};
+
+	/// Returns false if the file can't be identified, e.g. a provider which hands out pipes.
+	bool GetFingerprint(const std::string& filename, std::FILE* fp, Fingerprint* fingerprint);
+	bool GetFingerprint(const std::string& filename, Fingerprint* fingerprint);
+
+	/// Each kind of data gets its own file per image, named by the extension, e.g. "csoidx".
+	std::string GetPath(const Fingerprint& fingerprint, std::string_view extension);
+
+	/// Returns the stored data, if it was written for this fingerprint and version and is intact.
+	std::optional<std::vector<u8>> Read(const Fingerprint& fingerprint, std::string_view extension, u32 version);
+
+	/// Replaces the stored data. Written to a temporary file first, so a crash never leaves a torn entry.
+	bool Write(const Fingerprint& fingerprint, std::string_view extension, u32 version, std::span<const u8> data);
+
+	void Remove(const Fingerprint& fingerprint, std::string_view extension);
+} // namespace DiscImageCache
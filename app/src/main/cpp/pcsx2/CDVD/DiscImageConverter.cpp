@@ -0,0 +1,594 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "CDVD/DiscImageConverter.h"
+#include "CDVD/CsoFileReader.h"
+#include "CDVD/DiscImageCache.h"
+#include "CDVD/IsoFileFormats.h"
+
+#include "common/BitUtils.h"
+#include "common/Console.h"
+#include "common/Error.h"
+#include "common/FileSystem.h"
+#include "common/Path.h"
+#include "common/ProgressCallback.h"
+#include "common/StringUtil.h"
+#include "common/Threading.h"
+#include "common/Timer.h"
+
+#include "cpuinfo.h"
+#include "fmt/format.h"
+#include "lz4.h"
+#include "lz4hc.h"
+#define XXH_INLINE_ALL 1
+#include "xxhash.h"
+
+#include <algorithm>
+#include <condition_variable>
+#include <cstring>
+#include <deque>
+#include <memory>
+#include <mutex>
+#include <thread>
+#include <vector>
+#include <zlib.h>
+
+// Output follows https://github.com/unknownbrackets/maxcso/blob/master/README_CSO.md, as CsoFileReader reads it.
+static constexpr u32 FRAME_SIZE = 2048;
+static constexpr u32 HEADER_SIZE = 24;
+static constexpr u32 UNCOMPRESSED_FRAME = 0x80000000;
+
+// Room for a frame which compression made bigger, before it's stored as is instead.
+static constexpr u32 FRAME_OUTPUT_SIZE = FRAME_SIZE * 2;
+
+// Every image is a whole number of these, whether its sectors are 2048, 2352 or 2448 bytes.
+static constexpr u32 READ_BLOCK_SIZE = 16;
+
+static constexpr u32 BATCH_SIZE = 1024 * 1024;
+static constexpr u32 BATCH_FRAMES = BATCH_SIZE / FRAME_SIZE;
+
+// Enough that the workers have the next batch ready while the oldest one is being written.
+static constexpr u32 BATCHES_PER_WORKER = 2;
+
+static constexpr u64 CHECKPOINT_INTERVAL = 256 * _1mb;
+static constexpr u32 CHECKPOINT_VERSION = 1;
+static constexpr const char* CHECKPOINT_EXTENSION = "convert";
+
+namespace
+{
+	struct CsoFileHeader
+	{
+		u8 magic[4];
+		u32 header_size;
+		u64 total_bytes;
+		u32 frame_size;
+		u8 ver;
+		u8 align;
+		u8 reserved[2];
+	};
+	static_assert(sizeof(CsoFileHeader) == HEADER_SIZE);
+
+	/// How far a conversion got, stored per source image and followed by the index of the frames written.
+	struct Checkpoint
+	{
+		u64 dst_hash;
+		u64 total_bytes;
+		u64 output_pos;
+		u32 frames_done;
+		u32 crc;
+		u8 format;
+		u8 align;
+		u8 reserved[6];
+	};
+
+	struct Batch
+	{
+		std::vector<u8> input;
+		std::vector<u8> output;
+		std::vector<u32> frame_sizes; // padded to the index alignment, with UNCOMPRESSED_FRAME if stored as is
+		u32 input_size = 0;
+		u32 crc = 0;
+		bool done = false;
+	};
+
+	class CompressWorkers
+	{
+	public:
+		CompressWorkers(DiscImageConverter::Format format, u8 align_shift, u32 count);
+		~CompressWorkers();
+
+		void Queue(Batch* batch);
+		/// Returns false if a worker couldn't start, in which case the batch won't be compressed.
+		bool WaitFor(Batch* batch);
+
+	private:
+		void WorkerThread();
+		void CompressBatch(z_stream* z, Batch* batch);
+
+		DiscImageConverter::Format m_format;
+		u8 m_align_shift;
+
+		std::vector<std::thread> m_threads;
+		std::mutex m_mutex;
+		std::condition_variable m_work_cv;
+		std::condition_variable m_done_cv;
+		std::deque<Batch*> m_queue;
+		bool m_quit = false;
+		bool m_failed = false;
+	};
+} // namespace
+
+CompressWorkers::CompressWorkers(DiscImageConverter::Format format, u8 align_shift, u32 count)
+	: m_format(format)
+	, m_align_shift(align_shift)
+{
+	for (u32 i = 0; i < count; i++)
+		m_threads.emplace_back(&CompressWorkers::WorkerThread, this);
+}
+
+CompressWorkers::~CompressWorkers()
+{
+	{
+		std::unique_lock lock(m_mutex);
+		m_quit = true;
+	}
+	m_work_cv.notify_all();
+
+	for (std::thread& thread : m_threads)
+		thread.join();
+}
+
+void CompressWorkers::Queue(Batch* batch)
+{
+	{
+		std::unique_lock lock(m_mutex);
+		batch->done = false;
+		m_queue.push_back(batch);
+	}
+	m_work_cv.notify_one();
+}
+
+bool CompressWorkers::WaitFor(Batch* batch)
+{
+	std::unique_lock lock(m_mutex);
+	m_done_cv.wait(lock, [this, batch]() { return batch->done || m_failed; });
+	return batch->done;
+}
+
+void CompressWorkers::WorkerThread()
+{
+	Threading::SetNameOfCurrentThread("Disc Compress");
+
+	z_stream z = {};
+	if (m_format == DiscImageConverter::Format::CSO &&
+		deflateInit2(&z, Z_DEFAULT_COMPRESSION, Z_DEFLATED, -15, 8, Z_DEFAULT_STRATEGY) != Z_OK)
+	{
+		Console.Error("Unable to initialize zlib for disc compress worker.");
+
+		// Batches queued for this worker would never complete, so give up on the whole conversion.
+		std::unique_lock lock(m_mutex);
+		m_failed = true;
+		m_done_cv.notify_all();
+		return;
+	}
+
+	std::unique_lock lock(m_mutex);
+	for (;;)
+	{
+		m_work_cv.wait(lock, [this]() { return m_quit || !m_queue.empty(); });
+		if (m_quit)
+			break;
+
+		Batch* batch = m_queue.front();
+		m_queue.pop_front();
+		lock.unlock();
+
+		CompressBatch(&z, batch);
+
+		lock.lock();
+		batch->done = true;
+		m_done_cv.notify_all();
+	}
+
+	if (m_format == DiscImageConverter::Format::CSO)
+		deflateEnd(&z);
+}
+
+void CompressWorkers::CompressBatch(z_stream* z, Batch* batch)
+{
+	const u32 align = 1u << m_align_shift;
+	const u32 frames = (batch->input_size + FRAME_SIZE - 1) / FRAME_SIZE;
+
+	// Readers always decompress whole frames, so a short last frame is filled out with zeros.
+	std::fill(batch->input.begin() + batch->input_size, batch->input.begin() + frames * FRAME_SIZE, 0);
+	batch->crc = crc32(0, batch->input.data(), batch->input_size);
+
+	batch->output.resize(static_cast<size_t>(frames) * (FRAME_OUTPUT_SIZE + align));
+	batch->frame_sizes.resize(frames);
+
+	size_t out_pos = 0;
+	for (u32 i = 0; i < frames; i++)
+	{
+		const u8* src = &batch->input[i * FRAME_SIZE];
+		u8* dst = &batch->output[out_pos];
+
+		u32 size = 0;
+		if (m_format == DiscImageConverter::Format::ZSO)
+		{
+			const int res = LZ4_compress_HC(reinterpret_cast<const char*>(src), reinterpret_cast<char*>(dst), FRAME_SIZE,
+				FRAME_OUTPUT_SIZE, LZ4HC_CLEVEL_DEFAULT);
+			size = static_cast<u32>(std::max(res, 0));
+		}
+		else
+		{
+			deflateReset(z);
+			z->next_in = const_cast<Bytef*>(src);
+			z->avail_in = FRAME_SIZE;
+			z->next_out = dst;
+			z->avail_out = FRAME_OUTPUT_SIZE;
+			if (deflate(z, Z_FINISH) == Z_STREAM_END)
+				size = static_cast<u32>(z->total_out);
+		}
+
+		u32 flags = 0;
+		if (size == 0 || size >= FRAME_SIZE)
+		{
+			// Compression didn't help, store it as is.
+			std::memcpy(dst, src, FRAME_SIZE);
+			size = FRAME_SIZE;
+			flags = UNCOMPRESSED_FRAME;
+		}
+
+		// Index entries point at aligned positions, so the padding after a frame is part of it.
+		const u32 padded = Common::AlignUpPow2(size, align);
+		std::memset(dst + size, 0, padded - size);
+		batch->frame_sizes[i] = padded | flags;
+		out_pos += padded;
+	}
+
+	batch->output.resize(out_pos);
+}
+
+// Index entries are 31 bits, so big images need positions stored shifted. Picks the smallest shift
+// which can address the output even if nothing compresses, since padding wastes space.
+static u8 ChooseAlignShift(u64 total_bytes, u32 frames)
+{
+	u8 shift = 0;
+	for (; shift < 16; shift++)
+	{
+		const u64 align = u64(1) << shift;
+		const u64 worst_case = HEADER_SIZE + (static_cast<u64>(frames) + 1) * sizeof(u32) + align +
+							   static_cast<u64>(frames) * (FRAME_SIZE + align);
+		if (worst_case <= (u64(0x7FFFFFFF) << shift))
+			break;
+	}
+	return shift;
+}
+
+bool DiscImageConverter::Verify(const std::string& dst, u64 total_bytes, u32 expected_crc, ProgressCallback* progress,
+	Error* error)
+{
+	if (!progress)
+		progress = ProgressCallback::NullProgressCallback;
+
+	progress->SetStatusText("Verifying...");
+	progress->SetProgressRange(static_cast<u32>((total_bytes + _1mb - 1) / _1mb));
+	progress->SetProgressValue(0);
+
+	CsoFileReader reader;
+	reader.DisableAccessProfile();
+	if (!reader.Open(dst, error))
+		return false;
+
+	reader.SetBlockSize(READ_BLOCK_SIZE);
+	if (static_cast<u64>(reader.GetBlockCount()) * READ_BLOCK_SIZE != total_bytes)
+	{
+		Error::SetStringFmt(error, "Converted image is {} bytes, expected {}.",
+			static_cast<u64>(reader.GetBlockCount()) * READ_BLOCK_SIZE, total_bytes);
+		reader.Close();
+		return false;
+	}
+
+	std::vector<u8> buffer(BATCH_SIZE);
+	u32 crc = 0;
+	for (u64 pos = 0; pos < total_bytes;)
+	{
+		const u32 size = static_cast<u32>(std::min<u64>(BATCH_SIZE, total_bytes - pos));
+		if (reader.ReadSync(buffer.data(), static_cast<u32>(pos / READ_BLOCK_SIZE), size / READ_BLOCK_SIZE) !=
+			static_cast<int>(size))
+		{
+			Error::SetStringFmt(error, "Failed to read back the converted image at offset {}.", pos);
+			reader.Close();
+			return false;
+		}
+
+		crc = crc32(crc, buffer.data(), size);
+		pos += size;
+
+		progress->SetProgressValue(static_cast<u32>(pos / _1mb));
+		if (progress->IsCancelled())
+		{
+			Error::SetString(error, "Verification was cancelled.");
+			reader.Close();
+			return false;
+		}
+	}
+
+	reader.Close();
+
+	if (crc != expected_crc)
+	{
+		Error::SetStringFmt(error, "Converted image doesn't match the source (CRC {:08X}, expected {:08X}).", crc, expected_crc);
+		return false;
+	}
+
+	return true;
+}
+
+bool DiscImageConverter::Convert(const std::string& src, const std::string& dst, Format format, ProgressCallback* progress,
+	Stats* stats, Error* error)
+{
+	if (!progress)
+		progress = ProgressCallback::NullProgressCallback;
+
+	// CHD sectors come out with subchannel data mixed in, which a CSO can't tell apart from the image.
+	if (StringUtil::compareNoCase(Path::GetExtension(src), "chd"))
+	{
+		Error::SetString(error, "Converting from CHD is not supported.");
+		return false;
+	}
+	if (src == dst)
+	{
+		Error::SetString(error, "The converted image can't replace the source.");
+		return false;
+	}
+
+	std::unique_ptr<ThreadedFileReader> reader = InputIsoFile::CreateReader(src);
+	reader->DisableAccessProfile();
+	if (!reader->Open(src, error))
+		return false;
+	reader->SetBlockSize(READ_BLOCK_SIZE);
+
+	const u64 total_bytes = static_cast<u64>(reader->GetBlockCount()) * READ_BLOCK_SIZE;
+	if (total_bytes == 0)
+	{
+		Error::SetString(error, "Source image is empty.");
+		reader->Close();
+		return false;
+	}
+
+	const u32 frames = static_cast<u32>((total_bytes + FRAME_SIZE - 1) / FRAME_SIZE);
+	const u8 align_shift = ChooseAlignShift(total_bytes, frames);
+	const u64 data_start = Common::AlignUpPow2(HEADER_SIZE + (static_cast<u64>(frames) + 1) * sizeof(u32), 1u << align_shift);
+
+	std::vector<u32> index(frames + 1);
+	u32 frames_done = 0;
+	u32 crc = 0;
+	u64 output_pos = data_start;
+
+	// Carry on from a cancelled run, if it was converting to the same place in the same way.
+	DiscImageCache::Fingerprint fingerprint;
+	const bool has_fingerprint = DiscImageCache::GetFingerprint(src, &fingerprint);
+	const u64 dst_hash = XXH64(dst.data(), dst.size(), 0);
+	FileSystem::ManagedCFilePtr fp;
+	if (has_fingerprint)
+	{
+		const std::optional<std::vector<u8>> data = DiscImageCache::Read(fingerprint, CHECKPOINT_EXTENSION, CHECKPOINT_VERSION);
+		Checkpoint checkpoint;
+		if (data.has_value() && data->size() >= sizeof(checkpoint))
+		{
+			std::memcpy(&checkpoint, data->data(), sizeof(checkpoint));
+			if (checkpoint.dst_hash == dst_hash && checkpoint.total_bytes == total_bytes &&
+				checkpoint.format == static_cast<u8>(format) && checkpoint.align == align_shift &&
+				checkpoint.frames_done <= frames && data->size() == sizeof(checkpoint) + checkpoint.frames_done * sizeof(u32))
+			{
+				fp = FileSystem::OpenManagedCFile(dst.c_str(), "r+b");
+				if (fp && FileSystem::FSize64(fp.get()) >= static_cast<s64>(checkpoint.output_pos) &&
+					FileSystem::FSeek64(fp.get(), checkpoint.output_pos, SEEK_SET) == 0)
+				{
+					std::memcpy(index.data(), data->data() + sizeof(checkpoint), checkpoint.frames_done * sizeof(u32));
+					frames_done = checkpoint.frames_done;
+					crc = checkpoint.crc;
+					output_pos = checkpoint.output_pos;
+					INFO_LOG("Resuming conversion of {} at {} MB.", Path::GetFileName(src),
+						static_cast<u64>(frames_done) * FRAME_SIZE / _1mb);
+				}
+				else
+				{
+					fp.reset();
+				}
+			}
+		}
+	}
+
+	if (!fp)
+	{
+		fp = FileSystem::OpenManagedCFile(dst.c_str(), "wb", error);
+		if (!fp)
+		{
+			reader->Close();
+			return false;
+		}
+
+		// Header and index are written last, once every frame's position is known.
+		const std::vector<u8> placeholder(data_start);
+		if (std::fwrite(placeholder.data(), placeholder.size(), 1, fp.get()) != 1)
+		{
+			Error::SetErrno(error, "Failed to write converted image: ", errno);
+			reader->Close();
+			return false;
+		}
+	}
+
+	const u32 resumed_frames = frames_done;
+	auto save_checkpoint = [&]() {
+		if (!has_fingerprint || std::fflush(fp.get()) != 0)
+			return;
+
+		Checkpoint checkpoint = {};
+		checkpoint.dst_hash = dst_hash;
+		checkpoint.total_bytes = total_bytes;
+		checkpoint.output_pos = output_pos;
+		checkpoint.frames_done = frames_done;
+		checkpoint.crc = crc;
+		checkpoint.format = static_cast<u8>(format);
+		checkpoint.align = align_shift;
+
+		std::vector<u8> data(sizeof(checkpoint) + frames_done * sizeof(u32));
+		std::memcpy(data.data(), &checkpoint, sizeof(checkpoint));
+		std::memcpy(data.data() + sizeof(checkpoint), index.data(), frames_done * sizeof(u32));
+		DiscImageCache::Write(fingerprint, CHECKPOINT_EXTENSION, CHECKPOINT_VERSION, data);
+	};
+
+	const u32 worker_count = std::max<u32>(cpuinfo_get_processors_count(), 1);
+	DevCon.WriteLn(fmt::format("Converting {} with {} workers, index shift {}.", Path::GetFileName(src), worker_count, align_shift));
+
+	progress->SetCancellable(true);
+	progress->SetStatusText("Compressing...");
+	progress->SetProgressRange(static_cast<u32>((total_bytes + _1mb - 1) / _1mb));
+	progress->SetProgressValue(static_cast<u32>(static_cast<u64>(frames_done) * FRAME_SIZE / _1mb));
+
+	Common::Timer compress_timer;
+	bool failed = false;
+	{
+		// Declared before the workers, so they're stopped before the batches go.
+		std::vector<std::unique_ptr<Batch>> batches(worker_count * BATCHES_PER_WORKER);
+		std::vector<Batch*> free_batches;
+		for (std::unique_ptr<Batch>& batch : batches)
+		{
+			batch = std::make_unique<Batch>();
+			batch->input.resize(BATCH_SIZE);
+			free_batches.push_back(batch.get());
+		}
+
+		CompressWorkers workers(format, align_shift, worker_count);
+		std::deque<Batch*> in_flight;
+		u32 next_frame = frames_done;
+		u64 last_checkpoint = output_pos;
+
+		while (frames_done < frames)
+		{
+			// Keep every worker busy, reading ahead of the writes.
+			while (next_frame < frames && !free_batches.empty())
+			{
+				Batch* batch = free_batches.back();
+				const u64 offset = static_cast<u64>(next_frame) * FRAME_SIZE;
+				batch->input_size = static_cast<u32>(std::min<u64>(BATCH_SIZE, total_bytes - offset));
+				if (reader->ReadSync(batch->input.data(), static_cast<u32>(offset / READ_BLOCK_SIZE),
+						batch->input_size / READ_BLOCK_SIZE) != static_cast<int>(batch->input_size))
+				{
+					Error::SetStringFmt(error, "Failed to read the source image at offset {}.", offset);
+					failed = true;
+					break;
+				}
+
+				free_batches.pop_back();
+				workers.Queue(batch);
+				in_flight.push_back(batch);
+				next_frame += BATCH_FRAMES;
+			}
+			if (failed)
+				break;
+
+			// Written in order, so the output only ever grows at the end.
+			Batch* batch = in_flight.front();
+			in_flight.pop_front();
+			if (!workers.WaitFor(batch))
+			{
+				Error::SetString(error, "Failed to initialize the compressor.");
+				failed = true;
+				break;
+			}
+
+			if (!batch->output.empty() && std::fwrite(batch->output.data(), batch->output.size(), 1, fp.get()) != 1)
+			{
+				Error::SetErrno(error, "Failed to write converted image: ", errno);
+				failed = true;
+				break;
+			}
+
+			for (const u32 frame_size : batch->frame_sizes)
+			{
+				index[frames_done++] = static_cast<u32>(output_pos >> align_shift) | (frame_size & UNCOMPRESSED_FRAME);
+				output_pos += frame_size & ~UNCOMPRESSED_FRAME;
+			}
+			crc = static_cast<u32>(crc32_combine(crc, batch->crc, batch->input_size));
+			free_batches.push_back(batch);
+
+			const u64 converted = static_cast<u64>(frames_done - resumed_frames) * FRAME_SIZE;
+			progress->SetFormattedStatusText("Compressing... %.1f MB/s",
+				static_cast<double>(converted) / _1mb / std::max(compress_timer.GetTimeSeconds(), 0.001));
+			progress->SetProgressValue(static_cast<u32>(static_cast<u64>(frames_done) * FRAME_SIZE / _1mb));
+
+			if (progress->IsCancelled())
+			{
+				save_checkpoint();
+				Error::SetString(error, "Conversion was cancelled.");
+				failed = true;
+				break;
+			}
+
+			if (output_pos - last_checkpoint >= CHECKPOINT_INTERVAL && frames_done < frames)
+			{
+				save_checkpoint();
+				last_checkpoint = output_pos;
+			}
+		}
+	}
+	const double compress_seconds = compress_timer.GetTimeSeconds();
+	reader->Close();
+
+	if (failed)
+		return false;
+
+	// Finished but not verified yet, so a cancelled verify only has to write the header again.
+	save_checkpoint();
+
+	index[frames] = static_cast<u32>(output_pos >> align_shift);
+
+	CsoFileHeader header = {};
+	std::memcpy(header.magic, (format == Format::ZSO) ? "ZISO" : "CISO", sizeof(header.magic));
+	header.header_size = HEADER_SIZE;
+	header.total_bytes = total_bytes;
+	header.frame_size = FRAME_SIZE;
+	header.ver = 1;
+	header.align = align_shift;
+	if (FileSystem::FSeek64(fp.get(), 0, SEEK_SET) != 0 || std::fwrite(&header, sizeof(header), 1, fp.get()) != 1 ||
+		std::fwrite(index.data(), index.size() * sizeof(u32), 1, fp.get()) != 1 ||
+		!FileSystem::FTruncate64(fp.get(), static_cast<s64>(output_pos)) || std::fflush(fp.get()) != 0)
+	{
+		Error::SetErrno(error, "Failed to write converted image: ", errno);
+		return false;
+	}
+	fp.reset();
+
+	Common::Timer verify_timer;
+	if (!Verify(dst, total_bytes, crc, progress, error))
+	{
+		// Nothing to carry on from if the output is wrong.
+		if (has_fingerprint && !progress->IsCancelled())
+			DiscImageCache::Remove(fingerprint, CHECKPOINT_EXTENSION);
+		return false;
+	}
+	const double verify_seconds = verify_timer.GetTimeSeconds();
+
+	if (has_fingerprint)
+		DiscImageCache::Remove(fingerprint, CHECKPOINT_EXTENSION);
+
+	const u64 resumed_bytes = std::min<u64>(static_cast<u64>(resumed_frames) * FRAME_SIZE, total_bytes);
+	INFO_LOG("Converted {} to {}: {} MB to {} MB, compressed at {:.1f} MB/s, verified at {:.1f} MB/s.", Path::GetFileName(src),
+		(format == Format::ZSO) ? "ZSO" : "CSO", total_bytes / _1mb, output_pos / _1mb,
+		static_cast<double>(total_bytes - resumed_bytes) / _1mb / std::max(compress_seconds, 0.001),
+		static_cast<double>(total_bytes) / _1mb / std::max(verify_seconds, 0.001));
+
+	if (stats)
+	{
+		stats->input_bytes = total_bytes;
+		stats->output_bytes = output_pos;
+		stats->resumed_bytes = resumed_bytes;
+		stats->compress_seconds = compress_seconds;
+		stats->verify_seconds = verify_seconds;
+	}
+
+	return true;
+}
@@ -0,0 +1,41 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#pragma once
+
+#include "common/Pcsx2Defs.h"
+
+#include <string>
+
+class Error;
+class ProgressCallback;
+
+/// Compresses disc images to CSO or ZSO on the device, so a raw ISO doesn't need a PC to be shrunk.
+/// Frames are compressed on every core and written in order, then the output is read back through
+/// CsoFileReader and checked against the source before the conversion counts as done.
+namespace DiscImageConverter
+{
+	enum class Format : u8
+	{
+		CSO, // deflate, smaller
+		ZSO, // LZ4, faster to read back
+	};
+
+	struct Stats
+	{
+		u64 input_bytes;
+		u64 output_bytes;
+		u64 resumed_bytes; // already converted by an earlier, cancelled run
+		double compress_seconds;
+		double verify_seconds;
+	};
+
+	/// Converts any image InputIsoFile can read, apart from CHD, to dst. Cancelling through the progress
+	/// callback leaves a checkpoint, and converting the same image to the same place again carries on from it.
+	bool Convert(const std::string& src, const std::string& dst, Format format, ProgressCallback* progress,
+		Stats* stats, Error* error);
+
+	/// Reads a converted image back through CsoFileReader, and checks it holds total_bytes with the given CRC-32.
+	/// Convert() already does this, it's separate so an image can be checked without converting it again.
+	bool Verify(const std::string& dst, u64 total_bytes, u32 expected_crc, ProgressCallback* progress, Error* error);
+} // namespace DiscImageConverter
@@ -2,14 +2,30 @@
 // SPDX-License-Identifier: GPL-3.0+
 
 #include "FlatFileReader.h"
+#include "Config.h"
 
 #include "common/Assertions.h"
 #include "common/Console.h"
 #include "common/FileSystem.h"
 #include "common/Error.h"
+#include "common/ProgressCallback.h"
 
+#include <algorithm>
 #include <cerrno>
 #include <cstring>
+#include <limits>
+
+#ifndef _WIN32
+#include <fcntl.h>
+#include <sys/mman.h>
+#include <sys/stat.h>
+#include <unistd.h>
+#endif
+
+#ifdef __linux__
+#include <linux/magic.h>
+#include <sys/vfs.h>
+#endif
 
 static constexpr size_t CHUNK_SIZE = 128 * 1024;
 
@@ -17,22 +33,22 @@ FlatFileReader::FlatFileReader() = default;
 
 FlatFileReader::~FlatFileReader()
 {
+#ifdef _WIN32
 	pxAssert(!m_file);
+#else
+	pxAssert(m_fd < 0 && !m_mapping);
+#endif
 }
 
+#ifdef _WIN32
+
 bool FlatFileReader::Open2(std::string filename, Error* error)
 {
-    m_filename = std::move(filename);
-    ////
-    if (m_filename.rfind("content://", 0) == 0) {
-        m_file = fdopen(FileSystem::OpenFDFileContent(m_filename.c_str()), "rb");
-    } else {
-        m_file = FileSystem::OpenCFile(m_filename.c_str(), "rb", error);
-    }
-    ////
-    if (!m_file) {
-        return false;
-    }
+	m_filename = std::move(filename);
+
+	m_file = FileSystem::OpenCFile(m_filename.c_str(), "rb", error);
+	if (!m_file)
+		return false;
 
 	const s64 filesize = FileSystem::FSize64(m_file);
 	if (filesize <= 0)
@@ -65,6 +81,181 @@ bool FlatFileReader::Precache2(ProgressCallback* progress, Error* error)
 	return true;
 }
 
+#else
+
+// A failed read through a mapping is SIGBUS rather than an error, so only images on the device's own storage are
+// mapped. Removable cards, FUSE-backed shared storage and document providers can go away or be truncated under us.
+static bool IsOnInternalStorage(int fd)
+{
+#ifdef __linux__
+	struct statfs sfs;
+	if (fstatfs(fd, &sfs) != 0)
+		return false;
+
+	switch (static_cast<u32>(sfs.f_type))
+	{
+		case EXT4_SUPER_MAGIC:
+		case F2FS_SUPER_MAGIC:
+		case BTRFS_SUPER_MAGIC:
+		case XFS_SUPER_MAGIC:
+		case TMPFS_MAGIC:
+			return true;
+
+		default:
+			return false;
+	}
+#else
+	return false;
+#endif
+}
+
+bool FlatFileReader::Open2(std::string filename, Error* error)
+{
+	m_filename = std::move(filename);
+
+	int fd;
+	if (m_filename.starts_with("content://"))
+	{
+		// Storage Access Framework document, the provider hands us a detached descriptor.
+		fd = FileSystem::OpenFDFileContent(m_filename.c_str());
+		if (fd < 0)
+		{
+			Error::SetStringView(error, "Failed to open content URI.");
+			return false;
+		}
+	}
+	else
+	{
+		fd = open(m_filename.c_str(), O_RDONLY | O_CLOEXEC);
+		if (fd < 0)
+		{
+			Error::SetErrno(error, "open() failed: ", errno);
+			return false;
+		}
+	}
+
+	return OpenDescriptor(fd, error);
+}
+
+bool FlatFileReader::OpenDescriptor(int fd, Error* error)
+{
+	m_fd = fd;
+
+	struct stat st;
+	if (fstat(m_fd, &st) != 0)
+	{
+		Error::SetErrno(error, "fstat() failed: ", errno);
+		Close2();
+		return false;
+	}
+
+	// Pipes and sockets from some providers report no size; fall back to seeking to the end.
+	s64 filesize = S_ISREG(st.st_mode) ? static_cast<s64>(st.st_size) : static_cast<s64>(lseek(m_fd, 0, SEEK_END));
+	if (filesize <= 0)
+	{
+		Error::SetStringView(error, "Failed to determine file size.");
+		Close2();
+		return false;
+	}
+
+	m_file_size = static_cast<u64>(filesize);
+
+	if (S_ISREG(st.st_mode) && EmuConfig.CdvdMapImages && IsOnInternalStorage(m_fd))
+		MapFile();
+
+	return true;
+}
+
+void FlatFileReader::MapFile()
+{
+	// Fails for images larger than the address space on 32-bit, in which case pread is used instead.
+	if (m_file_size > static_cast<u64>(std::numeric_limits<size_t>::max()))
+		return;
+
+	void* ptr = mmap(nullptr, static_cast<size_t>(m_file_size), PROT_READ, MAP_SHARED, m_fd, 0);
+	if (ptr == MAP_FAILED)
+	{
+		DevCon.Warning("FlatFileReader: mmap() failed (%d), using pread() instead.", errno);
+		return;
+	}
+
+	m_mapping = static_cast<const u8*>(ptr);
+}
+
+bool FlatFileReader::ReadAt(void* dst, u64 offset, size_t size) const
+{
+	u8* ptr = static_cast<u8*>(dst);
+	while (size > 0)
+	{
+		const ssize_t res = pread(m_fd, ptr, size, static_cast<off_t>(offset));
+		if (res < 0)
+		{
+			if (errno == EINTR)
+				continue;
+
+			return false;
+		}
+		else if (res == 0)
+		{
+			return false;
+		}
+
+		ptr += res;
+		offset += static_cast<u64>(res);
+		size -= static_cast<size_t>(res);
+	}
+
+	return true;
+}
+
+bool FlatFileReader::Precache2(ProgressCallback* progress, Error* error)
+{
+	if (m_fd < 0 || !CheckAvailableMemoryForPrecaching(m_file_size, error))
+		return false;
+
+	static constexpr size_t PRECACHE_READ_SIZE = 16 * 1024 * 1024;
+
+	m_file_cache = std::make_unique_for_overwrite<u8[]>(m_file_size);
+	progress->SetProgressRange(100);
+
+	for (u64 done = 0; done < m_file_size;)
+	{
+		if (progress->IsCancelled())
+		{
+			m_file_cache.reset();
+			return false;
+		}
+
+		const size_t read_size = static_cast<size_t>(std::min<u64>(m_file_size - done, PRECACHE_READ_SIZE));
+		if (m_mapping)
+		{
+			std::memcpy(&m_file_cache[done], m_mapping + done, read_size);
+		}
+		else if (!ReadAt(&m_file_cache[done], done, read_size))
+		{
+			Error::SetErrno(error, "pread() failed: ", errno);
+			m_file_cache.reset();
+			return false;
+		}
+
+		done += read_size;
+		progress->SetProgressValue(static_cast<u32>((done * 100) / m_file_size));
+	}
+
+	// Everything's in memory now, the file isn't needed any more.
+	if (m_mapping)
+	{
+		munmap(const_cast<u8*>(m_mapping), static_cast<size_t>(m_file_size));
+		m_mapping = nullptr;
+	}
+
+	close(m_fd);
+	m_fd = -1;
+	return true;
+}
+
+#endif
+
 ThreadedFileReader::Chunk FlatFileReader::ChunkForOffset(u64 offset)
 {
 	ThreadedFileReader::Chunk chunk = {};
@@ -88,31 +279,55 @@ int FlatFileReader::ReadChunk(void* dst, s64 blockID)
 		return -1;
 
 	const u64 file_offset = static_cast<u64>(blockID) * CHUNK_SIZE;
+	if (file_offset >= m_file_size)
+		return -1;
+
+	const u32 read_size = static_cast<u32>(std::min<u64>(m_file_size - file_offset, CHUNK_SIZE));
 	if (m_file_cache)
 	{
-		if (file_offset >= m_file_size)
-			return -1;
-
-		const u64 read_size = std::min<u64>(m_file_size - file_offset, CHUNK_SIZE);
 		std::memcpy(dst, &m_file_cache[file_offset], read_size);
 		return static_cast<int>(read_size);
 	}
 
+#ifdef _WIN32
 	if (FileSystem::FSeek64(m_file, file_offset, SEEK_SET) != 0)
 		return -1;
 
-	const u32 read_size = static_cast<u32>(std::min<u64>(m_file_size - file_offset, CHUNK_SIZE));
-
 	return (std::fread(dst, read_size, 1, m_file) == 1) ? static_cast<int>(read_size) : 0;
+#else
+	if (m_mapping)
+	{
+		std::memcpy(dst, m_mapping + file_offset, read_size);
+		return static_cast<int>(read_size);
+	}
+
+	return ReadAt(dst, file_offset, read_size) ? static_cast<int>(read_size) : 0;
+#endif
 }
 
 void FlatFileReader::Close2()
 {
-	if (!m_file)
-		return;
+#ifdef _WIN32
+	if (m_file)
+	{
+		std::fclose(m_file);
+		m_file = nullptr;
+	}
+#else
+	if (m_mapping)
+	{
+		munmap(const_cast<u8*>(m_mapping), static_cast<size_t>(m_file_size));
+		m_mapping = nullptr;
+	}
 
-	std::fclose(m_file);
-	m_file = nullptr;
+	if (m_fd >= 0)
+	{
+		close(m_fd);
+		m_fd = -1;
+	}
+#endif
+
+	m_file_cache.reset();
 	m_file_size = 0;
 }
 
@@ -11,10 +11,25 @@ class FlatFileReader final : public ThreadedFileReader
 {
 	DeclareNoncopyableObject(FlatFileReader);
 
+#ifdef _WIN32
 	std::FILE* m_file = nullptr;
+#else
+	// Reads are positional (pread), so they don't share a file offset and need no locking.
+	int m_fd = -1;
+
+	// The whole file, when the descriptor refers to a regular file which could be mapped.
+	const u8* m_mapping = nullptr;
+#endif
+
 	std::unique_ptr<u8[]> m_file_cache;
 	u64 m_file_size = 0;
 
+#ifndef _WIN32
+	bool OpenDescriptor(int fd, Error* error);
+	void MapFile();
+	bool ReadAt(void* dst, u64 offset, size_t size) const;
+#endif
+
 public:
 	FlatFileReader();
 	~FlatFileReader() override;
@@ -4,6 +4,7 @@
 #include "Config.h"
 #include "GzippedFileReader.h"
 #include "Host.h"
+#include "IconsFontAwesome5.h"
 #include "CDVD/zlib_indexed.h"
 
 #include "common/Console.h"
@@ -11,6 +12,7 @@
 #include "common/Error.h"
 #include "common/Path.h"
 #include "common/StringUtil.h"
+#include "common/Threading.h"
 #include "common/Timer.h"
 
 #include "fmt/format.h"
@@ -65,28 +67,6 @@ static Access* ReadIndexFromFile(const char* filename)
 	return index;
 }
 
-static void WriteIndexToFile(Access* index, const char* filename)
-{
-	auto fp = FileSystem::OpenManagedCFile(filename, "wb");
-	if (!fp)
-		return;
-
-	bool success = (std::fwrite(GZIP_ID, GZIP_ID_LEN, 1, fp.get()) == 1);
-
-	Point* tmp = index->list;
-	index->list = 0; // current pointer is useless on disk, normalize it as 0.
-	std::fwrite((char*)index, sizeof(Access), 1, fp.get());
-	index->list = tmp;
-
-	success = success && (std::fwrite((char*)index->list, sizeof(Point) * index->have, 1, fp.get()) == 1);
-
-	// Verify
-	if (!success)
-		ERROR_LOG("Warning: Can't write index file to disk: '{}'", filename);
-	else
-		INFO_LOG("Gzip quick access index file saved to disk: '{}'", filename);
-}
-
 static const char* INDEX_TEMPLATE_KEY = "$(f)";
 
 // template:
@@ -138,46 +118,387 @@ GzippedFileReader::GzippedFileReader() = default;
 
 GzippedFileReader::~GzippedFileReader() = default;
 
-bool GzippedFileReader::LoadOrCreateIndex(Error* error)
+// Stored indices (in the cache directory) are:
+// - [sizeof(CachedIndexHeader)] whether the index covers the whole file, and the sizes it was built with
+// - [rest] the access points built so far
+struct CachedIndexHeader
+{
+	u32 complete;
+	s32 span;
+	s64 uncompressed_size;
+	s32 have;
+	u32 reserved;
+};
+
+static constexpr u32 INDEX_CACHE_VERSION = 1;
+static constexpr const char* INDEX_CACHE_EXTENSION = "gzidx";
+
+// Save what's been built every this many access points, so an interrupted build can carry on next time.
+static constexpr int INDEX_SAVE_INTERVAL = 256;
+
+// Reads this far past the last access point wait for the indexer, rather than inflating everything in between.
+static constexpr s64 MAX_UNINDEXED_EXTRACT = 2;
+
+static constexpr const char* INDEX_OSD_KEY = "GzipIndex";
+
+Access* GzippedFileReader::LoadCachedIndex(bool* complete)
 {
-	// Try to read index from disk
-	const std::string indexfile(iso2indexname(m_filename, error));
-	if (indexfile.empty())
+	if (!m_has_fingerprint)
+		return nullptr;
+
+	const std::optional<std::vector<u8>> data = DiscImageCache::Read(m_fingerprint, INDEX_CACHE_EXTENSION, INDEX_CACHE_VERSION);
+	if (!data.has_value() || data->size() < sizeof(CachedIndexHeader))
+		return nullptr;
+
+	CachedIndexHeader header;
+	std::memcpy(&header, data->data(), sizeof(header));
+	if (header.have <= 0 || header.span != GZFILE_SPAN_DEFAULT ||
+		data->size() != sizeof(header) + static_cast<size_t>(header.have) * sizeof(Point))
+	{
+		return nullptr;
+	}
+
+	Access* const index = static_cast<Access*>(std::malloc(sizeof(Access)));
+	index->list = static_cast<Point*>(std::malloc(sizeof(Point) * header.have));
+	std::memcpy(index->list, data->data() + sizeof(header), sizeof(Point) * header.have);
+	index->have = header.have;
+	index->size = header.have;
+	index->span = header.span;
+	index->uncompressed_size = header.uncompressed_size;
+	*complete = (header.complete != 0);
+	return index;
+}
+
+void GzippedFileReader::SaveCachedIndex()
+{
+	if (!m_has_fingerprint)
+		return;
+
+	std::vector<u8> data;
+	{
+		std::unique_lock lock(m_index_mutex);
+		if (!m_index || m_index->have <= 0)
+			return;
+
+		CachedIndexHeader header = {};
+		header.complete = m_index_complete;
+		header.span = m_span;
+		header.uncompressed_size = m_index_complete ? m_index->uncompressed_size : 0;
+		header.have = m_index->have;
+
+		data.resize(sizeof(header) + sizeof(Point) * m_index->have);
+		std::memcpy(data.data(), &header, sizeof(header));
+		std::memcpy(data.data() + sizeof(header), m_index->list, sizeof(Point) * m_index->have);
+	}
+
+	if (DiscImageCache::Write(m_fingerprint, INDEX_CACHE_EXTENSION, INDEX_CACHE_VERSION, data))
+		INFO_LOG("Gzip quick access index saved to cache ({} access points).", (data.size() - sizeof(CachedIndexHeader)) / sizeof(Point));
+}
+
+bool GzippedFileReader::EstimateUncompressedSize()
+{
+	// Multi-gigabyte images are ISOs, and the primary volume descriptor at sector 16 has the
+	// volume size. The gzip trailer has the exact size, but only modulo 4GB. Together they're
+	// enough, since nothing on a DVD goes more than 4GB past the first volume's end.
+	static constexpr u32 PVD_OFFSET = 16 * 2048;
+	static constexpr u32 PVD_SIZE = 2048;
+
+	u8 magic[2];
+	const s64 compressed_size = FileSystem::FSize64(m_src);
+	if (compressed_size < 18 || FileSystem::FSeek64(m_src, 0, SEEK_SET) != 0 ||
+		std::fread(magic, sizeof(magic), 1, m_src) != 1 || magic[0] != 0x1f || magic[1] != 0x8b)
 	{
-		// iso2indexname(...) will set errors if it can't apply the template
 		return false;
 	}
 
-	if ((m_index = ReadIndexFromFile(indexfile.c_str())) != nullptr)
+	u32 isize;
+	if (FileSystem::FSeek64(m_src, compressed_size - 4, SEEK_SET) != 0 || std::fread(&isize, sizeof(isize), 1, m_src) != 1)
+		return false;
+
+	z_stream strm = {};
+	if (inflateInit2(&strm, 47) != Z_OK)
+		return false;
+
+	std::unique_ptr<u8[]> input = std::make_unique<u8[]>(CHUNK);
+	std::unique_ptr<u8[]> output = std::make_unique<u8[]>(PVD_OFFSET + PVD_SIZE);
+	strm.next_out = output.get();
+	strm.avail_out = PVD_OFFSET + PVD_SIZE;
+	FileSystem::FSeek64(m_src, 0, SEEK_SET);
+
+	int ret = Z_OK;
+	while (strm.avail_out > 0 && ret == Z_OK)
 	{
-		INFO_LOG("Gzip quick access index read from disk: '{}'", indexfile);
-		return true;
+		if (strm.avail_in == 0)
+		{
+			strm.avail_in = static_cast<uInt>(std::fread(input.get(), 1, CHUNK, m_src));
+			strm.next_in = input.get();
+			if (strm.avail_in == 0)
+				break;
+		}
+
+		ret = inflate(&strm, Z_NO_FLUSH);
 	}
+	inflateEnd(&strm);
+	FileSystem::FSeek64(m_src, 0, SEEK_SET);
 
-	// No valid index file. Generate an index
-	Console.Warning("This may take a while (but only once). Scanning compressed file to generate a quick access index...");
+	const u8* pvd = &output[PVD_OFFSET];
+	if (strm.avail_out != 0 || pvd[0] != 1 || std::memcmp(&pvd[1], "CD001", 5) != 0)
+		return false;
 
-	const s64 prevoffset = FileSystem::FTell64(m_src);
-	Access* index = nullptr;
-	int len = build_index(m_src, GZFILE_SPAN_DEFAULT, &index);
-	printf("\n"); // build_index prints progress without \n's
-	FileSystem::FSeek64(m_src, prevoffset, SEEK_SET);
+	u32 volume_blocks;
+	u16 block_size;
+	std::memcpy(&volume_blocks, &pvd[80], sizeof(volume_blocks));
+	std::memcpy(&block_size, &pvd[128], sizeof(block_size));
+	const s64 volume_size = static_cast<s64>(volume_blocks) * block_size;
 
-	if (len >= 0)
+	s64 size = isize;
+	while (size < volume_size)
+		size += s64(1) << 32;
+
+	m_uncompressed_size = size;
+	INFO_LOG("Gzip image size estimated as {} bytes until the index is complete.", size);
+	return true;
+}
+
+bool GzippedFileReader::LoadOrCreateIndex(Error* error)
+{
+	m_has_fingerprint = DiscImageCache::GetFingerprint(m_filename, m_src, &m_fingerprint);
+
+	bool complete = false;
+	Access* index = LoadCachedIndex(&complete);
+
+	// Indices from before they were kept in the cache directory. Content URIs never had one.
+	if (!index && !m_filename.starts_with("content://"))
 	{
+		const std::string indexfile(iso2indexname(m_filename, error));
+		if (!indexfile.empty() && (index = ReadIndexFromFile(indexfile.c_str())) != nullptr)
+		{
+			INFO_LOG("Gzip quick access index read from disk: '{}'", indexfile);
+			complete = true;
+		}
+	}
+
+	if (index && complete)
+	{
+		INFO_LOG("Gzip quick access index loaded ({} access points).", static_cast<int>(index->have));
 		m_index = index;
-		WriteIndexToFile(m_index, indexfile.c_str());
+		m_span = index->span;
+		m_uncompressed_size = index->uncompressed_size;
+		m_index_complete = true;
+		return true;
 	}
-	else
+
+	m_index = index;
+	m_span = GZFILE_SPAN_DEFAULT;
+	m_indexed_out = index ? index->list[index->have - 1].out : 0;
+	if (index)
+		INFO_LOG("Continuing gzip index from {} MB.", m_indexed_out / _1mb);
+
+	// Without knowing the size, the disc can't be identified, so the whole index has to be built first.
+	const bool wait_for_index = !EstimateUncompressedSize();
+	if (wait_for_index)
+		Console.Warning("This may take a while (but only once). Scanning compressed file to generate a quick access index...");
+
+	StartIndexThread();
+	if (!wait_for_index)
+		return true;
+
+	std::unique_lock lock(m_index_mutex);
+	m_index_cv.wait(lock, [this]() { return m_index_complete || m_index_failed; });
+	if (m_index_failed)
 	{
-		Error::SetStringFmt(error, "ERROR ({}): Index could not be generated for file '{}'", len, m_filename);
-		free_index(index);
+		Error::SetStringFmt(error, "Index could not be generated for file '{}'", m_filename);
 		return false;
 	}
 
+	m_uncompressed_size = m_index->uncompressed_size;
 	return true;
 }
 
+void GzippedFileReader::StartIndexThread()
+{
+	m_index_cancel.store(false, std::memory_order_relaxed);
+	m_index_thread = std::thread(&GzippedFileReader::IndexThread, this);
+}
+
+void GzippedFileReader::StopIndexThread()
+{
+	if (!m_index_thread.joinable())
+		return;
+
+	m_index_cancel.store(true, std::memory_order_relaxed);
+	m_index_thread.join();
+	Host::RemoveKeyedOSDMessage(INDEX_OSD_KEY);
+
+	// Keep what was built, the next boot carries on from there.
+	if (!m_index_complete && !m_index_failed)
+		SaveCachedIndex();
+}
+
+// Same as build_index(), but can carry on from the last access point of a partial index,
+// and publishes access points as it goes so reads can use them straight away.
+void GzippedFileReader::IndexThread()
+{
+	Threading::SetNameOfCurrentThread("Gzip Indexer");
+
+	const auto fail = [this](const char* reason) {
+		Console.Error(fmt::format("Failed to build gzip index for '{}': {}", Path::GetFileName(m_filename), reason));
+		std::unique_lock lock(m_index_mutex);
+		m_index_failed = true;
+		lock.unlock();
+		m_index_cv.notify_all();
+	};
+
+	// Reads keep using m_src, the indexer needs its own position.
+	auto fp = FileSystem::OpenManagedCFile(m_filename.c_str(), "rb");
+	if (!fp)
+		return fail("Failed to open file");
+
+	const s64 compressed_size = FileSystem::FSize64(fp.get());
+	std::unique_ptr<u8[]> input = std::make_unique<u8[]>(CHUNK);
+	std::unique_ptr<u8[]> window = std::make_unique<u8[]>(WINSIZE);
+
+	z_stream strm = {};
+	s64 totin = 0, totout = 0, last = 0;
+	{
+		std::unique_lock lock(m_index_mutex);
+		if (m_index && m_index->have > 0)
+		{
+			// Resume raw inflate at the last access point, exactly as extract() starts from one.
+			const Point& here = m_index->list[m_index->have - 1];
+			if (inflateInit2(&strm, -15) != Z_OK)
+				return fail("inflateInit2() failed");
+
+			if (FileSystem::FSeek64(fp.get(), here.in - (here.bits ? 1 : 0), SEEK_SET) != 0)
+			{
+				inflateEnd(&strm);
+				return fail("Seek failed");
+			}
+			if (here.bits)
+			{
+				const int ret = std::getc(fp.get());
+				if (ret == EOF)
+				{
+					inflateEnd(&strm);
+					return fail("Read failed");
+				}
+				inflatePrime(&strm, here.bits, ret >> (8 - here.bits));
+			}
+			inflateSetDictionary(&strm, here.window, WINSIZE);
+			totin = here.in;
+			totout = last = here.out;
+		}
+		else if (inflateInit2(&strm, 47) != Z_OK) /* automatic zlib or gzip decoding */
+		{
+			return fail("inflateInit2() failed");
+		}
+	}
+
+	Common::Timer progress_timer;
+	int ret;
+	int points_since_save = 0;
+	strm.avail_out = 0;
+	do
+	{
+		if (m_index_cancel.load(std::memory_order_relaxed))
+		{
+			inflateEnd(&strm);
+			return;
+		}
+
+		/* get some compressed data from input file */
+		strm.avail_in = static_cast<uInt>(std::fread(input.get(), 1, CHUNK, fp.get()));
+		if (std::ferror(fp.get()) || strm.avail_in == 0)
+		{
+			inflateEnd(&strm);
+			return fail(std::ferror(fp.get()) ? "Read failed" : "Unexpected end of file");
+		}
+		strm.next_in = input.get();
+
+		/* process all of that, or until end of stream */
+		do
+		{
+			/* reset sliding window if necessary */
+			if (strm.avail_out == 0)
+			{
+				strm.avail_out = WINSIZE;
+				strm.next_out = window.get();
+			}
+
+			totin += strm.avail_in;
+			totout += strm.avail_out;
+			ret = inflate(&strm, Z_BLOCK); /* return at end of block */
+			totin -= strm.avail_in;
+			totout -= strm.avail_out;
+			if (ret == Z_NEED_DICT || ret == Z_MEM_ERROR || ret == Z_DATA_ERROR)
+			{
+				inflateEnd(&strm);
+				return fail((ret == Z_MEM_ERROR) ? "Out of memory" : "Corrupted data");
+			}
+			if (ret == Z_STREAM_END)
+				break;
+
+			// See build_index() for when an access point can be added.
+			if ((strm.data_type & 128) && !(strm.data_type & 64) && (totout == 0 || totout - last > m_span))
+			{
+				std::unique_lock lock(m_index_mutex);
+				Access* const index = addpoint(m_index, strm.data_type & 7, totin, totout, strm.avail_out, window.get());
+				m_index = index;
+				if (!index)
+				{
+					lock.unlock();
+					inflateEnd(&strm);
+					return fail("Out of memory");
+				}
+				m_indexed_out = totout;
+				lock.unlock();
+				m_index_cv.notify_all();
+				last = totout;
+
+				if (++points_since_save == INDEX_SAVE_INTERVAL)
+				{
+					SaveCachedIndex();
+					points_since_save = 0;
+				}
+			}
+		} while (strm.avail_in != 0);
+
+		if (progress_timer.GetTimeSeconds() >= 1.0)
+		{
+			Host::AddIconOSDMessage(INDEX_OSD_KEY, ICON_FA_COMPACT_DISC,
+				fmt::format(TRANSLATE_FS("CDVD", "Indexing compressed image: {}%"), (totin * 100) / std::max<s64>(compressed_size, 1)),
+				Host::OSD_INFO_DURATION);
+			progress_timer.Reset();
+		}
+	} while (ret != Z_STREAM_END);
+
+	inflateEnd(&strm);
+
+	{
+		std::unique_lock lock(m_index_mutex);
+		if (!m_index)
+		{
+			// Could happen if the start of the stream in Z_STREAM_END
+			lock.unlock();
+			return fail("Empty stream");
+		}
+
+		m_index->span = m_span;
+		m_index->uncompressed_size = totout;
+		m_index_complete = true;
+
+		// Reads past the real end would fail, and reads past a short estimate were refused, so use the real size from now on.
+		const s64 estimated_size = m_uncompressed_size.exchange(totout, std::memory_order_relaxed);
+		if (estimated_size != 0 && estimated_size != totout)
+			Console.Warning(fmt::format("Gzip image is {} bytes, not the estimated {}.", totout, estimated_size));
+	}
+	m_index_cv.notify_all();
+
+	INFO_LOG("Gzip quick access index complete ({} MB).", totout / _1mb);
+	Host::RemoveKeyedOSDMessage(INDEX_OSD_KEY);
+	SaveCachedIndex();
+}
+
 bool GzippedFileReader::Open2(std::string filename, Error* error)
 {
 	Close();
@@ -194,6 +515,8 @@ bool GzippedFileReader::Open2(std::string filename, Error* error)
 
 void GzippedFileReader::Close2()
 {
+	StopIndexThread();
+
 	if (m_z_state.isValid)
 	{
 		inflateEnd(&m_z_state.strm);
@@ -211,20 +534,27 @@ void GzippedFileReader::Close2()
 		free_index(m_index);
 		m_index = nullptr;
 	}
+
+	m_uncompressed_size.store(0, std::memory_order_relaxed);
+	m_extract_point.reset();
+	m_indexed_out = 0;
+	m_index_complete = false;
+	m_index_failed = false;
+	m_has_fingerprint = false;
 }
 
 ThreadedFileReader::Chunk GzippedFileReader::ChunkForOffset(u64 offset)
 {
 	ThreadedFileReader::Chunk chunk = {};
-	if (static_cast<s64>(offset) >= m_index->uncompressed_size)
+	if (static_cast<s64>(offset) >= m_uncompressed_size.load(std::memory_order_relaxed))
 	{
 		chunk.chunkID = -1;
 	}
 	else
 	{
-		chunk.chunkID = static_cast<s64>(offset) / m_index->span;
-		chunk.length = m_index->span;
-		chunk.offset = static_cast<u64>(chunk.chunkID) * m_index->span;
+		chunk.chunkID = static_cast<s64>(offset) / m_span;
+		chunk.length = m_span;
+		chunk.offset = static_cast<u64>(chunk.chunkID) * m_span;
 	}
 
 	return chunk;
@@ -235,12 +565,62 @@ int GzippedFileReader::ReadChunk(void* dst, s64 chunkID)
 	if (chunkID < 0)
 		return -1;
 
-	const s64 file_offset = chunkID * m_index->span;
-	const u32 read_len = static_cast<u32>(std::min<s64>(m_index->uncompressed_size - file_offset, m_index->span));
-	return extract(m_src, m_index, file_offset, static_cast<unsigned char*>(dst), read_len, &m_z_state);
+	const s64 file_offset = chunkID * m_span;
+	const s64 remaining = m_uncompressed_size.load(std::memory_order_relaxed) - file_offset;
+	if (remaining <= 0)
+		return -1;
+	const u32 read_len = static_cast<u32>(std::min<s64>(remaining, m_span));
+
+	// Inflating a chunk can take a while, so the index lock is only held to find where to start. A complete
+	// index never changes, but one still being built can be reallocated as points are added, so the point
+	// extract() starts from is copied out. Reads carrying on from the last one don't need a point at all.
+	Access access = {};
+	Access* index;
+	{
+		// While the index is being built, anything near the indexed part (or carrying on from the last read) can
+		// be extracted straight away. Further on, it's quicker to let the indexer get there.
+		std::unique_lock lock(m_index_mutex);
+		const bool continues = m_z_state.isValid && m_z_state.out_offset == file_offset;
+		if (!m_index_complete)
+		{
+			m_index_cv.wait(lock, [this, file_offset, continues]() {
+				return m_index_complete || m_index_failed ||
+					   (m_index && (continues || file_offset < m_indexed_out + MAX_UNINDEXED_EXTRACT * m_span));
+			});
+			if (!m_index)
+				return -1;
+		}
+
+		if (m_index_complete)
+		{
+			index = m_index;
+		}
+		else
+		{
+			if (!continues)
+			{
+				// Same search as extract().
+				const Point* here = m_index->list;
+				for (int left = m_index->have; --left && here[1].out <= file_offset;)
+					here++;
+
+				if (!m_extract_point)
+					m_extract_point = std::make_unique<Point>();
+				std::memcpy(m_extract_point.get(), here, sizeof(Point));
+			}
+
+			access.have = 1;
+			access.size = 1;
+			access.list = m_extract_point.get();
+			access.span = m_span;
+			index = &access;
+		}
+	}
+
+	return extract(m_src, index, file_offset, static_cast<unsigned char*>(dst), read_len, &m_z_state);
 }
 
 u32 GzippedFileReader::GetBlockCount() const
 {
-	return (m_index->uncompressed_size + (m_blocksize - 1)) / m_blocksize;
+	return (m_uncompressed_size.load(std::memory_order_relaxed) + (m_blocksize - 1)) / m_blocksize;
 }
@@ -3,9 +3,16 @@
 
 #pragma once
 
+#include "CDVD/DiscImageCache.h"
 #include "CDVD/ThreadedFileReader.h"
 #include "zlib_indexed.h"
 
+#include <atomic>
+#include <condition_variable>
+#include <memory>
+#include <mutex>
+#include <thread>
+
 class GzippedFileReader final : public ThreadedFileReader
 {
 	DeclareNoncopyableObject(GzippedFileReader);
@@ -28,12 +35,41 @@ private:
 	static constexpr int GZFILE_READ_CHUNK_SIZE = (256 * 1024); /* zlib extraction chunks size (at 0-based boundaries) */
 	static constexpr int GZFILE_CACHE_SIZE_MB = 200; /* cache size for extracted data. must be at least GZFILE_READ_CHUNK_SIZE (in MB)*/
 
-	// Verifies that we have an index, or try to create one
+	// Loads a stored index, and starts building (or finishing) one in the background if it isn't complete
 	bool LoadOrCreateIndex(Error* error);
 
-	Access* m_index = nullptr; // Quick access index
+	/// Works out the image size without an index, from the gzip trailer and the ISO volume descriptor,
+	/// so that the game can start while the index is still being built.
+	bool EstimateUncompressedSize();
+
+	Access* LoadCachedIndex(bool* complete);
+	void SaveCachedIndex();
+
+	void StartIndexThread();
+	void StopIndexThread();
+	void IndexThread();
+
+	Access* m_index = nullptr; // Quick access index, possibly still being built. Protected by m_index_mutex.
 
 	std::FILE* m_src = nullptr;
 
 	zstate m_z_state = {};
+
+	// Copy of the access point a read starts from, so the index lock isn't held while inflating.
+	std::unique_ptr<Point> m_extract_point;
+
+	// Estimated until the index is complete, then exact. Read without the index lock.
+	std::atomic<s64> m_uncompressed_size{0};
+	s32 m_span = GZFILE_SPAN_DEFAULT;
+
+	DiscImageCache::Fingerprint m_fingerprint = {};
+	bool m_has_fingerprint = false;
+
+	std::thread m_index_thread;
+	std::mutex m_index_mutex;
+	std::condition_variable m_index_cv;
+	s64 m_indexed_out = 0; // uncompressed offset of the last access point
+	bool m_index_complete = false;
+	bool m_index_failed = false;
+	std::atomic_bool m_index_cancel{false};
 };
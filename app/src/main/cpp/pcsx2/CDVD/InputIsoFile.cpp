@@ -15,6 +15,7 @@
 #include "common/Error.h"
 #include "common/Path.h"
 #include "common/StringUtil.h"
+#include "common/Trace.h"
 
 #include "fmt/format.h"
 
@@ -37,7 +38,7 @@ static const char* nameFromType(int type)
 	}
 }
 
-static std::unique_ptr<ThreadedFileReader> GetFileReader(const std::string& path)
+std::unique_ptr<ThreadedFileReader> InputIsoFile::CreateReader(const std::string& path)
 {
 	const std::string_view extension = Path::GetExtension(path);
 
@@ -64,6 +65,7 @@ int InputIsoFile::ReadSync(u8* dst, uint lsn)
 		return -1;
 	}
 
+	TRACE_SCOPE("cdvd", "CDVD Read");
 	return m_reader->ReadSync(dst + m_blockofs, lsn, 1);
 }
 
@@ -100,6 +102,7 @@ int InputIsoFile::FinishRead3(u8* dst, uint mode)
 
 	if (m_read_inprogress)
 	{
+		TRACE_SCOPE("cdvd", "CDVD Read Wait");
 		const int ret = m_reader->FinishRead();
 		m_read_inprogress = false;
 
@@ -193,7 +196,9 @@ bool InputIsoFile::Open(std::string srcfile, Error* error)
 {
 	Close();
 	m_filename = std::move(srcfile);
-	m_reader = GetFileReader(m_filename);
+	m_reader = CreateReader(m_filename);
+	if (m_access_profile_disabled)
+		m_reader->DisableAccessProfile();
 	if (!m_reader->Open(m_filename, error))
 	{
 		m_reader.reset();
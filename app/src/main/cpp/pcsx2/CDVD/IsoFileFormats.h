@@ -50,6 +50,8 @@ protected:
 	uint m_read_lsn;
 	u8 m_readbuffer[CD_FRAMESIZE_RAW];
 
+	bool m_access_profile_disabled = false;
+
 public:
 	InputIsoFile();
 	~InputIsoFile();
@@ -65,6 +67,12 @@ public:
 		return m_filename;
 	}
 
+	/// Creates a reader for the image's format, going by its extension, without opening it.
+	static std::unique_ptr<ThreadedFileReader> CreateReader(const std::string& path);
+
+	/// Keeps reads through this file out of the disc access profile, for anything which isn't the game itself.
+	void DisableAccessProfile() { m_access_profile_disabled = true; }
+
 	bool Open(std::string srcfile, Error* error);
 	bool Precache(ProgressCallback* progress, Error* error);
 	void Close();
@@ -2,16 +2,207 @@
 // SPDX-License-Identifier: GPL-3.0+
 
 #include "CDVD/CDVDcommon.h"
+#include "CDVD/IsoFileFormats.h"
 #include "CDVD/IsoHasher.h"
 #include "Host.h"
 
 #include "common/Error.h"
 #include "common/MD5Digest.h"
+#include "common/SHA1Digest.h"
 #include "common/StringUtil.h"
+#include "common/Threading.h"
+#include "common/Timer.h"
 
 #include "fmt/format.h"
 
 #include <algorithm>
+#include <array>
+#include <condition_variable>
+#include <cstring>
+#include <iterator>
+#include <mutex>
+#include <thread>
+#include <zlib.h>
+
+static constexpr u32 HASH_CACHE_VERSION = 1;
+static constexpr const char* HASH_CACHE_EXTENSION = "hashes";
+
+// Sectors are read into these and handed to every digest thread, so each is read from the image only once.
+static constexpr u32 HASH_BUFFER_SIZE = 1024 * 1024;
+static constexpr u32 HASH_BUFFER_COUNT = 4;
+
+namespace
+{
+	struct CachedTrack
+	{
+		u32 number;
+		u32 start_lsn;
+		u32 sectors;
+		u32 crc32;
+		u8 md5[16];
+		u8 sha1[SHA1Digest::DIGEST_SIZE];
+	};
+
+	/// Computes MD5, SHA-1 and CRC32 of one stream, each on its own thread. The threads walk the same
+	/// ring of buffers in order, and a buffer is refilled once all of them are done with it.
+	class ParallelDigests
+	{
+	public:
+		enum : u32
+		{
+			MD5,
+			SHA1,
+			CRC32,
+			COUNT
+		};
+
+		ParallelDigests();
+		~ParallelDigests();
+
+		/// Waits for the next buffer to be free.
+		u8* GetBuffer();
+		void Submit(u32 size);
+		/// Waits for every submitted buffer to be hashed.
+		void Finish(u8 md5[16], u8 sha1[SHA1Digest::DIGEST_SIZE], u32* crc32);
+
+	private:
+		struct Buffer
+		{
+			std::unique_ptr<u8[]> data;
+			u32 size = 0;
+			u32 pending = 0; // digests still to hash it
+		};
+
+		void WorkerThread(u32 digest);
+
+		std::array<Buffer, HASH_BUFFER_COUNT> m_buffers;
+		std::array<std::thread, COUNT> m_threads;
+		std::mutex m_mutex;
+		std::condition_variable m_work_cv;
+		std::condition_variable m_done_cv;
+		u64 m_submitted = 0;
+		bool m_quit = false;
+
+		MD5Digest m_md5;
+		SHA1Digest m_sha1;
+		u32 m_crc32 = 0;
+	};
+} // namespace
+
+ParallelDigests::ParallelDigests()
+{
+	for (Buffer& buffer : m_buffers)
+		buffer.data = std::make_unique<u8[]>(HASH_BUFFER_SIZE);
+	for (u32 i = 0; i < COUNT; i++)
+		m_threads[i] = std::thread(&ParallelDigests::WorkerThread, this, i);
+}
+
+ParallelDigests::~ParallelDigests()
+{
+	{
+		std::unique_lock lock(m_mutex);
+		m_quit = true;
+	}
+	m_work_cv.notify_all();
+
+	for (std::thread& thread : m_threads)
+		thread.join();
+}
+
+u8* ParallelDigests::GetBuffer()
+{
+	std::unique_lock lock(m_mutex);
+	Buffer& buffer = m_buffers[m_submitted % HASH_BUFFER_COUNT];
+	m_done_cv.wait(lock, [&buffer]() { return buffer.pending == 0; });
+	return buffer.data.get();
+}
+
+void ParallelDigests::Submit(u32 size)
+{
+	{
+		std::unique_lock lock(m_mutex);
+		Buffer& buffer = m_buffers[m_submitted % HASH_BUFFER_COUNT];
+		buffer.size = size;
+		buffer.pending = COUNT;
+		m_submitted++;
+	}
+	m_work_cv.notify_all();
+}
+
+void ParallelDigests::Finish(u8 md5[16], u8 sha1[SHA1Digest::DIGEST_SIZE], u32* crc32)
+{
+	{
+		std::unique_lock lock(m_mutex);
+		m_done_cv.wait(lock, [this]() {
+			return std::all_of(m_buffers.begin(), m_buffers.end(), [](const Buffer& buffer) { return buffer.pending == 0; });
+		});
+	}
+
+	m_md5.Final(md5);
+	m_sha1.Final(sha1);
+	*crc32 = m_crc32;
+}
+
+void ParallelDigests::WorkerThread(u32 digest)
+{
+	Threading::SetNameOfCurrentThread("Disc Hash");
+
+	u64 consumed = 0;
+	std::unique_lock lock(m_mutex);
+	for (;;)
+	{
+		m_work_cv.wait(lock, [this, consumed]() { return m_quit || consumed < m_submitted; });
+		if (m_quit)
+			break;
+
+		Buffer& buffer = m_buffers[consumed % HASH_BUFFER_COUNT];
+		lock.unlock();
+
+		switch (digest)
+		{
+			case MD5:
+				m_md5.Update(buffer.data.get(), buffer.size);
+				break;
+			case SHA1:
+				m_sha1.Update(buffer.data.get(), buffer.size);
+				break;
+			default:
+				m_crc32 = static_cast<u32>(crc32(m_crc32, buffer.data.get(), buffer.size));
+				break;
+		}
+
+		lock.lock();
+		consumed++;
+		if (--buffer.pending == 0)
+			m_done_cv.notify_all();
+	}
+}
+
+template <size_t N>
+static std::string DigestToString(const u8 (&digest)[N])
+{
+	std::string ret;
+	ret.reserve(N * 2);
+	for (const u8 byte : digest)
+		fmt::format_to(std::back_inserter(ret), "{:02x}", byte);
+	return ret;
+}
+
+template <size_t N>
+static bool DigestFromString(const std::string& str, u8 (&digest)[N])
+{
+	if (str.size() != N * 2)
+		return false;
+
+	for (size_t i = 0; i < N; i++)
+	{
+		const std::optional<u8> byte = StringUtil::FromChars<u8>(std::string_view(str).substr(i * 2, 2), 16);
+		if (!byte.has_value())
+			return false;
+		digest[i] = byte.value();
+	}
+	return true;
+}
 
 IsoHasher::IsoHasher() = default;
 
@@ -39,145 +230,183 @@ bool IsoHasher::Open(std::string iso_path, Error* error)
 {
 	Close();
 
-	CDVDsys_SetFile(CDVD_SourceType::Iso, std::move(iso_path));
-	CDVDsys_ChangeSource(CDVD_SourceType::Iso);
+	m_has_fingerprint = DiscImageCache::GetFingerprint(iso_path, &m_fingerprint);
 
-	m_is_open = DoCDVDopen(error);
-	if (!m_is_open)
+	m_iso = std::make_unique<InputIsoFile>();
+	m_iso->DisableAccessProfile();
+	if (!m_iso->Open(std::move(iso_path), error))
+	{
+		m_iso.reset();
 		return false;
+	}
 
-	const s32 type = DoCDVDdetectDiskType();
-	switch (type)
+	switch (m_iso->GetType())
 	{
-		case CDVD_TYPE_PSCD:
-		case CDVD_TYPE_PSCDDA:
-		case CDVD_TYPE_PS2CD:
-		case CDVD_TYPE_PS2CDDA:
+		case ISOTYPE_CD:
 			m_is_cd = true;
 			break;
 
-		case CDVD_TYPE_PS2DVD:
+		case ISOTYPE_DVD:
+		case ISOTYPE_DVDDL:
 			m_is_cd = false;
 			break;
 
 		default:
-			Error::SetString(error, fmt::format("Unknown CDVD disk type {}", type));
+			Error::SetString(error, fmt::format("Unsupported image type {}", static_cast<int>(m_iso->GetType())));
+			Close();
 			return false;
 	}
 
-	cdvdTN tn;
-	if (CDVD->getTN(&tn) < 0)
-	{
-		Error::SetString(error, "Failed to get track count.");
-		return false;
-	}
+	// Images are a single data track, the same as the ISO CDVD source reports for them.
+	Track strack;
+	strack.number = 1;
+	strack.type = CDVD_MODE1_TRACK;
+	strack.start_lsn = 0;
+	strack.sectors = m_iso->GetBlockCount();
+	strack.size = static_cast<u64>(strack.sectors) * (m_is_cd ? 2352 : 2048);
+	m_tracks.push_back(std::move(strack));
 
-	for (u8 track = tn.strack; track <= tn.etrack; track++)
-	{
-		cdvdTD td, next_td;
-		if (CDVD->getTD(track, &td) < 0 || CDVD->getTD((track == tn.etrack) ? 0 : (track + 1), &next_td) < 0)
-		{
-			Error::SetString(error, fmt::format("Failed to get track range for {}", static_cast<unsigned>(track)));
-			return false;
-		}
+	LoadCachedHashes();
+	return true;
+}
+
+void IsoHasher::Close()
+{
+	if (!m_iso)
+		return;
+
+	m_iso->Close();
+	m_iso.reset();
+	m_tracks.clear();
+	m_has_fingerprint = false;
+	m_is_cd = false;
+}
+
+bool IsoHasher::HasAllHashes() const
+{
+	return std::none_of(m_tracks.begin(), m_tracks.end(), [](const Track& track) { return track.hash.empty(); });
+}
+
+void IsoHasher::LoadCachedHashes()
+{
+	if (!m_has_fingerprint)
+		return;
 
-		// sanity check..
-		if (next_td.lsn < td.lsn)
+	const std::optional<std::vector<u8>> data = DiscImageCache::Read(m_fingerprint, HASH_CACHE_EXTENSION, HASH_CACHE_VERSION);
+	if (!data.has_value() || data->size() != m_tracks.size() * sizeof(CachedTrack))
+		return;
+
+	std::vector<CachedTrack> cached(m_tracks.size());
+	std::memcpy(cached.data(), data->data(), data->size());
+	for (size_t i = 0; i < m_tracks.size(); i++)
+	{
+		// Same fingerprint with a different layout would be a different reader, don't trust it.
+		if (cached[i].number != m_tracks[i].number || cached[i].start_lsn != m_tracks[i].start_lsn ||
+			cached[i].sectors != m_tracks[i].sectors)
 		{
-			Error::SetString(error,
-				fmt::format("Invalid track range for {} ({},{})", static_cast<unsigned>(track), td.lsn, next_td.lsn));
-			return false;
+			return;
 		}
-
-		Track strack;
-		strack.number = track;
-		strack.type = td.type;
-		strack.start_lsn = td.lsn;
-		strack.sectors = next_td.lsn - td.lsn;
-		strack.size = static_cast<u64>(strack.sectors) * (m_is_cd ? 2352 : 2048);
-		m_tracks.push_back(std::move(strack));
 	}
 
-	return true;
+	for (size_t i = 0; i < m_tracks.size(); i++)
+	{
+		m_tracks[i].hash = DigestToString(cached[i].md5);
+		m_tracks[i].sha1 = DigestToString(cached[i].sha1);
+		m_tracks[i].crc32 = cached[i].crc32;
+	}
 }
 
-void IsoHasher::Close()
+void IsoHasher::SaveCachedHashes()
 {
-	if (!m_is_open)
+	if (!m_has_fingerprint || !HasAllHashes())
 		return;
 
-	DoCDVDclose();
-	m_tracks.clear();
-	m_is_cd = false;
-	m_is_open = false;
+	std::vector<CachedTrack> cached(m_tracks.size());
+	for (size_t i = 0; i < m_tracks.size(); i++)
+	{
+		cached[i].number = m_tracks[i].number;
+		cached[i].start_lsn = m_tracks[i].start_lsn;
+		cached[i].sectors = m_tracks[i].sectors;
+		cached[i].crc32 = m_tracks[i].crc32;
+		if (!DigestFromString(m_tracks[i].hash, cached[i].md5) || !DigestFromString(m_tracks[i].sha1, cached[i].sha1))
+			return;
+	}
+
+	DiscImageCache::Write(m_fingerprint, HASH_CACHE_EXTENSION, HASH_CACHE_VERSION,
+		std::span<const u8>(reinterpret_cast<const u8*>(cached.data()), cached.size() * sizeof(CachedTrack)));
 }
 
 void IsoHasher::ComputeHashes(ProgressCallback* callback)
 {
-	callback->SetProgressRange(GetTrackCount());
+	u64 total_bytes = 0;
+	for (const Track& track : m_tracks)
+	{
+		if (track.hash.empty())
+			total_bytes += track.size;
+	}
+
+	callback->SetProgressRange(static_cast<u32>((total_bytes + _1mb - 1) / _1mb));
 	callback->SetProgressValue(0);
 	callback->SetCancellable(true);
 
-	for (u32 index = 0; index < GetTrackCount(); index++)
+	u64 bytes_done = 0;
+	for (Track& track : m_tracks)
 	{
-		Track& track = m_tracks[index];
 		if (!track.hash.empty())
-		{
-			callback->SetProgressValue(index + 1);
 			continue;
-		}
 
-		callback->PushState();
-		const bool result = ComputeTrackHash(track, callback);
-		callback->PopState();
-
-		if (!result)
-			break;
-
-		callback->SetProgressValue(index + 1);
-		callback->IncrementProgressValue();
+		if (!ComputeTrackHash(track, callback, &bytes_done))
+			return;
 	}
 
-	callback->SetProgressValue(GetTrackCount());
+	SaveCachedHashes();
+	callback->SetProgressValue(static_cast<u32>((total_bytes + _1mb - 1) / _1mb));
 }
 
-bool IsoHasher::ComputeTrackHash(Track& track, ProgressCallback* callback)
+bool IsoHasher::ComputeTrackHash(Track& track, ProgressCallback* callback, u64* bytes_done)
 {
-	// use 2048 byte reads for DVDs, otherwise 2352 raw.
-	const int read_mode = m_is_cd ? CDVD_MODE_2352 : CDVD_MODE_2048;
+	// use 2048 byte reads for DVDs, otherwise 2352 raw. The reader always fills a raw frame, which
+	// puts the user data of a DVD sector 24 bytes in.
 	const u32 sector_size = m_is_cd ? 2352 : 2048;
-	std::vector<u8> sector_buffer(sector_size);
+	u8 frame[CD_FRAMESIZE_RAW];
+	const u32 sectors_per_buffer = HASH_BUFFER_SIZE / sector_size;
 
-	const u32 update_interval = std::max<u32>(track.sectors / 100u, 1u);
-	callback->SetFormattedStatusText("Computing hash for track %u...", track.number);
-	callback->SetProgressRange(track.sectors);
-
-	MD5Digest md5;
-	for (u32 i = 0; i < track.sectors; i++)
+	const Common::Timer timer;
+	ParallelDigests digests;
+	for (u32 i = 0; i < track.sectors;)
 	{
 		if (callback->IsCancelled())
 			return false;
 
-		const u32 lsn = track.start_lsn + i;
-		if (DoCDVDreadSector(sector_buffer.data(), lsn, read_mode) != 0)
+		// One pass over the track, the readers' readahead turns these into large sequential reads.
+		u8* buffer = digests.GetBuffer();
+		const u32 count = std::min(sectors_per_buffer, track.sectors - i);
+		for (u32 j = 0; j < count; j++)
 		{
-			callback->DisplayFormattedModalError("Read error at LSN %u", lsn);
-			return false;
+			const u32 lsn = track.start_lsn + i + j;
+			u8* dst = buffer + j * sector_size;
+			if (m_iso->ReadSync(m_is_cd ? dst : frame, lsn) < 0)
+			{
+				callback->DisplayFormattedModalError("Read error at LSN %u", lsn);
+				return false;
+			}
+			if (!m_is_cd)
+				std::memcpy(dst, frame + 24, sector_size);
 		}
 
-		md5.Update(sector_buffer.data(), sector_size);
+		digests.Submit(count * sector_size);
+		i += count;
+		*bytes_done += static_cast<u64>(count) * sector_size;
 
-		if ((i % update_interval) == 0)
-			callback->SetProgressValue(i);
+		callback->SetFormattedStatusText("Computing hashes for track %u... %.1f MB/s", track.number,
+			static_cast<double>(static_cast<u64>(i) * sector_size) / _1mb / std::max(timer.GetTimeSeconds(), 0.001));
+		callback->SetProgressValue(static_cast<u32>(*bytes_done / _1mb));
 	}
 
-	u8 digest[16];
-	md5.Final(digest);
-	track.hash =
-		fmt::format("{:02x}{:02x}{:02x}{:02x}{:02x}{:02x}{:02x}{:02x}{:02x}{:02x}{:02x}{:02x}{:02x}{:02x}{:02x}{:02x}",
-			digest[0], digest[1], digest[2], digest[3], digest[4], digest[5], digest[6], digest[7], digest[8],
-			digest[9], digest[10], digest[11], digest[12], digest[13], digest[14], digest[15]);
-
-	callback->SetProgressValue(track.sectors);
+	u8 md5[16];
+	u8 sha1[SHA1Digest::DIGEST_SIZE];
+	digests.Finish(md5, sha1, &track.crc32);
+	track.hash = DigestToString(md5);
+	track.sha1 = DigestToString(sha1);
 	return true;
 }
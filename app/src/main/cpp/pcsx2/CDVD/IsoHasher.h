@@ -3,13 +3,17 @@
 
 #pragma once
 
+#include "CDVD/DiscImageCache.h"
+
 #include "common/Pcsx2Defs.h"
 #include "common/ProgressCallback.h"
 
+#include <memory>
 #include <string>
 #include <vector>
 
 class Error;
+class InputIsoFile;
 
 class IsoHasher
 {
@@ -21,7 +25,9 @@ public:
 		u32 start_lsn;
 		u32 sectors;
 		u64 size;
-		std::string hash;
+		std::string hash; // MD5, which is what Redump lists first
+		std::string sha1;
+		u32 crc32 = 0;
 	};
 
 public:
@@ -34,16 +40,28 @@ public:
 	const Track& GetTrack(u32 n) const { return m_tracks.at(n); }
 	const std::vector<Track>& GetTracks() const { return m_tracks; }
 	bool IsCD() const { return m_is_cd; }
+	/// True once every track has been hashed, or the hashes were found in the cache.
+	bool HasAllHashes() const;
 
+	/// Reads the image through its own reader, never the CDVD source, so it's safe while a game is running.
 	bool Open(std::string iso_path, Error* error = nullptr);
 	void Close();
 
+	/// Hashes each track which doesn't have hashes yet. The image is read once, with MD5, SHA-1 and CRC32
+	/// each computed on their own thread from the same buffers.
 	void ComputeHashes(ProgressCallback* callback = ProgressCallback::NullProgressCallback);
 
 private:
-	bool ComputeTrackHash(Track& track, ProgressCallback* callback);
+	/// Progress is in MB over every track being hashed, bytes_done carries it from one track to the next.
+	bool ComputeTrackHash(Track& track, ProgressCallback* callback, u64* bytes_done);
+
+	/// Hashes are kept per image fingerprint, so verifying an unchanged image again doesn't read it.
+	void LoadCachedHashes();
+	void SaveCachedHashes();
 
+	std::unique_ptr<InputIsoFile> m_iso;
 	std::vector<Track> m_tracks;
-	bool m_is_open = false;
+	DiscImageCache::Fingerprint m_fingerprint = {};
+	bool m_has_fingerprint = false;
 	bool m_is_cd = false;
 };
@@ -2,8 +2,12 @@
 // SPDX-License-Identifier: GPL-3.0+
 
 #include "ThreadedFileReader.h"
+#include "Config.h"
 #include "Host.h"
+#include "PerformanceMetrics.h"
+#include "VMManager.h"
 
+#include "common/Console.h"
 #include "common/Error.h"
 #include "common/HostSys.h"
 #include "common/Path.h"
@@ -11,12 +15,32 @@
 #include "common/SmallString.h"
 #include "common/Threading.h"
 
+#include <algorithm>
 #include <cstring>
 
 // Make sure buffer size is bigger than the cutoff where PCSX2 emulates a seek
 // If buffers are smaller than that, we can't keep up with linear reads
 static constexpr u32 MINIMUM_SIZE = 128 * 1024;
 
+// Most memory to spend on buffers, this limits readahead for formats with big chunks (4MB for gzip)
+static constexpr u32 READAHEAD_MEMORY_LIMIT = 16 * 1024 * 1024;
+
+// Most memory to spend on data the access profile predicted, enough for a couple of level loads
+static constexpr u64 PREFETCH_MEMORY_LIMIT = 32 * 1024 * 1024;
+
+// Number of places the profile says a game goes after a region which get prefetched, most likely first
+static constexpr u32 MAX_PREFETCH_PREDICTIONS = 2;
+
+// Most profile regions to have queued for prefetch at once
+static constexpr size_t MAX_PREFETCH_REGIONS = PREFETCH_MEMORY_LIMIT / DiscAccessProfile::REGION_SIZE;
+
+// Regions at the start of the disc which are always precached when the whole image doesn't fit.
+// They hold the volume descriptors and directories, and usually the boot executable.
+static constexpr u32 PRECACHE_LEADING_REGIONS = 32;
+
+// Reserve this much available memory for everything else when precaching.
+static constexpr u64 PRECACHE_MEMORY_RESERVE = 2147483648;
+
 ThreadedFileReader::ThreadedFileReader()
 {
 	m_readThread = std::thread([](ThreadedFileReader* r){ r->Loop(); }, this);
@@ -61,100 +85,238 @@ void ThreadedFileReader::Loop()
 
 	while (true)
 	{
-		while (!m_requestSize && !m_quit)
+		while (!m_requestSize && !m_readaheadCount && m_prefetchQueue.empty() && !m_quit)
 			m_condition.wait(lock);
 
 		if (m_quit)
 			return;
 
-		u64 requestOffset;
-		u32 requestSize;
+		VMManager::Internal::ApplyAuxiliaryThreadAffinity();
 
-		bool ok = true;
 		m_running = true;
 
-		for (;;)
+		if (m_requestSize)
 		{
-			void* ptr = m_requestPtr.load(std::memory_order_acquire);
-			requestOffset = m_requestOffset;
-			requestSize = m_requestSize;
+			u64 requestOffset;
+			u32 requestSize;
+
+			for (;;)
+			{
+				void* ptr = m_requestPtr.load(std::memory_order_acquire);
+				requestOffset = m_requestOffset;
+				requestSize = m_requestSize;
+				lock.unlock();
+
+				if (ptr)
+					Decompress(ptr, requestOffset, requestSize);
+
+				// There's a potential for a race here when doing synchronous reads. Basically, another request can come in,
+				// after we release the lock, but before we store null to indicate we're finished. So, we do a compare-exchange
+				// instead, to detect when this happens, and if so, reload all the inputs and try again.
+				if (!m_requestPtr.compare_exchange_strong(ptr, nullptr, std::memory_order_release))
+				{
+					lock.lock();
+					continue;
+				}
+
+				m_condition.notify_one();
+				break;
+			}
+
+			lock.lock();
+			if (requestSize == m_requestSize && requestOffset == m_requestOffset && !m_requestPtr)
+			{
+				// If no one's added more work, mark this one as done
+				m_requestSize = 0;
+			}
+		}
+
+		// Readahead, one request at a time so that a new read doesn't have to wait for the whole queue
+		while (!m_requestSize && m_readaheadCount && !m_quit)
+		{
+			const ReadaheadRequest request = m_readahead[m_readaheadHead];
+			m_readaheadHead = (m_readaheadHead + 1) % MAX_BUFFERS;
+			m_readaheadCount--;
 			lock.unlock();
+			FillReadahead(request.offset, request.size);
+			lock.lock();
+		}
 
-			if (ptr)
-				ok = Decompress(ptr, requestOffset, requestSize);
+		// Prefetch has the lowest priority, it's only a guess at what will be read
+		while (!m_requestSize && !m_readaheadCount && !m_prefetchQueue.empty() && !m_quit)
+		{
+			const u32 region = m_prefetchQueue.front();
+			m_prefetchQueue.erase(m_prefetchQueue.begin());
+			lock.unlock();
+			const bool done = FillPrefetch(region, false);
+			lock.lock();
 
-			// There's a potential for a race here when doing synchronous reads. Basically, another request can come in,
-			// after we release the lock, but before we store null to indicate we're finished. So, we do a compare-exchange
-			// instead, to detect when this happens, and if so, reload all the inputs and try again.
-			if (!m_requestPtr.compare_exchange_strong(ptr, nullptr, std::memory_order_release))
+			// Carry on with the rest of the region later, unless the queue has moved on from it
+			if (!done && m_prefetchQueue.size() < MAX_PREFETCH_REGIONS &&
+				std::find(m_prefetchQueue.begin(), m_prefetchQueue.end(), region) == m_prefetchQueue.end())
 			{
-				lock.lock();
-				continue;
+				m_prefetchQueue.insert(m_prefetchQueue.begin(), region);
 			}
+			if (!done)
+				break;
+		}
 
-			m_condition.notify_one();
-			break;
+		m_running = false;
+		m_condition.notify_one(); // For things waiting on m_running == false
+	}
+}
+
+void ThreadedFileReader::FillReadahead(u64 offset, u32 size)
+{
+	const u64 end = offset + size;
+	while (offset < end)
+	{
+		// Reads take priority, anything not read ahead here gets queued again by the next read
+		if (m_requestPtr.load(std::memory_order_acquire) || m_requestCancelled.load(std::memory_order_relaxed))
+			return;
+
+		Chunk chunk = ChunkForOffset(offset);
+		if (chunk.chunkID < 0)
+			return;
+		Buffer* buf = GetBlockPtr(chunk);
+		if (!buf)
+			return;
+
+		// Fill the rest of the buffer with the chunks that follow
+		u32 bufsize = buf->size.load(std::memory_order_relaxed);
+		while (buf->offset + bufsize < end && !m_requestPtr.load(std::memory_order_acquire))
+		{
+			chunk = ChunkForOffset(buf->offset + bufsize);
+			if (chunk.chunkID < 0 || buf->offset + bufsize != chunk.offset || chunk.length + bufsize > buf->cap)
+				break;
+			int amt = ReadChunk(static_cast<char*>(buf->ptr) + bufsize, chunk.chunkID);
+			if (amt <= 0)
+				return;
+			bufsize += amt;
+			buf->size.store(bufsize, std::memory_order_release);
 		}
 
-		if (ok)
+		offset = buf->offset + bufsize;
+	}
+}
+
+bool ThreadedFileReader::FillPrefetch(u32 region, bool pin)
+{
+	u64 offset = static_cast<u64>(region) << DiscAccessProfile::REGION_SHIFT;
+	const u64 end = offset + DiscAccessProfile::REGION_SIZE;
+	while (offset < end)
+	{
+		// Skip what's already been prefetched, and stop a new block where the next one starts
+		u64 next_block = UINT64_MAX;
 		{
-			// Readahead
-			Chunk chunk = ChunkForOffset(requestOffset + requestSize);
-			if (chunk.chunkID >= 0)
+			std::lock_guard<std::mutex> lock(m_mtx);
+			auto it = m_prefetched.upper_bound(offset);
+			if (it != m_prefetched.end())
+				next_block = it->first;
+			if (it != m_prefetched.begin())
 			{
-				int buffersFilled = 0;
-				Buffer* buf = GetBlockPtr(chunk);
-				// Cancel readahead if a new request comes in
-				while (buf && !m_requestPtr.load(std::memory_order_acquire))
+				--it;
+				if (it->first + it->second.data.size() > offset)
 				{
-					u32 bufsize = buf->size.load(std::memory_order_relaxed);
-					chunk = ChunkForOffset(buf->offset + bufsize);
-					if (chunk.chunkID < 0)
-						break;
-					if (buf->offset + bufsize != chunk.offset || chunk.length + bufsize > buf->cap)
-					{
-						buffersFilled++;
-						if (buffersFilled >= 2)
-							break;
-						buf = GetBlockPtr(chunk);
-					}
-					else
-					{
-						int amt = ReadChunk(static_cast<char*>(buf->ptr) + bufsize, chunk.chunkID);
-						if (amt <= 0)
-							break;
-						buf->size.store(bufsize + amt, std::memory_order_release);
-					}
+					offset = it->first + it->second.data.size();
+					continue;
 				}
 			}
 		}
 
-		lock.lock();
-		if (requestSize == m_requestSize && requestOffset == m_requestOffset && !m_requestPtr)
+		Chunk chunk = ChunkForOffset(offset);
+		if (chunk.chunkID < 0)
+			return true;
+
+		const u64 block_offset = chunk.offset;
+		PrefetchBlock block;
+		block.data.reserve(std::min<u64>(end - block_offset, next_block - block_offset) + chunk.length);
+		bool interrupted = false;
+		bool failed = false;
+		u32 size = 0;
+		for (;;)
+		{
+			// Reads take priority, anything not prefetched here gets queued again
+			if (!pin && (m_requestPtr.load(std::memory_order_acquire) || m_requestCancelled.load(std::memory_order_relaxed)))
+			{
+				interrupted = true;
+				break;
+			}
+
+			block.data.resize(size + chunk.length);
+			const int amt = ReadChunk(block.data.data() + size, chunk.chunkID);
+			if (amt <= 0)
+			{
+				failed = true;
+				break;
+			}
+			size += amt;
+			if (static_cast<u32>(amt) < chunk.length || block_offset + size >= end || block_offset + size >= next_block)
+				break;
+
+			chunk = ChunkForOffset(block_offset + size);
+			if (chunk.chunkID < 0 || chunk.offset != block_offset + size)
+				break;
+		}
+		block.data.resize(size);
+		if (size > 0)
 		{
-			// If no one's added more work, mark this one as done
-			m_requestSize = 0;
+			std::lock_guard<std::mutex> lock(m_mtx);
+			block.lastUse = m_bufferClock.fetch_add(1, std::memory_order_relaxed) + 1;
+			block.pinned = pin;
+			(pin ? m_pinnedBytes : m_prefetchedBytes) += size;
+			m_prefetched.emplace(block_offset, std::move(block));
+			EvictPrefetched();
 		}
 
-		m_running = false;
-		m_condition.notify_one(); // For things waiting on m_running == false
+		// A read error gives up on the region, the game will get the error itself if it gets there
+		if (interrupted)
+			return false;
+		if (failed || size == 0)
+			return true;
+		offset = block_offset + size;
+	}
+	return true;
+}
+
+std::map<u64, ThreadedFileReader::PrefetchBlock>::iterator ThreadedFileReader::FindPrefetched(u64 offset)
+{
+	auto it = m_prefetched.upper_bound(offset);
+	if (it == m_prefetched.begin())
+		return m_prefetched.end();
+	--it;
+	return (it->first + it->second.data.size() > offset) ? it : m_prefetched.end();
+}
+
+void ThreadedFileReader::EvictPrefetched()
+{
+	while (m_prefetchedBytes > PREFETCH_MEMORY_LIMIT)
+	{
+		auto oldest = m_prefetched.end();
+		for (auto it = m_prefetched.begin(); it != m_prefetched.end(); ++it)
+		{
+			if (!it->second.pinned && (oldest == m_prefetched.end() || it->second.lastUse < oldest->second.lastUse))
+				oldest = it;
+		}
+		m_prefetchedBytes -= oldest->second.data.size();
+		m_prefetched.erase(oldest);
 	}
 }
 
 ThreadedFileReader::Buffer* ThreadedFileReader::GetBlockPtr(const Chunk& block)
 {
-	for (int i = 0; i < static_cast<int>(std::size(m_buffer)); i++)
+	for (u32 i = 0; i < m_bufferCount; i++)
 	{
 		u32 size = m_buffer[i].size.load(std::memory_order_relaxed);
 		u64 offset = m_buffer[i].offset;
 		if (size && offset <= block.offset && offset + size >= block.offset + block.length)
 		{
-			m_nextBuffer = (i + 1) % std::size(m_buffer);
+			MarkUsed(m_buffer[i]);
 			return m_buffer + i;
 		}
 	}
 
-	Buffer& buf = m_buffer[m_nextBuffer];
+	Buffer* buf;
 	{
 		// This can be called from both the read thread threads in ReadSync
 		// Calls from ReadSync are done with the lock already held to keep the read thread out
@@ -163,20 +325,67 @@ ThreadedFileReader::Buffer* ThreadedFileReader::GetBlockPtr(const Chunk& block)
 		if (std::this_thread::get_id() == m_readThread.get_id())
 			lock.lock();
 		u32 size = std::max(block.length, MINIMUM_SIZE);
-		if (buf.cap < size)
+		buf = GetBufferToReuse(size);
+		if (buf->cap < size)
 		{
-			buf.ptr = realloc(buf.ptr, size);
-			buf.cap = size;
+			buf->ptr = realloc(buf->ptr, size);
+			buf->cap = size;
 		}
-		buf.size.store(0, std::memory_order_relaxed);
+		buf->size.store(0, std::memory_order_relaxed);
 	}
-	int size = ReadChunk(buf.ptr, block.chunkID);
+	int size = ReadChunk(buf->ptr, block.chunkID);
 	if (size > 0)
 	{
-		buf.offset = block.offset;
-		buf.size.store(size, std::memory_order_release);
-		m_nextBuffer = (m_nextBuffer + 1) % std::size(m_buffer);
-		return &buf;
+		buf->offset = block.offset;
+		MarkUsed(*buf);
+		buf->size.store(size, std::memory_order_release);
+		return buf;
+	}
+	return nullptr;
+}
+
+ThreadedFileReader::Buffer* ThreadedFileReader::GetBufferToReuse(u32 size)
+{
+	// Chunks are the same size throughout a file, so the first one decides how many buffers fit in memory
+	if (m_bufferSize < size)
+	{
+		m_bufferSize = size;
+		m_bufferCount = std::clamp(READAHEAD_MEMORY_LIMIT / size, 2u, MAX_BUFFERS);
+	}
+
+	// Keep the last read and the readahead window after it if possible, otherwise the least recently used buffer goes
+	const u64 window_start = m_lastReadOffset;
+	const u64 window_end = m_lastReadEnd + static_cast<u64>(m_readaheadDepth) * m_bufferSize;
+	Buffer* best = nullptr;
+	bool best_in_window = false;
+	u64 best_use = 0;
+	for (u32 i = 0; i < m_bufferCount; i++)
+	{
+		Buffer& buf = m_buffer[i];
+		const u32 bufsize = buf.size.load(std::memory_order_relaxed);
+		if (!bufsize)
+			return &buf;
+
+		const bool in_window = buf.offset < window_end && buf.offset + bufsize > window_start;
+		const u64 use = buf.lastUse.load(std::memory_order_relaxed);
+		if (!best || (best_in_window && !in_window) || (best_in_window == in_window && use < best_use))
+		{
+			best = &buf;
+			best_in_window = in_window;
+			best_use = use;
+		}
+	}
+	return best;
+}
+
+ThreadedFileReader::Buffer* ThreadedFileReader::FindBuffer(u64 offset)
+{
+	for (u32 i = 0; i < m_bufferCount; i++)
+	{
+		Buffer& buf = m_buffer[i];
+		const u32 bufsize = buf.size.load(std::memory_order_acquire);
+		if (bufsize && buf.offset <= offset && buf.offset + bufsize > offset)
+			return &buf;
 	}
 	return nullptr;
 }
@@ -192,10 +401,13 @@ bool ThreadedFileReader::Decompress(void* target, u64 begin, u32 size)
 			return false;
 
 		Chunk chunk = ChunkForOffset(off);
-		if (m_internalBlockSize || chunk.offset != off || chunk.length > remaining)
+		// Readahead may have finished this chunk after the read missed the cache, don't decompress it twice
+		Buffer* buf = FindBuffer(off);
+		if (buf || m_internalBlockSize || chunk.offset != off || chunk.length > remaining)
 		{
-			Buffer* buf = GetBlockPtr(chunk);
-			if (!buf)
+			if (buf)
+				MarkUsed(*buf);
+			else if (!(buf = GetBlockPtr(chunk)))
 				return false;
 			u32 bufoff = off - buf->offset;
 			u32 bufsize = buf->size.load(std::memory_order_relaxed);
@@ -222,40 +434,204 @@ bool ThreadedFileReader::Decompress(void* target, u64 begin, u32 size)
 
 bool ThreadedFileReader::TryCachedRead(void*& buffer, u64& offset, u32& size, const std::lock_guard<std::mutex>&)
 {
-	// Run through twice so that if m_buffer[1] contains the first half and m_buffer[0] contains the second half it still works
+	// Buffers can be in any order, so look up each piece of the read separately
 	m_amtRead = 0;
-	u64 end = 0;
-	bool allDone = false;
-	for (int i = 0; i < static_cast<int>(std::size(m_buffer) * 2); i++)
+	while (size > 0)
 	{
-		Buffer& buf = m_buffer[i % std::size(m_buffer)];
-		u32 bufsize = buf.size.load(std::memory_order_acquire);
-		if (!bufsize)
+		const char* src;
+		u32 cpysize;
+		if (Buffer* buf = FindBuffer(offset))
+		{
+			u32 bufsize = buf->size.load(std::memory_order_acquire);
+			u32 off = offset - buf->offset;
+			src = static_cast<char*>(buf->ptr) + off;
+			cpysize = std::min(size, bufsize - off);
+			MarkUsed(*buf);
+		}
+		else if (auto it = FindPrefetched(offset); it != m_prefetched.end())
+		{
+			const u64 off = offset - it->first;
+			src = reinterpret_cast<const char*>(it->second.data.data()) + off;
+			cpysize = static_cast<u32>(std::min<u64>(size, it->second.data.size() - off));
+			it->second.lastUse = m_bufferClock.fetch_add(1, std::memory_order_relaxed) + 1;
+		}
+		else
+		{
+			return false;
+		}
+
+		size_t read = CopyBlocks(buffer, src, cpysize);
+		m_amtRead += read;
+		size -= cpysize;
+		offset += cpysize;
+		buffer = static_cast<char*>(buffer) + read;
+	}
+	return true;
+}
+
+void ThreadedFileReader::UpdateReadaheadWindow(u64 offset, u32 size)
+{
+	// Short skips forward count as sequential too, e.g. streams with interleaved channels which aren't all read
+	const bool sequential = (offset >= m_lastReadEnd && offset - m_lastReadEnd < MINIMUM_SIZE);
+	if (sequential)
+	{
+		// Double the window each time a whole window's worth has been read, so short runs between seeks
+		// don't leave the read thread busy with readahead that's never used
+		const u32 span = m_bufferSize ? m_bufferSize : MINIMUM_SIZE;
+		m_sequentialBytes += size;
+		if (m_sequentialBytes >= m_readaheadDepth * span)
+		{
+			m_readaheadDepth = std::min(m_readaheadDepth * 2, std::max(m_bufferCount, 2u) - 1);
+			m_sequentialBytes = 0;
+		}
+	}
+	else if (offset != m_lastReadOffset)
+	{
+		// Anything still queued was for the old position
+		m_readaheadDepth = std::max(m_readaheadDepth / 2, 1u);
+		m_sequentialBytes = 0;
+		m_readaheadCount = 0;
+	}
+
+	m_lastReadOffset = offset;
+	m_lastReadEnd = offset + size;
+}
+
+bool ThreadedFileReader::UpdateProfile(u64 offset, u32 size)
+{
+	if (!m_profile.IsActive() || !m_profile.RecordRead(offset, size))
+		return false;
+
+	DiscAccessProfile::Prediction predictions[MAX_PREFETCH_PREDICTIONS];
+	const u32 region = static_cast<u32>((offset + std::max(size, 1u) - 1) >> DiscAccessProfile::REGION_SHIFT);
+	const u32 count = m_profile.GetPredictions(region, predictions, MAX_PREFETCH_PREDICTIONS);
+	if (count == 0)
+		return false;
+
+	// Predictions from the new position replace any from the old one
+	m_prefetchQueue.clear();
+	for (u32 i = 0; i < count; i++)
+	{
+		for (u32 r = predictions[i].region; r < predictions[i].region + predictions[i].length && m_prefetchQueue.size() < MAX_PREFETCH_REGIONS; r++)
+		{
+			if (std::find(m_prefetchQueue.begin(), m_prefetchQueue.end(), r) == m_prefetchQueue.end())
+				m_prefetchQueue.push_back(r);
+		}
+	}
+	return true;
+}
+
+bool ThreadedFileReader::QueueReadahead(u64 offset)
+{
+	// Skip over what's already buffered or queued
+	u32 ahead = 0;
+	while (ahead < m_readaheadDepth)
+	{
+		if (const Buffer* buf = FindBuffer(offset))
+		{
+			offset = buf->offset + buf->size.load(std::memory_order_acquire);
+			ahead++;
 			continue;
-		if (buf.offset <= offset && buf.offset + bufsize > offset)
+		}
+
+		const ReadaheadRequest* queued = nullptr;
+		for (u32 i = 0; i < m_readaheadCount; i++)
 		{
-			u32 off = offset - buf.offset;
-			u32 cpysize = std::min(size, bufsize - off);
-			size_t read = CopyBlocks(buffer, static_cast<char*>(buf.ptr) + off, cpysize);
-			m_amtRead += read;
-			size -= cpysize;
-			offset += cpysize;
-			buffer = static_cast<char*>(buffer) + read;
-			if (size == 0)
-				end = buf.offset + bufsize;
+			const ReadaheadRequest& request = m_readahead[(m_readaheadHead + i) % MAX_BUFFERS];
+			if (request.offset <= offset && request.offset + request.size > offset)
+			{
+				queued = &request;
+				break;
+			}
 		}
-		// Do buffers contain the current and next block?
-		if (end > 0 && buf.offset == end)
-			allDone = true;
+		if (!queued)
+			break;
+
+		offset = queued->offset + queued->size;
+		ahead++;
+	}
+
+	// Only top the window up once half of it has been used, so the read thread gets woken for a batch of chunks
+	if (ahead * 2 > m_readaheadDepth)
+		return false;
+
+	const u32 span = m_bufferSize ? m_bufferSize : MINIMUM_SIZE;
+	bool queued = false;
+	for (; ahead < m_readaheadDepth && m_readaheadCount < MAX_BUFFERS; ahead++)
+	{
+		m_readahead[(m_readaheadHead + m_readaheadCount) % MAX_BUFFERS] = {offset, span};
+		m_readaheadCount++;
+		offset += span;
+		queued = true;
 	}
-	return allDone;
+	return queued;
 }
 
 bool ThreadedFileReader::Precache(ProgressCallback* progress, Error* error)
 {
 	CancelAndWaitUntilStopped();
 	progress->SetStatusText(SmallString::from_format(TRANSLATE_FS("CDVD", "Precaching {}..."), Path::GetFileName(m_filename)).c_str());
-	return Precache2(progress, error);
+
+	// The whole image if it fits (compressed formats keep the compressed file), otherwise only the parts most likely to be read
+	if (Precache2(progress, error))
+		return true;
+	if (progress->IsCancelled())
+		return false;
+
+	WARNING_LOG("Precaching the whole image failed, precaching the most read parts instead: {}",
+		error ? error->GetDescription() : std::string());
+	return PrecacheHotRegions(progress, GetMaxPrecacheSize(), error);
+}
+
+bool ThreadedFileReader::PrecacheHotRegions(ProgressCallback* progress, u64 budget, Error* error)
+{
+	if (budget < PRECACHE_LEADING_REGIONS * DiscAccessProfile::REGION_SIZE)
+	{
+		Error::SetStringView(error, TRANSLATE_SV("CDVD", "Not enough memory available for precaching."));
+		return false;
+	}
+
+	const u64 image_size = static_cast<u64>(GetBlockCount()) * InternalBlockSize() + m_dataoffset;
+	const u32 image_regions = static_cast<u32>((image_size + DiscAccessProfile::REGION_SIZE - 1) >> DiscAccessProfile::REGION_SHIFT);
+
+	std::vector<u32> regions;
+	for (u32 region = 0; region < std::min(PRECACHE_LEADING_REGIONS, image_regions); region++)
+		regions.push_back(region);
+	{
+		std::lock_guard<std::mutex> lock(m_mtx);
+		for (const u32 region : m_profile.GetHotRegions())
+		{
+			if (region >= PRECACHE_LEADING_REGIONS && region < image_regions)
+				regions.push_back(region);
+		}
+	}
+
+	// Hottest first decides what fits, then read in disc order so the storage sees sequential reads
+	regions.resize(std::min<size_t>(regions.size(), budget / DiscAccessProfile::REGION_SIZE));
+	std::sort(regions.begin(), regions.end());
+
+	progress->SetProgressRange(static_cast<u32>(regions.size()));
+	for (size_t i = 0; i < regions.size(); i++)
+	{
+		if (progress->IsCancelled())
+		{
+			std::lock_guard<std::mutex> lock(m_mtx);
+			std::erase_if(m_prefetched, [](const auto& it) { return it.second.pinned; });
+			m_pinnedBytes = 0;
+			return false;
+		}
+
+		// Chunks can overhang a region, so the count alone doesn't keep to the budget
+		if (m_pinnedBytes + DiscAccessProfile::REGION_SIZE > budget)
+			break;
+
+		FillPrefetch(regions[i], true);
+		progress->SetProgressValue(static_cast<u32>(i + 1));
+	}
+
+	INFO_LOG("Precached {} MB of {} MB, {} regions from the access profile.", m_pinnedBytes / _1mb, image_size / _1mb,
+		(regions.size() > PRECACHE_LEADING_REGIONS) ? (regions.size() - PRECACHE_LEADING_REGIONS) : 0);
+	return true;
 }
 
 bool ThreadedFileReader::Precache2(ProgressCallback* progress, Error* error)
@@ -266,27 +642,44 @@ bool ThreadedFileReader::Precache2(ProgressCallback* progress, Error* error)
 
 bool ThreadedFileReader::CheckAvailableMemoryForPrecaching(u64 required_size, Error* error)
 {
-	// We want to check available physical memory instead of total.
-	const u64 memory_available = GetAvailablePhysicalMemory();
-	// Reserve 2GB of available memory for headroom.
-	constexpr u64 memory_reserve = 2147483648;
-	const u64 max_precache_size = std::max(s64{0}, static_cast<s64>(memory_available - memory_reserve));
-
-	if (required_size > max_precache_size)
+	if (required_size > GetMaxPrecacheSize())
 	{
 		Error::SetStringFmt(error,
 			TRANSLATE_FS("CDVD", "Not enough memory available for precaching ({:.2f} GB required)."),
-			static_cast<double>(required_size + memory_reserve) / static_cast<double>(_1gb));
+			static_cast<double>(required_size + PRECACHE_MEMORY_RESERVE) / static_cast<double>(_1gb));
 		return false;
 	}
 
 	return true;
 }
 
+u64 ThreadedFileReader::GetMaxPrecacheSize()
+{
+	// We want to check available physical memory instead of total.
+	const u64 memory_available = GetAvailablePhysicalMemory();
+	u64 max_precache_size = std::max(s64{0}, static_cast<s64>(memory_available - PRECACHE_MEMORY_RESERVE));
+	if (EmuConfig.CdvdPrecacheLimit > 0)
+		max_precache_size = std::min(max_precache_size, static_cast<u64>(EmuConfig.CdvdPrecacheLimit) * _1mb);
+
+	return max_precache_size;
+}
+
 bool ThreadedFileReader::Open(std::string filename, Error* error)
 {
 	CancelAndWaitUntilStopped();
-	return Open2(std::move(filename), error);
+	if (!Open2(std::move(filename), error))
+		return false;
+
+	// The game list and hashing open images too, only learn from games being played
+	DiscImageCache::Fingerprint fingerprint;
+	if (EmuConfig.CdvdPrefetchProfiles && !m_profileDisabled && VMManager::GetState() != VMState::Shutdown &&
+		DiscImageCache::GetFingerprint(m_filename, &fingerprint))
+	{
+		std::lock_guard<std::mutex> lock(m_mtx);
+		m_profile.Open(fingerprint);
+	}
+
+	return true;
 }
 
 int ThreadedFileReader::ReadSync(void* pBuffer, u32 sector, u32 count)
@@ -294,37 +687,36 @@ int ThreadedFileReader::ReadSync(void* pBuffer, u32 sector, u32 count)
 	u32 blocksize = InternalBlockSize();
 	u64 offset = (u64)sector * (u64)blocksize + m_dataoffset;
 	u32 size = count * blocksize;
+	bool wake;
 	{
 		std::lock_guard<std::mutex> l(m_mtx);
-		if (TryCachedRead(pBuffer, offset, size, l))
-			return m_amtRead;
+		UpdateReadaheadWindow(offset, size);
+		const bool prefetch = UpdateProfile(offset, size);
+		PerformanceMetrics::AddDiscRead(TryCachedRead(pBuffer, offset, size, l), m_readaheadDepth, m_readaheadDepth * m_bufferSize);
 
 		if (size > 0 && !m_running)
 		{
 			// Don't wait for read thread to start back up
+			const Common::Timer::Value start = Common::Timer::GetCurrentValue();
 			if (Decompress(pBuffer, offset, size))
 			{
 				offset += size;
 				size = 0;
 			}
+			PerformanceMetrics::AddDiscStall(Common::Timer::GetCurrentValue() - start);
 		}
 
-		if (size == 0)
-		{
-			// For readahead
-			m_requestOffset = offset - 1;
-			m_requestSize = 1;
-			m_requestPtr.store(nullptr, std::memory_order_relaxed);
-		}
-		else
+		if (size > 0)
 		{
 			m_requestOffset = offset;
 			m_requestSize = size;
 			m_requestPtr.store(pBuffer, std::memory_order_relaxed);
 		}
 		m_requestCancelled.store(false, std::memory_order_relaxed);
+		wake = QueueReadahead(offset + size) || size > 0 || prefetch;
 	}
-	m_condition.notify_one();
+	if (wake)
+		m_condition.notify_one();
 	if (size == 0)
 		return m_amtRead;
 	return FinishRead();
@@ -335,9 +727,11 @@ void ThreadedFileReader::CancelAndWaitUntilStopped(void)
 	m_requestCancelled.store(true, std::memory_order_relaxed);
 	std::unique_lock<std::mutex> lock(m_mtx);
 
-	// Prevent the last request being picked up, if there was one.
+	// Prevent the last request and any readahead being picked up, if there was one.
 	// m_requestCancelled just stops the current decompress.
 	m_requestSize = 0;
+	m_readaheadCount = 0;
+	m_prefetchQueue.clear();
 
 	while (m_running)
 		m_condition.wait(lock);
@@ -348,35 +742,36 @@ void ThreadedFileReader::BeginRead(void* pBuffer, u32 sector, u32 count)
 	s32 blocksize = InternalBlockSize();
 	u64 offset = (u64)sector * (u64)blocksize + m_dataoffset;
 	u32 size = count * blocksize;
+	bool wake;
 	{
 		std::lock_guard<std::mutex> l(m_mtx);
-		if (TryCachedRead(pBuffer, offset, size, l))
-			return;
-		if (size == 0)
-		{
-			// For readahead
-			m_requestOffset = offset - 1;
-			m_requestSize = 1;
-			m_requestPtr.store(nullptr, std::memory_order_relaxed);
-		}
-		else
+		UpdateReadaheadWindow(offset, size);
+		const bool prefetch = UpdateProfile(offset, size);
+		PerformanceMetrics::AddDiscRead(TryCachedRead(pBuffer, offset, size, l), m_readaheadDepth, m_readaheadDepth * m_bufferSize);
+		if (size > 0)
 		{
 			m_requestOffset = offset;
 			m_requestSize = size;
 			m_requestPtr.store(pBuffer, std::memory_order_relaxed);
 		}
 		m_requestCancelled.store(false, std::memory_order_relaxed);
+		wake = QueueReadahead(offset + size) || size > 0 || prefetch;
 	}
-	m_condition.notify_one();
+	if (wake)
+		m_condition.notify_one();
 }
 
 int ThreadedFileReader::FinishRead(void)
 {
 	if (m_requestPtr.load(std::memory_order_acquire) == nullptr)
 		return m_amtRead;
-	std::unique_lock<std::mutex> lock(m_mtx);
-	while (m_requestPtr.load(std::memory_order_acquire))
-		m_condition.wait(lock);
+	const Common::Timer::Value start = Common::Timer::GetCurrentValue();
+	{
+		std::unique_lock<std::mutex> lock(m_mtx);
+		while (m_requestPtr.load(std::memory_order_acquire))
+			m_condition.wait(lock);
+	}
+	PerformanceMetrics::AddDiscStall(Common::Timer::GetCurrentValue() - start);
 	return m_amtRead;
 }
 
@@ -395,6 +790,19 @@ void ThreadedFileReader::Close(void)
 	CancelAndWaitUntilStopped();
 	for (auto& buf : m_buffer)
 		buf.size.store(0, std::memory_order_relaxed);
+	m_bufferCount = 0;
+	m_bufferSize = 0;
+	m_readaheadDepth = 1;
+	m_sequentialBytes = 0;
+	m_lastReadOffset = 0;
+	m_lastReadEnd = 0;
+	{
+		std::lock_guard<std::mutex> lock(m_mtx);
+		m_profile.Close();
+		m_prefetched.clear();
+		m_prefetchedBytes = 0;
+		m_pinnedBytes = 0;
+	}
 	Close2();
 }
 
@@ -3,12 +3,16 @@
 
 #pragma once
 
+#include "CDVD/DiscAccessProfile.h"
+
 #include "common/Pcsx2Defs.h"
 
 #include <thread>
 #include <mutex>
 #include <atomic>
 #include <condition_variable>
+#include <map>
+#include <vector>
 
 class Error;
 class ProgressCallback;
@@ -49,20 +53,25 @@ protected:
 	virtual void Close2() = 0;
 	/// Checks system memory, to ensure that precaching would not exceed a reasonable amount.
 	bool CheckAvailableMemoryForPrecaching(u64 required_size, Error* error);
+	/// Most memory precaching can use, going by available memory and the configured limit.
+	static u64 GetMaxPrecacheSize();
 
 	ThreadedFileReader();
 
 private:
+	/// Most buffers that will ever be used, the actual number depends on the chunk size (see `m_bufferCount`)
+	static constexpr u32 MAX_BUFFERS = 32;
+
 	int m_amtRead;
 	/// Pointer to read into
-	/// If null when m_requestSize > 0, indicates a request for readahead only
+	/// Reads have priority over readahead, which is queued separately in `m_readahead`
 	std::atomic<void*> m_requestPtr{nullptr};
 	/// Request offset in (internal block) bytes from the beginning of the file
 	u64 m_requestOffset = 0;
 	/// Request size in (internal block) bytes
-	/// In addition to marking the request size, the loop thread uses this variable to decide whether there's work to do (size of 0 means no work)
+	/// In addition to marking the request size, the loop thread uses this variable to decide whether there's a read to do (size of 0 means no read)
 	u32 m_requestSize = 0;
-	/// Used to cancel requests early
+	/// Used to cancel requests (and readahead) early
 	/// Note: It might take a while for the cancellation request to be noticed, wait until `m_requestPtr` is cleared to ensure it's not being written to
 	std::atomic<bool> m_requestCancelled{false};
 	struct Buffer
@@ -71,10 +80,58 @@ private:
 		u64 offset = 0;
 		std::atomic<u32> size{0};
 		u32 cap = 0;
+		/// Value of `m_bufferClock` when last used, the least recently used buffer is reused first
+		std::atomic<u64> lastUse{0};
+	};
+	/// Buffers for the block being read, plus up to `m_readaheadDepth` blocks of readahead
+	Buffer m_buffer[MAX_BUFFERS];
+	/// Number of buffers in use, so the total stays under the readahead memory limit
+	/// Zero until the first block has been read and the buffer size is known
+	u32 m_bufferCount = 0;
+	u32 m_bufferSize = 0;
+	std::atomic<u64> m_bufferClock{0};
+
+	/// A range to read ahead, roughly one buffer's worth
+	struct ReadaheadRequest
+	{
+		u64 offset;
+		u32 size;
+	};
+	/// Queue of readahead requests, oldest first, handled one at a time when there's no read to do
+	/// Protected by `m_mtx`
+	ReadaheadRequest m_readahead[MAX_BUFFERS];
+	u32 m_readaheadHead = 0;
+	u32 m_readaheadCount = 0;
+	/// Number of buffers to keep ahead of the read position
+	/// Doubles while reads are sequential, halves on each random access
+	/// Protected by `m_mtx`
+	u32 m_readaheadDepth = 1;
+	/// Bytes read sequentially since the window last grew
+	u32 m_sequentialBytes = 0;
+	/// Range of the most recent read, to tell sequential reads from random ones
+	u64 m_lastReadOffset = 0;
+	u64 m_lastReadEnd = 0;
+
+	/// Chunks read ahead of demand because the access profile predicted them, or precached because they're hot, keyed by offset
+	/// Protected by `m_mtx`, the data is never modified once added
+	struct PrefetchBlock
+	{
+		std::vector<u8> data;
+		u64 lastUse = 0;
+		/// Precached blocks stay until the image is closed
+		bool pinned = false;
 	};
-	/// 2 buffers for readahead (current block, next block)
-	Buffer m_buffer[2];
-	u32 m_nextBuffer = 0;
+	std::map<u64, PrefetchBlock> m_prefetched;
+	/// Bytes in blocks which aren't pinned
+	u64 m_prefetchedBytes = 0;
+	u64 m_pinnedBytes = 0;
+	/// Profile regions predicted to be read soon, handled when there's no read or readahead to do
+	/// Protected by `m_mtx`
+	std::vector<u32> m_prefetchQueue;
+	/// Only active while a VM is running, so the game list and hashing don't get learned
+	/// Protected by `m_mtx`
+	DiscAccessProfile m_profile;
+	bool m_profileDisabled = false;
 
 	std::thread m_readThread;
 	std::mutex m_mtx;
@@ -97,13 +154,43 @@ private:
 
 	/// Load the given block into one of the `m_buffer` buffers if necessary and return a pointer to its contents if successful
 	Buffer* GetBlockPtr(const Chunk& block);
+	/// Pick the buffer to load a block of `size` into, preferring ones outside the readahead window
+	/// Call with `m_mtx` held
+	Buffer* GetBufferToReuse(u32 size);
+	/// Get the buffer containing the given offset, if there is one
+	Buffer* FindBuffer(u64 offset);
+	/// Mark a buffer as the most recently used
+	void MarkUsed(Buffer& buf) { buf.lastUse.store(m_bufferClock.fetch_add(1, std::memory_order_relaxed) + 1, std::memory_order_relaxed); }
+	/// Read ahead from the given range into buffers, until done or a read comes in
+	void FillReadahead(u64 offset, u32 size);
+	/// Grow or shrink the readahead window based on whether a read follows on from the last one
+	/// Call with `m_mtx` held
+	void UpdateReadaheadWindow(u64 offset, u32 size);
+	/// Queue readahead from the given offset to top up the window
+	/// Call with `m_mtx` held, returns true if the read thread needs waking
+	bool QueueReadahead(u64 offset);
+	/// Record a read in the access profile, and queue prefetch of what the profile says comes after it
+	/// Call with `m_mtx` held, returns true if the read thread needs waking
+	bool UpdateProfile(u64 offset, u32 size);
+	/// Read the given profile region into prefetch blocks, until done or a read comes in
+	/// Pinned blocks are for precaching, which can't be interrupted
+	/// Returns false if interrupted before the whole region was read
+	bool FillPrefetch(u32 region, bool pin);
+	/// Precache the start of the disc and the regions the profile says are read most, up to `budget` bytes
+	bool PrecacheHotRegions(ProgressCallback* progress, u64 budget, Error* error);
+	/// Get the prefetch block containing the given offset, or `m_prefetched.end()`
+	/// Call with `m_mtx` held
+	std::map<u64, PrefetchBlock>::iterator FindPrefetched(u64 offset);
+	/// Drop the least recently used prefetch blocks which aren't pinned until under the memory limit
+	/// Call with `m_mtx` held
+	void EvictPrefetched();
 	/// Decompress from offset to size into
 	bool Decompress(void* ptr, u64 offset, u32 size);
 	/// Cancel any inflight read and wait until the thread is no longer doing anything
 	void CancelAndWaitUntilStopped(void);
 	/// Attempt to read from the cache
 	/// Adjusts pointer, offset, and size if successful
-	/// Returns true if no additional reads are necessary
+	/// Returns true if the whole read came from the cache
 	bool TryCachedRead(void*& buffer, u64& offset, u32& size, const std::lock_guard<std::mutex>&);
 
 public:
@@ -124,4 +211,6 @@ public:
 	void Close();
 	void SetBlockSize(u32 bytes);
 	void SetDataOffset(u32 bytes);
+	/// Keeps Open() from learning an access profile, for tools which read the whole image once.
+	void DisableAccessProfile() { m_profileDisabled = true; }
 };
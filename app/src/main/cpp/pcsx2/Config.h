@@ -720,6 +720,7 @@ struct Pcsx2Config
 					OsdShowVideoCapture : 1,
 					OsdShowInputRec : 1,
 					OsdShowHardwareInfo : 1,
+					OsdShowThreadStalls : 1,
 					HWSpinGPUForReadbacks : 1,
 					HWSpinCPUForReadbacks : 1,
 					GPUPaletteConversion : 1,
@@ -1110,6 +1111,7 @@ struct Pcsx2Config
 		BITFIELD32()
 		bool SyncToHostRefreshRate : 1;
 		bool UseVSyncForTiming : 1;
+		bool PreciseFramePacing : 1;
 		BITFIELD_END
 
 		float NominalScalar{1.0f};
@@ -1264,6 +1266,8 @@ struct Pcsx2Config
 		CdvdVerboseReads : 1, // enables cdvd read activity verbosely dumped to the console
 		CdvdDumpBlocks : 1, // enables cdvd block dumping
 		CdvdPrecache : 1, // enables cdvd precaching of compressed images
+		CdvdMapImages : 1, // memory-maps uncompressed images on internal storage instead of reading them into buffers
+		CdvdPrefetchProfiles : 1, // learns each image's access pattern, and reads ahead what it predicts
 		EnablePatches : 1, // enables patch detection and application
 		EnableCheats : 1, // enables cheat detection and application
 		EnablePINE : 1, // enables inter-process communication
@@ -1310,7 +1314,9 @@ struct Pcsx2Config
 	// Memorycard options - first 2 are default slots, last 6 are multitap 1 and 2
 	// slots (3 each)
 	McdOptions Mcd[8];
-	std::string GzipIsoIndexTemplate; // for quick-access index with gzipped ISO
+	std::string GzipIsoIndexTemplate; // where older builds wrote gzipped ISO indices, now only read (new ones go in the cache directory)
+	int CdvdDecompressCacheSize; // megabytes of decompressed CHD hunks and CSO/ZSO blocks to keep, 0 decompresses on demand only
+	int CdvdPrecacheLimit; // most megabytes precaching can use, 0 is as much as available memory allows
 
 	int PINESlot;
 
@@ -1405,11 +1411,11 @@ namespace EmuFolders
 
 // ------------ CPU / Recompiler Options ---------------
 
-//#ifdef _M_X86 // TODO(Stenzek): Remove me once EE/VU/IOP recs are added.
+#ifdef _M_ARM64 // The EE/VU/IOP recompilers under x86/ only emit ARM64 code.
 #define THREAD_VU1 (EmuConfig.Cpu.Recompiler.EnableVU1 && EmuConfig.Speedhacks.vuThread)
-//#else
-//#define THREAD_VU1 false
-//#endif
+#else
+#define THREAD_VU1 false
+#endif
 #define INSTANT_VU1 (EmuConfig.Speedhacks.vu1Instant)
 #define CHECK_EEREC (EmuConfig.Cpu.Recompiler.EnableEE)
 #define CHECK_CACHE (EmuConfig.Cpu.Recompiler.EnableEECache)
@@ -21,6 +21,8 @@
 #include "VMManager.h"
 #include "VUmicro.h"
 
+#include "common/Trace.h"
+
 static const uint EECNT_FUTURE_TARGET = 0x10000000;
 
 uint g_FrameCount = 0;
@@ -486,13 +488,19 @@ static __fi void DoFMVSwitch()
 
 static __fi void VSyncStart(u32 sCycle)
 {
+	// Not a scope, ExitExecution() below may not return.
+	Trace::Instant("vsync", "VSync");
+
 	// End-of-frame tasks.
 	DoFMVSwitch();
 	VMManager::Internal::VSyncOnCPUThread();
 
 	// Don't bother throttling if we're going to pause.
 	if (!VMManager::Internal::IsExecutionInterrupted())
+	{
+		TRACE_SCOPE("vsync", "Throttle");
 		VMManager::Internal::Throttle();
+	}
 
 	gsPostVsyncStart(); // MUST be after framelimit; doing so before causes funk with frame times!
 
@@ -18,6 +18,7 @@
 #include "MTGS.h"
 #include "pcsx2/GS.h"
 #include "GS/Renderers/Null/GSRendererNull.h"
+#include "GS/Renderers/Null/GSDeviceNull.h"
 #include "GS/Renderers/HW/GSRendererHW.h"
 #include "GS/Renderers/HW/GSTextureReplacements.h"
 #include "VMManager.h"
@@ -61,6 +62,7 @@
 Pcsx2Config::GSOptions GSConfig;
 
 static GSRendererType GSCurrentRenderer;
+static bool s_gs_headless = false;
 
 GSRendererType GSGetCurrentRenderer()
 {
@@ -79,8 +81,17 @@ std::string GetDefaultAdapter()
 	return "(Default)";
 }
 
+void GSSetHeadless(bool headless)
+{
+	s_gs_headless = headless;
+}
+
 static RenderAPI GetAPIForRenderer(GSRendererType renderer)
 {
+	// Neither renderer draws on the GPU, so there is no need for a real device.
+	if (s_gs_headless && (renderer == GSRendererType::Null || renderer == GSRendererType::SW))
+		return RenderAPI::None;
+
 	switch (renderer)
 	{
 		case GSRendererType::OGL:
@@ -139,6 +150,10 @@ static bool OpenGSDevice(GSRendererType renderer, bool clear_state_on_fail, bool
 			break;
 #endif
 
+		case RenderAPI::None:
+			g_gs_device = std::make_unique<GSDeviceNull>();
+			break;
+
 		default:
 			Console.Error("Unsupported render API %s", GSDevice::RenderAPIToString(new_api));
 			return false;
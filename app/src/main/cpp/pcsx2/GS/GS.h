@@ -87,6 +87,10 @@ void GSResizeDisplayWindow(int width, int height, float scale);
 void GSUpdateDisplayWindow();
 void GSSetVSyncMode(GSVSyncMode mode, bool allow_present_throttle);
 
+/// Creates a device without a GPU or window for the null and software renderers, for running
+/// without a display (e.g. replaying dumps). Must be set before the GS is opened.
+void GSSetHeadless(bool headless);
+
 GSRendererType GSGetCurrentRenderer();
 bool GSIsHardwareRenderer();
 std::string GetDefaultAdapter();
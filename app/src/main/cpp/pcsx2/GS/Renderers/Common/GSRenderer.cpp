@@ -20,6 +20,7 @@
 #include "common/Path.h"
 #include "common/StringUtil.h"
 #include "common/Timer.h"
+#include "common/Trace.h"
 
 #include "fmt/format.h"
 #include "IconsFontAwesome5.h"
@@ -514,6 +515,8 @@ void GSJoinSnapshotThreads()
 
 bool GSRenderer::BeginPresentFrame(bool frame_skip)
 {
+	TRACE_SCOPE("gs", "GS Begin Present");
+
 	Host::BeginPresentFrame();
 
 	const GSDevice::PresentResult res = g_gs_device->BeginPresent(frame_skip);
@@ -558,6 +561,8 @@ bool GSRenderer::BeginPresentFrame(bool frame_skip)
 
 void GSRenderer::EndPresentFrame()
 {
+	TRACE_SCOPE("gs", "GS Present");
+
 	if (GSDumpReplayer::IsReplayingDump())
 		GSDumpReplayer::RenderUI();
 
@@ -569,6 +574,8 @@ void GSRenderer::EndPresentFrame()
 
 void GSRenderer::VSync(u32 field, bool registers_written, bool idle_frame)
 {
+	TRACE_SCOPE("gs", "GS VSync");
+
 	if (GSConfig.SaveInfo && GSConfig.ShouldDump(s_n, g_perfmon.GetFrame()))
 	{
 		DumpGSPrivRegs(*m_regs, GetDrawDumpPath("%05d_f%05lld_vsync_gs_reg.txt", s_n, g_perfmon.GetFrame()));
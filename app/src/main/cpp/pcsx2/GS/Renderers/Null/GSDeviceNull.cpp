@@ -0,0 +1,315 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "GS/Renderers/Null/GSDeviceNull.h"
+#include "GS/GSPerfMon.h"
+
+#include "common/Assertions.h"
+
+#include <cstring>
+
+// Only the top level is kept, nothing samples the mipmaps without a GPU.
+GSTextureNull::GSTextureNull(Type type, int width, int height, int levels, Format format)
+{
+	m_type = type;
+	m_format = format;
+	m_size = GSVector2i(width, height);
+	m_mipmap_levels = levels;
+	m_pitch = CalcUploadPitch(static_cast<u32>(width));
+	m_data = std::make_unique<u8[]>(CalcUploadSize(static_cast<u32>(height), m_pitch));
+}
+
+GSTextureNull::~GSTextureNull() = default;
+
+void* GSTextureNull::GetNativeHandle() const
+{
+	return m_data.get();
+}
+
+bool GSTextureNull::Update(const GSVector4i& r, const void* data, int pitch, int layer)
+{
+	if (layer > 0)
+		return true;
+
+	const u32 block = GetCompressedBlockSize();
+	const u32 row_bytes = CalcUploadPitch(static_cast<u32>(r.width()));
+	const u32 rows = (static_cast<u32>(r.height()) + (block - 1)) / block;
+	u8* dst = m_data.get() + (static_cast<u32>(r.y) / block) * m_pitch + CalcUploadPitch(static_cast<u32>(r.x));
+	const u8* src = static_cast<const u8*>(data);
+	for (u32 row = 0; row < rows; row++)
+	{
+		std::memcpy(dst, src, row_bytes);
+		dst += m_pitch;
+		src += pitch;
+	}
+
+	m_needs_mipmaps_generated = true;
+	g_perfmon.Put(GSPerfMon::TextureUploads, 1);
+	return true;
+}
+
+bool GSTextureNull::Map(GSMap& m, const GSVector4i* r, int layer)
+{
+	if (layer > 0)
+		return false;
+
+	const GSVector4i rc = r ? *r : GetRect();
+	m.bits = m_data.get() + (static_cast<u32>(rc.y) / GetCompressedBlockSize()) * m_pitch +
+			 CalcUploadPitch(static_cast<u32>(rc.x));
+	m.pitch = static_cast<int>(m_pitch);
+	m_needs_mipmaps_generated = true;
+	g_perfmon.Put(GSPerfMon::TextureUploads, 1);
+	return true;
+}
+
+void GSTextureNull::Unmap()
+{
+}
+
+void GSTextureNull::GenerateMipmap()
+{
+}
+
+#ifdef PCSX2_DEVBUILD
+void GSTextureNull::SetDebugName(std::string_view name)
+{
+}
+#endif
+
+GSDownloadTextureNull::GSDownloadTextureNull(u32 width, u32 height, GSTexture::Format format)
+	: GSDownloadTexture(width, height, format)
+	, m_data(std::make_unique<u8[]>(GetBufferSize(width, height, format)))
+{
+	m_map_pointer = m_data.get();
+}
+
+GSDownloadTextureNull::~GSDownloadTextureNull() = default;
+
+void GSDownloadTextureNull::CopyFromTexture(
+	const GSVector4i& drc, GSTexture* stex, const GSVector4i& src, u32 src_level, bool use_transfer_pitch)
+{
+	const GSTextureNull* const tex = static_cast<const GSTextureNull*>(stex);
+	pxAssert(tex->GetFormat() == m_format);
+	pxAssert(drc.width() == src.width() && drc.height() == src.height());
+	pxAssert((drc.left == 0 && drc.top == 0) || !use_transfer_pitch);
+
+	u32 copy_offset, copy_size, copy_rows;
+	m_current_pitch = GetTransferPitch(use_transfer_pitch ? static_cast<u32>(drc.width()) : m_width, 1);
+	GetTransferSize(drc, &copy_offset, &copy_size, &copy_rows);
+	g_perfmon.Put(GSPerfMon::Readbacks, 1);
+
+	const u32 block = GSTexture::GetCompressedBlockSize(m_format);
+	const u8* in = tex->GetData() + (static_cast<u32>(src.y) / block) * tex->GetPitch() +
+				   GSTexture::CalcUploadPitch(m_format, static_cast<u32>(src.x));
+	u8* out = m_data.get() + copy_offset;
+	for (u32 row = 0; row < copy_rows; row++)
+	{
+		std::memcpy(out, in, copy_size);
+		in += tex->GetPitch();
+		out += m_current_pitch;
+	}
+}
+
+bool GSDownloadTextureNull::Map(const GSVector4i& read_rc)
+{
+	return true;
+}
+
+void GSDownloadTextureNull::Unmap()
+{
+}
+
+void GSDownloadTextureNull::Flush()
+{
+}
+
+#ifdef PCSX2_DEVBUILD
+void GSDownloadTextureNull::SetDebugName(std::string_view name)
+{
+}
+#endif
+
+GSDeviceNull::GSDeviceNull()
+{
+	m_name = "Null";
+	m_max_texture_size = 8192;
+}
+
+GSDeviceNull::~GSDeviceNull() = default;
+
+bool GSDeviceNull::Create(GSVSyncMode vsync_mode, bool allow_present_throttle)
+{
+	if (!GSDevice::Create(vsync_mode, allow_present_throttle))
+		return false;
+
+	// Still asked for, so the host knows the output size.
+	return AcquireWindow(true);
+}
+
+RenderAPI GSDeviceNull::GetRenderAPI() const
+{
+	return RenderAPI::None;
+}
+
+bool GSDeviceNull::HasSurface() const
+{
+	return false;
+}
+
+void GSDeviceNull::DestroySurface()
+{
+}
+
+bool GSDeviceNull::UpdateWindow()
+{
+	return true;
+}
+
+void GSDeviceNull::ResizeWindow(s32 new_window_width, s32 new_window_height, float new_window_scale)
+{
+	m_window_info.surface_width = new_window_width;
+	m_window_info.surface_height = new_window_height;
+	m_window_info.surface_scale = new_window_scale;
+}
+
+bool GSDeviceNull::SupportsExclusiveFullscreen() const
+{
+	return false;
+}
+
+GSDevice::PresentResult GSDeviceNull::BeginPresent(bool frame_skip)
+{
+	// Nowhere to present to. The frame has still been drawn and merged by this point.
+	return PresentResult::FrameSkipped;
+}
+
+void GSDeviceNull::EndPresent()
+{
+}
+
+void GSDeviceNull::SetVSyncMode(GSVSyncMode mode, bool allow_present_throttle)
+{
+	m_vsync_mode = mode;
+	m_allow_present_throttle = allow_present_throttle;
+}
+
+std::string GSDeviceNull::GetDriverInfo() const
+{
+	return "Headless (no GPU)";
+}
+
+bool GSDeviceNull::SetGPUTimingEnabled(bool enabled)
+{
+	return false;
+}
+
+float GSDeviceNull::GetAndResetAccumulatedGPUTime()
+{
+	return 0.0f;
+}
+
+void GSDeviceNull::PushDebugGroup(const char* fmt, ...)
+{
+}
+
+void GSDeviceNull::PopDebugGroup()
+{
+}
+
+void GSDeviceNull::InsertDebugMessage(DebugMessageCategory category, const char* fmt, ...)
+{
+}
+
+std::unique_ptr<GSDownloadTexture> GSDeviceNull::CreateDownloadTexture(u32 width, u32 height, GSTexture::Format format)
+{
+	return std::make_unique<GSDownloadTextureNull>(width, height, format);
+}
+
+GSTexture* GSDeviceNull::CreateSurface(GSTexture::Type type, int width, int height, int levels, GSTexture::Format format)
+{
+	return new GSTextureNull(type, width, height, levels, format);
+}
+
+void GSDeviceNull::CopyRect(GSTexture* sTex, GSTexture* dTex, const GSVector4i& r, u32 destX, u32 destY)
+{
+	const GSTextureNull* const src = static_cast<const GSTextureNull*>(sTex);
+	GSTextureNull* const dst = static_cast<GSTextureNull*>(dTex);
+	pxAssert(src->GetFormat() == dst->GetFormat());
+
+	const u32 block = src->GetCompressedBlockSize();
+	const u8* in = src->GetData() + (static_cast<u32>(r.y) / block) * src->GetPitch() +
+				   src->CalcUploadPitch(static_cast<u32>(r.x));
+	u8* out = dst->GetData() + (destY / block) * dst->GetPitch() + dst->CalcUploadPitch(destX);
+	const u32 row_bytes = src->CalcUploadPitch(static_cast<u32>(r.width()));
+	const u32 rows = (static_cast<u32>(r.height()) + (block - 1)) / block;
+	for (u32 row = 0; row < rows; row++)
+	{
+		std::memcpy(out, in, row_bytes);
+		in += src->GetPitch();
+		out += dst->GetPitch();
+	}
+
+	g_perfmon.Put(GSPerfMon::TextureCopies, 1);
+}
+
+void GSDeviceNull::StretchRect(GSTexture* sTex, const GSVector4& sRect, GSTexture* dTex, const GSVector4& dRect,
+	ShaderConvert shader, bool linear)
+{
+}
+
+void GSDeviceNull::StretchRect(GSTexture* sTex, const GSVector4& sRect, GSTexture* dTex, const GSVector4& dRect,
+	bool red, bool green, bool blue, bool alpha, ShaderConvert shader)
+{
+}
+
+void GSDeviceNull::PresentRect(GSTexture* sTex, const GSVector4& sRect, GSTexture* dTex, const GSVector4& dRect,
+	PresentShader shader, float shaderTime, bool linear)
+{
+}
+
+void GSDeviceNull::UpdateCLUTTexture(GSTexture* sTex, float sScale, u32 offsetX, u32 offsetY, GSTexture* dTex,
+	u32 dOffset, u32 dSize)
+{
+}
+
+void GSDeviceNull::ConvertToIndexedTexture(GSTexture* sTex, float sScale, u32 offsetX, u32 offsetY, u32 SBW, u32 SPSM,
+	GSTexture* dTex, u32 DBW, u32 DPSM)
+{
+}
+
+void GSDeviceNull::FilteredDownsampleTexture(GSTexture* sTex, GSTexture* dTex, u32 downsample_factor,
+	const GSVector2i& clamp_min, const GSVector4& dRect)
+{
+}
+
+void GSDeviceNull::RenderHW(GSHWDrawConfig& config)
+{
+}
+
+void GSDeviceNull::ClearSamplerCache()
+{
+}
+
+void GSDeviceNull::DoMerge(GSTexture* sTex[3], GSVector4* sRect, GSTexture* dTex, GSVector4* dRect,
+	const GSRegPMODE& PMODE, const GSRegEXTBUF& EXTBUF, u32 c, const bool linear)
+{
+}
+
+void GSDeviceNull::DoInterlace(GSTexture* sTex, const GSVector4& sRect, GSTexture* dTex, const GSVector4& dRect,
+	ShaderInterlace shader, bool linear, const InterlaceConstantBuffer& cb)
+{
+}
+
+void GSDeviceNull::DoFXAA(GSTexture* sTex, GSTexture* dTex)
+{
+}
+
+void GSDeviceNull::DoShadeBoost(GSTexture* sTex, GSTexture* dTex, const float params[4])
+{
+}
+
+bool GSDeviceNull::DoCAS(GSTexture* sTex, GSTexture* dTex, bool sharpen_only,
+	const std::array<u32, NUM_CAS_CONSTANTS>& constants)
+{
+	return false;
+}
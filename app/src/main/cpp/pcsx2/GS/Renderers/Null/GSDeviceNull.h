@@ -0,0 +1,116 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#pragma once
+
+#include "GS/Renderers/Common/GSDevice.h"
+
+#include <memory>
+
+/// Texture backed by system memory, so the software renderer's uploads and readbacks still happen.
+class GSTextureNull final : public GSTexture
+{
+public:
+	GSTextureNull(Type type, int width, int height, int levels, Format format);
+	~GSTextureNull() override;
+
+	void* GetNativeHandle() const override;
+
+	bool Update(const GSVector4i& r, const void* data, int pitch, int layer = 0) override;
+	bool Map(GSMap& m, const GSVector4i* r = nullptr, int layer = 0) override;
+	void Unmap() override;
+	void GenerateMipmap() override;
+
+#ifdef PCSX2_DEVBUILD
+	void SetDebugName(std::string_view name) override;
+#endif
+
+	u8* GetData() { return m_data.get(); }
+	const u8* GetData() const { return m_data.get(); }
+	u32 GetPitch() const { return m_pitch; }
+
+private:
+	std::unique_ptr<u8[]> m_data;
+	u32 m_pitch;
+};
+
+class GSDownloadTextureNull final : public GSDownloadTexture
+{
+public:
+	GSDownloadTextureNull(u32 width, u32 height, GSTexture::Format format);
+	~GSDownloadTextureNull() override;
+
+	void CopyFromTexture(const GSVector4i& drc, GSTexture* stex, const GSVector4i& src, u32 src_level,
+		bool use_transfer_pitch = true) override;
+
+	bool Map(const GSVector4i& read_rc) override;
+	void Unmap() override;
+	void Flush() override;
+
+#ifdef PCSX2_DEVBUILD
+	void SetDebugName(std::string_view name) override;
+#endif
+
+private:
+	std::unique_ptr<u8[]> m_data;
+};
+
+/// Device for running without a GPU or a window (see GSSetHeadless()). Only the null and software
+/// renderers use it: textures live in system memory, GPU-side draws do nothing and nothing is presented.
+class GSDeviceNull final : public GSDevice
+{
+public:
+	GSDeviceNull();
+	~GSDeviceNull() override;
+
+	bool Create(GSVSyncMode vsync_mode, bool allow_present_throttle) override;
+
+	RenderAPI GetRenderAPI() const override;
+	bool HasSurface() const override;
+	void DestroySurface() override;
+	bool UpdateWindow() override;
+	void ResizeWindow(s32 new_window_width, s32 new_window_height, float new_window_scale) override;
+	bool SupportsExclusiveFullscreen() const override;
+
+	PresentResult BeginPresent(bool frame_skip) override;
+	void EndPresent() override;
+	void SetVSyncMode(GSVSyncMode mode, bool allow_present_throttle) override;
+
+	std::string GetDriverInfo() const override;
+	bool SetGPUTimingEnabled(bool enabled) override;
+	float GetAndResetAccumulatedGPUTime() override;
+
+	void PushDebugGroup(const char* fmt, ...) override;
+	void PopDebugGroup() override;
+	void InsertDebugMessage(DebugMessageCategory category, const char* fmt, ...) override;
+
+	std::unique_ptr<GSDownloadTexture> CreateDownloadTexture(u32 width, u32 height, GSTexture::Format format) override;
+
+	void CopyRect(GSTexture* sTex, GSTexture* dTex, const GSVector4i& r, u32 destX, u32 destY) override;
+	void StretchRect(GSTexture* sTex, const GSVector4& sRect, GSTexture* dTex, const GSVector4& dRect,
+		ShaderConvert shader = ShaderConvert::COPY, bool linear = true) override;
+	void StretchRect(GSTexture* sTex, const GSVector4& sRect, GSTexture* dTex, const GSVector4& dRect, bool red,
+		bool green, bool blue, bool alpha, ShaderConvert shader = ShaderConvert::COPY) override;
+	void PresentRect(GSTexture* sTex, const GSVector4& sRect, GSTexture* dTex, const GSVector4& dRect,
+		PresentShader shader, float shaderTime, bool linear) override;
+	void UpdateCLUTTexture(GSTexture* sTex, float sScale, u32 offsetX, u32 offsetY, GSTexture* dTex, u32 dOffset,
+		u32 dSize) override;
+	void ConvertToIndexedTexture(GSTexture* sTex, float sScale, u32 offsetX, u32 offsetY, u32 SBW, u32 SPSM,
+		GSTexture* dTex, u32 DBW, u32 DPSM) override;
+	void FilteredDownsampleTexture(GSTexture* sTex, GSTexture* dTex, u32 downsample_factor,
+		const GSVector2i& clamp_min, const GSVector4& dRect) override;
+	void RenderHW(GSHWDrawConfig& config) override;
+	void ClearSamplerCache() override;
+
+protected:
+	GSTexture* CreateSurface(GSTexture::Type type, int width, int height, int levels, GSTexture::Format format) override;
+
+	void DoMerge(GSTexture* sTex[3], GSVector4* sRect, GSTexture* dTex, GSVector4* dRect, const GSRegPMODE& PMODE,
+		const GSRegEXTBUF& EXTBUF, u32 c, const bool linear) override;
+	void DoInterlace(GSTexture* sTex, const GSVector4& sRect, GSTexture* dTex, const GSVector4& dRect,
+		ShaderInterlace shader, bool linear, const InterlaceConstantBuffer& cb) override;
+	void DoFXAA(GSTexture* sTex, GSTexture* dTex) override;
+	void DoShadeBoost(GSTexture* sTex, GSTexture* dTex, const float params[4]) override;
+	bool DoCAS(GSTexture* sTex, GSTexture* dTex, bool sharpen_only,
+		const std::array<u32, NUM_CAS_CONSTANTS>& constants) override;
+};
@@ -19,7 +19,10 @@
 #include "common/Console.h"
 
 #include "glad.h"
+
+#ifdef __ANDROID__
 #include "GS/Renderers/OpenGL/GLContextEGLAndroid.h"
+#endif
 
 static bool ShouldPreferESContext()
 {
@@ -82,8 +85,10 @@ std::unique_ptr<GLContext> GLContext::Create(const WindowInfo& wi, const Version
 	}
 
 	std::unique_ptr<GLContext> context;
+#ifdef __ANDROID__
 	if(wi.type == WindowInfo::Type::Android)
 		context = GLContextEGLAndroid::Create(wi, versions_to_try, num_versions_to_try);
+#endif
 	if (!context)
 		return nullptr;
 
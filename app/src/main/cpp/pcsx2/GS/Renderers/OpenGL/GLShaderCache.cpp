@@ -13,6 +13,7 @@
 #include "common/Path.h"
 #include "common/StringUtil.h"
 #include "common/Timer.h"
+#include "common/Trace.h"
 
 namespace {
 #pragma pack(push, 1)
@@ -366,6 +367,8 @@ bool GLShaderCache::WriteToBlobFile(const CacheIndexKey& key, const std::vector<
 std::optional<GLProgram> GLShaderCache::CompileProgram(const std::string_view vertex_shader,
 	const std::string_view fragment_shader, const PreLinkCallback& callback, bool set_retrievable)
 {
+	TRACE_SCOPE("shader", "Compile GL Program");
+
 	GLProgram prog;
 	if (!prog.Compile(vertex_shader, fragment_shader))
 		return std::nullopt;
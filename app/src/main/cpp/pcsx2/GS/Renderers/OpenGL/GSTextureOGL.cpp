@@ -12,6 +12,7 @@
 #include "common/BitUtils.h"
 #include "common/AlignedMalloc.h"
 #include "common/StringUtil.h"
+#include "common/Trace.h"
 
 // Looking across a range of GPUs, the optimal copy alignment for Vulkan drivers seems
 // to be between 1 (AMD/NV) and 64 (Intel). So, we'll go with 64 here.
@@ -174,6 +175,8 @@ void* GSTextureOGL::GetNativeHandle() const
 
 bool GSTextureOGL::Update(const GSVector4i& r, const void* data, int pitch, int layer)
 {
+	TRACE_SCOPE("texture", "Texture Upload");
+
 	pxAssert(m_type != Type::DepthStencil);
 
 	if (layer >= m_mipmap_levels)
@@ -285,6 +288,8 @@ bool GSTextureOGL::Map(GSMap& m, const GSVector4i* _r, int layer)
 
 void GSTextureOGL::Unmap()
 {
+	TRACE_SCOPE("texture", "Texture Upload (Mapped)");
+
 	if (m_type == Type::Texture || m_type == Type::RenderTarget)
 	{
 		GSDeviceOGL::GetInstance()->CommitClear(this, true);
@@ -12,6 +12,7 @@
 #include "common/AlignedMalloc.h"
 #include "common/Console.h"
 #include "common/StringUtil.h"
+#include "common/Trace.h"
 
 #define ENABLE_DRAW_STATS 0
 
@@ -33,6 +34,26 @@ static int compute_best_thread_height(int threads)
 		return 4;
 }
 
+// Bands are handed out in a repeating pattern, giving each thread a share of the pattern's slots.
+// More slots per thread means finer-grained shares, but a slow thread still needs at least one.
+static constexpr int PATTERN_SLOTS_PER_THREAD = 8;
+
+// Shares are re-evaluated this often, and only changed if one moves by more than the threshold.
+static constexpr double WORK_BALANCE_INTERVAL = 0.5;
+static constexpr float WORK_BALANCE_THRESHOLD = 0.02f;
+static constexpr u64 WORK_BALANCE_MIN_PIXELS = 64 * 1024;
+
+static int compute_pattern_size(int threads)
+{
+	return threads * PATTERN_SLOTS_PER_THREAD;
+}
+
+static int compute_scanline_rows(int threads, int thread_height)
+{
+	// Padding past the last band lets FindMyNextScanline() always find a band without bounds checks.
+	return (2048 >> thread_height) + compute_pattern_size(threads) + 16;
+}
+
 GSRasterizer::GSRasterizer(GSDrawScanline* ds, int id, int threads)
 	: m_ds(ds)
 	, m_id(id)
@@ -49,7 +70,7 @@ GSRasterizer::GSRasterizer(GSDrawScanline* ds, int id, int threads)
 	if (!m_edge.buff)
 		pxFailRel("failed to allocate storage for m_edge.buff");
 
-	int rows = (2048 >> m_thread_height) + 16;
+	int rows = compute_scanline_rows(threads, m_thread_height);
 	m_scanline = (u8*)_aligned_malloc(rows, 64);
 
 	for (int i = 0; i < rows; i++)
@@ -111,6 +132,18 @@ int GSRasterizer::FindMyNextScanline(int top) const
 	return top;
 }
 
+void GSRasterizer::SetScanlineOwners(const u8* owners, int rows)
+{
+	for (int i = 0; i < rows; i++)
+		m_scanline[i] = (owners[i] == m_id) ? 1 : 0;
+}
+
+void GSRasterizer::GetAndResetThroughput(Common::Timer::Value* busy_ticks, u64* pixels)
+{
+	*busy_ticks = std::exchange(m_busy_ticks, 0);
+	*pixels = std::exchange(m_busy_pixels, 0);
+}
+
 int GSRasterizer::GetPixels(bool reset)
 {
 	int pixels = m_pixels.sum;
@@ -125,9 +158,13 @@ int GSRasterizer::GetPixels(bool reset)
 
 void GSRasterizer::Draw(GSRasterizerData& data)
 {
+	TRACE_SCOPE("gs", "GS-SW Draw");
+
 	if ((data.vertex && data.vertex_count == 0) || (data.index && data.index_count == 0))
 		return;
 
+	const Common::Timer::Value start_ticks = Common::Timer::GetCurrentValue();
+
 	m_pixels.actual = 0;
 	m_pixels.total = 0;
 	m_primcount = 0;
@@ -245,6 +282,9 @@ void GSRasterizer::Draw(GSRasterizerData& data)
 
 	m_pixels.sum += m_pixels.actual;
 
+	m_busy_ticks += Common::Timer::GetCurrentValue() - start_ticks;
+	m_busy_pixels += m_pixels.actual;
+
 	if constexpr (ENABLE_DRAW_STATS)
 		m_ds->UpdateDrawStats(data.frame, GetCPUTicks() - data.start, m_pixels.actual, m_pixels.total, m_primcount);
 }
@@ -586,7 +626,7 @@ void GSRasterizer::DrawTriangleSection(int top, int bottom, GSVertexSW2& RESTRIC
 
 		if (!IsOneOfMyScanlines(top))
 		{
-			top += (m_threads - 1) << m_thread_height;
+			top = FindMyNextScanline(top);
 		}
 	}
 
@@ -764,7 +804,7 @@ void GSRasterizer::DrawTriangleSection(int top, int bottom, GSVertexSW& RESTRICT
 
 		if (!IsOneOfMyScanlines(top))
 		{
-			top += (m_threads - 1) << m_thread_height;
+			top = FindMyNextScanline(top);
 		}
 	}
 
@@ -828,7 +868,7 @@ void GSRasterizer::DrawSprite(const GSVertexSW* vertex, const u16* index)
 				m_pixels.actual += pixels;
 				m_pixels.total += pixels;
 
-				top = r.bottom + ((m_threads - 1) << m_thread_height);
+				top = FindMyNextScanline(r.bottom);
 			}
 		}
 
@@ -1191,15 +1231,19 @@ void GSSingleRasterizer::PrintStats()
 GSRasterizerList::GSRasterizerList(int threads)
 {
 	m_thread_height = compute_best_thread_height(threads);
+	m_scanline_rows = compute_scanline_rows(threads, m_thread_height);
+	m_pattern_size = compute_pattern_size(threads);
 
-	const int rows = (2048 >> m_thread_height) + 16;
-	m_scanline = static_cast<u8*>(_aligned_malloc(rows, 64));
+	m_scanline = static_cast<u8*>(_aligned_malloc(m_scanline_rows, 64));
 
-	for (int i = 0; i < rows; i++)
+	for (int i = 0; i < m_scanline_rows; i++)
 	{
 		m_scanline[i] = static_cast<u8>(i % threads);
 	}
 
+	// Start out even, same as the rasterizers' own tables.
+	m_worker_shares.resize(threads, 1.0f / static_cast<float>(threads));
+
 	PerformanceMetrics::SetGSSWThreadCount(threads);
 }
 
@@ -1240,12 +1284,20 @@ void GSRasterizerList::Queue(const GSRingHeap::SharedPtr<GSRasterizerData>& data
 
 	pxAssert(r.top >= 0 && r.top < 2048 && r.bottom >= 0 && r.bottom < 2048);
 
+	// Every worker owns at least one band per pattern, so no more than that needs to be looked at.
+	// A worker can own several bands in that range, but only needs the draw once.
 	int top = r.top >> m_thread_height;
-	int bottom = std::min<int>((r.bottom + (1 << m_thread_height) - 1) >> m_thread_height, top + m_workers.size());
+	int bottom = std::min<int>((r.bottom + (1 << m_thread_height) - 1) >> m_thread_height, top + m_pattern_size);
+	u64 queued = 0;
 
 	while (top < bottom)
 	{
-		m_workers[m_scanline[top++]]->Push(data);
+		const u8 owner = m_scanline[top++];
+		if (queued & (static_cast<u64>(1) << owner))
+			continue;
+
+		queued |= static_cast<u64>(1) << owner;
+		m_workers[owner]->Push(data);
 	}
 }
 
@@ -1253,15 +1305,105 @@ void GSRasterizerList::Sync()
 {
 	if (!IsSynced())
 	{
+		TRACE_SCOPE("gs", "GS-SW Sync");
+
 		for (size_t i = 0; i < m_workers.size(); i++)
 		{
 			m_workers[i]->Wait();
 		}
 
 		g_perfmon.Put(GSPerfMon::SyncPoint, 1);
+
+		// All workers are idle, so it's safe to move bands between them.
+		if (m_balance_timer.GetTimeSeconds() >= WORK_BALANCE_INTERVAL)
+			UpdateWorkDistribution();
 	}
 }
 
+void GSRasterizerList::UpdateWorkDistribution()
+{
+	m_balance_timer.Reset();
+
+	// Pixels per second of busy time. Each band costs about the same on average, so giving each worker
+	// a share of the bands proportional to its throughput should make them all finish at the same time.
+	const size_t threads = m_workers.size();
+	std::vector<double> throughput(threads);
+	double total_throughput = 0.0;
+	bool enough_samples = true;
+	for (size_t i = 0; i < threads; i++)
+	{
+		Common::Timer::Value busy_ticks;
+		u64 pixels;
+		m_r[i]->GetAndResetThroughput(&busy_ticks, &pixels);
+
+		const double busy_seconds = Common::Timer::ConvertValueToSeconds(busy_ticks);
+		enough_samples &= (pixels >= WORK_BALANCE_MIN_PIXELS && busy_seconds > 0.0);
+		throughput[i] = (busy_seconds > 0.0) ? (static_cast<double>(pixels) / busy_seconds) : 0.0;
+		total_throughput += throughput[i];
+	}
+
+	if (!enough_samples || total_throughput <= 0.0)
+	{
+		for (size_t i = 0; i < threads; i++)
+			PerformanceMetrics::SetGSSWThreadThroughput(static_cast<u32>(i), throughput[i], m_worker_shares[i]);
+		return;
+	}
+
+	// Blend with the current shares so one odd interval doesn't swing the split, and keep at least one
+	// slot per pattern for everyone, so a worker which was slow once still gets measured.
+	const float min_share = 1.0f / static_cast<float>(m_pattern_size);
+	std::vector<float> shares(threads);
+	float total_share = 0.0f;
+	for (size_t i = 0; i < threads; i++)
+	{
+		const float measured = static_cast<float>(throughput[i] / total_throughput);
+		shares[i] = std::max((m_worker_shares[i] + measured) * 0.5f, min_share);
+		total_share += shares[i];
+	}
+
+	bool changed = false;
+	for (size_t i = 0; i < threads; i++)
+	{
+		shares[i] /= total_share;
+		changed |= (std::abs(shares[i] - m_worker_shares[i]) > WORK_BALANCE_THRESHOLD);
+	}
+
+	if (changed)
+		SetWorkerShares(shares);
+
+	for (size_t i = 0; i < threads; i++)
+		PerformanceMetrics::SetGSSWThreadThroughput(static_cast<u32>(i), throughput[i], m_worker_shares[i]);
+}
+
+void GSRasterizerList::SetWorkerShares(const std::vector<float>& shares)
+{
+	// Smooth weighted round-robin: each slot goes to the worker furthest behind its share, which keeps
+	// a worker's bands spread out over the pattern instead of clumped together.
+	const size_t threads = shares.size();
+	std::vector<float> credit(threads, 0.0f);
+	for (int slot = 0; slot < m_pattern_size; slot++)
+	{
+		size_t best = 0;
+		for (size_t i = 0; i < threads; i++)
+		{
+			credit[i] += shares[i];
+			if (credit[i] > credit[best])
+				best = i;
+		}
+
+		credit[best] -= 1.0f;
+		m_scanline[slot] = static_cast<u8>(best);
+	}
+
+	for (int i = m_pattern_size; i < m_scanline_rows; i++)
+		m_scanline[i] = m_scanline[i % m_pattern_size];
+
+	for (size_t i = 0; i < threads; i++)
+		m_r[i]->SetScanlineOwners(m_scanline, m_scanline_rows);
+
+	m_worker_shares = shares;
+}
+
 bool GSRasterizerList::IsSynced() const
 {
 	for (size_t i = 0; i < m_workers.size(); i++)
@@ -1289,7 +1431,8 @@ int GSRasterizerList::GetPixels(bool reset)
 
 std::unique_ptr<IRasterizer> GSRasterizerList::Create(int threads)
 {
-	threads = std::max<int>(threads, 0);
+	// Workers which have been handed a draw are tracked in a 64-bit mask.
+	threads = std::clamp<int>(threads, 0, 64);
 
 	if (threads == 0)
 	{
@@ -1298,14 +1441,24 @@ std::unique_ptr<IRasterizer> GSRasterizerList::Create(int threads)
 
 	std::unique_ptr<GSRasterizerList> rl(new GSRasterizerList(threads));
 
+	// One processor per worker if there's enough of them, otherwise the workers share the whole set.
 	const std::vector<u32>& procs = VMManager::Internal::GetSoftwareRendererProcessorList();
 	const bool pin = (EmuConfig.EnableThreadPinning && static_cast<size_t>(threads) <= procs.size());
+	u64 shared_affinity = 0;
 	if (EmuConfig.EnableThreadPinning && !pin)
-		WARNING_LOG("Not pinning SW threads, we need {} processors, but only have {}", threads, procs.size());
+	{
+		for (const u32 proc : procs)
+			shared_affinity |= static_cast<u64>(1u) << proc;
+
+		if (shared_affinity != 0)
+			WARNING_LOG("Sharing {} processors between {} SW threads", procs.size(), threads);
+		else
+			WARNING_LOG("Not pinning SW threads, no processors are available for them");
+	}
 
 	for (int i = 0; i < threads; i++)
 	{
-		const u64 affinity = pin ? (static_cast<u64>(1u) << procs[i]) : 0;
+		const u64 affinity = pin ? (static_cast<u64>(1u) << procs[i]) : shared_affinity;
 		rl->m_r.push_back(std::unique_ptr<GSRasterizer>(new GSRasterizer(&rl->m_ds, i, threads)));
 		auto& r = *rl->m_r[i];
 		rl->m_workers.push_back(std::unique_ptr<GSWorker>(new GSWorker(
@@ -11,6 +11,10 @@
 #include "GS/GSRingHeap.h"
 #include "GS/MultiISA.h"
 
+#include "common/Timer.h"
+
+#include <vector>
+
 MULTI_ISA_UNSHARED_START
 
 class GSDrawScanline;
@@ -80,6 +84,10 @@ protected:
 	struct { int sum, actual, total; } m_pixels;
 	int m_primcount;
 
+	// Time spent in Draw() and the pixels it wrote, for balancing work between threads.
+	Common::Timer::Value m_busy_ticks = 0;
+	u64 m_busy_pixels = 0;
+
 	// For the current draw.
 	GSScanlineLocalData m_local = {};
 	GSDrawScanline::SetupPrimPtr m_setup_prim = nullptr;
@@ -116,6 +124,12 @@ public:
 	__forceinline bool IsOneOfMyScanlines(int top, int bottom) const;
 	__forceinline int FindMyNextScanline(int top) const;
 
+	/// Takes ownership of the bands assigned to this thread. Must not be called while drawing.
+	void SetScanlineOwners(const u8* owners, int rows);
+
+	/// Returns the busy time and pixels written since the last call. Only valid once synced.
+	void GetAndResetThroughput(Common::Timer::Value* busy_ticks, u64* pixels);
+
 	void Draw(GSRasterizerData& data);
 	int GetPixels(bool reset);
 };
@@ -163,9 +177,18 @@ protected:
 	std::vector<std::unique_ptr<GSWorker>> m_workers;
 	u8* m_scanline;
 	int m_thread_height;
+	int m_scanline_rows;
+	int m_pattern_size;
+
+	// Fraction of the bands handed to each worker, weighted by its measured throughput.
+	std::vector<float> m_worker_shares;
+	Common::Timer m_balance_timer;
 
 	GSRasterizerList(int threads);
 
+	void SetWorkerShares(const std::vector<float>& shares);
+	void UpdateWorkDistribution();
+
 	static void OnWorkerStartup(int i, u64 affinity);
 	static void OnWorkerShutdown(int i);
 
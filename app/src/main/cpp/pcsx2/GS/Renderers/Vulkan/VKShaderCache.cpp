@@ -16,6 +16,7 @@
 #include "common/FileSystem.h"
 #include "common/MD5Digest.h"
 #include "common/Path.h"
+#include "common/Trace.h"
 
 #include "fmt/format.h"
 #include "shaderc/shaderc.h"
@@ -229,6 +230,7 @@ static const char* compilation_status_to_string(shaderc_compilation_status statu
 
 std::optional<VKShaderCache::SPIRVCodeVector> VKShaderCache::CompileShaderToSPV(u32 stage, std::string_view source, bool debug)
 {
+	TRACE_SCOPE("shader", "Compile SPIR-V");
 	std::optional<VKShaderCache::SPIRVCodeVector> ret;
 #ifdef ANDROID
     if(g_s_compiler == nullptr)
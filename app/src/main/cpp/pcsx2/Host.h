@@ -166,6 +166,10 @@ namespace Host
 		/// Sets the input profile settings layer. Called by VMManager when the game changes.
 		void SetInputSettingsLayer(SettingsInterface* sif, std::unique_lock<std::mutex>& settings_lock);
 
+		/// Sets the override layer, which takes precedence over every other layer, including game settings.
+		/// Should be called by the host at initialization time, for temporary changes which are never saved.
+		void SetOverrideSettingsLayer(SettingsInterface* sif, std::unique_lock<std::mutex>& settings_lock);
+
 		/// Implementation to retrieve a translated string.
 		s32 GetTranslatedStringImpl(const std::string_view context, const std::string_view msg, char* tbuf, size_t tbuf_space);
 	} // namespace Internal
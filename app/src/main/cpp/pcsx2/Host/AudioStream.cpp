@@ -119,8 +119,10 @@ std::unique_ptr<AudioStream> AudioStream::CreateStream(AudioBackend backend, u32
 		case AudioBackend::SDL:
 			return CreateSDLAudioStream(sample_rate, parameters, stretch_enabled, error);
 
+#ifdef __ANDROID__
         case AudioBackend::Oboe:
             return CreateOboeAudioStream(sample_rate, parameters, stretch_enabled, error);
+#endif
 
 		case AudioBackend::Null:
 			return CreateNullStream(sample_rate, parameters.buffer_ms);
@@ -147,8 +147,10 @@ private:
 	static std::unique_ptr<AudioStream> CreateSDLAudioStream(u32 sample_rate, const AudioStreamParameters& parameters,
 		bool stretch_enabled, Error* error);
 
+#ifdef __ANDROID__
     static std::unique_ptr<AudioStream> CreateOboeAudioStream(u32 sample_rate, const AudioStreamParameters& parameters,
         bool stretch_enabled, Error* error);
+#endif
 
 	void AllocateBuffer();
 	void DestroyBuffer();
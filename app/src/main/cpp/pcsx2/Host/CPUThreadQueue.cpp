@@ -0,0 +1,105 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "Host/CPUThreadQueue.h"
+
+CPUThreadQueue::CPUThreadQueue(PauseFunction set_paused)
+	: m_set_paused(std::move(set_paused))
+{
+}
+
+CPUThreadQueue::~CPUThreadQueue() = default;
+
+void CPUThreadQueue::Attach()
+{
+	std::unique_lock lock(m_mutex);
+	m_thread_id = std::this_thread::get_id();
+	m_active = true;
+}
+
+void CPUThreadQueue::Detach()
+{
+	std::unique_lock lock(m_mutex);
+	m_active = false;
+	m_thread_id = {};
+	DrainLocked(lock);
+}
+
+void CPUThreadQueue::Run(std::function<void()> function, bool block)
+{
+	std::promise<void> done;
+	std::future<void> done_future;
+	{
+		std::unique_lock lock(m_mutex);
+		if (!m_active || std::this_thread::get_id() == m_thread_id)
+		{
+			lock.unlock();
+			function();
+			return;
+		}
+
+		if (block)
+		{
+			done_future = done.get_future();
+			m_queue.push_back([&function, &done]() {
+				function();
+				done.set_value();
+			});
+		}
+		else
+		{
+			m_queue.push_back(std::move(function));
+		}
+		m_cv.notify_all();
+	}
+
+	if (block)
+		done_future.wait();
+}
+
+std::future<void> CPUThreadQueue::QueuePause(bool paused)
+{
+	std::shared_ptr<std::promise<void>> done = std::make_shared<std::promise<void>>();
+	std::future<void> done_future = done->get_future();
+
+	m_requested_paused.store(paused, std::memory_order_release);
+	m_pending_pause_commands.fetch_add(1, std::memory_order_acq_rel);
+	Run([this, paused, done]() {
+		m_set_paused(paused);
+		m_pending_pause_commands.fetch_sub(1, std::memory_order_acq_rel);
+		done->set_value();
+	}, false);
+
+	return done_future;
+}
+
+std::optional<bool> CPUThreadQueue::GetRequestedPause() const
+{
+	if (m_pending_pause_commands.load(std::memory_order_acquire) > 0)
+		return m_requested_paused.load(std::memory_order_acquire);
+	return std::nullopt;
+}
+
+void CPUThreadQueue::Drain()
+{
+	std::unique_lock lock(m_mutex);
+	DrainLocked(lock);
+}
+
+void CPUThreadQueue::WaitForCommand(std::chrono::milliseconds timeout)
+{
+	std::unique_lock lock(m_mutex);
+	m_cv.wait_for(lock, timeout, [this]() { return !m_queue.empty(); });
+}
+
+void CPUThreadQueue::DrainLocked(std::unique_lock<std::mutex>& lock)
+{
+	while (!m_queue.empty())
+	{
+		std::function<void()> func = std::move(m_queue.front());
+		m_queue.pop_front();
+		lock.unlock();
+		func();
+		lock.lock();
+	}
+}
@@ -0,0 +1,66 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#pragma once
+
+#include <atomic>
+#include <chrono>
+#include <condition_variable>
+#include <deque>
+#include <functional>
+#include <future>
+#include <mutex>
+#include <optional>
+#include <thread>
+
+/// Commands for the CPU thread (pause/resume/shutdown and Host::RunOnCPUThread callers).
+/// Drained in order on every vsync while running, and waited on while paused, so state
+/// changes always happen on the CPU thread and resume doesn't have to wait for a poll.
+class CPUThreadQueue
+{
+public:
+	using PauseFunction = std::function<void(bool paused)>;
+
+	/// set_paused applies a pause or resume, and is only ever called on the CPU thread.
+	explicit CPUThreadQueue(PauseFunction set_paused);
+	~CPUThreadQueue();
+
+	/// Makes the calling thread the CPU thread. It must keep draining until Detach().
+	void Attach();
+
+	/// Stops handing commands to the CPU thread and runs whatever was still queued, so blocking
+	/// callers return. Call it once the VM has been shut down, anything queued during shutdown
+	/// still runs on the CPU thread rather than on the caller's.
+	void Detach();
+
+	/// Runs a command on the CPU thread. With no CPU thread to hand off to, or when already on it,
+	/// the command runs immediately since nothing can race it.
+	void Run(std::function<void()> function, bool block);
+
+	/// Queues a pause or resume. The future is ready once the CPU thread has applied it.
+	std::future<void> QueuePause(bool paused);
+
+	/// The most recent pause request while pause commands are still queued, otherwise nothing,
+	/// so toggles issued back-to-back see the state they asked for.
+	std::optional<bool> GetRequestedPause() const;
+
+	/// Runs every queued command, on the CPU thread.
+	void Drain();
+
+	/// Sleeps until a command is queued, or the timeout passes.
+	void WaitForCommand(std::chrono::milliseconds timeout);
+
+private:
+	void DrainLocked(std::unique_lock<std::mutex>& lock);
+
+	PauseFunction m_set_paused;
+
+	std::mutex m_mutex;
+	std::condition_variable m_cv;
+	std::deque<std::function<void()>> m_queue;
+	std::thread::id m_thread_id;
+	bool m_active = false;
+
+	std::atomic<int> m_pending_pause_commands{0};
+	std::atomic_bool m_requested_paused{false};
+};
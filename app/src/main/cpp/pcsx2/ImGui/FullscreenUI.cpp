@@ -3625,6 +3625,9 @@ void FullscreenUI::DrawInterfaceSettingsPage()
 	DrawToggleSetting(bsi, FSUI_ICONSTR(ICON_PF_MONITOR_CODE, "Show Hardware Info"),
 		FSUI_CSTR("Shows the current system hardware information on the OSD."), "EmuCore/GS", "OsdShowHardwareInfo",
 		false);
+	DrawToggleSetting(bsi, FSUI_ICONSTR(ICON_FA_HOURGLASS_HALF, "Show Thread Stalls"),
+		FSUI_CSTR("Shows how long the EE and VU threads spent waiting on the GS and VU threads, and how full their queues were."),
+		"EmuCore/GS", "OsdShowThreadStalls", false);
 	DrawToggleSetting(bsi, FSUI_ICONSTR(ICON_FA_EXCLAMATION, "Warn About Unsafe Settings"),
 		FSUI_CSTR("Displays warnings when settings are enabled which may break games."), "EmuCore", "WarnAboutUnsafeSettings", true);
 
@@ -3795,6 +3798,22 @@ void FullscreenUI::DrawEmulationSettingsPage()
 	DrawToggleSetting(bsi, FSUI_CSTR("Enable CDVD Precaching"), FSUI_CSTR("Loads the disc image into RAM before starting the virtual machine."),
 		"EmuCore", "CdvdPrecache", false);
 
+	DrawIntRangeSetting(bsi, FSUI_CSTR("Precache Memory Limit"),
+		FSUI_CSTR("Most memory precaching can use. Images which don't fit only have their most read parts precached. 0 uses available memory."),
+		"EmuCore", "CdvdPrecacheLimit", 0, 0, 16384, FSUI_CSTR("%d MB"));
+
+	DrawToggleSetting(bsi, FSUI_CSTR("Memory-Map Disc Images"),
+		FSUI_CSTR("Reads uncompressed disc images on internal storage through a memory mapping, avoiding a copy per read."), "EmuCore",
+		"CdvdMapImages", false);
+
+	DrawToggleSetting(bsi, FSUI_CSTR("Learn Disc Access Patterns"),
+		FSUI_CSTR("Remembers which parts of the disc each game reads after which, and reads them ahead of time on later boots."), "EmuCore",
+		"CdvdPrefetchProfiles", true);
+
+	DrawIntRangeSetting(bsi, FSUI_CSTR("Decompression Cache Size"),
+		FSUI_CSTR("Decompresses CHD, CSO and ZSO images ahead of reads on worker threads, keeping this much in memory. 0 disables."), "EmuCore",
+		"CdvdDecompressCacheSize", 32, 0, 256, FSUI_CSTR("%d MB"));
+
 	MenuHeading(FSUI_CSTR("Frame Pacing/Latency Control"));
 
 	bool optimal_frame_pacing = (bsi->GetIntValue("EmuCore/GS", "VsyncQueueSize", DEFAULT_FRAME_LATENCY) == 0);
@@ -3820,6 +3839,10 @@ void FullscreenUI::DrawEmulationSettingsPage()
 		FSUI_CSTR("Disables PCSX2's internal frame timing, and uses host vsync instead."), "EmuCore/GS", "UseVSyncForTiming", false,
 		GetEffectiveBoolSetting(bsi, "EmuCore/GS", "VsyncEnable", false) && GetEffectiveBoolSetting(bsi, "EmuCore/GS", "SyncToHostRefreshRate", false));
 
+	DrawToggleSetting(bsi, FSUI_CSTR("Precise Frame Limiter"),
+		FSUI_CSTR("Sleeps until just before each frame starts instead of spinning. Same accuracy, less power."), "Framerate",
+		"PreciseFramePacing", true);
+
 	EndMenuButtons();
 }
 
@@ -7510,6 +7533,15 @@ TRANSLATE_NOOP("FullscreenUI", "Enable Fast CDVD");
 TRANSLATE_NOOP("FullscreenUI", "Fast disc access, less loading times. Not recommended.");
 TRANSLATE_NOOP("FullscreenUI", "Enable CDVD Precaching");
 TRANSLATE_NOOP("FullscreenUI", "Loads the disc image into RAM before starting the virtual machine.");
+TRANSLATE_NOOP("FullscreenUI", "Precache Memory Limit");
+TRANSLATE_NOOP("FullscreenUI", "Most memory precaching can use. Images which don't fit only have their most read parts precached. 0 uses available memory.");
+TRANSLATE_NOOP("FullscreenUI", "Memory-Map Disc Images");
+TRANSLATE_NOOP("FullscreenUI", "Reads uncompressed disc images through a memory mapping, avoiding a copy per read.");
+TRANSLATE_NOOP("FullscreenUI", "Learn Disc Access Patterns");
+TRANSLATE_NOOP("FullscreenUI", "Remembers which parts of the disc each game reads after which, and reads them ahead of time on later boots.");
+TRANSLATE_NOOP("FullscreenUI", "Decompression Cache Size");
+TRANSLATE_NOOP("FullscreenUI", "Decompresses CHD, CSO and ZSO images ahead of reads on worker threads, keeping this much in memory. 0 disables.");
+TRANSLATE_NOOP("FullscreenUI", "%d MB");
 TRANSLATE_NOOP("FullscreenUI", "Frame Pacing/Latency Control");
 TRANSLATE_NOOP("FullscreenUI", "Maximum Frame Latency");
 TRANSLATE_NOOP("FullscreenUI", "Sets the number of frames which can be queued.");
@@ -7521,6 +7553,8 @@ TRANSLATE_NOOP("FullscreenUI", "Sync to Host Refresh Rate");
 TRANSLATE_NOOP("FullscreenUI", "Speeds up emulation so that the guest refresh rate matches the host.");
 TRANSLATE_NOOP("FullscreenUI", "Use Host VSync Timing");
 TRANSLATE_NOOP("FullscreenUI", "Disables PCSX2's internal frame timing, and uses host vsync instead.");
+TRANSLATE_NOOP("FullscreenUI", "Precise Frame Limiter");
+TRANSLATE_NOOP("FullscreenUI", "Sleeps until just before each frame starts instead of spinning. Same accuracy, less power.");
 TRANSLATE_NOOP("FullscreenUI", "Renderer");
 TRANSLATE_NOOP("FullscreenUI", "Selects the API used to render the emulated GS.");
 TRANSLATE_NOOP("FullscreenUI", "Display");
@@ -52,6 +52,8 @@ InputRecordingUI::InputRecordingData g_InputRecordingData;
 namespace ImGuiManager
 {
 	static void FormatProcessorStat(SmallStringBase& text, double usage, double time);
+	static void FormatStallStat(SmallStringBase& text, PerformanceMetrics::StallWait wait);
+	static void FormatRingOccupancy(SmallStringBase& text, PerformanceMetrics::StallRing ring);
 	static void DrawPerformanceOverlay(float& position_y, float scale, float margin, float spacing);
 	static void DrawSettingsOverlay(float scale, float margin, float spacing);
 	static void DrawInputsOverlay(float scale, float margin, float spacing);
@@ -96,6 +98,29 @@ __ri void ImGuiManager::FormatProcessorStat(SmallStringBase& text, double usage,
 		text.append_format("{:.1f}% ({:.2f}ms)", usage, time);
 }
 
+__ri void ImGuiManager::FormatStallStat(SmallStringBase& text, PerformanceMetrics::StallWait wait)
+{
+	static constexpr const char* reason_names[] = {"Ring", "VSQ", "Sync", "RB", "SS"};
+	static_assert(std::size(reason_names) == static_cast<size_t>(PerformanceMetrics::StallReason::Count));
+
+	text.append_format("{:.2f}ms", PerformanceMetrics::GetTotalStallTime(wait));
+	for (u32 i = 0; i < std::size(reason_names); i++)
+	{
+		const PerformanceMetrics::StallReason reason = static_cast<PerformanceMetrics::StallReason>(i);
+		const float rate = PerformanceMetrics::GetStallRate(wait, reason);
+		if (rate > 0.0f)
+			text.append_format(" | {}: {:.2f}ms ({:.0f}/s)", reason_names[i], PerformanceMetrics::GetStallTime(wait, reason), rate);
+	}
+}
+
+__ri void ImGuiManager::FormatRingOccupancy(SmallStringBase& text, PerformanceMetrics::StallRing ring)
+{
+	// Percentage of samples in each eighth of the ring, from empty to full.
+	for (const float fraction : PerformanceMetrics::GetRingOccupancy(ring))
+		text.append_format(" {:3.0f}", fraction * 100.0f);
+	text.append('%');
+}
+
 __ri void ImGuiManager::DrawPerformanceOverlay(float& position_y, float scale, float margin, float spacing)
 {
 	const float shadow_offset = std::ceil(scale);
@@ -262,6 +287,8 @@ __ri void ImGuiManager::DrawPerformanceOverlay(float& position_y, float scale, f
 				text.clear();
 				text.append_format("SW-{}: ", i);
 				FormatProcessorStat(text, PerformanceMetrics::GetGSSWThreadUsage(i), PerformanceMetrics::GetGSSWThreadAverageTime(i));
+				if (const double throughput = PerformanceMetrics::GetGSSWThreadThroughput(i); throughput > 0.0)
+					text.append_format(" {:.0f}Mpx/s {:.0f}%", throughput, PerformanceMetrics::GetGSSWThreadShare(i) * 100.0f);
 				DRAW_LINE(fixed_font, text.c_str(), IM_COL32(255, 255, 255, 255));
 			}
 
@@ -273,6 +300,50 @@ __ri void ImGuiManager::DrawPerformanceOverlay(float& position_y, float scale, f
 			}
 		}
 
+		if (GSConfig.OsdShowThreadStalls)
+		{
+			text = "EE>GS Stall: ";
+			FormatStallStat(text, PerformanceMetrics::StallWait::EEOnGS);
+			DRAW_LINE(fixed_font, text.c_str(), IM_COL32(255, 255, 255, 255));
+
+			text = "GS Ring:";
+			FormatRingOccupancy(text, PerformanceMetrics::StallRing::GS);
+			DRAW_LINE(fixed_font, text.c_str(), IM_COL32(255, 255, 255, 255));
+
+			if (THREAD_VU1)
+			{
+				text = "EE>VU Stall: ";
+				FormatStallStat(text, PerformanceMetrics::StallWait::EEOnVU);
+				DRAW_LINE(fixed_font, text.c_str(), IM_COL32(255, 255, 255, 255));
+
+				text = "VU>GS Stall: ";
+				FormatStallStat(text, PerformanceMetrics::StallWait::VUOnGS);
+				DRAW_LINE(fixed_font, text.c_str(), IM_COL32(255, 255, 255, 255));
+
+				text = "VU Ring:";
+				FormatRingOccupancy(text, PerformanceMetrics::StallRing::VU);
+				DRAW_LINE(fixed_font, text.c_str(), IM_COL32(255, 255, 255, 255));
+			}
+
+			if (PerformanceMetrics::IsDiscReadActive())
+			{
+				text.clear();
+				text.append_format("Disc Stall: {:.2f}ms | Hit: {:.0f}% ({:.0f}/s) | Readahead: {} ({}KB)",
+					PerformanceMetrics::GetDiscStallTime(), PerformanceMetrics::GetDiscReadHitRate(),
+					PerformanceMetrics::GetDiscReadRate(), PerformanceMetrics::GetDiscReadaheadDepth(),
+					PerformanceMetrics::GetDiscReadaheadSize());
+				DRAW_LINE(fixed_font, text.c_str(), IM_COL32(255, 255, 255, 255));
+			}
+
+			if (PerformanceMetrics::IsDiscHunkCacheActive())
+			{
+				text.clear();
+				text.append_format("Decompress Cache: {:.0f}% hit | Decode: {:.0f}us ({:.0f}/s)", PerformanceMetrics::GetDiscHunkHitRate(),
+					PerformanceMetrics::GetDiscHunkDecodeTime(), PerformanceMetrics::GetDiscHunkDecodeRate());
+				DRAW_LINE(fixed_font, text.c_str(), IM_COL32(255, 255, 255, 255));
+			}
+		}
+
 		if (GSConfig.OsdShowGPU)
 		{
 			text = "GPU: ";
@@ -296,6 +367,15 @@ __ri void ImGuiManager::DrawPerformanceOverlay(float& position_y, float scale, f
 			}
 		}
 
+		if (GSConfig.OsdShowFrameTimes && PerformanceMetrics::IsFramePacingActive())
+		{
+			text.clear();
+			text.append_format("Pacing: {:.0f}us avg {:.0f}us max | Spin: {:.1f}% | Wake: +{:.0f}us",
+				PerformanceMetrics::GetFramePacingAverageJitter(), PerformanceMetrics::GetFramePacingMaximumJitter(),
+				PerformanceMetrics::GetFramePacingSpinUsage(), PerformanceMetrics::GetFramePacingWakeupOvershoot());
+			DRAW_LINE(fixed_font, text.c_str(), IM_COL32(255, 255, 255, 255));
+		}
+
 		if (GSConfig.OsdShowFrameTimes)
 		{
 			const ImVec2 history_size(200.0f * scale, 50.0f * scale);
@@ -12,6 +12,7 @@ class LayeredSettingsInterface final : public SettingsInterface
 public:
 	enum Layer : u32
 	{
+		LAYER_OVERRIDE,
 		LAYER_CMDLINE,
 		LAYER_GAME,
 		LAYER_INPUT,
@@ -68,7 +69,7 @@ public:
 	using SettingsInterface::GetUIntValue;
 
 private:
-	static constexpr Layer FIRST_LAYER = LAYER_CMDLINE;
+	static constexpr Layer FIRST_LAYER = LAYER_OVERRIDE;
 	static constexpr Layer LAST_LAYER = LAYER_BASE;
 
 	std::array<SettingsInterface*, NUM_LAYERS> m_layers{};
@@ -6,12 +6,14 @@
 #include "MTGS.h"
 #include "MTVU.h"
 #include "Host.h"
+#include "PerformanceMetrics.h"
 #include "IconsFontAwesome5.h"
 #include "VMManager.h"
 
 #include "common/FPControl.h"
 #include "common/ScopedGuard.h"
 #include "common/StringUtil.h"
+#include "common/Trace.h"
 #include "common/WrappedMemCopy.h"
 
 #include <list>
@@ -272,7 +274,10 @@ void MTGS::PostVsyncStart(bool registers_written)
 	s_VsyncSignalListener.store(true, std::memory_order_release);
 	//Console.WriteLn( Color_Blue, "(EEcore Sleep) Vsync\t\tringpos=0x%06x, writepos=0x%06x", m_ReadPos.load(), m_WritePos.load() );
 
+	TRACE_SCOPE("mtgs", "MTGS Vsync Queue Wait");
+	const Common::Timer::Value start = Common::Timer::GetCurrentValue();
 	s_sem_Vsync.Wait();
+	PerformanceMetrics::AddGSStall(PerformanceMetrics::StallReason::VsyncQueue, Common::Timer::GetCurrentValue() - start);
 }
 
 void MTGS::InitAndReadFIFO(u8* mem, u32 qwc)
@@ -288,6 +293,8 @@ void MTGS::InitAndReadFIFO(u8* mem, u32 qwc)
 	}
 
 	SendPointerPacket(Command::InitAndReadFIFO, qwc, mem);
+
+	PerformanceMetrics::ScopedStallReason stall_reason(PerformanceMetrics::StallReason::Readback);
 	WaitGS(false, false, false);
 }
 
@@ -611,6 +618,9 @@ void MTGS::WaitGS(bool syncRegs, bool weakWait, bool isMTVU)
 	if (!IsOpen()) [[unlikely]]
 		return;
 
+	TRACE_SCOPE("mtgs", "MTGS WaitGS");
+	const Common::Timer::Value start = Common::Timer::GetCurrentValue();
+
 	Gif_Path& path = gifUnit.gifPath[GIF_PATH_1];
 
 	// Both m_ReadPos and m_WritePos can be relaxed as we only want to test if the queue is empty but
@@ -644,6 +654,8 @@ void MTGS::WaitGS(bool syncRegs, bool weakWait, bool isMTVU)
 			pxFailRel("MTGS Thread Died");
 	}
 
+	PerformanceMetrics::AddGSStall(PerformanceMetrics::GetStallReason(), Common::Timer::GetCurrentValue() - start);
+
 	pxAssert(!(weakWait && syncRegs) && "No synchronization for this!");
 
 	if (syncRegs)
@@ -721,11 +733,15 @@ void MTGS::GenericStall(uint size)
 	else
 		freeroom = RingBufferSize - (writepos - readpos);
 
+	PerformanceMetrics::SampleRingOccupancy(PerformanceMetrics::StallRing::GS, RingBufferSize - freeroom, RingBufferSize);
+
 	if (freeroom <= size)
 	{
 		// writepos will overlap readpos if we commit the data, so we need to wait until
 		// readpos is out past the end of the future write pos, or until it wraps around
 		// (in which case writepos will be >= readpos).
+		TRACE_SCOPE("mtgs", "MTGS Ring Full Wait");
+		const Common::Timer::Value start = Common::Timer::GetCurrentValue();
 
 		// Ideally though we want to wait longer, because if we just toss in this packet
 		// the next packet will likely stall up too.  So lets set a condition for the MTGS
@@ -783,6 +799,8 @@ void MTGS::GenericStall(uint size)
 					break;
 			}
 		}
+
+		PerformanceMetrics::AddGSStall(PerformanceMetrics::StallReason::RingFull, Common::Timer::GetCurrentValue() - start);
 	}
 }
 
@@ -1020,6 +1038,8 @@ bool MTGS::SaveMemorySnapshot(u32 window_width, u32 window_height, bool apply_as
 	RunOnGSThread([window_width, window_height, apply_aspect, crop_borders, width, height, pixels, &result]() {
 		result = GSSaveSnapshotToMemory(window_width, window_height, apply_aspect, crop_borders, width, height, pixels);
 	});
+
+	PerformanceMetrics::ScopedStallReason stall_reason(PerformanceMetrics::StallReason::Readback);
 	WaitGS(false, false, false);
 	return result;
 }
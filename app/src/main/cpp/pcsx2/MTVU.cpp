@@ -4,12 +4,20 @@
 #include "Common.h"
 #include "Gif_Unit.h"
 #include "MTVU.h"
+#include "PerformanceMetrics.h"
 #include "VMManager.h"
 #include "Vif_Dynarec.h"
 
+#include "common/Trace.h"
+
+#include <optional>
 #include <thread>
 
-//VU_Thread vu1Thread;
+// On ARM64 the thread state lives in g_vuRegistersPack, next to the microVU it runs (see microVU.cpp).
+#ifndef _M_ARM64
+static VU_Thread s_vu1Thread;
+VU_Thread& vu1Thread = s_vu1Thread;
+#endif
 
 #define MTVU_ALWAYS_KICK 0
 #define MTVU_SYNC_MODE 0
@@ -128,6 +136,7 @@ void VU_Thread::Reset()
 void VU_Thread::ExecuteRingBuffer()
 {
 	Threading::SetNameOfCurrentThread("MTVU");
+	PerformanceMetrics::SetStallThreadIsVU();
 
 	for (;;)
 	{
@@ -211,6 +220,10 @@ void VU_Thread::ExecuteRingBuffer()
 // Should only be called by ReserveSpace()
 __ri void VU_Thread::WaitOnSize(s32 size)
 {
+	// Only opened once we actually have to wait, the common case is that there's room.
+	std::optional<Trace::Scope> trace;
+	Common::Timer::Value start = 0;
+
 	for (;;)
 	{
 		s32 readPos = GetReadPos();
@@ -224,6 +237,11 @@ __ri void VU_Thread::WaitOnSize(s32 size)
 		if (readPos > m_write_pos + size + _4kb)
 			break; // Enough free front space
 		{          // Let MTVU run to free up buffer space
+			if (start == 0)
+			{
+				trace.emplace("mtvu", "MTVU Ring Full Wait");
+				start = Common::Timer::GetCurrentValue();
+			}
 			KickStart();
 			// Locking might trigger a full flush of the ring buffer. Yield
 			// will be more aggressive, and only flush the minimal size.
@@ -232,6 +250,9 @@ __ri void VU_Thread::WaitOnSize(s32 size)
 			std::this_thread::yield();
 		}
 	}
+
+	if (start != 0)
+		PerformanceMetrics::AddVUStall(PerformanceMetrics::StallReason::RingFull, Common::Timer::GetCurrentValue() - start);
 }
 
 // Makes sure theres enough room in the ring buffer
@@ -242,6 +263,10 @@ void VU_Thread::ReserveSpace(s32 size)
 	pxAssert(size < buffer_size);
 	pxAssert(size > 0);
 
+	const s32 readPos = GetReadPos();
+	const s32 used = (m_write_pos >= readPos) ? (m_write_pos - readPos) : (buffer_size - (readPos - m_write_pos));
+	PerformanceMetrics::SampleRingOccupancy(PerformanceMetrics::StallRing::VU, static_cast<u32>(used), buffer_size);
+
 	if (m_write_pos + size > (buffer_size - 1))
 	{
 		WaitOnSize(1); // Size of MTVU_NULL_PACKET
@@ -435,7 +460,16 @@ bool VU_Thread::IsDone()
 void VU_Thread::WaitVU()
 {
 	MTVU_LOG("MTVU - WaitVU!");
+	if (IsDone())
+	{
+		semaEvent.WaitForEmpty();
+		return;
+	}
+
+	TRACE_SCOPE("mtvu", "MTVU WaitVU");
+	const Common::Timer::Value start = Common::Timer::GetCurrentValue();
 	semaEvent.WaitForEmpty();
+	PerformanceMetrics::AddVUStall(PerformanceMetrics::GetStallReason(), Common::Timer::GetCurrentValue() - start);
 }
 
 void VU_Thread::ExecuteVU(u32 vu_addr, u32 vif_top, u32 vif_itop, u32 fbrst)
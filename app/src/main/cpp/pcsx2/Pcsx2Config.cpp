@@ -731,6 +731,7 @@ Pcsx2Config::GSOptions::GSOptions()
 	OsdShowHardwareInfo = true;
 	OsdShowVideoCapture = true;
 	OsdShowInputRec = true;
+	OsdShowThreadStalls = false;
 
 	HWDownloadMode = GSHardwareDownloadMode::Enabled;
 	HWSpinGPUForReadbacks = false;
@@ -948,6 +949,7 @@ void Pcsx2Config::GSOptions::LoadSave(SettingsWrapper& wrap)
 	SettingsWrapBitBool(OsdShowHardwareInfo);
 	SettingsWrapBitBool(OsdShowVideoCapture);
 	SettingsWrapBitBool(OsdShowInputRec);
+	SettingsWrapBitBool(OsdShowThreadStalls);
 
 	SettingsWrapBitBool(HWSpinGPUForReadbacks);
 	SettingsWrapBitBool(HWSpinCPUForReadbacks);
@@ -1669,6 +1671,7 @@ Pcsx2Config::EmulationSpeedOptions::EmulationSpeedOptions()
 	bitset = 0;
 
 	SyncToHostRefreshRate = false;
+	PreciseFramePacing = true;
 }
 
 void Pcsx2Config::EmulationSpeedOptions::SanityCheck()
@@ -1687,6 +1690,7 @@ void Pcsx2Config::EmulationSpeedOptions::LoadSave(SettingsWrapper& wrap)
 	SettingsWrapEntry(NominalScalar);
 	SettingsWrapEntry(TurboScalar);
 	SettingsWrapEntry(SlomoScalar);
+	SettingsWrapBitBool(PreciseFramePacing);
 
 	// This was in the wrong place... but we can't change it without breaking existing configs.
 	//SettingsWrapBitBool(SyncToHostRefreshRate);
@@ -1898,6 +1902,7 @@ Pcsx2Config::Pcsx2Config()
 	// Set defaults for fresh installs / reset settings
 	McdFolderAutoManage = true;
 	EnablePatches = true;
+	CdvdPrefetchProfiles = true;
 	EnableFastBoot = true;
 	EnableRecordingTools = true;
 	EnableGameFixes = true;
@@ -1918,6 +1923,8 @@ Pcsx2Config::Pcsx2Config()
 	}
 
 	GzipIsoIndexTemplate = "$(f).pindex.tmp";
+	CdvdDecompressCacheSize = 32;
+	CdvdPrecacheLimit = 0;
 	PINESlot = 28011;
 	RtcYear = 0;
 	RtcMonth = 1;
@@ -1934,6 +1941,8 @@ void Pcsx2Config::LoadSaveCore(SettingsWrapper& wrap)
 	SettingsWrapBitBool(CdvdVerboseReads);
 	SettingsWrapBitBool(CdvdDumpBlocks);
 	SettingsWrapBitBool(CdvdPrecache);
+	SettingsWrapBitBool(CdvdMapImages);
+	SettingsWrapBitBool(CdvdPrefetchProfiles);
 	SettingsWrapBitBool(EnablePatches);
 	SettingsWrapBitBool(EnableCheats);
 	SettingsWrapBitBool(EnablePINE);
@@ -1974,6 +1983,8 @@ void Pcsx2Config::LoadSaveCore(SettingsWrapper& wrap)
 	Achievements.LoadSave(wrap);
 
 	SettingsWrapEntry(GzipIsoIndexTemplate);
+	SettingsWrapEntry(CdvdDecompressCacheSize);
+	SettingsWrapEntry(CdvdPrecacheLimit);
 	SettingsWrapEntry(PINESlot);
 	SettingsWrapEntry(RtcYear);
 	SettingsWrapEntry(RtcMonth);
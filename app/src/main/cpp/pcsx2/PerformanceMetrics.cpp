@@ -1,9 +1,12 @@
 // SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
 // SPDX-License-Identifier: GPL-3.0+
 
+#include <atomic>
 #include <chrono>
+#include <cstring>
 #include <vector>
 
+#include "common/HostSys.h"
 #include "common/Timer.h"
 #include "common/Threading.h"
 
@@ -63,6 +66,8 @@ struct GSSWThreadStats
 	u64 last_cpu_time = 0;
 	double usage = 0.0;
 	double time = 0.0;
+	double throughput = 0.0;
+	float share = 0.0f;
 };
 std::vector<GSSWThreadStats> s_gs_sw_threads;
 
@@ -71,6 +76,72 @@ static float s_accumulated_gpu_time = 0.0f;
 static float s_gpu_usage = 0.0f;
 static u32 s_presents_since_last_update = 0;
 
+// Stall accumulators are written by the EE and MTVU threads, and drained by the GS thread on update.
+static constexpr u32 NUM_STALL_WAITS = static_cast<u32>(PerformanceMetrics::StallWait::Count);
+static constexpr u32 NUM_STALL_REASONS = static_cast<u32>(PerformanceMetrics::StallReason::Count);
+static constexpr u32 NUM_STALL_RINGS = static_cast<u32>(PerformanceMetrics::StallRing::Count);
+
+struct StallAccumulator
+{
+	std::atomic<u64> ticks{0};
+	std::atomic<u32> count{0};
+};
+
+static StallAccumulator s_stall_accumulators[NUM_STALL_WAITS][NUM_STALL_REASONS];
+static float s_stall_time[NUM_STALL_WAITS][NUM_STALL_REASONS] = {};
+static float s_stall_rate[NUM_STALL_WAITS][NUM_STALL_REASONS] = {};
+
+// Samples are counted with a relaxed load/store rather than an RMW, as the only time there's more
+// than one producer (the EE and MTVU both writing to the GS ring) losing the odd sample doesn't matter.
+static std::atomic<u32> s_ring_occupancy_samples[NUM_STALL_RINGS][PerformanceMetrics::NUM_RING_OCCUPANCY_BUCKETS] = {};
+static PerformanceMetrics::RingOccupancyHistogram s_ring_occupancy[NUM_STALL_RINGS] = {};
+
+// Frame limiter waits are written by the CPU thread, and drained by the GS thread on update.
+// The maximum only has one writer, so it's updated with a relaxed load/store.
+static std::atomic<u64> s_frame_pacing_lateness_sum{0};
+static std::atomic<u64> s_frame_pacing_lateness_max{0};
+static std::atomic<u64> s_frame_pacing_spin_sum{0};
+static std::atomic<u32> s_frame_pacing_count{0};
+static std::atomic<u64> s_frame_pacing_overshoot{0};
+static bool s_frame_pacing_active = false;
+static float s_frame_pacing_average_jitter = 0.0f;
+static float s_frame_pacing_maximum_jitter = 0.0f;
+static float s_frame_pacing_spin_usage = 0.0f;
+static float s_frame_pacing_overshoot_us = 0.0f;
+
+// Disc reads are written by the EE/IOP thread, and drained by the GS thread on update.
+static std::atomic<u32> s_disc_read_hits{0};
+static std::atomic<u32> s_disc_read_misses{0};
+static std::atomic<u64> s_disc_stall_ticks{0};
+static std::atomic<u32> s_disc_readahead_depth{0};
+static std::atomic<u32> s_disc_readahead_size{0};
+static bool s_disc_read_active = false;
+static float s_disc_read_hit_rate = 0.0f;
+static float s_disc_read_rate = 0.0f;
+static float s_disc_stall_time = 0.0f;
+static u32 s_disc_readahead_depth_shown = 0;
+static u32 s_disc_readahead_size_shown = 0;
+
+// Hunk decodes are written by the read thread and the decode workers.
+static std::atomic<u32> s_disc_hunk_hits{0};
+static std::atomic<u32> s_disc_hunk_misses{0};
+static std::atomic<u64> s_disc_hunk_decode_ticks{0};
+static std::atomic<u32> s_disc_hunk_decodes{0};
+static bool s_disc_hunk_cache_active = false;
+static float s_disc_hunk_hit_rate = 0.0f;
+static float s_disc_hunk_decode_time = 0.0f;
+static float s_disc_hunk_decode_rate = 0.0f;
+
+static thread_local PerformanceMetrics::StallReason s_stall_reason = PerformanceMetrics::StallReason::Sync;
+static thread_local bool s_stall_thread_is_vu = false;
+
+static void AddStall(PerformanceMetrics::StallWait wait, PerformanceMetrics::StallReason reason, Common::Timer::Value duration);
+static void ClearStallAccumulators();
+static void UpdateStalls(float time);
+static void UpdateFramePacing(float time);
+static void UpdateDiscReads(float time);
+static void UpdateDiscHunks(float time);
+
 void PerformanceMetrics::Clear()
 {
 	Reset();
@@ -98,6 +169,29 @@ void PerformanceMetrics::Clear()
 
 	s_frame_time_history.fill(0.0f);
 	s_frame_time_history_pos = 0;
+
+	std::memset(s_stall_time, 0, sizeof(s_stall_time));
+	std::memset(s_stall_rate, 0, sizeof(s_stall_rate));
+	for (RingOccupancyHistogram& histogram : s_ring_occupancy)
+		histogram.fill(0.0f);
+
+	s_frame_pacing_active = false;
+	s_frame_pacing_average_jitter = 0.0f;
+	s_frame_pacing_maximum_jitter = 0.0f;
+	s_frame_pacing_spin_usage = 0.0f;
+	s_frame_pacing_overshoot_us = 0.0f;
+
+	s_disc_read_active = false;
+	s_disc_read_hit_rate = 0.0f;
+	s_disc_read_rate = 0.0f;
+	s_disc_stall_time = 0.0f;
+	s_disc_readahead_depth_shown = 0;
+	s_disc_readahead_size_shown = 0;
+
+	s_disc_hunk_cache_active = false;
+	s_disc_hunk_hit_rate = 0.0f;
+	s_disc_hunk_decode_time = 0.0f;
+	s_disc_hunk_decode_rate = 0.0f;
 }
 
 void PerformanceMetrics::Reset()
@@ -124,6 +218,8 @@ void PerformanceMetrics::Reset()
 
 	for (GSSWThreadStats& stat : s_gs_sw_threads)
 		stat.last_cpu_time = stat.handle.GetCPUTime();
+
+	ClearStallAccumulators();
 }
 
 void PerformanceMetrics::Update(bool gs_register_write, bool fb_blit, bool is_skipping_present)
@@ -148,7 +244,10 @@ void PerformanceMetrics::Update(bool gs_register_write, bool fb_blit, bool is_sk
 	const Common::Timer::Value ticks_diff = now_ticks - s_last_update_time.GetStartValue();
 	const float time = Common::Timer::ConvertValueToSeconds(ticks_diff);
 	if (time < UPDATE_INTERVAL)
+	{
+		Host::OnPerformanceMetricsFrame();
 		return;
+	}
 
 	s_last_update_time.ResetTo(now_ticks);
 	s_minimum_frame_time = std::exchange(s_minimum_frame_time_accumulator, 0.0f);
@@ -221,11 +320,178 @@ void PerformanceMetrics::Update(bool gs_register_write, bool fb_blit, bool is_sk
 		thread.time = static_cast<double>(delta) * time_divider;
 	}
 
+	UpdateStalls(time);
+	UpdateFramePacing(time);
+	UpdateDiscReads(time);
+	UpdateDiscHunks(time);
+
 	s_frames_since_last_update = 0;
 	s_unskipped_frames_since_last_update = 0;
 	s_presents_since_last_update = 0;
 
 	Host::OnPerformanceMetricsUpdated();
+	Host::OnPerformanceMetricsFrame();
+}
+
+void ClearStallAccumulators()
+{
+	for (auto& wait : s_stall_accumulators)
+	{
+		for (StallAccumulator& acc : wait)
+		{
+			acc.ticks.store(0, std::memory_order_relaxed);
+			acc.count.store(0, std::memory_order_relaxed);
+		}
+	}
+
+	for (auto& ring : s_ring_occupancy_samples)
+	{
+		for (std::atomic<u32>& bucket : ring)
+			bucket.store(0, std::memory_order_relaxed);
+	}
+
+	s_frame_pacing_lateness_sum.store(0, std::memory_order_relaxed);
+	s_frame_pacing_lateness_max.store(0, std::memory_order_relaxed);
+	s_frame_pacing_spin_sum.store(0, std::memory_order_relaxed);
+	s_frame_pacing_count.store(0, std::memory_order_relaxed);
+
+	s_disc_read_hits.store(0, std::memory_order_relaxed);
+	s_disc_read_misses.store(0, std::memory_order_relaxed);
+	s_disc_stall_ticks.store(0, std::memory_order_relaxed);
+
+	s_disc_hunk_hits.store(0, std::memory_order_relaxed);
+	s_disc_hunk_misses.store(0, std::memory_order_relaxed);
+	s_disc_hunk_decode_ticks.store(0, std::memory_order_relaxed);
+	s_disc_hunk_decodes.store(0, std::memory_order_relaxed);
+}
+
+void UpdateFramePacing(float time)
+{
+	const u64 lateness = s_frame_pacing_lateness_sum.exchange(0, std::memory_order_relaxed);
+	const u64 lateness_max = s_frame_pacing_lateness_max.exchange(0, std::memory_order_relaxed);
+	const u64 spin = s_frame_pacing_spin_sum.exchange(0, std::memory_order_relaxed);
+	const u32 count = s_frame_pacing_count.exchange(0, std::memory_order_relaxed);
+
+	s_frame_pacing_active = (count > 0);
+	if (!s_frame_pacing_active)
+		return;
+
+	const double us_per_tick = 1000000.0 / static_cast<double>(GetTickFrequency());
+	s_frame_pacing_average_jitter = static_cast<float>(static_cast<double>(lateness) * us_per_tick / static_cast<double>(count));
+	s_frame_pacing_maximum_jitter = static_cast<float>(static_cast<double>(lateness_max) * us_per_tick);
+	s_frame_pacing_spin_usage = static_cast<float>(static_cast<double>(spin) * us_per_tick / (static_cast<double>(time) * 10000.0));
+	s_frame_pacing_overshoot_us =
+		static_cast<float>(static_cast<double>(s_frame_pacing_overshoot.load(std::memory_order_relaxed)) * us_per_tick);
+}
+
+void UpdateDiscReads(float time)
+{
+	const u32 hits = s_disc_read_hits.exchange(0, std::memory_order_relaxed);
+	const u32 misses = s_disc_read_misses.exchange(0, std::memory_order_relaxed);
+	const u64 stall = s_disc_stall_ticks.exchange(0, std::memory_order_relaxed);
+	const u32 reads = hits + misses;
+
+	s_disc_read_active = (reads > 0);
+	if (!s_disc_read_active)
+		return;
+
+	s_disc_read_hit_rate = static_cast<float>(hits) * 100.0f / static_cast<float>(reads);
+	s_disc_read_rate = static_cast<float>(reads) / time;
+	s_disc_stall_time = static_cast<float>(Common::Timer::ConvertValueToMilliseconds(stall) / static_cast<double>(s_frames_since_last_update));
+	s_disc_readahead_depth_shown = s_disc_readahead_depth.load(std::memory_order_relaxed);
+	s_disc_readahead_size_shown = s_disc_readahead_size.load(std::memory_order_relaxed) / 1024;
+}
+
+void UpdateDiscHunks(float time)
+{
+	const u32 hits = s_disc_hunk_hits.exchange(0, std::memory_order_relaxed);
+	const u32 misses = s_disc_hunk_misses.exchange(0, std::memory_order_relaxed);
+	const u64 decode_ticks = s_disc_hunk_decode_ticks.exchange(0, std::memory_order_relaxed);
+	const u32 decodes = s_disc_hunk_decodes.exchange(0, std::memory_order_relaxed);
+	const u32 reads = hits + misses;
+
+	s_disc_hunk_cache_active = (reads > 0);
+	if (!s_disc_hunk_cache_active)
+		return;
+
+	s_disc_hunk_hit_rate = static_cast<float>(hits) * 100.0f / static_cast<float>(reads);
+	s_disc_hunk_decode_rate = static_cast<float>(decodes) / time;
+	s_disc_hunk_decode_time = (decodes > 0) ?
+		static_cast<float>(Common::Timer::ConvertValueToMilliseconds(decode_ticks) * 1000.0 / static_cast<double>(decodes)) : 0.0f;
+}
+
+void UpdateStalls(float time)
+{
+	const double frames = static_cast<double>(s_frames_since_last_update);
+	for (u32 wait = 0; wait < NUM_STALL_WAITS; wait++)
+	{
+		for (u32 reason = 0; reason < NUM_STALL_REASONS; reason++)
+		{
+			StallAccumulator& acc = s_stall_accumulators[wait][reason];
+			const u64 ticks = acc.ticks.exchange(0, std::memory_order_relaxed);
+			const u32 count = acc.count.exchange(0, std::memory_order_relaxed);
+			s_stall_time[wait][reason] = static_cast<float>(Common::Timer::ConvertValueToMilliseconds(ticks) / frames);
+			s_stall_rate[wait][reason] = static_cast<float>(count) / time;
+		}
+	}
+
+	for (u32 ring = 0; ring < NUM_STALL_RINGS; ring++)
+	{
+		u32 samples[PerformanceMetrics::NUM_RING_OCCUPANCY_BUCKETS];
+		u32 total = 0;
+		for (u32 i = 0; i < PerformanceMetrics::NUM_RING_OCCUPANCY_BUCKETS; i++)
+		{
+			samples[i] = s_ring_occupancy_samples[ring][i].exchange(0, std::memory_order_relaxed);
+			total += samples[i];
+		}
+
+		// Keep the previous histogram if the ring wasn't used at all, e.g. MTVU is off.
+		if (total == 0)
+			continue;
+
+		for (u32 i = 0; i < PerformanceMetrics::NUM_RING_OCCUPANCY_BUCKETS; i++)
+			s_ring_occupancy[ring][i] = static_cast<float>(samples[i]) / static_cast<float>(total);
+	}
+}
+
+void AddStall(PerformanceMetrics::StallWait wait, PerformanceMetrics::StallReason reason, Common::Timer::Value duration)
+{
+	StallAccumulator& acc = s_stall_accumulators[static_cast<u32>(wait)][static_cast<u32>(reason)];
+	acc.ticks.fetch_add(duration, std::memory_order_relaxed);
+	acc.count.fetch_add(1, std::memory_order_relaxed);
+}
+
+void PerformanceMetrics::AddFrameLimiterWait(u64 lateness, u64 spin, u64 wakeup_overshoot)
+{
+	s_frame_pacing_lateness_sum.fetch_add(lateness, std::memory_order_relaxed);
+	if (lateness > s_frame_pacing_lateness_max.load(std::memory_order_relaxed))
+		s_frame_pacing_lateness_max.store(lateness, std::memory_order_relaxed);
+	s_frame_pacing_spin_sum.fetch_add(spin, std::memory_order_relaxed);
+	s_frame_pacing_count.fetch_add(1, std::memory_order_relaxed);
+	s_frame_pacing_overshoot.store(wakeup_overshoot, std::memory_order_relaxed);
+}
+
+void PerformanceMetrics::AddDiscRead(bool hit, u32 readahead_depth, u32 readahead_size)
+{
+	(hit ? s_disc_read_hits : s_disc_read_misses).fetch_add(1, std::memory_order_relaxed);
+	s_disc_readahead_depth.store(readahead_depth, std::memory_order_relaxed);
+	s_disc_readahead_size.store(readahead_size, std::memory_order_relaxed);
+}
+
+void PerformanceMetrics::AddDiscStall(Common::Timer::Value duration)
+{
+	s_disc_stall_ticks.fetch_add(duration, std::memory_order_relaxed);
+}
+
+void PerformanceMetrics::AddDiscHunkRead(bool hit)
+{
+	(hit ? s_disc_hunk_hits : s_disc_hunk_misses).fetch_add(1, std::memory_order_relaxed);
+}
+
+void PerformanceMetrics::AddDiscHunkDecode(Common::Timer::Value duration)
+{
+	s_disc_hunk_decode_ticks.fetch_add(duration, std::memory_order_relaxed);
+	s_disc_hunk_decodes.fetch_add(1, std::memory_order_relaxed);
 }
 
 void PerformanceMetrics::OnGPUPresent(float gpu_time)
@@ -252,6 +518,53 @@ void PerformanceMetrics::SetGSSWThread(u32 index, Threading::ThreadHandle thread
 	s_gs_sw_threads[index].handle = std::move(thread);
 }
 
+void PerformanceMetrics::SetGSSWThreadThroughput(u32 index, double pixels_per_second, float share)
+{
+	if (index >= s_gs_sw_threads.size())
+		return;
+
+	s_gs_sw_threads[index].throughput = pixels_per_second;
+	s_gs_sw_threads[index].share = share;
+}
+
+void PerformanceMetrics::SetStallThreadIsVU()
+{
+	s_stall_thread_is_vu = true;
+}
+
+PerformanceMetrics::StallReason PerformanceMetrics::GetStallReason()
+{
+	return s_stall_reason;
+}
+
+void PerformanceMetrics::AddGSStall(StallReason reason, Common::Timer::Value duration)
+{
+	AddStall(s_stall_thread_is_vu ? StallWait::VUOnGS : StallWait::EEOnGS, reason, duration);
+}
+
+void PerformanceMetrics::AddVUStall(StallReason reason, Common::Timer::Value duration)
+{
+	AddStall(StallWait::EEOnVU, reason, duration);
+}
+
+void PerformanceMetrics::SampleRingOccupancy(StallRing ring, u32 used, u32 size)
+{
+	const u32 bucket = std::min(static_cast<u32>((static_cast<u64>(used) * NUM_RING_OCCUPANCY_BUCKETS) / size),
+		NUM_RING_OCCUPANCY_BUCKETS - 1);
+	std::atomic<u32>& counter = s_ring_occupancy_samples[static_cast<u32>(ring)][bucket];
+	counter.store(counter.load(std::memory_order_relaxed) + 1, std::memory_order_relaxed);
+}
+
+PerformanceMetrics::ScopedStallReason::ScopedStallReason(StallReason reason)
+	: m_previous(std::exchange(s_stall_reason, reason))
+{
+}
+
+PerformanceMetrics::ScopedStallReason::~ScopedStallReason()
+{
+	s_stall_reason = m_previous;
+}
+
 u64 PerformanceMetrics::GetFrameNumber()
 {
 	return s_frame_number;
@@ -352,6 +665,16 @@ double PerformanceMetrics::GetGSSWThreadAverageTime(u32 index)
 	return s_gs_sw_threads[index].time;
 }
 
+double PerformanceMetrics::GetGSSWThreadThroughput(u32 index)
+{
+	return s_gs_sw_threads[index].throughput / 1000000.0;
+}
+
+float PerformanceMetrics::GetGSSWThreadShare(u32 index)
+{
+	return s_gs_sw_threads[index].share;
+}
+
 float PerformanceMetrics::GetGPUUsage()
 {
 	return s_gpu_usage;
@@ -371,3 +694,101 @@ u32 PerformanceMetrics::GetFrameTimeHistoryPos()
 {
 	return s_frame_time_history_pos;
 }
+
+float PerformanceMetrics::GetStallTime(StallWait wait, StallReason reason)
+{
+	return s_stall_time[static_cast<u32>(wait)][static_cast<u32>(reason)];
+}
+
+float PerformanceMetrics::GetTotalStallTime(StallWait wait)
+{
+	float total = 0.0f;
+	for (const float time : s_stall_time[static_cast<u32>(wait)])
+		total += time;
+	return total;
+}
+
+float PerformanceMetrics::GetStallRate(StallWait wait, StallReason reason)
+{
+	return s_stall_rate[static_cast<u32>(wait)][static_cast<u32>(reason)];
+}
+
+const PerformanceMetrics::RingOccupancyHistogram& PerformanceMetrics::GetRingOccupancy(StallRing ring)
+{
+	return s_ring_occupancy[static_cast<u32>(ring)];
+}
+
+bool PerformanceMetrics::IsFramePacingActive()
+{
+	return s_frame_pacing_active;
+}
+
+float PerformanceMetrics::GetFramePacingAverageJitter()
+{
+	return s_frame_pacing_average_jitter;
+}
+
+float PerformanceMetrics::GetFramePacingMaximumJitter()
+{
+	return s_frame_pacing_maximum_jitter;
+}
+
+float PerformanceMetrics::GetFramePacingSpinUsage()
+{
+	return s_frame_pacing_spin_usage;
+}
+
+float PerformanceMetrics::GetFramePacingWakeupOvershoot()
+{
+	return s_frame_pacing_overshoot_us;
+}
+
+bool PerformanceMetrics::IsDiscReadActive()
+{
+	return s_disc_read_active;
+}
+
+float PerformanceMetrics::GetDiscReadHitRate()
+{
+	return s_disc_read_hit_rate;
+}
+
+float PerformanceMetrics::GetDiscReadRate()
+{
+	return s_disc_read_rate;
+}
+
+float PerformanceMetrics::GetDiscStallTime()
+{
+	return s_disc_stall_time;
+}
+
+u32 PerformanceMetrics::GetDiscReadaheadDepth()
+{
+	return s_disc_readahead_depth_shown;
+}
+
+u32 PerformanceMetrics::GetDiscReadaheadSize()
+{
+	return s_disc_readahead_size_shown;
+}
+
+bool PerformanceMetrics::IsDiscHunkCacheActive()
+{
+	return s_disc_hunk_cache_active;
+}
+
+float PerformanceMetrics::GetDiscHunkHitRate()
+{
+	return s_disc_hunk_hit_rate;
+}
+
+float PerformanceMetrics::GetDiscHunkDecodeTime()
+{
+	return s_disc_hunk_decode_time;
+}
+
+float PerformanceMetrics::GetDiscHunkDecodeRate()
+{
+	return s_disc_hunk_decode_rate;
+}
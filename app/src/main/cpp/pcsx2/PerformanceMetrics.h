@@ -5,6 +5,7 @@
 
 #include <array>
 #include "common/Threading.h"
+#include "common/Timer.h"
 
 namespace PerformanceMetrics
 {
@@ -18,6 +19,36 @@ namespace PerformanceMetrics
 	static constexpr u32 NUM_FRAME_TIME_SAMPLES = 150;
 	using FrameTimeHistory = std::array<float, NUM_FRAME_TIME_SAMPLES>;
 
+	/// Which thread was blocked, and which thread it was waiting on.
+	enum class StallWait : u8
+	{
+		EEOnGS,
+		EEOnVU,
+		VUOnGS,
+		Count
+	};
+
+	/// Why a thread had to wait.
+	enum class StallReason : u8
+	{
+		RingFull,
+		VsyncQueue,
+		Sync,
+		Readback,
+		Savestate,
+		Count
+	};
+
+	enum class StallRing : u8
+	{
+		GS,
+		VU,
+		Count
+	};
+
+	static constexpr u32 NUM_RING_OCCUPANCY_BUCKETS = 8;
+	using RingOccupancyHistogram = std::array<float, NUM_RING_OCCUPANCY_BUCKETS>;
+
 	void Clear();
 	void Reset();
 	void Update(bool gs_register_write, bool fb_blit, bool is_skipping_present);
@@ -30,6 +61,55 @@ namespace PerformanceMetrics
 	void SetGSSWThreadCount(u32 count);
 	void SetGSSWThread(u32 index, Threading::ThreadHandle thread);
 
+	/// Records a GS software thread's measured fill rate, and the fraction of scanline bands it's been given.
+	void SetGSSWThreadThroughput(u32 index, double pixels_per_second, float share);
+
+	/// Marks the calling thread as the MTVU thread, so its waits on the GS are told apart from the EE's.
+	void SetStallThreadIsVU();
+
+	/// Returns the reason explicit synchronization on the calling thread is attributed to.
+	/// This is StallReason::Sync unless a ScopedStallReason is active.
+	StallReason GetStallReason();
+
+	/// Records a completed wait on the GS (from the EE or MTVU thread) or on the VU thread (from the EE).
+	void AddGSStall(StallReason reason, Common::Timer::Value duration);
+	void AddVUStall(StallReason reason, Common::Timer::Value duration);
+
+	/// Samples how full a ring buffer is. Called by the producer when it reserves space.
+	void SampleRingOccupancy(StallRing ring, u32 used, u32 size);
+
+	/// Records a frame limiter wait on the CPU thread, in GetCPUTicks() units: how late the frame
+	/// started, how long was spent spinning, and the limiter's current wakeup overshoot estimate.
+	void AddFrameLimiterWait(u64 lateness, u64 spin, u64 wakeup_overshoot);
+
+	/// Records a disc image read, hit being whether readahead already had all of it, along with the
+	/// readahead window in effect (in buffers, and bytes).
+	void AddDiscRead(bool hit, u32 readahead_depth, u32 readahead_size);
+
+	/// Records time spent blocked waiting for the disc image.
+	void AddDiscStall(Common::Timer::Value duration);
+
+	/// Records a compressed image block (CHD hunk, or group of CSO frames) being needed, hit being whether it
+	/// was already decompressed.
+	void AddDiscHunkRead(bool hit);
+
+	/// Records the time taken to decompress one block, on whichever thread did it.
+	void AddDiscHunkDecode(Common::Timer::Value duration);
+
+	/// Attributes explicit synchronization on the calling thread to a different reason until destroyed.
+	class ScopedStallReason
+	{
+	public:
+		explicit ScopedStallReason(StallReason reason);
+		~ScopedStallReason();
+
+		ScopedStallReason(const ScopedStallReason&) = delete;
+		ScopedStallReason& operator=(const ScopedStallReason&) = delete;
+
+	private:
+		StallReason m_previous;
+	};
+
 	u64 GetFrameNumber();
 
 	InternalFPSMethod GetInternalFPSMethod();
@@ -54,10 +134,60 @@ namespace PerformanceMetrics
 	u32 GetGSSWThreadCount();
 	double GetGSSWThreadUsage(u32 index);
 	double GetGSSWThreadAverageTime(u32 index);
+	double GetGSSWThreadThroughput(u32 index); // megapixels per second of busy time
+	float GetGSSWThreadShare(u32 index);
 
 	float GetGPUUsage();
 	float GetGPUAverageTime();
 
 	const FrameTimeHistory& GetFrameTimeHistory();
 	u32 GetFrameTimeHistoryPos();
+
+	/// Average time spent waiting per frame, in milliseconds, over the last update interval.
+	float GetStallTime(StallWait wait, StallReason reason);
+	float GetTotalStallTime(StallWait wait);
+
+	/// Number of waits per second over the last update interval.
+	float GetStallRate(StallWait wait, StallReason reason);
+
+	/// Fraction of samples in each occupancy bucket over the last update interval, bucket 0 being the emptiest.
+	const RingOccupancyHistogram& GetRingOccupancy(StallRing ring);
+
+	/// Returns false if the frame limiter hasn't waited in the last update interval, e.g. it's unlimited
+	/// or vsync is used for timing.
+	bool IsFramePacingActive();
+
+	/// Average and worst frame start lateness over the last update interval, in microseconds.
+	float GetFramePacingAverageJitter();
+	float GetFramePacingMaximumJitter();
+
+	/// Percentage of wall time the limiter spent spinning over the last update interval.
+	float GetFramePacingSpinUsage();
+
+	/// Learned wakeup overshoot, in microseconds.
+	float GetFramePacingWakeupOvershoot();
+
+	/// Returns false if the disc image hasn't been read in the last update interval.
+	bool IsDiscReadActive();
+
+	/// Percentage of reads served entirely from readahead, and reads per second, over the last update interval.
+	float GetDiscReadHitRate();
+	float GetDiscReadRate();
+
+	/// Average time spent waiting for the disc image per frame, in milliseconds, over the last update interval.
+	float GetDiscStallTime();
+
+	/// Readahead window at the end of the last update interval, in buffers and kilobytes.
+	u32 GetDiscReadaheadDepth();
+	u32 GetDiscReadaheadSize();
+
+	/// Returns false if no hunks were needed in the last update interval, e.g. the image isn't compressed in hunks.
+	bool IsDiscHunkCacheActive();
+
+	/// Percentage of hunks which had already been decompressed when they were needed, over the last update interval.
+	float GetDiscHunkHitRate();
+
+	/// Average time to decompress a hunk in microseconds, and hunks decompressed per second, over the last update interval.
+	float GetDiscHunkDecodeTime();
+	float GetDiscHunkDecodeRate();
 } // namespace PerformanceMetrics
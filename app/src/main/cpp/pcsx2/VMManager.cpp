@@ -45,6 +45,7 @@
 #include "common/Console.h"
 #include "common/Error.h"
 #include "common/FileSystem.h"
+#include "common/FrameLimiter.h"
 #include "common/FPControl.h"
 #include "common/ScopedGuard.h"
 #include "common/SettingsWrapper.h"
@@ -52,6 +53,7 @@
 #include "common/StringUtil.h"
 #include "common/Threading.h"
 #include "common/Timer.h"
+#include "common/Trace.h"
 
 #include "IconsFontAwesome5.h"
 #include "IconsPromptFont.h"
@@ -93,7 +95,8 @@ namespace VMManager
 
 	static void ApplyGameFixes();
 	static bool UpdateGameSettingsLayer();
-	static void CheckForConfigChanges(const Pcsx2Config& old_config);
+	static ConfigChangeFlags GetConfigChanges(const Pcsx2Config& old_config);
+	static ConfigChangeFlags CheckForConfigChanges(const Pcsx2Config& old_config);
 	static void CheckForCPUConfigChanges(const Pcsx2Config& old_config);
 	static void CheckForGSConfigChanges(const Pcsx2Config& old_config);
 	static void CheckForEmulationSpeedConfigChanges(const Pcsx2Config& old_config);
@@ -143,6 +146,9 @@ namespace VMManager
 	static void SetHardwareDependentDefaultSettings(SettingsInterface& si);
 	static void EnsureCPUInfoInitialized();
 	static void SetEmuThreadAffinities();
+	static void ApplyEmuThreadPlacement();
+	static void SetAuxiliaryThreadAffinity(u64 processor_mask);
+	static void ReevaluateThreadPlacement();
 
 	static void InitializeDiscordPresence();
 	static void ShutdownDiscordPresence();
@@ -183,10 +189,12 @@ static u32 s_frame_advance_count = 0;
 static bool s_fast_boot_requested = false;
 static bool s_gs_open_on_initialize = false;
 static bool s_thread_affinities_set = false;
+static bool s_thread_affinities_mtvu = false;
 
 static LimiterModeType s_limiter_mode = LimiterModeType::Nominal;
 static s64 s_limiter_ticks_per_frame = 0;
 static u64 s_limiter_frame_start = 0;
+static Common::FrameLimiter s_frame_limiter;
 static float s_target_speed = 0.0f;
 static bool s_target_speed_can_sync_to_host = false;
 static bool s_target_speed_synced_to_host = false;
@@ -454,6 +462,7 @@ void VMManager::Internal::CPUThreadShutdown()
 #endif
 
 	// Ensure emulog gets flushed.
+	Log::FlushAsyncOutput();
 	Log::SetFileOutputLevel(LOGLEVEL_NONE, std::string());
 
 	R5900SymbolImporter.ShutdownWorkerThread();
@@ -718,7 +727,7 @@ void VMManager::ApplyGameFixes()
 	EmuConfig.GS.MaskUpscalingHacks();
 }
 
-void VMManager::ApplySettings()
+ConfigChangeFlags VMManager::ApplySettings()
 {
 	Console.WriteLn("Applying settings...");
 
@@ -736,7 +745,7 @@ void VMManager::ApplySettings()
 	EmuConfig = Pcsx2Config();
 	EmuConfig.CopyRuntimeConfig(old_config);
 	LoadSettings();
-	CheckForConfigChanges(old_config);
+	return CheckForConfigChanges(old_config);
 }
 
 void VMManager::ApplyCoreSettings()
@@ -1845,6 +1854,9 @@ bool VMManager::DoLoadState(const char* filename)
 	if (GSDumpReplayer::IsReplayingDump())
 		return false;
 
+	TRACE_SCOPE("savestate", "Load State");
+	PerformanceMetrics::ScopedStallReason stall_reason(PerformanceMetrics::StallReason::Savestate);
+
 	Host::OnSaveStateLoading(filename);
 
 	Error error;
@@ -1870,6 +1882,9 @@ bool VMManager::DoSaveState(const char* filename, s32 slot_for_message, bool zip
 	if (GSDumpReplayer::IsReplayingDump())
 		return false;
 
+	TRACE_SCOPE("savestate", "Save State");
+	PerformanceMetrics::ScopedStallReason stall_reason(PerformanceMetrics::StallReason::Savestate);
+
 	std::string osd_key(fmt::format("SaveStateSlot{}", slot_for_message));
 	Error error;
 
@@ -1918,6 +1933,8 @@ void VMManager::ZipSaveState(std::unique_ptr<ArchiveEntryList> elist,
 	std::unique_ptr<SaveStateScreenshotData> screenshot, std::string osd_key, const char* filename,
 	s32 slot_for_message)
 {
+	TRACE_SCOPE("savestate", "Compress State");
+
 	Common::Timer timer;
 
 	if (SaveState_ZipToDisk(std::move(elist), std::move(screenshot), filename))
@@ -2220,22 +2237,9 @@ void VMManager::Internal::Throttle()
 		return;
 	}
 
-	// Conversion of delta from CPU ticks (microseconds) to milliseconds
-	const s32 msec = static_cast<s32>((sDeltaTime * -1000) / static_cast<s64>(GetTickFrequency()));
-
-	// If any integer value of milliseconds exists, sleep it off.
-	// Prior comments suggested that 1-2 ms sleeps were inaccurate on some OSes;
-	// further testing suggests instead that this was utter bullshit.
-	if (msec > 1)
-	{
-		Threading::Sleep(msec - 1);
-	}
-
-	// Conversion to milliseconds loses some precision; after sleeping off whole milliseconds,
-	// spin the thread without sleeping until we finally reach our expected end time.
-	while (GetCPUTicks() < uExpectedEnd)
-	{
-	}
+	const Common::FrameLimiter::WaitResult result = s_frame_limiter.WaitUntil(uExpectedEnd,
+		EmuConfig.EmulationSpeed.PreciseFramePacing ? Common::FrameLimiter::Mode::PreciseSleep : Common::FrameLimiter::Mode::Spin);
+	PerformanceMetrics::AddFrameLimiterWait(result.lateness, result.spin, s_frame_limiter.GetWakeupOvershoot());
 
 	// Finally, set our next frame start to when this one ends
 	s_limiter_frame_start = uExpectedEnd;
@@ -2598,18 +2602,18 @@ void VMManager::LogCPUCapabilities()
 
 void VMManager::InitializeCPUProviders()
 {
-//#ifdef _M_X86 // TODO(Stenzek): Remove me once EE/VU/IOP recs are added.
+#ifdef _M_ARM64 // The EE/VU/IOP recompilers under x86/ only emit ARM64 code.
 	recCpu.Reserve();
 	psxRec.Reserve();
 
 	CpuMicroVU0.Reserve();
 	CpuMicroVU1.Reserve();
-//#else
-//	// Despite not having any VU recompilers on ARM64, therefore no MTVU,
-//	// we still need the thread alive. Otherwise the read and write positions
-//	// of the ring buffer wont match, and various systems in the emulator end up deadlocked.
-//	vu1Thread.Open();
-//#endif
+#else
+	// Despite not having any VU recompilers on this host, therefore no MTVU,
+	// we still need the thread alive. Otherwise the read and write positions
+	// of the ring buffer wont match, and various systems in the emulator end up deadlocked.
+	vu1Thread.Open();
+#endif
 
 	VifUnpackSSE_Init();
 }
@@ -2622,18 +2626,18 @@ void VMManager::ShutdownCPUProviders()
 		dVifRelease(0);
 	}
 
-//#ifdef _M_X86 // TODO(Stenzek): Remove me once EE/VU/IOP recs are added.
+#ifdef _M_ARM64 // The EE/VU/IOP recompilers under x86/ only emit ARM64 code.
 	CpuMicroVU1.Shutdown();
 	CpuMicroVU0.Shutdown();
 
 	psxRec.Shutdown();
 	recCpu.Shutdown();
-//#else
-//	// See the comment in the InitializeCPUProviders for an explaination why we
-//	// still need to manage the MTVU thread.
-//	if (vu1Thread.IsOpen())
-//		vu1Thread.WaitVU();
-//#endif
+#else
+	// See the comment in the InitializeCPUProviders for an explaination why we
+	// still need to manage the MTVU thread.
+	if (vu1Thread.IsOpen())
+		vu1Thread.WaitVU();
+#endif
 }
 
 void VMManager::UpdateCPUImplementations()
@@ -2647,19 +2651,19 @@ void VMManager::UpdateCPUImplementations()
 		return;
 	}
 
-//#ifdef _M_X86 // TODO(Stenzek): Remove me once EE/VU/IOP recs are added.
+#ifdef _M_ARM64 // The EE/VU/IOP recompilers under x86/ only emit ARM64 code.
 	Cpu = CHECK_EEREC ? &recCpu : &intCpu;
 	psxCpu = CHECK_IOPREC ? &psxRec : &psxInt;
 
 	CpuVU0 = EmuConfig.Cpu.Recompiler.EnableVU0 ? static_cast<BaseVUmicroCPU*>(&CpuMicroVU0) : static_cast<BaseVUmicroCPU*>(&CpuIntVU0);
 	CpuVU1 = EmuConfig.Cpu.Recompiler.EnableVU1 ? static_cast<BaseVUmicroCPU*>(&CpuMicroVU1) : static_cast<BaseVUmicroCPU*>(&CpuIntVU1);
-//#else
-//	Cpu = &intCpu;
-//	psxCpu = &psxInt;
-//
-//	CpuVU0 = &CpuIntVU0;
-//	CpuVU1 = &CpuIntVU1;
-//#endif
+#else
+	Cpu = &intCpu;
+	psxCpu = &psxInt;
+
+	CpuVU0 = &CpuIntVU0;
+	CpuVU1 = &CpuIntVU1;
+#endif
 }
 
 void VMManager::Internal::ClearCPUExecutionCaches()
@@ -2667,11 +2671,11 @@ void VMManager::Internal::ClearCPUExecutionCaches()
 	Cpu->Reset();
 	psxCpu->Reset();
 
-//#ifdef _M_X86 // TODO(Stenzek): Remove me once EE/VU/IOP recs are added.
+#ifdef _M_ARM64 // The EE/VU/IOP recompilers under x86/ only emit ARM64 code.
 	// mVU's VU0 needs to be properly initialized for macro mode even if it's not used for micro mode!
 	if (CHECK_EEREC && !EmuConfig.Cpu.Recompiler.EnableVU0)
 		CpuMicroVU0.Reset();
-//#endif
+#endif
 
 	CpuVU0->Reset();
 	CpuVU1->Reset();
@@ -2858,6 +2862,8 @@ void VMManager::Internal::VSyncOnCPUThread()
 	Achievements::FrameUpdate();
 
 	PollDiscordPresence();
+
+	ReevaluateThreadPlacement();
 }
 
 void VMManager::Internal::PollInputOnCPUThread()
@@ -2885,12 +2891,6 @@ void VMManager::Internal::PollInputOnCPUThread()
 
 void VMManager::CheckForCPUConfigChanges(const Pcsx2Config& old_config)
 {
-	if (EmuConfig.Cpu == old_config.Cpu && EmuConfig.Gamefixes == old_config.Gamefixes &&
-		EmuConfig.Speedhacks == old_config.Speedhacks && EmuConfig.Profiler == old_config.Profiler)
-	{
-		return;
-	}
-
 	Console.WriteLn("Updating CPU configuration...");
 	FPControlRegister::SetCurrent(EmuConfig.Cpu.FPUFPCR);
 	Internal::ClearCPUExecutionCaches();
@@ -2911,9 +2911,6 @@ void VMManager::CheckForCPUConfigChanges(const Pcsx2Config& old_config)
 
 void VMManager::CheckForGSConfigChanges(const Pcsx2Config& old_config)
 {
-	if (EmuConfig.GS == old_config.GS)
-		return;
-
 	Console.WriteLn("Updating GS configuration...");
 
 	// We could just check whichever NTSC or PAL is appropriate for our current mode,
@@ -2937,23 +2934,12 @@ void VMManager::CheckForGSConfigChanges(const Pcsx2Config& old_config)
 
 void VMManager::CheckForEmulationSpeedConfigChanges(const Pcsx2Config& old_config)
 {
-	if (EmuConfig.EmulationSpeed == old_config.EmulationSpeed)
-		return;
-
 	Console.WriteLn("Updating emulation speed configuration");
 	UpdateTargetSpeed();
 }
 
 void VMManager::CheckForPatchConfigChanges(const Pcsx2Config& old_config)
 {
-	if (EmuConfig.EnableCheats == old_config.EnableCheats &&
-		EmuConfig.EnableWideScreenPatches == old_config.EnableWideScreenPatches &&
-		EmuConfig.EnableNoInterlacingPatches == old_config.EnableNoInterlacingPatches &&
-		EmuConfig.EnablePatches == old_config.EnablePatches)
-	{
-		return;
-	}
-
 	Patch::UpdateActivePatches(true, false, true, HasValidVM());
 
 	// This is a bit messy, because the patch config update happens after the settings are loaded,
@@ -2964,31 +2950,11 @@ void VMManager::CheckForPatchConfigChanges(const Pcsx2Config& old_config)
 
 void VMManager::CheckForDEV9ConfigChanges(const Pcsx2Config& old_config)
 {
-	if (EmuConfig.DEV9 == old_config.DEV9)
-		return;
-
 	DEV9CheckChanges(old_config);
 }
 
 void VMManager::CheckForMemoryCardConfigChanges(const Pcsx2Config& old_config)
 {
-	bool changed = false;
-
-	for (size_t i = 0; i < std::size(EmuConfig.Mcd); i++)
-	{
-		if (EmuConfig.Mcd[i].Enabled != old_config.Mcd[i].Enabled ||
-			EmuConfig.Mcd[i].Filename != old_config.Mcd[i].Filename)
-		{
-			changed = true;
-			break;
-		}
-	}
-
-	changed |= (EmuConfig.McdFolderAutoManage != old_config.McdFolderAutoManage);
-
-	if (!changed)
-		return;
-
 	Console.WriteLn("Updating memory card configuration");
 
 	// force card eject when files change
@@ -3045,25 +3011,75 @@ void VMManager::CheckForMiscConfigChanges(const Pcsx2Config& old_config)
 	}
 }
 
-void VMManager::CheckForConfigChanges(const Pcsx2Config& old_config)
+ConfigChangeFlags VMManager::GetConfigChanges(const Pcsx2Config& old_config)
+{
+	ConfigChangeFlags changes = ConfigChangeFlags::None;
+
+	if (EmuConfig.Cpu != old_config.Cpu || EmuConfig.Gamefixes != old_config.Gamefixes ||
+		EmuConfig.Speedhacks != old_config.Speedhacks || EmuConfig.Profiler != old_config.Profiler)
+	{
+		changes |= ConfigChangeFlags::CPU;
+	}
+	if (EmuConfig.GS != old_config.GS)
+		changes |= ConfigChangeFlags::GS;
+	if (EmuConfig.EmulationSpeed != old_config.EmulationSpeed)
+		changes |= ConfigChangeFlags::EmulationSpeed;
+	if (EmuConfig.EnableCheats != old_config.EnableCheats ||
+		EmuConfig.EnableWideScreenPatches != old_config.EnableWideScreenPatches ||
+		EmuConfig.EnableNoInterlacingPatches != old_config.EnableNoInterlacingPatches ||
+		EmuConfig.EnablePatches != old_config.EnablePatches)
+	{
+		changes |= ConfigChangeFlags::Patches;
+	}
+	if (EmuConfig.SPU2 != old_config.SPU2)
+		changes |= ConfigChangeFlags::SPU2;
+	if (EmuConfig.DEV9 != old_config.DEV9)
+		changes |= ConfigChangeFlags::DEV9;
+	for (size_t i = 0; i < std::size(EmuConfig.Mcd); i++)
+	{
+		if (EmuConfig.Mcd[i].Enabled != old_config.Mcd[i].Enabled ||
+			EmuConfig.Mcd[i].Filename != old_config.Mcd[i].Filename)
+		{
+			changes |= ConfigChangeFlags::MemoryCards;
+			break;
+		}
+	}
+	if (EmuConfig.McdFolderAutoManage != old_config.McdFolderAutoManage)
+		changes |= ConfigChangeFlags::MemoryCards;
+	if (EmuConfig.USB != old_config.USB)
+		changes |= ConfigChangeFlags::USB;
+	if (EmuConfig.Achievements != old_config.Achievements)
+		changes |= ConfigChangeFlags::Achievements;
+
+	return changes;
+}
+
+ConfigChangeFlags VMManager::CheckForConfigChanges(const Pcsx2Config& old_config)
 {
+	const ConfigChangeFlags changes = GetConfigChanges(old_config);
+
 	if (HasValidVM())
 	{
-		CheckForCPUConfigChanges(old_config);
-		CheckForEmulationSpeedConfigChanges(old_config);
-		CheckForPatchConfigChanges(old_config);
+		if (changes & ConfigChangeFlags::CPU)
+			CheckForCPUConfigChanges(old_config);
+		if (changes & ConfigChangeFlags::EmulationSpeed)
+			CheckForEmulationSpeedConfigChanges(old_config);
+		if (changes & ConfigChangeFlags::Patches)
+			CheckForPatchConfigChanges(old_config);
 		SPU2::CheckForConfigChanges(old_config);
-		CheckForDEV9ConfigChanges(old_config);
-		CheckForMemoryCardConfigChanges(old_config);
+		if (changes & ConfigChangeFlags::DEV9)
+			CheckForDEV9ConfigChanges(old_config);
+		if (changes & ConfigChangeFlags::MemoryCards)
+			CheckForMemoryCardConfigChanges(old_config);
 		USB::CheckForConfigChanges(old_config);
 	}
 
 	// For the big picture UI, we still need to update GS settings, since it's running,
 	// and we don't update its config when we start the VM.
-	if (HasValidVM() || MTGS::IsOpen())
+	if ((changes & ConfigChangeFlags::GS) && (HasValidVM() || MTGS::IsOpen()))
 		CheckForGSConfigChanges(old_config);
 
-	if (EmuConfig.Achievements != old_config.Achievements)
+	if (changes & ConfigChangeFlags::Achievements)
 		Achievements::UpdateSettings(old_config.Achievements);
 
 	FullscreenUI::CheckForConfigChanges(old_config);
@@ -3071,6 +3087,8 @@ void VMManager::CheckForConfigChanges(const Pcsx2Config& old_config)
 	CheckForMiscConfigChanges(old_config);
 
 	Host::CheckForSettingsChanges(old_config);
+
+	return changes;
 }
 
 void VMManager::ReloadPatches(bool reload_files, bool reload_enabled_list, bool verbose, bool verbose_if_changed)
@@ -3425,10 +3443,44 @@ void VMManager::SetTimerResolutionIncreased(bool enabled)
 
 #endif
 
+// Processors which are suitable for pinning (no SMT siblings), fastest first. The performance and
+// cluster rank of each entry are kept alongside, rank 0 being the fastest cluster.
 static std::vector<u32> s_processor_list;
+static std::vector<u64> s_processor_performance;
+static std::vector<u64> s_processor_frequency;
+static std::vector<u32> s_processor_cluster_rank;
+static u64 s_all_processors_mask = 0;
 static std::vector<u32> s_software_renderer_processor_list;
 static std::once_flag s_processor_list_initialized;
 
+enum class EmuThread : u8
+{
+	EE,
+	VU,
+	GS,
+	Count
+};
+
+static constexpr const char* s_emu_thread_names[] = {"EE", "VU", "GS"};
+static constexpr u32 NUM_EMU_THREADS = static_cast<u32>(EmuThread::Count);
+
+// A thread has to stay this busy for THREAD_SATURATION_CHECKS checks in a row before it's moved.
+static constexpr double THREAD_PLACEMENT_CHECK_INTERVAL = 2.0;
+static constexpr float THREAD_SATURATION_USAGE = 90.0f;
+static constexpr u32 THREAD_SATURATION_CHECKS = 2;
+
+// Guards the placement state below, which is read by GetThreadPlacementReport() from other threads.
+static std::mutex s_thread_placement_mutex;
+static std::array<u32, NUM_EMU_THREADS> s_emu_thread_processors = {};
+static u64 s_auxiliary_processor_mask = 0;
+static u32 s_thread_migrations = 0;
+static u32 s_thread_saturation_count = 0;
+static Common::Timer s_thread_placement_timer;
+
+// The emulator's own helper threads (disc reads, decompression) pick up a new mask when the generation changes.
+static std::atomic<u64> s_auxiliary_affinity_mask{0};
+static std::atomic<u32> s_auxiliary_affinity_generation{0};
+
 #if defined(__linux__) || defined(_WIN32)
 
 static u32 GetProcessorIdForProcessor(const cpuinfo_processor* proc)
@@ -3442,6 +3494,24 @@ static u32 GetProcessorIdForProcessor(const cpuinfo_processor* proc)
 #endif
 }
 
+static u64 GetProcessorFrequency(const cpuinfo_processor* proc)
+{
+	// cpuinfo can't always read the core clock, the cluster's is the next best thing.
+	return (proc->core->frequency != 0) ? proc->core->frequency : proc->cluster->frequency;
+}
+
+static u64 GetProcessorCapacity(u32 proc_id)
+{
+#if defined(__linux__)
+	// Relative compute capacity used by the energy-aware scheduler, 1024 for the fastest core.
+	const std::optional<std::string> capacity =
+		FileSystem::ReadFileToString(fmt::format("/sys/devices/system/cpu/cpu{}/cpu_capacity", proc_id).c_str());
+	if (capacity.has_value())
+		return StringUtil::FromChars<u64>(StringUtil::StripWhitespace(capacity.value())).value_or(0);
+#endif
+	return 0;
+}
+
 static void InitializeProcessorList()
 {
 	if (!cpuinfo_initialize())
@@ -3465,20 +3535,48 @@ static void InitializeProcessorList()
 		processors.push_back(proc);
 	}
 
-	// Prioritize faster cores in heterogeneous CPUs.
-	std::sort(processors.begin(), processors.end(),
-		[](const cpuinfo_processor* lhs, const cpuinfo_processor* rhs) {
-			return (lhs->core->frequency > rhs->core->frequency);
-		});
+	for (u32 i = 0; i < processor_count; i++)
+	{
+		const cpuinfo_processor* proc = cpuinfo_get_processor(i);
+		const u32 proc_id = proc ? GetProcessorIdForProcessor(proc) : 64;
+		if (proc_id < 64)
+			s_all_processors_mask |= static_cast<u64>(1) << proc_id;
+	}
+
+	// Prioritize faster cores in heterogeneous CPUs. The kernel's capacity value accounts for the
+	// microarchitecture as well as the clock, so prefer it when every processor has one.
+	std::vector<u64> capacities(processors.size());
+	bool have_capacities = !processors.empty();
+	for (size_t i = 0; i < processors.size(); i++)
+	{
+		capacities[i] = GetProcessorCapacity(GetProcessorIdForProcessor(processors[i]));
+		have_capacities &= (capacities[i] != 0);
+	}
+
+	std::vector<size_t> order(processors.size());
+	for (size_t i = 0; i < order.size(); i++)
+		order[i] = i;
+	std::stable_sort(order.begin(), order.end(), [&processors, &capacities, have_capacities](size_t lhs, size_t rhs) {
+		return have_capacities ? (capacities[lhs] > capacities[rhs]) :
+								 (GetProcessorFrequency(processors[lhs]) > GetProcessorFrequency(processors[rhs]));
+	});
 
 	SmallString str;
 	str.assign("Ordered processor list: ");
 	s_processor_list.reserve(processors.size());
-	for (const cpuinfo_processor* proc : processors)
+	u32 cluster_rank = 0;
+	for (size_t i = 0; i < order.size(); i++)
 	{
+		const cpuinfo_processor* proc = processors[order[i]];
 		const u32 proc_id = GetProcessorIdForProcessor(proc);
-		str.append_format("{}{}", (proc == processors.front()) ? "" : ", ", proc_id);
+		if (i > 0 && proc->cluster != processors[order[i - 1]]->cluster)
+			cluster_rank++;
+
+		str.append_format("{}{}", (i == 0) ? "" : ", ", proc_id);
 		s_processor_list.push_back(proc_id);
+		s_processor_performance.push_back(have_capacities ? capacities[order[i]] : GetProcessorFrequency(proc));
+		s_processor_frequency.push_back(GetProcessorFrequency(proc));
+		s_processor_cluster_rank.push_back(cluster_rank);
 	}
 	Console.WriteLn(str.view());
 }
@@ -3572,10 +3670,12 @@ void VMManager::EnsureCPUInfoInitialized()
 void VMManager::SetEmuThreadAffinities()
 {
 	const bool new_pin_enable = (GetState() != VMState::Shutdown && EmuConfig.EnableThreadPinning);
-	if (s_thread_affinities_set == new_pin_enable)
+	const bool mtvu = EmuConfig.Speedhacks.vuThread;
+	if (s_thread_affinities_set == new_pin_enable && (!new_pin_enable || s_thread_affinities_mtvu == mtvu))
 		return;
 
-	s_thread_affinities_set = EmuConfig.EnableThreadPinning;
+	s_thread_affinities_set = false;
+	s_thread_affinities_mtvu = mtvu;
 
 	EnsureCPUInfoInitialized();
 
@@ -3585,8 +3685,10 @@ void VMManager::SetEmuThreadAffinities()
 		return;
 	}
 
-	const bool mtvu = EmuConfig.Speedhacks.vuThread;
-	if (!new_pin_enable || s_processor_list.size() < (mtvu ? 3 : 2))
+	std::unique_lock lock(s_thread_placement_mutex);
+
+	const size_t emu_processors = mtvu ? 3 : 2;
+	if (!new_pin_enable || s_processor_list.size() < emu_processors)
 	{
 		if (new_pin_enable)
 			ERROR_LOG("Insufficient processors for thread pinning.");
@@ -3595,20 +3697,64 @@ void VMManager::SetEmuThreadAffinities()
 		vu1Thread.GetThreadHandle().SetAffinity(0);
 		s_vm_thread_handle.SetAffinity(0);
 		s_software_renderer_processor_list = {};
+		SetAuxiliaryThreadAffinity(0);
 		return;
 	}
 
+	s_thread_affinities_set = true;
+
+	// The fastest processors go to the emulator threads, EE first since it's usually the bottleneck.
+	// ReevaluateThreadPlacement() swaps them around later if the GS or VU turns out to be busier.
 	// steal vu's thread if mtvu is off
-	const u32 ee_index = s_processor_list[0];
-	const u32 vu_index = s_processor_list[1];
-	const u32 gs_index = s_processor_list[mtvu ? 2 : 1];
+	s_emu_thread_processors[static_cast<u32>(EmuThread::EE)] = s_processor_list[0];
+	s_emu_thread_processors[static_cast<u32>(EmuThread::VU)] = s_processor_list[1];
+	s_emu_thread_processors[static_cast<u32>(EmuThread::GS)] = s_processor_list[mtvu ? 2 : 1];
+	s_thread_migrations = 0;
+	s_thread_saturation_count = 0;
+	s_thread_placement_timer.Reset();
+	ApplyEmuThreadPlacement();
+
+	// The software renderer's workers get the next cluster down. If the emulator threads only used
+	// part of a cluster, the workers get what's left of it as well, e.g. on a 1+3+4 phone with MTVU,
+	// EE/VU/GS take the prime core and two big cores, and the workers the last big core plus the
+	// four little ones.
+	s_software_renderer_processor_list.clear();
+	u64 emu_mask = 0;
+	for (size_t i = 0; i < emu_processors; i++)
+		emu_mask |= static_cast<u64>(1) << s_processor_list[i];
+	u64 sw_mask = 0;
+	if (s_processor_list.size() > emu_processors)
+	{
+		const u32 first_rank = s_processor_cluster_rank[emu_processors];
+		const u32 last_rank = (first_rank == s_processor_cluster_rank[emu_processors - 1]) ? (first_rank + 1) : first_rank;
+		for (size_t i = emu_processors; i < s_processor_list.size() && s_processor_cluster_rank[i] <= last_rank; i++)
+		{
+			s_software_renderer_processor_list.push_back(s_processor_list[i]);
+			sw_mask |= static_cast<u64>(1) << s_processor_list[i];
+		}
+	}
+	INFO_LOG("  {} processors available for SW threads", s_software_renderer_processor_list.size());
+
+	// Keep everything else off the processors we've just handed out, if there's anywhere left for it to go.
+	u64 aux_mask = s_all_processors_mask & ~(emu_mask | sw_mask);
+	if (aux_mask == 0)
+		aux_mask = s_all_processors_mask & ~emu_mask;
+	INFO_LOG("  Disc I/O threads are on processor mask 0x{:x}", aux_mask);
+	SetAuxiliaryThreadAffinity(aux_mask);
+}
+
+void VMManager::ApplyEmuThreadPlacement()
+{
+	const u32 ee_index = s_emu_thread_processors[static_cast<u32>(EmuThread::EE)];
+	const u32 vu_index = s_emu_thread_processors[static_cast<u32>(EmuThread::VU)];
+	const u32 gs_index = s_emu_thread_processors[static_cast<u32>(EmuThread::GS)];
 	INFO_LOG("Processor order assignment: EE={}, VU={}, GS={}", ee_index, vu_index, gs_index);
 
 	const u64 ee_affinity = static_cast<u64>(1) << ee_index;
 	INFO_LOG("  EE thread is on processor {} (0x{:x})", ee_index, ee_affinity);
 	s_vm_thread_handle.SetAffinity(ee_affinity);
 
-	if (EmuConfig.Speedhacks.vuThread)
+	if (s_thread_affinities_mtvu)
 	{
 		const u64 vu_affinity = static_cast<u64>(1) << vu_index;
 		INFO_LOG("  VU thread is on processor {} (0x{:x})", vu_index, vu_affinity);
@@ -3622,25 +3768,141 @@ void VMManager::SetEmuThreadAffinities()
 	const u64 gs_affinity = static_cast<u64>(1) << gs_index;
 	INFO_LOG("  GS thread is on processor {} (0x{:x})", gs_index, gs_affinity);
 	MTGS::GetThreadHandle().SetAffinity(gs_affinity);
+}
+
+void VMManager::SetAuxiliaryThreadAffinity(u64 processor_mask)
+{
+	s_auxiliary_processor_mask = processor_mask;
+	s_auxiliary_affinity_mask.store(processor_mask, std::memory_order_relaxed);
+	s_auxiliary_affinity_generation.fetch_add(1, std::memory_order_release);
+}
 
-	// Try to find some threads for the software renderer.
-	// They should be in the same cluster as the main GS thread. If they're not, for example,
-	// we had 4 P cores and 6 E cores, let the OS schedule them instead.
-	s_software_renderer_processor_list.reserve(s_processor_list.size() - (mtvu ? 3 : 2));
-	const u32 gs_cluster_id = cpuinfo_get_processor(gs_index)->cluster->cluster_id;
-	for (size_t i = mtvu ? 3 : 2; i < s_processor_list.size(); i++)
+void VMManager::Internal::ApplyAuxiliaryThreadAffinity()
+{
+	static thread_local u32 applied_generation = 0;
+	const u32 generation = s_auxiliary_affinity_generation.load(std::memory_order_acquire);
+	if (generation == applied_generation) [[likely]]
+		return;
+
+	applied_generation = generation;
+	Threading::ThreadHandle::GetForCallingThread().SetAffinity(s_auxiliary_affinity_mask.load(std::memory_order_relaxed));
+}
+
+static u64 GetPerformanceOfProcessor(u32 proc_id)
+{
+	for (size_t i = 0; i < s_processor_list.size(); i++)
 	{
-		const u32 proc_index = s_processor_list[i];
-		const u32 proc_cluster_id = cpuinfo_get_processor(proc_index)->cluster->cluster_id;
-		if (proc_cluster_id != gs_cluster_id)
+		if (s_processor_list[i] == proc_id)
+			return s_processor_performance[i];
+	}
+
+	return 0;
+}
+
+void VMManager::ReevaluateThreadPlacement()
+{
+	if (!s_thread_affinities_set || s_thread_placement_timer.GetTimeSeconds() < THREAD_PLACEMENT_CHECK_INTERVAL)
+		return;
+
+	s_thread_placement_timer.Reset();
+
+	std::array<float, NUM_EMU_THREADS> usage;
+	usage[static_cast<u32>(EmuThread::EE)] = static_cast<float>(PerformanceMetrics::GetCPUThreadUsage());
+	usage[static_cast<u32>(EmuThread::VU)] = PerformanceMetrics::GetVUThreadUsage();
+	usage[static_cast<u32>(EmuThread::GS)] = PerformanceMetrics::GetGSThreadUsage();
+
+	// Without MTVU, VU1 runs on the EE thread and its "processor" slot is shared with the GS.
+	std::vector<EmuThread> threads = {EmuThread::EE, EmuThread::GS};
+	if (s_thread_affinities_mtvu)
+		threads.push_back(EmuThread::VU);
+
+	std::vector<u32> processors;
+	for (const EmuThread thread : threads)
+		processors.push_back(s_emu_thread_processors[static_cast<u32>(thread)]);
+	std::stable_sort(processors.begin(), processors.end(),
+		[](u32 lhs, u32 rhs) { return GetPerformanceOfProcessor(lhs) > GetPerformanceOfProcessor(rhs); });
+
+	// Busiest thread gets the fastest processor. Only worth doing when it's saturating a slower one.
+	std::stable_sort(threads.begin(), threads.end(),
+		[&usage](EmuThread lhs, EmuThread rhs) { return usage[static_cast<u32>(lhs)] > usage[static_cast<u32>(rhs)]; });
+	const EmuThread busiest = threads.front();
+	const u32 busiest_processor = s_emu_thread_processors[static_cast<u32>(busiest)];
+	if (usage[static_cast<u32>(busiest)] < THREAD_SATURATION_USAGE ||
+		GetPerformanceOfProcessor(busiest_processor) >= GetPerformanceOfProcessor(processors.front()))
+	{
+		s_thread_saturation_count = 0;
+		return;
+	}
+
+	if (++s_thread_saturation_count < THREAD_SATURATION_CHECKS)
+		return;
+
+	std::unique_lock lock(s_thread_placement_mutex);
+	s_thread_saturation_count = 0;
+	s_thread_migrations++;
+	INFO_LOG("{} thread is saturating processor {} ({:.0f}%), migrating.", s_emu_thread_names[static_cast<u32>(busiest)],
+		busiest_processor, usage[static_cast<u32>(busiest)]);
+
+	for (size_t i = 0; i < threads.size(); i++)
+		s_emu_thread_processors[static_cast<u32>(threads[i])] = processors[i];
+	if (!s_thread_affinities_mtvu)
+		s_emu_thread_processors[static_cast<u32>(EmuThread::VU)] = s_emu_thread_processors[static_cast<u32>(EmuThread::GS)];
+
+	ApplyEmuThreadPlacement();
+}
+
+std::string VMManager::GetThreadPlacementReport()
+{
+	EnsureCPUInfoInitialized();
+
+	std::unique_lock lock(s_thread_placement_mutex);
+
+	const auto describe_processor = [](u32 proc_id) {
+		for (size_t i = 0; i < s_processor_list.size(); i++)
 		{
-			WARNING_LOG("  Only using {} SW threads, processor {} is in cluster {}, but the GS thread is in cluster {}",
-				s_software_renderer_processor_list.size(), proc_index, proc_cluster_id, gs_cluster_id);
-			break;
+			if (s_processor_list[i] == proc_id)
+			{
+				return fmt::format("CPU {} (cluster {}, {} MHz)", proc_id, s_processor_cluster_rank[i],
+					s_processor_frequency[i] / 1000000);
+			}
 		}
 
-		s_software_renderer_processor_list.push_back(proc_index);
+		return fmt::format("CPU {}", proc_id);
+	};
+
+	std::string report;
+	if (!s_thread_affinities_set)
+	{
+		report = s_processor_list.empty() ? "Thread placement is not supported on this device." :
+											"Thread placement is disabled, the OS schedules all threads.";
+		return report;
 	}
+
+	for (u32 i = 0; i < NUM_EMU_THREADS; i++)
+	{
+		if (static_cast<EmuThread>(i) == EmuThread::VU && !s_thread_affinities_mtvu)
+			continue;
+
+		fmt::format_to(std::back_inserter(report), "{}: {}\n", s_emu_thread_names[i], describe_processor(s_emu_thread_processors[i]));
+	}
+
+	report.append("GS-SW:");
+	if (s_software_renderer_processor_list.empty())
+		report.append(" unpinned");
+	for (const u32 proc_id : s_software_renderer_processor_list)
+		fmt::format_to(std::back_inserter(report), " {}", proc_id);
+
+	report.append("\nDisc I/O threads:");
+	if (s_auxiliary_processor_mask == 0)
+		report.append(" unpinned");
+	for (u32 i = 0; i < 64; i++)
+	{
+		if (s_auxiliary_processor_mask & (static_cast<u64>(1) << i))
+			fmt::format_to(std::back_inserter(report), " {}", i);
+	}
+
+	fmt::format_to(std::back_inserter(report), "\nMigrations: {}", s_thread_migrations);
+	return report;
 }
 
 const std::vector<u32>& VMManager::Internal::GetSoftwareRendererProcessorList()
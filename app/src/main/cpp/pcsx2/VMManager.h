@@ -10,6 +10,7 @@
 #include <string_view>
 #include <vector>
 
+#include "common/EnumOps.h"
 #include "common/Pcsx2Defs.h"
 
 #include "Config.h"
@@ -26,6 +27,22 @@ enum class VMState
 	Stopping,
 };
 
+/// Subsystems which ApplySettings() reconfigures when their options change.
+enum class ConfigChangeFlags : u32
+{
+	None = 0,
+	CPU = (1 << 0),
+	GS = (1 << 1),
+	EmulationSpeed = (1 << 2),
+	Patches = (1 << 3),
+	SPU2 = (1 << 4),
+	DEV9 = (1 << 5),
+	MemoryCards = (1 << 6),
+	USB = (1 << 7),
+	Achievements = (1 << 8),
+};
+MARK_ENUM_AS_FLAGS(ConfigChangeFlags);
+
 struct VMBootParameters
 {
 	std::string filename;
@@ -101,8 +118,8 @@ namespace VMManager
 	/// Changes the pause state of the VM, resetting anything needed when unpausing.
 	void SetPaused(bool paused);
 
-	/// Reloads settings, and applies any changes present.
-	void ApplySettings();
+	/// Reloads settings, and applies any changes present. Returns the subsystems which were reconfigured.
+	ConfigChangeFlags ApplySettings();
 
 	/// Reloads game specific settings, and applys any changes present.
 	bool ReloadGameSettings();
@@ -231,6 +248,10 @@ namespace VMManager
 	/// Called when the rich presence string, provided by RetroAchievements, changes.
 	void UpdateDiscordPresence(bool update_session_time);
 
+	/// Returns a human-readable description of which processors the emulator threads are pinned to. The UI and
+	/// audio threads aren't placed, and aren't listed.
+	std::string GetThreadPlacementReport();
+
 	/// Internal callbacks, implemented in the emu core.
 	namespace Internal
 	{
@@ -285,6 +306,12 @@ namespace VMManager
 		/// Returns a list of processors in the system, suitable for pinning for the software renderer.
 		const std::vector<u32>& GetSoftwareRendererProcessorList();
 
+		/// Moves the calling thread off the processors used by the emulator threads when thread pinning is
+		/// enabled. Only for threads the emulator creates (disc reads and decompression), never the app's UI
+		/// thread or the audio system's callback thread, whose placement belongs to the OS. Cheap enough to
+		/// call every time the thread wakes.
+		void ApplyAuxiliaryThreadAffinity();
+
 		const std::string& GetELFOverride();
 		bool IsExecutionInterrupted();
 		void ELFLoadingOnCPUThread(std::string elf_path);
@@ -321,6 +348,9 @@ namespace Host
 	/// Called when performance metrics are updated, approximately once a second.
 	void OnPerformanceMetricsUpdated();
 
+	/// Called from the GS thread after every vsync, once the frame time history has been updated.
+	void OnPerformanceMetricsFrame();
+
 	/// Called when a save state is loading, before the file is processed.
 	void OnSaveStateLoading(const std::string_view filename);
 
@@ -18,7 +18,7 @@ bool SaveStateBase::vuJITFreeze()
 	if(IsSaving())
 		vu1Thread.WaitVU();
 
-	Console.Warning("recompiler state is stubbed in arm64!");
+	Console.Warning("recompiler state is stubbed on this host!");
 
 	// HACK!!
 
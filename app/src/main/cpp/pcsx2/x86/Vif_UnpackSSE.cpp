@@ -10,6 +10,108 @@
 #define xMOV64(regX, loc)  xMOVUPS (regX, loc)
 #define xMOV128(regX, loc) xMOVUPS (regX, loc)
 
+// =====================================================================================================
+//  microVU register helpers
+// =====================================================================================================
+// microVU only builds for ARM64 in this tree, so the SSE versions the unpackers share with it live here.
+
+// Modifies the Source Reg!
+void mVUsaveReg(const xRegisterSSE& reg, xAddressVoid ptr, int xyzw, bool modXYZW)
+{
+	switch (xyzw)
+	{
+		case 5: // YW
+			xEXTRACTPS(ptr32[ptr + 4], reg, 1);
+			xEXTRACTPS(ptr32[ptr + 12], reg, 3);
+			break;
+		case 6: // YZ
+			xPSHUF.D(reg, reg, 0xc9);
+			xMOVL.PS(ptr64[ptr + 4], reg);
+			break;
+		case 7: // YZW
+			xMOVH.PS(ptr64[ptr + 8], reg);
+			xEXTRACTPS(ptr32[ptr + 4], reg, 1);
+			break;
+		case 9: // XW
+			xMOVSS(ptr32[ptr], reg);
+			xEXTRACTPS(ptr32[ptr + 12], reg, 3);
+			break;
+		case 10: // XZ
+			xMOVSS(ptr32[ptr], reg);
+			xEXTRACTPS(ptr32[ptr + 8], reg, 2);
+			break;
+		case 11: // XZW
+			xMOVSS(ptr32[ptr], reg);
+			xMOVH.PS(ptr64[ptr + 8], reg);
+			break;
+		case 13: // XYW
+			xMOVL.PS(ptr64[ptr], reg);
+			xEXTRACTPS(ptr32[ptr + 12], reg, 3);
+			break;
+		case 14: // XYZ
+			xMOVL.PS(ptr64[ptr], reg);
+			xEXTRACTPS(ptr32[ptr + 8], reg, 2);
+			break;
+		case 4: // Y
+			xEXTRACTPS(ptr32[ptr + 4], reg, 1);
+			break;
+		case 2: // Z
+			xEXTRACTPS(ptr32[ptr + 8], reg, 2);
+			break;
+		case 1: // W
+			xEXTRACTPS(ptr32[ptr + 12], reg, 3);
+			break;
+		case 8: // X
+			xMOVSS(ptr32[ptr], reg);
+			break;
+		case 12: // XY
+			xMOVL.PS(ptr64[ptr], reg);
+			break;
+		case 3: // ZW
+			xMOVH.PS(ptr64[ptr + 8], reg);
+			break;
+		default: // XYZW
+			xMOVAPS(ptr128[ptr], reg);
+			break;
+	}
+}
+
+// Modifies the Source Reg!
+void mVUmergeRegs(const xRegisterSSE& dest, const xRegisterSSE& src, int xyzw, bool modXYZW)
+{
+	xyzw &= 0xf;
+	if ((dest != src) && (xyzw != 0))
+	{
+		if (xyzw == 0x8)
+			xMOVSS(dest, src);
+		else if (xyzw == 0xf)
+			xMOVAPS(dest, src);
+		else
+		{
+			if (modXYZW)
+			{
+				if (xyzw == 1)
+				{
+					xINSERTPS(dest, src, _MM_MK_INSERTPS_NDX(0, 3, 0));
+					return;
+				}
+				else if (xyzw == 2)
+				{
+					xINSERTPS(dest, src, _MM_MK_INSERTPS_NDX(0, 2, 0));
+					return;
+				}
+				else if (xyzw == 4)
+				{
+					xINSERTPS(dest, src, _MM_MK_INSERTPS_NDX(0, 1, 0));
+					return;
+				}
+			}
+			xyzw = ((xyzw & 1) << 3) | ((xyzw & 2) << 1) | ((xyzw & 4) >> 1) | ((xyzw & 8) >> 3);
+			xBLEND.PS(dest, src, xyzw);
+		}
+	}
+}
+
 // =====================================================================================================
 //  VifUnpackSSE_Base Section
 // =====================================================================================================
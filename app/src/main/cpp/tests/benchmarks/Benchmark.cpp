@@ -0,0 +1,356 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "Benchmark.h"
+
+#include "common/FileSystem.h"
+#include "common/StringUtil.h"
+#include "common/Threading.h"
+#include "common/Timer.h"
+
+#include "rapidjson/prettywriter.h"
+#include "rapidjson/stringbuffer.h"
+
+#include <algorithm>
+#include <cstdio>
+#include <cstring>
+#include <ctime>
+#include <thread>
+#include <vector>
+
+namespace Benchmark
+{
+	struct Entry
+	{
+		const char* name;
+		Function func;
+	};
+
+	struct Result
+	{
+		std::string name;
+		u64 iterations;
+		double real_time_ns;
+		double cpu_time_ns;
+		double bytes_per_second;
+		double items_per_second;
+		std::string label;
+		std::string error;
+	};
+
+	static std::vector<Entry>& GetRegistry();
+	static u64 GetThreadCPUTicks();
+	static Result RunBenchmark(const Entry& entry, double min_time);
+	static std::string FormatTime(double ns);
+	static std::string FormatRate(double per_second, const char* unit);
+	static bool WriteJSON(const char* path, const char* executable, const std::vector<Result>& results);
+} // namespace Benchmark
+
+// Benchmarks register themselves from static initializers in other translation units,
+// so the registry has to be constructed on first use.
+std::vector<Benchmark::Entry>& Benchmark::GetRegistry()
+{
+	static std::vector<Entry> registry;
+	return registry;
+}
+
+bool Benchmark::Register(const char* name, Function func)
+{
+	GetRegistry().push_back({name, func});
+	return true;
+}
+
+u64 Benchmark::GetThreadCPUTicks()
+{
+	static thread_local Threading::ThreadHandle handle = Threading::ThreadHandle::GetForCallingThread();
+	return handle.GetCPUTime();
+}
+
+Benchmark::State::State(u64 max_iterations)
+	: m_max_iterations(max_iterations)
+	, m_remaining(max_iterations)
+{
+}
+
+bool Benchmark::State::KeepRunning()
+{
+	if (!m_started)
+	{
+		m_started = true;
+		StartTimer();
+	}
+
+	if (m_remaining > 0 && m_error.empty())
+	{
+		m_remaining--;
+		return true;
+	}
+
+	if (m_running)
+		StopTimer();
+	return false;
+}
+
+void Benchmark::State::PauseTiming()
+{
+	if (m_running)
+		StopTimer();
+}
+
+void Benchmark::State::ResumeTiming()
+{
+	if (!m_running)
+		StartTimer();
+}
+
+void Benchmark::State::SkipWithError(std::string message)
+{
+	m_error = std::move(message);
+	m_remaining = 0;
+}
+
+void Benchmark::State::StartTimer()
+{
+	m_running = true;
+	m_cpu_start = GetThreadCPUTicks();
+	m_real_start = Common::Timer::GetCurrentValue();
+}
+
+void Benchmark::State::StopTimer()
+{
+	m_real_ticks += Common::Timer::GetCurrentValue() - m_real_start;
+	m_cpu_ticks += GetThreadCPUTicks() - m_cpu_start;
+	m_running = false;
+}
+
+double Benchmark::State::GetRealTimeSeconds() const
+{
+	return Common::Timer::ConvertValueToSeconds(m_real_ticks);
+}
+
+double Benchmark::State::GetCPUTimeSeconds() const
+{
+	return static_cast<double>(m_cpu_ticks) / static_cast<double>(Threading::GetThreadTicksPerSecond());
+}
+
+Benchmark::Result Benchmark::RunBenchmark(const Entry& entry, double min_time)
+{
+	// Grow the iteration count until a run lasts at least min_time, the same way
+	// Google Benchmark does, then report the last run.
+	static constexpr u64 MAX_ITERATIONS = 1000000000;
+
+	u64 iterations = 1;
+	for (;;)
+	{
+		State state(iterations);
+		entry.func(state);
+
+		const double elapsed = state.GetRealTimeSeconds();
+		if (state.HasError() || elapsed >= min_time || iterations >= MAX_ITERATIONS)
+		{
+			Result result;
+			result.name = entry.name;
+			result.iterations = iterations;
+			result.real_time_ns = elapsed * 1e9 / static_cast<double>(iterations);
+			result.cpu_time_ns = state.GetCPUTimeSeconds() * 1e9 / static_cast<double>(iterations);
+			result.bytes_per_second = (elapsed > 0.0) ? (static_cast<double>(state.GetBytesProcessed()) / elapsed) : 0.0;
+			result.items_per_second = (elapsed > 0.0) ? (static_cast<double>(state.GetItemsProcessed()) / elapsed) : 0.0;
+			result.label = state.GetLabel();
+			result.error = state.GetError();
+			return result;
+		}
+
+		// Aim for 1.4x the minimum time so the next run is very likely long enough.
+		const double multiplier = (elapsed > 0.0) ? std::min(10.0, (min_time * 1.4) / elapsed) : 10.0;
+		iterations = std::min<u64>(std::max<u64>(static_cast<u64>(static_cast<double>(iterations) * multiplier), iterations + 1), MAX_ITERATIONS);
+	}
+}
+
+std::string Benchmark::FormatTime(double ns)
+{
+	if (ns >= 1e9)
+		return StringUtil::StdStringFromFormat("%.2f s", ns / 1e9);
+	else if (ns >= 1e6)
+		return StringUtil::StdStringFromFormat("%.2f ms", ns / 1e6);
+	else if (ns >= 1e3)
+		return StringUtil::StdStringFromFormat("%.2f us", ns / 1e3);
+	else
+		return StringUtil::StdStringFromFormat("%.2f ns", ns);
+}
+
+std::string Benchmark::FormatRate(double per_second, const char* unit)
+{
+	if (per_second >= 1024.0 * 1024.0 * 1024.0)
+		return StringUtil::StdStringFromFormat("%.2f Gi%s/s", per_second / (1024.0 * 1024.0 * 1024.0), unit);
+	else if (per_second >= 1024.0 * 1024.0)
+		return StringUtil::StdStringFromFormat("%.2f Mi%s/s", per_second / (1024.0 * 1024.0), unit);
+	else if (per_second >= 1024.0)
+		return StringUtil::StdStringFromFormat("%.2f Ki%s/s", per_second / 1024.0, unit);
+	else
+		return StringUtil::StdStringFromFormat("%.2f %s/s", per_second, unit);
+}
+
+bool Benchmark::WriteJSON(const char* path, const char* executable, const std::vector<Result>& results)
+{
+	char date[64];
+	const std::time_t now = std::time(nullptr);
+	std::strftime(date, sizeof(date), "%Y-%m-%dT%H:%M:%S", std::localtime(&now));
+
+	rapidjson::StringBuffer buffer;
+	rapidjson::PrettyWriter<rapidjson::StringBuffer> writer(buffer);
+	writer.StartObject();
+
+	writer.Key("context");
+	writer.StartObject();
+	writer.Key("date");
+	writer.String(date);
+	writer.Key("executable");
+	writer.String(executable);
+	writer.Key("num_cpus");
+	writer.Uint(std::thread::hardware_concurrency());
+#ifdef PCSX2_DEBUG
+	writer.Key("library_build_type");
+	writer.String("debug");
+#else
+	writer.Key("library_build_type");
+	writer.String("release");
+#endif
+	writer.EndObject();
+
+	writer.Key("benchmarks");
+	writer.StartArray();
+	for (const Result& result : results)
+	{
+		writer.StartObject();
+		writer.Key("name");
+		writer.String(result.name.c_str());
+		writer.Key("run_name");
+		writer.String(result.name.c_str());
+		writer.Key("run_type");
+		writer.String("iteration");
+		writer.Key("repetitions");
+		writer.Uint(1);
+		writer.Key("repetition_index");
+		writer.Uint(0);
+		writer.Key("threads");
+		writer.Uint(1);
+		writer.Key("iterations");
+		writer.Uint64(result.iterations);
+		writer.Key("real_time");
+		writer.Double(result.real_time_ns);
+		writer.Key("cpu_time");
+		writer.Double(result.cpu_time_ns);
+		writer.Key("time_unit");
+		writer.String("ns");
+		if (result.bytes_per_second > 0.0)
+		{
+			writer.Key("bytes_per_second");
+			writer.Double(result.bytes_per_second);
+		}
+		if (result.items_per_second > 0.0)
+		{
+			writer.Key("items_per_second");
+			writer.Double(result.items_per_second);
+		}
+		if (!result.label.empty())
+		{
+			writer.Key("label");
+			writer.String(result.label.c_str());
+		}
+		if (!result.error.empty())
+		{
+			writer.Key("error_occurred");
+			writer.Bool(true);
+			writer.Key("error_message");
+			writer.String(result.error.c_str());
+		}
+		writer.EndObject();
+	}
+	writer.EndArray();
+
+	writer.EndObject();
+	return FileSystem::WriteStringToFile(path, std::string_view(buffer.GetString(), buffer.GetSize()));
+}
+
+int main(int argc, char* argv[])
+{
+	std::string filter;
+	std::string out_path;
+	double min_time = 0.5;
+	bool list_only = false;
+
+	for (int i = 1; i < argc; i++)
+	{
+		const std::string_view arg(argv[i]);
+		if (arg.starts_with("--benchmark_filter="))
+			filter = arg.substr(std::strlen("--benchmark_filter="));
+		else if (arg.starts_with("--benchmark_out="))
+			out_path = arg.substr(std::strlen("--benchmark_out="));
+		else if (arg.starts_with("--benchmark_min_time="))
+			min_time = StringUtil::FromChars<double>(arg.substr(std::strlen("--benchmark_min_time="))).value_or(min_time);
+		else if (arg == "--benchmark_list_tests")
+			list_only = true;
+		else
+		{
+			std::fprintf(stderr, "Usage: %s [--benchmark_filter=<pattern>] [--benchmark_out=<file.json>]\n"
+								 "       [--benchmark_min_time=<seconds>] [--benchmark_list_tests]\n",
+				argv[0]);
+			return EXIT_FAILURE;
+		}
+	}
+
+	// Plain names match anywhere in the benchmark name, like a regex would, wildcards match the whole name.
+	if (filter.empty())
+		filter = "*";
+	else if (filter.find_first_of("*?") == std::string::npos)
+		filter = "*" + filter + "*";
+
+	std::vector<Benchmark::Entry> entries = Benchmark::GetRegistry();
+	std::sort(entries.begin(), entries.end(),
+		[](const Benchmark::Entry& lhs, const Benchmark::Entry& rhs) { return std::strcmp(lhs.name, rhs.name) < 0; });
+
+	std::vector<Benchmark::Result> results;
+	if (!list_only)
+		std::printf("%-40s %14s %14s %12s\n", "Benchmark", "Time", "CPU", "Iterations");
+	for (const Benchmark::Entry& entry : entries)
+	{
+		if (!StringUtil::WildcardMatch(entry.name, filter.c_str()))
+			continue;
+
+		if (list_only)
+		{
+			std::printf("%s\n", entry.name);
+			continue;
+		}
+
+		Benchmark::Result result = Benchmark::RunBenchmark(entry, min_time);
+		if (!result.error.empty())
+		{
+			std::printf("%-40s ERROR: %s\n", result.name.c_str(), result.error.c_str());
+		}
+		else
+		{
+			std::string extra;
+			if (result.bytes_per_second > 0.0)
+				extra = Benchmark::FormatRate(result.bytes_per_second, "B");
+			else if (result.items_per_second > 0.0)
+				extra = Benchmark::FormatRate(result.items_per_second, "items");
+			if (!result.label.empty())
+				extra = extra.empty() ? result.label : (extra + " " + result.label);
+
+			std::printf("%-40s %14s %14s %12llu %s\n", result.name.c_str(), Benchmark::FormatTime(result.real_time_ns).c_str(),
+				Benchmark::FormatTime(result.cpu_time_ns).c_str(), static_cast<unsigned long long>(result.iterations),
+				extra.c_str());
+		}
+		std::fflush(stdout);
+		results.push_back(std::move(result));
+	}
+
+	if (!out_path.empty() && !Benchmark::WriteJSON(out_path.c_str(), argv[0], results))
+	{
+		std::fprintf(stderr, "Failed to write results to '%s'\n", out_path.c_str());
+		return EXIT_FAILURE;
+	}
+
+	return EXIT_SUCCESS;
+}
@@ -0,0 +1,92 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#pragma once
+
+#include "common/Pcsx2Defs.h"
+
+#include <string>
+
+/// Minimal benchmark harness modelled on Google Benchmark. Results are written in the
+/// same JSON layout, so its compare.py tool can diff two runs directly.
+namespace Benchmark
+{
+	class State
+	{
+	public:
+		explicit State(u64 max_iterations);
+
+		/// Returns true while the benchmark should keep iterating. The timer starts on the
+		/// first call and stops on the call that returns false.
+		bool KeepRunning();
+
+		/// Excludes setup work done inside the loop from the measurement.
+		void PauseTiming();
+		void ResumeTiming();
+
+		void SetBytesProcessed(u64 bytes) { m_bytes_processed = bytes; }
+		void SetItemsProcessed(u64 items) { m_items_processed = items; }
+		void SetLabel(std::string label) { m_label = std::move(label); }
+
+		/// Marks the benchmark as not runnable on this host, e.g. a missing ISA.
+		void SkipWithError(std::string message);
+
+		u64 iterations() const { return m_max_iterations; }
+
+		double GetRealTimeSeconds() const;
+		double GetCPUTimeSeconds() const;
+		u64 GetBytesProcessed() const { return m_bytes_processed; }
+		u64 GetItemsProcessed() const { return m_items_processed; }
+		const std::string& GetLabel() const { return m_label; }
+		const std::string& GetError() const { return m_error; }
+		bool HasError() const { return !m_error.empty(); }
+
+	private:
+		void StartTimer();
+		void StopTimer();
+
+		u64 m_max_iterations;
+		u64 m_remaining;
+		bool m_started = false;
+		bool m_running = false;
+
+		u64 m_real_start = 0;
+		u64 m_cpu_start = 0;
+		u64 m_real_ticks = 0;
+		u64 m_cpu_ticks = 0;
+
+		u64 m_bytes_processed = 0;
+		u64 m_items_processed = 0;
+		std::string m_label;
+		std::string m_error;
+	};
+
+	using Function = void (*)(State& state);
+
+	bool Register(const char* name, Function func);
+
+	/// Forces the compiler to materialize a value without emitting any extra work.
+	template <typename T>
+	__fi void DoNotOptimize(const T& value)
+	{
+#ifdef _MSC_VER
+		const volatile char* volatile sink = reinterpret_cast<const volatile char*>(&value);
+		(void)sink;
+		_ReadWriteBarrier();
+#else
+		asm volatile("" : : "r,m"(value) : "memory");
+#endif
+	}
+
+	/// Forces all pending memory writes to be treated as observable.
+	__forceinline_odr void ClobberMemory()
+	{
+#ifdef _MSC_VER
+		_ReadWriteBarrier();
+#else
+		asm volatile("" : : : "memory");
+#endif
+	}
+} // namespace Benchmark
+
+#define BENCHMARK(func) static const bool s_benchmark_registered_##func = Benchmark::Register(#func, func)
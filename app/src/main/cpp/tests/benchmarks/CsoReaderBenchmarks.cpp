@@ -0,0 +1,186 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "Benchmark.h"
+
+#include "common/Error.h"
+#include "common/FileSystem.h"
+#include "common/Path.h"
+#include "common/StringUtil.h"
+
+#include "pcsx2/CDVD/CsoFileReader.h"
+#include "pcsx2/Config.h"
+
+#include <cstdlib>
+#include <filesystem>
+#include <random>
+#include <vector>
+#include <zlib.h>
+
+// Sequential reads through CsoFileReader, with frames decompressed on the read thread only
+// and with the decode workers. Each iteration reads 1MB, carrying on from the previous one.
+// Uses a generated 64MB CSO unless PCSX2_BENCHMARK_CSO names a real image, which is the
+// better test: set it to a multi-gigabyte CSO on the storage you care about.
+
+static constexpr u32 FRAME_SIZE = 2048;
+static constexpr u32 GENERATED_SIZE = 64 * 1024 * 1024;
+static constexpr u32 READ_SECTORS = 32;
+static constexpr u32 READS_PER_ITERATION = (1024 * 1024) / (READ_SECTORS * FRAME_SIZE);
+
+namespace
+{
+	struct GeneratedImage
+	{
+		std::string path;
+
+		~GeneratedImage()
+		{
+			if (!path.empty())
+				FileSystem::DeleteFilePath(path.c_str());
+		}
+	};
+} // namespace
+
+// Same mix as the decompression benchmarks, so the ratio is typical of game data.
+static bool WriteGeneratedCso(const std::string& path)
+{
+	std::vector<u8> data(GENERATED_SIZE);
+	std::mt19937 rng(4);
+	for (u32 pos = 0; pos < GENERATED_SIZE; pos += 64)
+	{
+		const u32 kind = rng() % 4;
+		for (u32 i = 0; i < 64; i++)
+		{
+			switch (kind)
+			{
+				case 0: data[pos + i] = 0; break;
+				case 1: data[pos + i] = static_cast<u8>(i & 0xf); break;
+				case 2: data[pos + i] = static_cast<u8>('A' + (rng() % 16)); break;
+				default: data[pos + i] = static_cast<u8>(rng()); break;
+			}
+		}
+	}
+
+	const u32 frames = GENERATED_SIZE / FRAME_SIZE;
+	std::vector<u32> index(frames + 1);
+	std::vector<u8> body;
+	body.reserve(GENERATED_SIZE / 2);
+
+	const u32 header_size = 24;
+	const u32 data_start = header_size + static_cast<u32>(index.size() * sizeof(u32));
+	std::vector<u8> compressed(FRAME_SIZE * 2);
+	z_stream z = {};
+	deflateInit2(&z, Z_BEST_COMPRESSION, Z_DEFLATED, -15, 8, Z_DEFAULT_STRATEGY);
+	for (u32 frame = 0; frame < frames; frame++)
+	{
+		deflateReset(&z);
+		z.next_in = &data[frame * FRAME_SIZE];
+		z.avail_in = FRAME_SIZE;
+		z.next_out = compressed.data();
+		z.avail_out = static_cast<uInt>(compressed.size());
+		deflate(&z, Z_FINISH);
+
+		index[frame] = data_start + static_cast<u32>(body.size());
+		if (z.total_out >= FRAME_SIZE)
+		{
+			// Stored uncompressed, as maxcso does when compression doesn't help.
+			index[frame] |= 0x80000000;
+			body.insert(body.end(), &data[frame * FRAME_SIZE], &data[frame * FRAME_SIZE] + FRAME_SIZE);
+		}
+		else
+		{
+			body.insert(body.end(), compressed.data(), compressed.data() + z.total_out);
+		}
+	}
+	deflateEnd(&z);
+	index[frames] = data_start + static_cast<u32>(body.size());
+
+	auto fp = FileSystem::OpenManagedCFile(path.c_str(), "wb");
+	if (!fp)
+		return false;
+
+	// magic, header size, total bytes, frame size, version 1, no index alignment
+	u8 header[header_size] = {'C', 'I', 'S', 'O', header_size};
+	const u64 total_bytes = GENERATED_SIZE;
+	std::memcpy(&header[8], &total_bytes, sizeof(total_bytes));
+	std::memcpy(&header[16], &FRAME_SIZE, sizeof(FRAME_SIZE));
+	header[20] = 1;
+
+	return std::fwrite(header, sizeof(header), 1, fp.get()) == 1 &&
+		   std::fwrite(index.data(), index.size() * sizeof(u32), 1, fp.get()) == 1 &&
+		   std::fwrite(body.data(), body.size(), 1, fp.get()) == 1;
+}
+
+static const std::string& GetImagePath()
+{
+	static GeneratedImage generated;
+	static std::string path;
+	if (path.empty())
+	{
+		if (const char* env = std::getenv("PCSX2_BENCHMARK_CSO"))
+		{
+			path = env;
+		}
+		else
+		{
+			generated.path = Path::Combine(std::filesystem::temp_directory_path().string(), "pcsx2-benchmark.cso");
+			if (WriteGeneratedCso(generated.path))
+				path = generated.path;
+		}
+	}
+	return path;
+}
+
+static void ReadSequential(Benchmark::State& state, int cache_size)
+{
+	const std::string& path = GetImagePath();
+	if (path.empty())
+	{
+		state.SkipWithError("Failed to create CSO");
+		return;
+	}
+
+	const int old_cache_size = EmuConfig.CdvdDecompressCacheSize;
+	EmuConfig.CdvdDecompressCacheSize = cache_size;
+
+	CsoFileReader reader;
+	Error error;
+	const bool opened = reader.Open(path, &error);
+	EmuConfig.CdvdDecompressCacheSize = old_cache_size;
+	if (!opened)
+	{
+		state.SkipWithError(StringUtil::StdStringFromFormat("Failed to open CSO: %s", error.GetDescription().c_str()));
+		return;
+	}
+
+	reader.SetBlockSize(FRAME_SIZE);
+	const u32 blocks = reader.GetBlockCount();
+	std::vector<u8> buffer(READ_SECTORS * FRAME_SIZE);
+	u32 lsn = 0;
+
+	while (state.KeepRunning())
+	{
+		for (u32 i = 0; i < READS_PER_ITERATION; i++)
+		{
+			if (lsn + READ_SECTORS > blocks)
+				lsn = 0;
+
+			if (reader.ReadSync(buffer.data(), lsn, READ_SECTORS) != static_cast<int>(buffer.size()))
+			{
+				state.SkipWithError("ReadSync() failed");
+				break;
+			}
+			lsn += READ_SECTORS;
+		}
+		Benchmark::DoNotOptimize(buffer.data());
+	}
+
+	reader.Close();
+	state.SetBytesProcessed(state.iterations() * READS_PER_ITERATION * buffer.size());
+}
+
+static void CsoRead_Sequential_OnDemand(Benchmark::State& state) { ReadSequential(state, 0); }
+static void CsoRead_Sequential_DecodeWorkers(Benchmark::State& state) { ReadSequential(state, 32); }
+
+BENCHMARK(CsoRead_Sequential_OnDemand);
+BENCHMARK(CsoRead_Sequential_DecodeWorkers);
@@ -0,0 +1,206 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "Benchmark.h"
+
+#include "common/StringUtil.h"
+
+#include "lz4.h"
+#include "zstd.h"
+
+#include <random>
+#include <vector>
+#include <zlib.h>
+
+// Block decompression for the compressed disc image formats, using the same codec
+// parameters the readers use: CSO is raw deflate per 2KB frame, ZSO is LZ4 per 2KB
+// frame, and CHD CD images (cdzl/cdzs) compress 8 raw 2352 byte sectors per hunk.
+
+static constexpr u32 CSO_FRAME_SIZE = 2048;
+static constexpr u32 CHD_CD_FRAMES_PER_HUNK = 8;
+static constexpr u32 CHD_CD_SECTOR_SIZE = 2352;
+static constexpr u32 CHD_HUNK_DATA_SIZE = CHD_CD_FRAMES_PER_HUNK * CHD_CD_SECTOR_SIZE;
+static constexpr u32 TOTAL_DATA_SIZE = 4 * 1024 * 1024;
+
+// Roughly half compressible, like typical game data: runs of padding and repeated
+// structures mixed in with already-compressed assets.
+static const std::vector<u8>& GetSourceData()
+{
+	static std::vector<u8> data;
+	if (data.empty())
+	{
+		data.resize(TOTAL_DATA_SIZE);
+		std::mt19937 rng(4);
+		for (u32 pos = 0; pos < TOTAL_DATA_SIZE; pos += 64)
+		{
+			const u32 kind = rng() % 4;
+			for (u32 i = 0; i < 64; i++)
+			{
+				switch (kind)
+				{
+					case 0: data[pos + i] = 0; break;
+					case 1: data[pos + i] = static_cast<u8>(i & 0xf); break;
+					case 2: data[pos + i] = static_cast<u8>('A' + (rng() % 16)); break;
+					default: data[pos + i] = static_cast<u8>(rng()); break;
+				}
+			}
+		}
+	}
+	return data;
+}
+
+struct CompressedBlocks
+{
+	std::vector<std::vector<u8>> blocks;
+	u32 block_size;
+	u64 compressed_size = 0;
+};
+
+static std::vector<u8> DeflateRaw(const u8* data, u32 size, int level)
+{
+	z_stream z = {};
+	deflateInit2(&z, level, Z_DEFLATED, -15, 8, Z_DEFAULT_STRATEGY);
+	std::vector<u8> out(deflateBound(&z, size));
+	z.next_in = const_cast<u8*>(data);
+	z.avail_in = size;
+	z.next_out = out.data();
+	z.avail_out = static_cast<uInt>(out.size());
+	deflate(&z, Z_FINISH);
+	out.resize(z.total_out);
+	deflateEnd(&z);
+	return out;
+}
+
+static std::vector<u8> CompressLZ4(const u8* data, u32 size)
+{
+	std::vector<u8> out(LZ4_compressBound(size));
+	const int written = LZ4_compress_default(reinterpret_cast<const char*>(data), reinterpret_cast<char*>(out.data()), size,
+		static_cast<int>(out.size()));
+	out.resize(written);
+	return out;
+}
+
+static std::vector<u8> CompressZstd(const u8* data, u32 size)
+{
+	std::vector<u8> out(ZSTD_compressBound(size));
+	out.resize(ZSTD_compress(out.data(), out.size(), data, size, 19));
+	return out;
+}
+
+template <typename Compressor>
+static CompressedBlocks CompressAll(u32 block_size, Compressor compressor)
+{
+	const std::vector<u8>& data = GetSourceData();
+	CompressedBlocks ret;
+	ret.block_size = block_size;
+	for (u32 pos = 0; pos + block_size <= data.size(); pos += block_size)
+	{
+		ret.blocks.push_back(compressor(&data[pos], block_size));
+		ret.compressed_size += ret.blocks.back().size();
+	}
+	return ret;
+}
+
+static void SetRatioLabel(Benchmark::State& state, const CompressedBlocks& blocks)
+{
+	const u64 uncompressed = static_cast<u64>(blocks.blocks.size()) * blocks.block_size;
+	state.SetLabel(StringUtil::StdStringFromFormat("ratio %.2f", static_cast<double>(blocks.compressed_size) / uncompressed));
+}
+
+static void InflateBlocks(Benchmark::State& state, const CompressedBlocks& blocks)
+{
+	std::vector<u8> out(blocks.block_size);
+	z_stream z = {};
+	inflateInit2(&z, -15);
+
+	while (state.KeepRunning())
+	{
+		for (const std::vector<u8>& block : blocks.blocks)
+		{
+			inflateReset(&z);
+			z.next_in = const_cast<u8*>(block.data());
+			z.avail_in = static_cast<uInt>(block.size());
+			z.next_out = out.data();
+			z.avail_out = blocks.block_size;
+			if (inflate(&z, Z_FINISH) != Z_STREAM_END)
+			{
+				state.SkipWithError("inflate() failed");
+				break;
+			}
+		}
+		Benchmark::DoNotOptimize(out.data());
+	}
+
+	inflateEnd(&z);
+	state.SetBytesProcessed(state.iterations() * blocks.blocks.size() * blocks.block_size);
+	SetRatioLabel(state, blocks);
+}
+
+static void Decompress_CSO_Deflate(Benchmark::State& state)
+{
+	static const CompressedBlocks blocks = CompressAll(CSO_FRAME_SIZE,
+		[](const u8* data, u32 size) { return DeflateRaw(data, size, Z_BEST_COMPRESSION); });
+	InflateBlocks(state, blocks);
+}
+
+static void Decompress_ZSO_LZ4(Benchmark::State& state)
+{
+	static const CompressedBlocks blocks = CompressAll(CSO_FRAME_SIZE, CompressLZ4);
+	std::vector<u8> out(blocks.block_size);
+
+	while (state.KeepRunning())
+	{
+		for (const std::vector<u8>& block : blocks.blocks)
+		{
+			const int read = LZ4_decompress_safe_partial(reinterpret_cast<const char*>(block.data()),
+				reinterpret_cast<char*>(out.data()), static_cast<int>(block.size()), blocks.block_size,
+				static_cast<int>(out.size()));
+			if (read != static_cast<int>(blocks.block_size))
+			{
+				state.SkipWithError("LZ4_decompress_safe_partial() failed");
+				break;
+			}
+		}
+		Benchmark::DoNotOptimize(out.data());
+	}
+
+	state.SetBytesProcessed(state.iterations() * blocks.blocks.size() * blocks.block_size);
+	SetRatioLabel(state, blocks);
+}
+
+static void Decompress_CHD_CDZL(Benchmark::State& state)
+{
+	static const CompressedBlocks blocks = CompressAll(CHD_HUNK_DATA_SIZE,
+		[](const u8* data, u32 size) { return DeflateRaw(data, size, Z_BEST_COMPRESSION); });
+	InflateBlocks(state, blocks);
+}
+
+static void Decompress_CHD_CDZS(Benchmark::State& state)
+{
+	static const CompressedBlocks blocks = CompressAll(CHD_HUNK_DATA_SIZE, CompressZstd);
+	std::vector<u8> out(blocks.block_size);
+	ZSTD_DCtx* dctx = ZSTD_createDCtx();
+
+	while (state.KeepRunning())
+	{
+		for (const std::vector<u8>& block : blocks.blocks)
+		{
+			const size_t read = ZSTD_decompressDCtx(dctx, out.data(), out.size(), block.data(), block.size());
+			if (ZSTD_isError(read) || read != blocks.block_size)
+			{
+				state.SkipWithError("ZSTD_decompressDCtx() failed");
+				break;
+			}
+		}
+		Benchmark::DoNotOptimize(out.data());
+	}
+
+	ZSTD_freeDCtx(dctx);
+	state.SetBytesProcessed(state.iterations() * blocks.blocks.size() * blocks.block_size);
+	SetRatioLabel(state, blocks);
+}
+
+BENCHMARK(Decompress_CSO_Deflate);
+BENCHMARK(Decompress_ZSO_LZ4);
+BENCHMARK(Decompress_CHD_CDZL);
+BENCHMARK(Decompress_CHD_CDZS);
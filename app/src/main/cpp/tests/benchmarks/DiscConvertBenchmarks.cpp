@@ -0,0 +1,121 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "Benchmark.h"
+
+#include "common/Error.h"
+#include "common/FileSystem.h"
+#include "common/Path.h"
+#include "common/ProgressCallback.h"
+#include "common/StringUtil.h"
+
+#include "pcsx2/CDVD/DiscImageConverter.h"
+
+#include <algorithm>
+#include <cstdlib>
+#include <filesystem>
+#include <random>
+#include <vector>
+
+// Whole image conversion through DiscImageConverter, including the read back verify, so this is
+// what a user waits for per MB. Uses a generated 64MB ISO unless PCSX2_BENCHMARK_ISO names a real
+// image, which is the better test: set it to a full size ISO on the storage you care about.
+
+static constexpr u32 GENERATED_SIZE = 64 * 1024 * 1024;
+
+namespace
+{
+	struct TemporaryFile
+	{
+		std::string path;
+
+		~TemporaryFile()
+		{
+			if (!path.empty())
+				FileSystem::DeleteFilePath(path.c_str());
+		}
+	};
+} // namespace
+
+// Same mix as the decompression benchmarks, so the ratio is typical of game data.
+static bool WriteGeneratedIso(const std::string& path)
+{
+	std::vector<u8> data(GENERATED_SIZE);
+	std::mt19937 rng(4);
+	for (u32 pos = 0; pos < GENERATED_SIZE; pos += 64)
+	{
+		const u32 kind = rng() % 4;
+		for (u32 i = 0; i < 64; i++)
+		{
+			switch (kind)
+			{
+				case 0: data[pos + i] = 0; break;
+				case 1: data[pos + i] = static_cast<u8>(i & 0xf); break;
+				case 2: data[pos + i] = static_cast<u8>('A' + (rng() % 16)); break;
+				default: data[pos + i] = static_cast<u8>(rng()); break;
+			}
+		}
+	}
+
+	auto fp = FileSystem::OpenManagedCFile(path.c_str(), "wb");
+	return fp && std::fwrite(data.data(), data.size(), 1, fp.get()) == 1;
+}
+
+static const std::string& GetImagePath()
+{
+	static TemporaryFile generated;
+	static std::string path;
+	if (path.empty())
+	{
+		if (const char* env = std::getenv("PCSX2_BENCHMARK_ISO"))
+		{
+			path = env;
+		}
+		else
+		{
+			generated.path = Path::Combine(std::filesystem::temp_directory_path().string(), "pcsx2-benchmark.iso");
+			if (WriteGeneratedIso(generated.path))
+				path = generated.path;
+		}
+	}
+	return path;
+}
+
+static void Convert(Benchmark::State& state, DiscImageConverter::Format format, const char* extension)
+{
+	const std::string& path = GetImagePath();
+	if (path.empty())
+	{
+		state.SkipWithError("Failed to create ISO");
+		return;
+	}
+
+	TemporaryFile output;
+	output.path = Path::Combine(std::filesystem::temp_directory_path().string(),
+		StringUtil::StdStringFromFormat("pcsx2-benchmark-convert.%s", extension));
+
+	DiscImageConverter::Stats stats = {};
+	u64 input_bytes = 0;
+	while (state.KeepRunning())
+	{
+		Error error;
+		if (!DiscImageConverter::Convert(path, output.path, format, nullptr, &stats, &error))
+		{
+			state.SkipWithError(StringUtil::StdStringFromFormat("Conversion failed: %s", error.GetDescription().c_str()));
+			return;
+		}
+		input_bytes += stats.input_bytes;
+	}
+
+	state.SetBytesProcessed(input_bytes);
+	state.SetLabel(StringUtil::StdStringFromFormat("ratio %.3f, compress %.1f MB/s, verify %.1f MB/s",
+		static_cast<double>(stats.output_bytes) / static_cast<double>(stats.input_bytes),
+		static_cast<double>(stats.input_bytes) / _1mb / std::max(stats.compress_seconds, 0.001),
+		static_cast<double>(stats.input_bytes) / _1mb / std::max(stats.verify_seconds, 0.001)));
+}
+
+static void DiscConvert_CSO(Benchmark::State& state) { Convert(state, DiscImageConverter::Format::CSO, "cso"); }
+static void DiscConvert_ZSO(Benchmark::State& state) { Convert(state, DiscImageConverter::Format::ZSO, "zso"); }
+
+BENCHMARK(DiscConvert_CSO);
+BENCHMARK(DiscConvert_ZSO);
@@ -0,0 +1,57 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "Benchmark.h"
+
+#include "common/FrameLimiter.h"
+#include "common/HostSys.h"
+#include "common/StringUtil.h"
+
+#include <algorithm>
+#include <vector>
+
+// Frame limiter waits at NTSC's 59.94Hz. Each iteration is one frame, so real time is the
+// frame period, CPU time is what the wait burned per frame, and the label has how late
+// frames started. Run on an otherwise idle system, and pin to a core to compare big and
+// little cores (e.g. taskset -c 0 pcsx2-benchmarks --benchmark_filter=FrameLimiter).
+
+static constexpr double FRAME_RATE = 59.94;
+
+template <Common::FrameLimiter::Mode mode>
+static void WaitFrames(Benchmark::State& state)
+{
+	const u64 period = static_cast<u64>(static_cast<double>(GetTickFrequency()) / FRAME_RATE);
+	const double us_per_tick = 1000000.0 / static_cast<double>(GetTickFrequency());
+
+	Common::FrameLimiter limiter;
+	std::vector<u64> lateness;
+	lateness.reserve(static_cast<size_t>(state.iterations()));
+
+	u64 deadline = GetCPUTicks();
+	while (state.KeepRunning())
+	{
+		deadline += period;
+		lateness.push_back(limiter.WaitUntil(deadline, mode).lateness);
+	}
+
+	if (lateness.empty())
+		return;
+
+	u64 sum = 0;
+	for (const u64 value : lateness)
+		sum += value;
+
+	std::sort(lateness.begin(), lateness.end());
+	const u64 p99 = lateness[std::min(lateness.size() - 1, (lateness.size() * 99) / 100)];
+
+	state.SetItemsProcessed(state.iterations());
+	state.SetLabel(StringUtil::StdStringFromFormat("frames, late avg %.1fus p99 %.1fus max %.1fus, wake +%.1fus",
+		static_cast<double>(sum) * us_per_tick / static_cast<double>(lateness.size()), static_cast<double>(p99) * us_per_tick,
+		static_cast<double>(lateness.back()) * us_per_tick, static_cast<double>(limiter.GetWakeupOvershoot()) * us_per_tick));
+}
+
+static void FrameLimiter_Spin(Benchmark::State& state) { WaitFrames<Common::FrameLimiter::Mode::Spin>(state); }
+static void FrameLimiter_PreciseSleep(Benchmark::State& state) { WaitFrames<Common::FrameLimiter::Mode::PreciseSleep>(state); }
+
+BENCHMARK(FrameLimiter_Spin);
+BENCHMARK(FrameLimiter_PreciseSleep);
@@ -0,0 +1,199 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "Benchmark.h"
+
+#include "pcsx2/GS/GSClut.h"
+#include "pcsx2/GS/GSLocalMemory.h"
+
+#include <memory>
+#include <random>
+#include <vector>
+
+// Host <-> GS memory transfers through the swizzle tables, and the CLUT load/expand
+// done for every paletted texture. Sizes are a 640x448 frame, the common PS2 case.
+
+static constexpr int FRAME_WIDTH = 640;
+static constexpr int FRAME_HEIGHT = 448;
+
+static GSLocalMemory& GetLocalMemory()
+{
+	static std::unique_ptr<GSLocalMemory> mem;
+	if (!mem)
+	{
+		mem = std::make_unique<GSLocalMemory>();
+
+		std::mt19937 rng(12345);
+		u32* vm = mem->vm32();
+		for (u32 i = 0; i < GSLocalMemory::m_vmsize / sizeof(u32); i++)
+			vm[i] = rng();
+	}
+	return *mem;
+}
+
+static std::vector<u8> MakeRandomBuffer(size_t size)
+{
+	std::vector<u8> buffer(size);
+	std::mt19937 rng(54321);
+	for (u8& b : buffer)
+		b = static_cast<u8>(rng());
+	return buffer;
+}
+
+static u32 GetBitsPerPixel(u32 psm)
+{
+	return GSLocalMemory::m_psm[psm].trbpp;
+}
+
+static void WriteImage(Benchmark::State& state, u32 psm)
+{
+	GSLocalMemory& mem = GetLocalMemory();
+	const int len = FRAME_WIDTH * FRAME_HEIGHT * GetBitsPerPixel(psm) / 8;
+	const std::vector<u8> src = MakeRandomBuffer(len);
+
+	GIFRegBITBLTBUF BITBLTBUF = {};
+	BITBLTBUF.DBP = 0;
+	BITBLTBUF.DBW = FRAME_WIDTH / 64;
+	BITBLTBUF.DPSM = psm;
+	GIFRegTRXPOS TRXPOS = {};
+	GIFRegTRXREG TRXREG = {};
+	TRXREG.RRW = FRAME_WIDTH;
+	TRXREG.RRH = FRAME_HEIGHT;
+
+	while (state.KeepRunning())
+	{
+		int tx = 0, ty = 0;
+		GSLocalMemory::m_psm[psm].wi(mem, tx, ty, src.data(), len, BITBLTBUF, TRXPOS, TRXREG);
+		Benchmark::ClobberMemory();
+	}
+
+	state.SetBytesProcessed(state.iterations() * static_cast<u64>(len));
+}
+
+static void ReadImage(Benchmark::State& state, u32 psm)
+{
+	GSLocalMemory& mem = GetLocalMemory();
+	const int len = FRAME_WIDTH * FRAME_HEIGHT * GetBitsPerPixel(psm) / 8;
+	std::vector<u8> dst(len);
+
+	GIFRegBITBLTBUF BITBLTBUF = {};
+	BITBLTBUF.SBP = 0;
+	BITBLTBUF.SBW = FRAME_WIDTH / 64;
+	BITBLTBUF.SPSM = psm;
+	GIFRegTRXPOS TRXPOS = {};
+	GIFRegTRXREG TRXREG = {};
+	TRXREG.RRW = FRAME_WIDTH;
+	TRXREG.RRH = FRAME_HEIGHT;
+
+	while (state.KeepRunning())
+	{
+		int tx = 0, ty = 0;
+		GSLocalMemory::m_psm[psm].ri(mem, tx, ty, dst.data(), len, BITBLTBUF, TRXPOS, TRXREG);
+		Benchmark::DoNotOptimize(dst.data());
+		Benchmark::ClobberMemory();
+	}
+
+	state.SetBytesProcessed(state.iterations() * static_cast<u64>(len));
+}
+
+static void GSLocalMemory_WriteImage32(Benchmark::State& state) { WriteImage(state, PSMCT32); }
+static void GSLocalMemory_WriteImage16(Benchmark::State& state) { WriteImage(state, PSMCT16); }
+static void GSLocalMemory_WriteImage8(Benchmark::State& state) { WriteImage(state, PSMT8); }
+static void GSLocalMemory_WriteImage4(Benchmark::State& state) { WriteImage(state, PSMT4); }
+static void GSLocalMemory_ReadImage32(Benchmark::State& state) { ReadImage(state, PSMCT32); }
+static void GSLocalMemory_ReadImage16(Benchmark::State& state) { ReadImage(state, PSMCT16); }
+static void GSLocalMemory_ReadImage8(Benchmark::State& state) { ReadImage(state, PSMT8); }
+static void GSLocalMemory_ReadImage4(Benchmark::State& state) { ReadImage(state, PSMT4); }
+
+BENCHMARK(GSLocalMemory_WriteImage32);
+BENCHMARK(GSLocalMemory_WriteImage16);
+BENCHMARK(GSLocalMemory_WriteImage8);
+BENCHMARK(GSLocalMemory_WriteImage4);
+BENCHMARK(GSLocalMemory_ReadImage32);
+BENCHMARK(GSLocalMemory_ReadImage16);
+BENCHMARK(GSLocalMemory_ReadImage8);
+BENCHMARK(GSLocalMemory_ReadImage4);
+
+// Single block swizzles, the inner loop of the transfers above. GSBlock is compiled once
+// per ISA in multi-ISA builds, so it can only be used directly in a native build.
+#ifndef MULTI_ISA_SHARED_COMPILATION
+
+#include "pcsx2/GS/GSBlock.h"
+
+template <void (*Write)(u8* RESTRICT, const u8* RESTRICT, int), void (*Read)(const u8* RESTRICT, u8* RESTRICT, int), int bpp>
+static void BlockRoundTrip(Benchmark::State& state)
+{
+	static constexpr int BLOCKS = 1024;
+	static constexpr int BLOCK_BYTES = 256;
+	// Block dimensions in pixels for each format: 8x8 (32), 16x8 (16), 16x16 (8), 32x16 (4).
+	static constexpr int pitch = (bpp >= 16) ? 32 : 16;
+
+	alignas(64) static u8 linear[BLOCKS][BLOCK_BYTES];
+	alignas(64) static u8 swizzled[BLOCKS][BLOCK_BYTES];
+	std::mt19937 rng(1);
+	for (auto& block : linear)
+		for (u8& b : block)
+			b = static_cast<u8>(rng());
+
+	while (state.KeepRunning())
+	{
+		for (int i = 0; i < BLOCKS; i++)
+			Write(swizzled[i], linear[i], pitch);
+		for (int i = 0; i < BLOCKS; i++)
+			Read(swizzled[i], linear[i], pitch);
+		Benchmark::ClobberMemory();
+	}
+
+	state.SetBytesProcessed(state.iterations() * BLOCKS * BLOCK_BYTES * 2);
+}
+
+static void GSBlock_RoundTrip32(Benchmark::State& state) { BlockRoundTrip<CURRENT_ISA::GSBlock::WriteBlock32<16, 0xffffffff>, CURRENT_ISA::GSBlock::ReadBlock32, 32>(state); }
+static void GSBlock_RoundTrip16(Benchmark::State& state) { BlockRoundTrip<CURRENT_ISA::GSBlock::WriteBlock16<16>, CURRENT_ISA::GSBlock::ReadBlock16, 16>(state); }
+static void GSBlock_RoundTrip8(Benchmark::State& state) { BlockRoundTrip<CURRENT_ISA::GSBlock::WriteBlock8<16>, CURRENT_ISA::GSBlock::ReadBlock8, 8>(state); }
+static void GSBlock_RoundTrip4(Benchmark::State& state) { BlockRoundTrip<CURRENT_ISA::GSBlock::WriteBlock4<16>, CURRENT_ISA::GSBlock::ReadBlock4, 4>(state); }
+
+BENCHMARK(GSBlock_RoundTrip32);
+BENCHMARK(GSBlock_RoundTrip16);
+BENCHMARK(GSBlock_RoundTrip8);
+BENCHMARK(GSBlock_RoundTrip4);
+
+#endif
+
+static void ClutLoadAndExpand(Benchmark::State& state, u32 psm, u32 cpsm)
+{
+	GSLocalMemory& mem = GetLocalMemory();
+	GSClut& clut = mem.m_clut;
+
+	GIFRegTEX0 TEX0 = {};
+	TEX0.PSM = psm;
+	TEX0.CPSM = cpsm;
+	TEX0.CBP = 0x3000;
+	TEX0.CSM = 0;
+	TEX0.CLD = 1;
+	GIFRegTEXCLUT TEXCLUT = {};
+	GIFRegTEXA TEXA = {};
+	TEXA.TA0 = 0x00;
+	TEXA.TA1 = 0x80;
+
+	u32 iteration = 0;
+	while (state.KeepRunning())
+	{
+		// Alternate the palette offset so neither side short-circuits on its dirty tracking.
+		TEX0.CSA = (iteration++ & 1);
+		clut.Write(TEX0, TEXCLUT);
+		clut.Read32(TEX0, TEXA);
+		Benchmark::DoNotOptimize(clut[0]);
+	}
+
+	state.SetItemsProcessed(state.iterations());
+}
+
+static void GSClut_T32_I8(Benchmark::State& state) { ClutLoadAndExpand(state, PSMT8, PSMCT32); }
+static void GSClut_T32_I4(Benchmark::State& state) { ClutLoadAndExpand(state, PSMT4, PSMCT32); }
+static void GSClut_T16_I8(Benchmark::State& state) { ClutLoadAndExpand(state, PSMT8, PSMCT16); }
+static void GSClut_T16_I4(Benchmark::State& state) { ClutLoadAndExpand(state, PSMT4, PSMCT16); }
+
+BENCHMARK(GSClut_T32_I8);
+BENCHMARK(GSClut_T32_I4);
+BENCHMARK(GSClut_T16_I8);
+BENCHMARK(GSClut_T16_I4);
@@ -0,0 +1,69 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "Benchmark.h"
+
+#include "pcsx2/IPU/IPU_MultiISA.h"
+#include "pcsx2/IPU/yuv2rgb.h"
+
+#include <random>
+
+// IPU colour space conversion of a single 16x16 macroblock, run once per macroblock
+// decoded by CSC and IDEC. The inverse DCT is internal to the decoder, so it is only
+// covered indirectly through FMV playback with the GS runner.
+
+static void FillMacroblock()
+{
+	std::mt19937 rng(99);
+	u8* data = reinterpret_cast<u8*>(&decoder.mb8);
+	for (size_t i = 0; i < sizeof(decoder.mb8); i++)
+		data[i] = static_cast<u8>(rng());
+}
+
+static void IPU_YUV2RGB_Reference(Benchmark::State& state)
+{
+	FillMacroblock();
+	while (state.KeepRunning())
+	{
+		MULTI_ISA_SELECT(yuv2rgb_reference)();
+		Benchmark::ClobberMemory();
+	}
+	state.SetItemsProcessed(state.iterations());
+}
+
+static void IPU_YUV2RGB_SIMD(Benchmark::State& state)
+{
+#ifdef yuv2rgb
+	FillMacroblock();
+	while (state.KeepRunning())
+	{
+		MULTI_ISA_SELECT(yuv2rgb)();
+		Benchmark::ClobberMemory();
+	}
+	state.SetItemsProcessed(state.iterations());
+#else
+	state.SkipWithError("No SIMD implementation for this architecture");
+#endif
+}
+
+template <int dte>
+static void IPU_Dither(Benchmark::State& state)
+{
+	FillMacroblock();
+	MULTI_ISA_SELECT(yuv2rgb_reference)();
+
+	while (state.KeepRunning())
+	{
+		MULTI_ISA_SELECT(ipu_dither)(decoder.rgb32, decoder.rgb16, dte);
+		Benchmark::ClobberMemory();
+	}
+	state.SetItemsProcessed(state.iterations());
+}
+
+static void IPU_RGB16_NoDither(Benchmark::State& state) { IPU_Dither<0>(state); }
+static void IPU_RGB16_Dither(Benchmark::State& state) { IPU_Dither<1>(state); }
+
+BENCHMARK(IPU_YUV2RGB_Reference);
+BENCHMARK(IPU_YUV2RGB_SIMD);
+BENCHMARK(IPU_RGB16_NoDither);
+BENCHMARK(IPU_RGB16_Dither);
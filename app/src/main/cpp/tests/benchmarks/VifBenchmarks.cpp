@@ -0,0 +1,114 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "Benchmark.h"
+
+#include "common/Assertions.h"
+#include "common/Console.h"
+
+#include "pcsx2/Memory.h"
+#include "pcsx2/Vif_Dynarec.h"
+#include "pcsx2/Vif_Unpack.h"
+
+#include <random>
+
+// VIF unpacks, comparing the generated unpack routines used by the interpreter path
+// (SSE on x86-64, NEON on arm64) against the plain C++ implementations in VIFfuncTable.
+// Only the unmasked, mode 0 variants are measured, since those dominate real workloads.
+
+static constexpr u32 VECTORS = 256;
+
+static bool InitializeUnpackers()
+{
+	static const bool initialized = []() {
+		if (!SysMemory::Allocate())
+			return false;
+		VifUnpackSSE_Init();
+		return true;
+	}();
+	return initialized;
+}
+
+// upkNum is (VN << 2) | VL, as in the VIF UNPACK command.
+static u32 GetSourceSize(u32 upkNum)
+{
+	if (upkNum == 15)
+		return 2;
+	const u32 vn = (upkNum >> 2) + 1;
+	const u32 vl_bytes = 4 >> (upkNum & 3);
+	return vn * vl_bytes;
+}
+
+template <bool jit>
+static void Unpack(Benchmark::State& state, u32 upkNum)
+{
+	if (!InitializeUnpackers())
+	{
+		state.SkipWithError("Failed to allocate recompiler memory");
+		return;
+	}
+
+	const u32 src_size = GetSourceSize(upkNum);
+	alignas(16) static u8 src[VECTORS * 16];
+	alignas(16) static u8 dst[VECTORS * 16];
+	std::mt19937 rng(7);
+	for (u8& b : src)
+		b = static_cast<u8>(rng());
+
+	// Unsigned, unmasked: [usn][mask][type][cycle] for the JIT table, [usn * 32 + type] for the scalar one.
+	const nVifCall jit_func = nVifUpk[((1 * 2 * 16) + upkNum) * 4];
+	const UNPACKFUNCTYPE scalar_func = VIFfuncTable[1][0][(1 * 2 * 16) + upkNum];
+	if (jit ? !jit_func : !scalar_func)
+	{
+		state.SkipWithError("Unpack format not available");
+		return;
+	}
+
+	while (state.KeepRunning())
+	{
+		const u8* in = src;
+		u8* out = dst;
+		for (u32 i = 0; i < VECTORS; i++)
+		{
+			if constexpr (jit)
+				jit_func(out, in);
+			else
+				scalar_func(out, in);
+			in += src_size;
+			out += 16;
+		}
+		Benchmark::ClobberMemory();
+	}
+
+	state.SetItemsProcessed(state.iterations() * VECTORS);
+}
+
+static void VIF_Unpack_V4_32_Scalar(Benchmark::State& state) { Unpack<false>(state, 12); }
+static void VIF_Unpack_V4_32_SIMD(Benchmark::State& state) { Unpack<true>(state, 12); }
+static void VIF_Unpack_V4_16_Scalar(Benchmark::State& state) { Unpack<false>(state, 13); }
+static void VIF_Unpack_V4_16_SIMD(Benchmark::State& state) { Unpack<true>(state, 13); }
+static void VIF_Unpack_V4_8_Scalar(Benchmark::State& state) { Unpack<false>(state, 14); }
+static void VIF_Unpack_V4_8_SIMD(Benchmark::State& state) { Unpack<true>(state, 14); }
+static void VIF_Unpack_V4_5_Scalar(Benchmark::State& state) { Unpack<false>(state, 15); }
+static void VIF_Unpack_V4_5_SIMD(Benchmark::State& state) { Unpack<true>(state, 15); }
+static void VIF_Unpack_V3_32_Scalar(Benchmark::State& state) { Unpack<false>(state, 8); }
+static void VIF_Unpack_V3_32_SIMD(Benchmark::State& state) { Unpack<true>(state, 8); }
+static void VIF_Unpack_V2_16_Scalar(Benchmark::State& state) { Unpack<false>(state, 5); }
+static void VIF_Unpack_V2_16_SIMD(Benchmark::State& state) { Unpack<true>(state, 5); }
+static void VIF_Unpack_S_32_Scalar(Benchmark::State& state) { Unpack<false>(state, 0); }
+static void VIF_Unpack_S_32_SIMD(Benchmark::State& state) { Unpack<true>(state, 0); }
+
+BENCHMARK(VIF_Unpack_V4_32_Scalar);
+BENCHMARK(VIF_Unpack_V4_32_SIMD);
+BENCHMARK(VIF_Unpack_V4_16_Scalar);
+BENCHMARK(VIF_Unpack_V4_16_SIMD);
+BENCHMARK(VIF_Unpack_V4_8_Scalar);
+BENCHMARK(VIF_Unpack_V4_8_SIMD);
+BENCHMARK(VIF_Unpack_V4_5_Scalar);
+BENCHMARK(VIF_Unpack_V4_5_SIMD);
+BENCHMARK(VIF_Unpack_V3_32_Scalar);
+BENCHMARK(VIF_Unpack_V3_32_SIMD);
+BENCHMARK(VIF_Unpack_V2_16_Scalar);
+BENCHMARK(VIF_Unpack_V2_16_SIMD);
+BENCHMARK(VIF_Unpack_S_32_Scalar);
+BENCHMARK(VIF_Unpack_S_32_SIMD);
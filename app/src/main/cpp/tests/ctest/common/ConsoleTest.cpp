@@ -0,0 +1,203 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "common/Assertions.h"
+#include "common/Console.h"
+#include "common/FileSystem.h"
+#include "common/Threading.h"
+
+#include "fmt/format.h"
+
+#include <gtest/gtest.h>
+
+#include <chrono>
+#include <cstdio>
+#include <mutex>
+#include <string>
+#include <thread>
+#include <vector>
+
+// Content URIs only exist on Android, where the frontend provides this.
+int FileSystem::OpenFDFileContentWithMode(const char* filename, const char* mode)
+{
+	return -1;
+}
+
+namespace
+{
+	/// Everything the writer thread hands to the host, in the order it did so.
+	static std::mutex s_captured_mutex;
+	static std::vector<std::string> s_captured;
+
+	/// When the writer reaches this message, it waits in the callback until released.
+	static constexpr const char* GATE_MESSAGE = "gate";
+	static Threading::KernelSemaphore s_gate_reached;
+	static Threading::KernelSemaphore s_gate_release;
+
+	static void CaptureMessage(LOGLEVEL level, ConsoleColors color, std::string_view message)
+	{
+		if (message == GATE_MESSAGE)
+		{
+			s_gate_reached.Post();
+			s_gate_release.Wait();
+		}
+
+		std::unique_lock lock(s_captured_mutex);
+		s_captured.emplace_back(message);
+	}
+
+	/// Slower than the assert path, so the message only makes it out if the assert waits for it.
+	static void SlowStderrMessage(LOGLEVEL level, ConsoleColors color, std::string_view message)
+	{
+		std::this_thread::sleep_for(std::chrono::milliseconds(100));
+		std::fprintf(stderr, "%.*s\n", static_cast<int>(message.size()), message.data());
+		std::fflush(stderr);
+	}
+
+	static void Info(std::string_view message)
+	{
+		Log::Write(LOGLEVEL_INFO, Color_Default, message);
+	}
+
+	/// Logs from its destructor, so it can run before or after the thread's log queue is torn down.
+	struct LogOnThreadExit
+	{
+		const char* message;
+
+		~LogOnThreadExit() { Info(message); }
+	};
+
+	class ConsoleAsyncTest : public ::testing::Test
+	{
+	protected:
+		void SetUp() override
+		{
+			Log::SetHostOutputLevel(LOGLEVEL_INFO, &CaptureMessage);
+			Log::SetAsyncOutputEnabled(true);
+			ASSERT_TRUE(Log::IsAsyncOutputEnabled());
+		}
+
+		void TearDown() override
+		{
+			Log::SetAsyncOutputEnabled(false);
+			Log::SetHostOutputLevel(LOGLEVEL_NONE, nullptr);
+
+			std::unique_lock lock(s_captured_mutex);
+			s_captured.clear();
+		}
+
+		static std::vector<std::string> Captured()
+		{
+			Log::FlushAsyncOutput();
+			std::unique_lock lock(s_captured_mutex);
+			return s_captured;
+		}
+	};
+} // namespace
+
+TEST_F(ConsoleAsyncTest, KeepsOrderWithinEachThread)
+{
+	// A few threads at once, with some messages long enough to be queued in several chunks.
+	static constexpr u32 THREADS = 3;
+	static constexpr u32 MESSAGES = 300;
+	const std::string padding(600, '.');
+
+	std::vector<std::thread> threads;
+	for (u32 thread = 0; thread < THREADS; thread++)
+	{
+		threads.emplace_back([thread, &padding]() {
+			for (u32 i = 0; i < MESSAGES; i++)
+				Info((i % 10) == 0 ? fmt::format("order {} {} {}", thread, i, padding) : fmt::format("order {} {}", thread, i));
+		});
+	}
+	for (std::thread& thread : threads)
+		thread.join();
+
+	u32 next[THREADS] = {};
+	for (const std::string& message : Captured())
+	{
+		u32 thread, i;
+		ASSERT_EQ(std::sscanf(message.c_str(), "order %u %u", &thread, &i), 2) << message;
+		ASSERT_LT(thread, THREADS);
+		ASSERT_EQ(i, next[thread]) << "thread " << thread;
+		if ((i % 10) == 0)
+			EXPECT_EQ(message, fmt::format("order {} {} {}", thread, i, padding));
+		next[thread]++;
+	}
+
+	for (u32 thread = 0; thread < THREADS; thread++)
+		EXPECT_EQ(next[thread], MESSAGES) << "thread " << thread;
+}
+
+TEST_F(ConsoleAsyncTest, CountsMessagesDroppedWhenQueueIsFull)
+{
+	// Hold the writer up with the queue empty, then queue more than fits. 1023 one-chunk messages do.
+	Info(GATE_MESSAGE);
+	s_gate_reached.Wait();
+
+	static constexpr u32 FITS = 1023;
+	static constexpr u32 DROPPED = 10;
+	for (u32 i = 0; i < FITS + DROPPED; i++)
+		Info(fmt::format("drop {}", i));
+
+	s_gate_release.Post();
+
+	const std::vector<std::string> captured = Captured();
+	ASSERT_EQ(captured.size(), 1 + FITS + 1);
+	EXPECT_EQ(captured[0], GATE_MESSAGE);
+	for (u32 i = 0; i < FITS; i++)
+		EXPECT_EQ(captured[1 + i], fmt::format("drop {}", i));
+	EXPECT_EQ(captured.back(), fmt::format("Dropped {} log messages, the writer thread fell behind.", DROPPED));
+}
+
+TEST_F(ConsoleAsyncTest, CollapsesRepeatedLines)
+{
+	for (u32 i = 0; i < 5; i++)
+		Info("repeat");
+	Info("repeat done");
+
+	// Blank lines are separators, and never counted as repeats.
+	Info("");
+	Info("");
+
+	// A repeat which is still pending is written out by a flush.
+	Info("repeat again");
+	Info("repeat again");
+
+	const std::vector<std::string> captured = Captured();
+	const std::vector<std::string> expected = {"repeat", "Last message repeated 4 times.", "repeat done", "", "",
+		"repeat again", "Last message repeated 1 times."};
+	EXPECT_EQ(captured, expected);
+}
+
+TEST_F(ConsoleAsyncTest, LogsFromThreadLocalDestructors)
+{
+	// Destroyed before the thread's queue, since it was constructed after the thread first logged.
+	std::thread([]() {
+		Info("exit open 1");
+		thread_local LogOnThreadExit log_on_exit{"exit open 2"};
+	}).join();
+
+	// Constructed before the thread first logged, so destroyed after its queue was closed. That message
+	// is written directly, still after the ones queued before it.
+	std::thread([]() {
+		thread_local LogOnThreadExit log_on_exit{"exit closed 2"};
+		Info("exit closed 1");
+	}).join();
+
+	const std::vector<std::string> captured = Captured();
+	const std::vector<std::string> expected = {"exit open 1", "exit open 2", "exit closed 1", "exit closed 2"};
+	EXPECT_EQ(captured, expected);
+}
+
+TEST_F(ConsoleAsyncTest, AssertFlushesQueuedMessages)
+{
+	GTEST_FLAG_SET(death_test_style, "threadsafe");
+	EXPECT_DEATH(
+		{
+			Log::SetHostOutputLevel(LOGLEVEL_INFO, &SlowStderrMessage);
+			Info("logged before the assert");
+			pxFailRel("test assert");
+		},
+		"logged before the assert\n.*assertion failed.*test assert");
+}
@@ -0,0 +1,213 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "common/FileSystem.h"
+#include "common/Path.h"
+#include "common/Threading.h"
+#include "common/Trace.h"
+
+#include "fmt/format.h"
+#include "rapidjson/document.h"
+
+#include <gtest/gtest.h>
+
+#include <filesystem>
+#include <map>
+#include <optional>
+#include <string>
+#include <thread>
+#include <vector>
+
+// Same as the per-thread ring in Trace.cpp.
+static constexpr u32 BUFFER_SIZE = 32768;
+
+namespace
+{
+	struct DumpedEvent
+	{
+		std::string name;
+		std::string category;
+		char phase;
+		double ts;
+	};
+
+	struct DumpedThread
+	{
+		std::string name;
+		std::vector<DumpedEvent> events;
+	};
+
+	class TraceTest : public ::testing::Test
+	{
+	protected:
+		void SetUp() override
+		{
+			m_path = Path::Combine(std::filesystem::temp_directory_path().string(),
+				fmt::format("pcsx2-trace-test-{}.json", ::testing::UnitTest::GetInstance()->current_test_info()->name()));
+		}
+
+		void TearDown() override
+		{
+			Trace::Stop();
+			std::filesystem::remove(m_path);
+		}
+
+		/// Dumps the trace and parses it back, keyed by thread id. Fails the test if the file isn't valid JSON.
+		std::map<u64, DumpedThread> Dump()
+		{
+			std::map<u64, DumpedThread> ret;
+			if (!Trace::DumpToFile(m_path.c_str()))
+			{
+				ADD_FAILURE() << "Failed to dump to " << m_path;
+				return ret;
+			}
+
+			const std::optional<std::string> json = FileSystem::ReadFileToString(m_path.c_str());
+			rapidjson::Document doc;
+			if (!json.has_value() || doc.Parse(json->c_str()).HasParseError() || !doc.HasMember("traceEvents"))
+			{
+				ADD_FAILURE() << "Failed to parse " << m_path;
+				return ret;
+			}
+
+			for (const rapidjson::Value& ev : doc["traceEvents"].GetArray())
+			{
+				DumpedThread& thread = ret[ev["tid"].GetUint64()];
+				const char phase = ev["ph"].GetString()[0];
+				if (phase == 'M')
+					thread.name = ev["args"]["name"].GetString();
+				else
+					thread.events.push_back({ev["name"].GetString(), ev["cat"].GetString(), phase, ev["ts"].GetDouble()});
+			}
+
+			return ret;
+		}
+
+		/// The only thread in the dump which recorded the given event.
+		static const DumpedThread* FindThreadWith(const std::map<u64, DumpedThread>& threads, const char* name)
+		{
+			const DumpedThread* ret = nullptr;
+			for (const auto& [tid, thread] : threads)
+			{
+				for (const DumpedEvent& ev : thread.events)
+				{
+					if (ev.name == name)
+					{
+						EXPECT_EQ(ret, nullptr) << name << " was recorded on more than one thread";
+						ret = &thread;
+						break;
+					}
+				}
+			}
+			return ret;
+		}
+
+		std::string m_path;
+	};
+} // namespace
+
+TEST_F(TraceTest, KeepsNewestEventsWhenRingWraps)
+{
+	Trace::Start();
+
+	// Overfill a fresh thread's ring, so the oldest events are overwritten by the newest.
+	std::thread([]() {
+		for (u32 i = 0; i < 1000; i++)
+			Trace::Instant("test", "wrap old");
+		for (u32 i = 0; i < BUFFER_SIZE - 1; i++)
+			Trace::Instant("test", "wrap new");
+		Trace::Instant("test", "wrap last");
+	}).join();
+
+	// The oldest slot is also the one the thread writes to next, so it's left out of a full ring.
+	const std::map<u64, DumpedThread> threads = Dump();
+	const DumpedThread* thread = FindThreadWith(threads, "wrap last");
+	ASSERT_NE(thread, nullptr);
+	ASSERT_EQ(thread->events.size(), BUFFER_SIZE - 1);
+	for (u32 i = 0; i < BUFFER_SIZE - 2; i++)
+	{
+		ASSERT_EQ(thread->events[i].name, "wrap new") << "event " << i;
+		EXPECT_EQ(thread->events[i].phase, 'i');
+	}
+	EXPECT_EQ(thread->events.back().name, "wrap last");
+
+	// Oldest first, as written.
+	for (u32 i = 1; i < BUFFER_SIZE - 1; i++)
+		ASSERT_LE(thread->events[i - 1].ts, thread->events[i].ts) << "event " << i;
+}
+
+TEST_F(TraceTest, MergesThreadsOnDump)
+{
+	static constexpr u32 THREADS = 3;
+	static constexpr u32 SCOPES = 500;
+	static constexpr const char* NAMES[THREADS] = {"Trace Test 0", "Trace Test 1", "Trace Test 2"};
+	static constexpr const char* OUTER[THREADS] = {"merge outer 0", "merge outer 1", "merge outer 2"};
+
+	// Recorded and exited before this trace started, so it isn't in it.
+	std::thread([]() {
+		Trace::Internal::Instant("test", "merge stale");
+	}).join();
+
+	Trace::Start();
+
+	// Recording at the same time, each with nested scopes. The threads have exited by the time of the
+	// dump, which still has to include them.
+	std::vector<std::thread> threads;
+	for (u32 thread = 0; thread < THREADS; thread++)
+	{
+		threads.emplace_back([thread]() {
+			Threading::SetNameOfCurrentThread(NAMES[thread]);
+			for (u32 i = 0; i < SCOPES; i++)
+			{
+				TRACE_SCOPE("test", OUTER[thread]);
+				TRACE_SCOPE("test", "merge inner");
+			}
+		});
+	}
+	for (std::thread& thread : threads)
+		thread.join();
+
+	// Tracing stopped, so this isn't recorded.
+	Trace::Stop();
+	TRACE_SCOPE("test", "merge stopped");
+
+	const std::map<u64, DumpedThread> dumped = Dump();
+	EXPECT_EQ(FindThreadWith(dumped, "merge stale"), nullptr);
+	EXPECT_EQ(FindThreadWith(dumped, "merge stopped"), nullptr);
+
+	for (u32 thread = 0; thread < THREADS; thread++)
+	{
+		const DumpedThread* found = FindThreadWith(dumped, OUTER[thread]);
+		ASSERT_NE(found, nullptr) << "thread " << thread;
+		EXPECT_EQ(found->name, NAMES[thread]);
+		ASSERT_EQ(found->events.size(), SCOPES * 4) << "thread " << thread;
+
+		// Begin outer, begin inner, end inner, end outer, in that order every time.
+		for (u32 i = 0; i < SCOPES * 4; i += 4)
+		{
+			const DumpedEvent* ev = &found->events[i];
+			ASSERT_TRUE(ev[0].phase == 'B' && ev[0].name == OUTER[thread]) << "thread " << thread << ", event " << i;
+			ASSERT_TRUE(ev[1].phase == 'B' && ev[1].name == "merge inner") << "thread " << thread << ", event " << i;
+			ASSERT_TRUE(ev[2].phase == 'E' && ev[2].name == "merge inner") << "thread " << thread << ", event " << i;
+			ASSERT_TRUE(ev[3].phase == 'E' && ev[3].name == OUTER[thread]) << "thread " << thread << ", event " << i;
+			EXPECT_EQ(ev[0].category, "test");
+		}
+	}
+}
+
+TEST_F(TraceTest, StartDiscardsEarlierEvents)
+{
+	Trace::Start();
+	Trace::Instant("test", "discard before");
+	Trace::Start();
+	Trace::Instant("test", "discard after");
+
+	const std::map<u64, DumpedThread> threads = Dump();
+	EXPECT_EQ(FindThreadWith(threads, "discard before"), nullptr);
+	const DumpedThread* thread = FindThreadWith(threads, "discard after");
+	ASSERT_NE(thread, nullptr);
+	EXPECT_EQ(thread->events.size(), 1u);
+
+	// Dumping pauses recording, and resumes it afterwards.
+	EXPECT_TRUE(Trace::IsEnabled());
+}
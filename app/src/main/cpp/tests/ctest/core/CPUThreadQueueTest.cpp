@@ -0,0 +1,187 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "Host/CPUThreadQueue.h"
+
+#include <gtest/gtest.h>
+
+#include <atomic>
+#include <chrono>
+#include <future>
+#include <thread>
+
+using namespace std::chrono_literals;
+
+namespace
+{
+	enum class FakeVMState
+	{
+		Running,
+		Paused,
+		Stopping,
+	};
+
+	/// Stands in for runVMThread: the queue is drained every frame while running and waited on while
+	/// paused, and the thread only stops taking commands once its (slow) shutdown is done.
+	class CPUThreadQueueTest : public ::testing::Test
+	{
+	protected:
+		CPUThreadQueueTest()
+			: m_queue([this](bool paused) { SetPaused(paused); })
+		{
+		}
+
+		~CPUThreadQueueTest() override
+		{
+			if (m_thread.joinable())
+			{
+				m_queue.Run([this]() { m_state.store(FakeVMState::Stopping); }, false);
+				m_thread.join();
+			}
+		}
+
+		void StartCPUThread()
+		{
+			std::promise<void> attached;
+			std::future<void> attached_future = attached.get_future();
+			m_thread = std::thread([this, &attached]() {
+				m_cpu_thread_id = std::this_thread::get_id();
+				m_queue.Attach();
+				attached.set_value();
+				CPUThread();
+			});
+			attached_future.wait();
+		}
+
+		void CPUThread()
+		{
+			for (;;)
+			{
+				m_queue.Drain();
+
+				const FakeVMState state = m_state.load();
+				if (state == FakeVMState::Stopping)
+					break;
+
+				if (state == FakeVMState::Running)
+				{
+					// A few frames of "execution", pumping on each vsync like the real thing.
+					for (int frame = 0; frame < 4 && m_state.load() == FakeVMState::Running; frame++)
+					{
+						std::this_thread::yield();
+						m_queue.Drain();
+					}
+				}
+				else
+				{
+					m_queue.WaitForCommand(100ms);
+				}
+			}
+
+			m_in_shutdown.store(true);
+			std::this_thread::sleep_for(m_shutdown_time);
+			m_queue.Detach();
+		}
+
+		void SetPaused(bool paused)
+		{
+			if (std::this_thread::get_id() != m_cpu_thread_id)
+				m_wrong_thread_calls++;
+
+			// Same rule as the app, only a pause from running or a resume from paused is applied.
+			const FakeVMState state = m_state.load();
+			if (paused ? (state == FakeVMState::Running) : (state == FakeVMState::Paused))
+			{
+				m_state.store(paused ? FakeVMState::Paused : FakeVMState::Running);
+				m_applied++;
+			}
+		}
+
+		bool IsPaused() const
+		{
+			if (const std::optional<bool> requested = m_queue.GetRequestedPause())
+				return requested.value();
+			return m_state.load() == FakeVMState::Paused;
+		}
+
+		void WaitForShutdownToStart()
+		{
+			while (!m_in_shutdown.load())
+				std::this_thread::sleep_for(1ms);
+		}
+
+		CPUThreadQueue m_queue;
+		std::thread m_thread;
+		std::thread::id m_cpu_thread_id;
+		std::atomic<FakeVMState> m_state{FakeVMState::Running};
+		std::atomic_bool m_in_shutdown{false};
+		std::chrono::milliseconds m_shutdown_time{0};
+		std::atomic<int> m_wrong_thread_calls{0};
+		std::atomic<int> m_applied{0};
+	};
+} // namespace
+
+TEST_F(CPUThreadQueueTest, PauseResumeStress)
+{
+	static constexpr int TOGGLES = 10000;
+
+	StartCPUThread();
+
+	std::future<void> last;
+	for (int i = 0; i < TOGGLES; i++)
+	{
+		const bool paused = (i % 2) == 0;
+		last = m_queue.QueuePause(paused);
+		ASSERT_EQ(IsPaused(), paused) << "toggle " << i;
+	}
+
+	ASSERT_EQ(last.wait_for(10s), std::future_status::ready);
+	EXPECT_FALSE(m_queue.GetRequestedPause().has_value());
+	EXPECT_EQ(m_state.load(), FakeVMState::Running);
+	EXPECT_EQ(m_applied.load(), TOGGLES);
+	EXPECT_EQ(m_wrong_thread_calls.load(), 0);
+}
+
+TEST_F(CPUThreadQueueTest, PauseDuringShutdownRunsOnCPUThread)
+{
+	m_shutdown_time = 200ms;
+	StartCPUThread();
+
+	m_queue.Run([this]() { m_state.store(FakeVMState::Stopping); }, false);
+	WaitForShutdownToStart();
+
+	std::future<void> paused = m_queue.QueuePause(true);
+	EXPECT_EQ(paused.wait_for(0ms), std::future_status::timeout);
+
+	m_thread.join();
+	EXPECT_EQ(paused.wait_for(0ms), std::future_status::ready);
+	EXPECT_EQ(m_state.load(), FakeVMState::Stopping);
+	EXPECT_EQ(m_wrong_thread_calls.load(), 0);
+}
+
+TEST_F(CPUThreadQueueTest, BlockingRunDuringShutdownReturns)
+{
+	m_shutdown_time = 100ms;
+	StartCPUThread();
+
+	m_queue.Run([this]() { m_state.store(FakeVMState::Stopping); }, false);
+	WaitForShutdownToStart();
+
+	std::thread::id ran_on;
+	m_queue.Run([&ran_on]() { ran_on = std::this_thread::get_id(); }, true);
+	EXPECT_EQ(ran_on, m_cpu_thread_id);
+
+	m_thread.join();
+}
+
+TEST_F(CPUThreadQueueTest, RunsInlineWithoutCPUThread)
+{
+	std::thread::id ran_on;
+	m_queue.Run([&ran_on]() { ran_on = std::this_thread::get_id(); }, false);
+	EXPECT_EQ(ran_on, std::this_thread::get_id());
+
+	m_state.store(FakeVMState::Paused);
+	std::future<void> resumed = m_queue.QueuePause(false);
+	EXPECT_EQ(resumed.wait_for(0ms), std::future_status::ready);
+	EXPECT_EQ(m_state.load(), FakeVMState::Running);
+}
@@ -0,0 +1,224 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "CDVD/DiscAccessProfile.h"
+#include "Config.h"
+
+#include "common/FileSystem.h"
+#include "common/Path.h"
+
+#include "fmt/format.h"
+
+#include <gtest/gtest.h>
+
+#include <filesystem>
+#include <iterator>
+#include <vector>
+
+static constexpr u64 REGION = DiscAccessProfile::REGION_SIZE;
+
+namespace
+{
+	class DiscAccessProfileTest : public ::testing::Test
+	{
+	protected:
+		void SetUp() override
+		{
+			m_dir = Path::Combine(std::filesystem::temp_directory_path().string(),
+				fmt::format("pcsx2-profile-test-{}", ::testing::UnitTest::GetInstance()->current_test_info()->name()));
+			std::filesystem::remove_all(m_dir);
+			ASSERT_TRUE(FileSystem::EnsureDirectoryExists(m_dir.c_str(), true));
+
+			// Profiles are kept in the cache, keyed by the image rather than its contents, so no image is needed.
+			m_old_cache = EmuFolders::Cache;
+			EmuFolders::Cache = m_dir;
+		}
+
+		void TearDown() override
+		{
+			EmuFolders::Cache = m_old_cache;
+			std::filesystem::remove_all(m_dir);
+		}
+
+		/// Reads a sector at the start of each region, like a game seeking to a file.
+		static void Seek(DiscAccessProfile& profile, u32 region) { profile.RecordRead(region * REGION, 2048); }
+
+		/// Reads from the start of the region through the given number of regions, in 64KB reads.
+		static void ReadRun(DiscAccessProfile& profile, u32 region, u32 length)
+		{
+			for (u64 offset = region * REGION; offset < (region + length) * REGION; offset += 64 * 1024)
+				profile.RecordRead(offset, 64 * 1024);
+		}
+
+		/// A session which only reads somewhere unrelated, so the stored profile decays once.
+		void UnrelatedSession()
+		{
+			DiscAccessProfile profile;
+			profile.Open(m_fingerprint);
+			ReadRun(profile, 500, 1);
+			profile.Close();
+		}
+
+		std::vector<DiscAccessProfile::Prediction> PredictionsAfter(u32 region)
+		{
+			DiscAccessProfile profile;
+			profile.Open(m_fingerprint);
+			DiscAccessProfile::Prediction predictions[8];
+			const u32 count = profile.GetPredictions(region, predictions, std::size(predictions));
+			return std::vector<DiscAccessProfile::Prediction>(predictions, predictions + count);
+		}
+
+		std::vector<u32> HotRegions()
+		{
+			DiscAccessProfile profile;
+			profile.Open(m_fingerprint);
+			return profile.GetHotRegions();
+		}
+
+		std::string m_dir;
+		std::string m_old_cache;
+		DiscImageCache::Fingerprint m_fingerprint = {0x1234, 4 * 1024 * 1024 * s64(1024), 1000};
+	};
+} // namespace
+
+TEST_F(DiscAccessProfileTest, RoundTripsThroughCache)
+{
+	{
+		DiscAccessProfile profile;
+		profile.Open(m_fingerprint);
+		EXPECT_TRUE(profile.IsActive());
+
+		// Boot reads region 0, then loads a 3 region level twice and an FMV once.
+		ReadRun(profile, 0, 1);
+		Seek(profile, 10);
+		ReadRun(profile, 10, 3);
+		Seek(profile, 0);
+		Seek(profile, 10);
+		ReadRun(profile, 10, 3);
+		Seek(profile, 0);
+		Seek(profile, 40);
+		profile.Close();
+		EXPECT_FALSE(profile.IsActive());
+	}
+
+	const std::vector<DiscAccessProfile::Prediction> predictions = PredictionsAfter(0);
+	ASSERT_EQ(predictions.size(), 2u);
+	EXPECT_EQ(predictions[0].region, 10u);
+	EXPECT_EQ(predictions[0].length, 3u);
+	EXPECT_EQ(predictions[1].region, 40u);
+	EXPECT_EQ(predictions[1].length, 1u);
+
+	// The level was read most, the FMV least.
+	const std::vector<u32> hot = HotRegions();
+	ASSERT_EQ(hot.size(), 5u);
+	EXPECT_EQ(hot[0], 10u);
+	EXPECT_EQ(hot[3], 0u);
+	EXPECT_EQ(hot[4], 40u);
+}
+
+TEST_F(DiscAccessProfileTest, EmptySessionLeavesProfileAlone)
+{
+	{
+		DiscAccessProfile profile;
+		profile.Open(m_fingerprint);
+		Seek(profile, 0);
+		Seek(profile, 7);
+		profile.Close();
+	}
+
+	// Opened and closed without reading, e.g. the game list, which must not decay what was learned.
+	for (int i = 0; i < 10; i++)
+	{
+		DiscAccessProfile profile;
+		profile.Open(m_fingerprint);
+		profile.Close();
+	}
+
+	const std::vector<DiscAccessProfile::Prediction> predictions = PredictionsAfter(0);
+	ASSERT_EQ(predictions.size(), 1u);
+	EXPECT_EQ(predictions[0].region, 7u);
+}
+
+TEST_F(DiscAccessProfileTest, UnusedTransitionsDecayToZero)
+{
+	// Seen four times in one session, so it takes four sessions without it to fade out, at 3/4 per session
+	// rounded down: 4, 3, 2, 1, 0.
+	{
+		DiscAccessProfile profile;
+		profile.Open(m_fingerprint);
+		for (int i = 0; i < 4; i++)
+		{
+			Seek(profile, 0);
+			Seek(profile, 20);
+		}
+		profile.Close();
+	}
+
+	for (int session = 1; session <= 3; session++)
+	{
+		UnrelatedSession();
+		const std::vector<DiscAccessProfile::Prediction> predictions = PredictionsAfter(0);
+		ASSERT_EQ(predictions.size(), 1u) << "session " << session;
+		EXPECT_EQ(predictions[0].region, 20u);
+	}
+
+	UnrelatedSession();
+	EXPECT_TRUE(PredictionsAfter(0).empty());
+
+	// Region read counts fade the same way, so only what the unrelated sessions read is left.
+	const std::vector<u32> hot = HotRegions();
+	ASSERT_EQ(hot.size(), 1u);
+	EXPECT_EQ(hot[0], 500u);
+}
+
+TEST_F(DiscAccessProfileTest, NewSessionsOutweighDecayedOnes)
+{
+	// An old route through the disc, seen twice.
+	{
+		DiscAccessProfile profile;
+		profile.Open(m_fingerprint);
+		for (int i = 0; i < 2; i++)
+		{
+			Seek(profile, 0);
+			ReadRun(profile, 30, 4);
+		}
+		profile.Close();
+	}
+
+	// Then played differently: the same jump, but a shorter run after it, and a new jump seen more often.
+	{
+		DiscAccessProfile profile;
+		profile.Open(m_fingerprint);
+		for (int i = 0; i < 3; i++)
+		{
+			Seek(profile, 0);
+			Seek(profile, 60);
+		}
+		Seek(profile, 0);
+		ReadRun(profile, 30, 2);
+		profile.Close();
+	}
+
+	// 60 was seen 3 times this session, 30 decayed to 1 and was seen once more. The latest run length wins.
+	const std::vector<DiscAccessProfile::Prediction> predictions = PredictionsAfter(0);
+	ASSERT_EQ(predictions.size(), 2u);
+	EXPECT_EQ(predictions[0].region, 60u);
+	EXPECT_EQ(predictions[1].region, 30u);
+	EXPECT_EQ(predictions[1].length, 2u);
+}
+
+TEST_F(DiscAccessProfileTest, ProfilesAreKeptPerImage)
+{
+	{
+		DiscAccessProfile profile;
+		profile.Open(m_fingerprint);
+		Seek(profile, 0);
+		Seek(profile, 5);
+		profile.Close();
+	}
+
+	// A replaced image (same path, new modification time) starts from nothing.
+	m_fingerprint.mtime++;
+	EXPECT_TRUE(PredictionsAfter(0).empty());
+	EXPECT_TRUE(HotRegions().empty());
+}
@@ -0,0 +1,241 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "CDVD/CsoFileReader.h"
+#include "CDVD/DiscImageConverter.h"
+#include "Config.h"
+
+#include "common/Error.h"
+#include "common/FileSystem.h"
+#include "common/Path.h"
+#include "common/ProgressCallback.h"
+
+#include "fmt/format.h"
+
+#include <gtest/gtest.h>
+
+#include <cstring>
+#include <filesystem>
+#include <optional>
+#include <random>
+#include <vector>
+#include <zlib.h>
+
+// Not a whole number of 2048 byte frames, so the short last frame gets padded, and bigger than a few
+// of the converter's 1MB batches so a conversion can be cancelled partway through.
+static constexpr u32 IMAGE_SIZE = 8 * 1024 * 1024 + 7 * 1024;
+static constexpr u32 READ_BLOCK_SIZE = 16;
+
+namespace
+{
+	/// Cancels once the converter has reported progress a set number of times. It reports once when it
+	/// starts and again after each batch is written.
+	class CancellingProgressCallback final : public BaseProgressCallback
+	{
+	public:
+		explicit CancellingProgressCallback(u32 cancel_after)
+			: m_cancel_after(cancel_after)
+		{
+		}
+
+		void SetProgressValue(u32 value) override
+		{
+			BaseProgressCallback::SetProgressValue(value);
+			if (++m_updates >= m_cancel_after)
+				m_cancelled = true;
+		}
+
+		void SetTitle(const char* title) override {}
+		void DisplayError(const char* message) override {}
+		void DisplayWarning(const char* message) override {}
+		void DisplayInformation(const char* message) override {}
+		void DisplayDebugMessage(const char* message) override {}
+		void ModalError(const char* message) override {}
+		bool ModalConfirmation(const char* message) override { return false; }
+		void ModalInformation(const char* message) override {}
+
+	private:
+		u32 m_cancel_after;
+		u32 m_updates = 0;
+	};
+
+	class DiscImageConverterTest : public ::testing::Test
+	{
+	protected:
+		void SetUp() override
+		{
+			m_dir = Path::Combine(std::filesystem::temp_directory_path().string(),
+				fmt::format("pcsx2-converter-test-{}", ::testing::UnitTest::GetInstance()->current_test_info()->name()));
+			std::filesystem::remove_all(m_dir);
+			ASSERT_TRUE(FileSystem::EnsureDirectoryExists(m_dir.c_str(), true));
+
+			// Checkpoints for cancelled conversions live in the cache.
+			m_old_cache = EmuFolders::Cache;
+			EmuFolders::Cache = Path::Combine(m_dir, "cache");
+
+			m_source = Path::Combine(m_dir, "source.iso");
+			m_data = GenerateImage();
+			auto fp = FileSystem::OpenManagedCFile(m_source.c_str(), "wb");
+			ASSERT_TRUE(fp && std::fwrite(m_data.data(), m_data.size(), 1, fp.get()) == 1);
+		}
+
+		void TearDown() override
+		{
+			EmuFolders::Cache = m_old_cache;
+			std::filesystem::remove_all(m_dir);
+		}
+
+		/// Runs of zeros, patterns, text and noise, so some frames compress and some are stored as is.
+		static std::vector<u8> GenerateImage()
+		{
+			std::vector<u8> data(IMAGE_SIZE);
+			std::mt19937 rng(42);
+			for (u32 pos = 0; pos < IMAGE_SIZE; pos += 4096)
+			{
+				const u32 kind = rng() % 4;
+				for (u32 i = pos; i < std::min(pos + 4096, IMAGE_SIZE); i++)
+				{
+					switch (kind)
+					{
+						case 0: data[i] = 0; break;
+						case 1: data[i] = static_cast<u8>(i & 0xf); break;
+						case 2: data[i] = static_cast<u8>('A' + (rng() % 16)); break;
+						default: data[i] = static_cast<u8>(rng()); break;
+					}
+				}
+			}
+			return data;
+		}
+
+		std::string OutputPath(const char* name) const { return Path::Combine(m_dir, name); }
+
+		static std::optional<std::vector<u8>> ReadFile(const std::string& path)
+		{
+			return FileSystem::ReadBinaryFile(path.c_str());
+		}
+
+		/// Reads the whole image back the way the emulator does, rather than decoding the file here.
+		static std::vector<u8> ReadBack(const std::string& path)
+		{
+			std::vector<u8> ret;
+			CsoFileReader reader;
+			reader.DisableAccessProfile();
+			Error error;
+			if (!reader.Open(path, &error))
+			{
+				ADD_FAILURE() << "Failed to open " << path << ": " << error.GetDescription();
+				return ret;
+			}
+
+			reader.SetBlockSize(READ_BLOCK_SIZE);
+			ret.resize(static_cast<size_t>(reader.GetBlockCount()) * READ_BLOCK_SIZE);
+			for (size_t pos = 0; pos < ret.size();)
+			{
+				const u32 size = static_cast<u32>(std::min<size_t>(1024 * 1024, ret.size() - pos));
+				if (reader.ReadSync(&ret[pos], static_cast<u32>(pos / READ_BLOCK_SIZE), size / READ_BLOCK_SIZE) !=
+					static_cast<int>(size))
+				{
+					ADD_FAILURE() << "Failed to read " << path << " at " << pos;
+					ret.clear();
+					break;
+				}
+				pos += size;
+			}
+
+			reader.Close();
+			return ret;
+		}
+
+		void ConvertAndCompare(DiscImageConverter::Format format, const char* name)
+		{
+			const std::string dst = OutputPath(name);
+			DiscImageConverter::Stats stats = {};
+			Error error;
+			ASSERT_TRUE(DiscImageConverter::Convert(m_source, dst, format, nullptr, &stats, &error))
+				<< error.GetDescription();
+			EXPECT_EQ(stats.input_bytes, IMAGE_SIZE);
+			EXPECT_EQ(stats.resumed_bytes, 0u);
+			EXPECT_LT(stats.output_bytes, IMAGE_SIZE);
+
+			const std::vector<u8> data = ReadBack(dst);
+			ASSERT_EQ(data.size(), m_data.size());
+			EXPECT_TRUE(data == m_data);
+		}
+
+		std::string m_dir;
+		std::string m_old_cache;
+		std::string m_source;
+		std::vector<u8> m_data;
+	};
+} // namespace
+
+TEST_F(DiscImageConverterTest, CSORoundTrip)
+{
+	ConvertAndCompare(DiscImageConverter::Format::CSO, "image.cso");
+}
+
+TEST_F(DiscImageConverterTest, ZSORoundTrip)
+{
+	ConvertAndCompare(DiscImageConverter::Format::ZSO, "image.zso");
+}
+
+TEST_F(DiscImageConverterTest, ResumeMatchesUninterruptedConversion)
+{
+	for (const auto& [format, name] : {std::pair(DiscImageConverter::Format::CSO, "resumed.cso"),
+			 std::pair(DiscImageConverter::Format::ZSO, "resumed.zso")})
+	{
+		const std::string reference = OutputPath("reference");
+		Error error;
+		ASSERT_TRUE(DiscImageConverter::Convert(m_source, reference, format, nullptr, nullptr, &error))
+			<< error.GetDescription();
+
+		// Cancelled after three batches have been written.
+		const std::string dst = OutputPath(name);
+		CancellingProgressCallback cancelling(4);
+		EXPECT_FALSE(DiscImageConverter::Convert(m_source, dst, format, &cancelling, nullptr, &error));
+
+		DiscImageConverter::Stats stats = {};
+		ASSERT_TRUE(DiscImageConverter::Convert(m_source, dst, format, nullptr, &stats, &error))
+			<< error.GetDescription();
+		EXPECT_EQ(stats.resumed_bytes, 3 * 1024 * 1024u);
+
+		const std::optional<std::vector<u8>> expected = ReadFile(reference);
+		const std::optional<std::vector<u8>> actual = ReadFile(dst);
+		ASSERT_TRUE(expected.has_value() && actual.has_value());
+		EXPECT_TRUE(*expected == *actual) << name;
+	}
+}
+
+TEST_F(DiscImageConverterTest, VerifyRejectsCorruptedFrame)
+{
+	const std::string dst = OutputPath("corrupt.cso");
+	Error error;
+	ASSERT_TRUE(DiscImageConverter::Convert(m_source, dst, DiscImageConverter::Format::CSO, nullptr, nullptr, &error))
+		<< error.GetDescription();
+
+	const u32 crc = static_cast<u32>(crc32(0, m_data.data(), IMAGE_SIZE));
+	EXPECT_TRUE(DiscImageConverter::Verify(dst, IMAGE_SIZE, crc, nullptr, &error)) << error.GetDescription();
+
+	// Flip a byte in the first frame stored as is, which still decodes, so only the CRC can catch it.
+	std::optional<std::vector<u8>> file = ReadFile(dst);
+	ASSERT_TRUE(file.has_value());
+	const u8 align = (*file)[21];
+	const u32 frames = (IMAGE_SIZE + 2047) / 2048;
+	std::optional<size_t> offset;
+	for (u32 i = 0; i < frames && !offset.has_value(); i++)
+	{
+		u32 entry;
+		std::memcpy(&entry, &(*file)[24 + i * sizeof(u32)], sizeof(entry));
+		if (entry & 0x80000000u)
+			offset = (static_cast<size_t>(entry & 0x7FFFFFFFu) << align) + 100;
+	}
+	ASSERT_TRUE(offset.has_value());
+	(*file)[*offset] ^= 0xFF;
+	ASSERT_TRUE(FileSystem::WriteBinaryFile(dst.c_str(), file->data(), file->size()));
+
+	EXPECT_FALSE(DiscImageConverter::Verify(dst, IMAGE_SIZE, crc, nullptr, &error));
+	EXPECT_NE(error.GetDescription().find("doesn't match"), std::string::npos) << error.GetDescription();
+
+	// A size mismatch is caught before anything is read.
+	EXPECT_FALSE(DiscImageConverter::Verify(dst, IMAGE_SIZE + 2048, crc, nullptr, &error));
+}
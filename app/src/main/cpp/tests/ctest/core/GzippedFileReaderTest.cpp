@@ -0,0 +1,202 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "CDVD/DiscImageCache.h"
+#include "CDVD/GzippedFileReader.h"
+#include "Config.h"
+#include "Host.h"
+
+#include "common/Error.h"
+#include "common/FileSystem.h"
+#include "common/MemorySettingsInterface.h"
+#include "common/Path.h"
+
+#include "fmt/format.h"
+
+#include <gtest/gtest.h>
+
+#include <cstring>
+#include <filesystem>
+#include <random>
+#include <utility>
+#include <vector>
+#include <zlib.h>
+
+// Several of the reader's 4MB access point spans, so reads can land well past what's been indexed.
+static constexpr u32 IMAGE_SIZE = 24 * 1024 * 1024 + 5 * 2048;
+static constexpr u32 SECTOR_SIZE = 2048;
+static constexpr u32 TOTAL_SECTORS = IMAGE_SIZE / SECTOR_SIZE;
+
+namespace
+{
+	class GzippedFileReaderTest : public ::testing::Test
+	{
+	protected:
+		static void SetUpTestSuite()
+		{
+			// Only looked at for where indices used to be kept, which stays at its default. The base
+			// layer can only be set once per process.
+			static MemorySettingsInterface s_settings;
+			static bool s_settings_set = false;
+			if (!std::exchange(s_settings_set, true))
+				Host::Internal::SetBaseSettingsLayer(&s_settings);
+		}
+
+		void SetUp() override
+		{
+			m_dir = Path::Combine(std::filesystem::temp_directory_path().string(),
+				fmt::format("pcsx2-gzip-test-{}", ::testing::UnitTest::GetInstance()->current_test_info()->name()));
+			std::filesystem::remove_all(m_dir);
+			ASSERT_TRUE(FileSystem::EnsureDirectoryExists(m_dir.c_str(), true));
+
+			// Indices are kept in the cache, and were kept under the data root.
+			m_old_cache = EmuFolders::Cache;
+			m_old_data_root = EmuFolders::DataRoot;
+			EmuFolders::Cache = Path::Combine(m_dir, "cache");
+			EmuFolders::DataRoot = m_dir;
+		}
+
+		void TearDown() override
+		{
+			EmuFolders::Cache = m_old_cache;
+			EmuFolders::DataRoot = m_old_data_root;
+			std::filesystem::remove_all(m_dir);
+		}
+
+		/// Mostly noise, so inflating takes long enough that the first reads beat the indexer. With a primary
+		/// volume descriptor the reader can start before the index is done, without one it has to wait.
+		void WriteImage(bool with_pvd)
+		{
+			m_data.resize(IMAGE_SIZE);
+			std::mt19937 rng(11);
+			for (u32 i = 0; i < IMAGE_SIZE; i++)
+				m_data[i] = ((i / 4096) % 4 == 0) ? 0 : static_cast<u8>(rng());
+
+			if (with_pvd)
+			{
+				u8* pvd = &m_data[16 * SECTOR_SIZE];
+				std::memset(pvd, 0, SECTOR_SIZE);
+				pvd[0] = 1;
+				std::memcpy(&pvd[1], "CD001", 5);
+				const u32 volume_blocks = TOTAL_SECTORS;
+				const u16 block_size = SECTOR_SIZE;
+				std::memcpy(&pvd[80], &volume_blocks, sizeof(volume_blocks));
+				std::memcpy(&pvd[128], &block_size, sizeof(block_size));
+			}
+
+			z_stream z = {};
+			ASSERT_EQ(deflateInit2(&z, Z_BEST_SPEED, Z_DEFLATED, 15 + 16, 8, Z_DEFAULT_STRATEGY), Z_OK);
+			std::vector<u8> compressed(deflateBound(&z, IMAGE_SIZE));
+			z.next_in = m_data.data();
+			z.avail_in = IMAGE_SIZE;
+			z.next_out = compressed.data();
+			z.avail_out = static_cast<uInt>(compressed.size());
+			ASSERT_EQ(deflate(&z, Z_FINISH), Z_STREAM_END);
+			compressed.resize(z.total_out);
+			deflateEnd(&z);
+
+			m_path = Path::Combine(m_dir, "image.iso.gz");
+			ASSERT_TRUE(FileSystem::WriteBinaryFile(m_path.c_str(), compressed.data(), compressed.size()));
+		}
+
+		void OpenReader(GzippedFileReader& reader)
+		{
+			reader.DisableAccessProfile();
+			Error error;
+			ASSERT_TRUE(reader.Open(m_path, &error)) << error.GetDescription();
+			reader.SetBlockSize(SECTOR_SIZE);
+			ASSERT_EQ(reader.GetBlockCount(), TOTAL_SECTORS);
+		}
+
+		::testing::AssertionResult ReadAndCheck(GzippedFileReader& reader, u32 sector, u32 count)
+		{
+			std::vector<u8> data(count * SECTOR_SIZE);
+			const int read = reader.ReadSync(data.data(), sector, count);
+			if (read != static_cast<int>(data.size()))
+				return ::testing::AssertionFailure() << "read " << read << " bytes at sector " << sector;
+			if (std::memcmp(data.data(), &m_data[static_cast<size_t>(sector) * SECTOR_SIZE], data.size()) != 0)
+				return ::testing::AssertionFailure() << "mismatch at sector " << sector;
+			return ::testing::AssertionSuccess();
+		}
+
+		/// Out of order on purpose: the end first, so it has to wait for the indexer, then the start, which
+		/// doesn't, then everything in between.
+		void ReadWholeImage(GzippedFileReader& reader)
+		{
+			EXPECT_TRUE(ReadAndCheck(reader, TOTAL_SECTORS - 16, 16));
+			EXPECT_TRUE(ReadAndCheck(reader, 0, 32));
+			EXPECT_TRUE(ReadAndCheck(reader, TOTAL_SECTORS / 2 - 3, 7));
+			for (u32 sector = 0; sector < TOTAL_SECTORS; sector += 256)
+				EXPECT_TRUE(ReadAndCheck(reader, sector, std::min(256u, TOTAL_SECTORS - sector)));
+		}
+
+		std::string IndexPath() const
+		{
+			DiscImageCache::Fingerprint fingerprint;
+			if (!DiscImageCache::GetFingerprint(m_path, &fingerprint))
+				return {};
+			return DiscImageCache::GetPath(fingerprint, "gzidx");
+		}
+
+		std::string m_dir;
+		std::string m_old_cache;
+		std::string m_old_data_root;
+		std::string m_path;
+		std::vector<u8> m_data;
+	};
+} // namespace
+
+TEST_F(GzippedFileReaderTest, ReadsWhileIndexingAndFromStoredIndex)
+{
+	WriteImage(true);
+
+	// Opens on the estimated size, the index is built while these reads happen.
+	{
+		GzippedFileReader reader;
+		OpenReader(reader);
+		ReadWholeImage(reader);
+		reader.Close();
+	}
+
+	// The finished index was stored, and is all the second open uses.
+	ASSERT_TRUE(FileSystem::FileExists(IndexPath().c_str()));
+	{
+		GzippedFileReader reader;
+		OpenReader(reader);
+		ReadWholeImage(reader);
+		reader.Close();
+	}
+}
+
+TEST_F(GzippedFileReaderTest, ReadsAfterWaitingForIndex)
+{
+	// No volume descriptor, so the size is only known once the whole image has been indexed.
+	WriteImage(false);
+
+	GzippedFileReader reader;
+	OpenReader(reader);
+	ReadWholeImage(reader);
+	reader.Close();
+
+	EXPECT_TRUE(FileSystem::FileExists(IndexPath().c_str()));
+}
+
+TEST_F(GzippedFileReaderTest, ClosingMidIndexKeepsPartialIndex)
+{
+	WriteImage(true);
+
+	// Close straight away, usually before the indexer is done. Whatever it got to is stored, and the
+	// next open carries on from there rather than trusting it as complete.
+	{
+		GzippedFileReader reader;
+		OpenReader(reader);
+		EXPECT_TRUE(ReadAndCheck(reader, 0, 16));
+		reader.Close();
+	}
+	ASSERT_TRUE(FileSystem::FileExists(IndexPath().c_str()));
+
+	GzippedFileReader reader;
+	OpenReader(reader);
+	ReadWholeImage(reader);
+	reader.Close();
+}
@@ -0,0 +1,208 @@
+// SPDX-FileCopyrightText: 2002-2025 PCSX2 Dev Team
+// SPDX-License-Identifier: GPL-3.0+
+
+#include "CDVD/ThreadedFileReader.h"
+
+#include <gtest/gtest.h>
+
+#include <algorithm>
+#include <atomic>
+#include <chrono>
+#include <random>
+#include <thread>
+#include <vector>
+
+// Same chunk size as the CSO/gzip readers tend to use, with a short last chunk.
+static constexpr u32 CHUNK_SIZE = 128 * 1024;
+static constexpr u32 IMAGE_SIZE = 40 * CHUNK_SIZE + 6 * 2048;
+static constexpr u32 SECTOR_SIZE = 2048;
+
+namespace
+{
+	/// Every byte is a function of its offset, so any read can be checked without keeping an image around.
+	static u8 ExpectedByte(u64 offset)
+	{
+		return static_cast<u8>((offset ^ (offset >> 8) ^ (offset >> 17)) * 7);
+	}
+
+	/// Stands in for a compressed image: whole chunks at a time, each taking a little while to "decompress".
+	class FakeChunkReader final : public ThreadedFileReader
+	{
+	public:
+		explicit FakeChunkReader(std::chrono::microseconds chunk_time = std::chrono::microseconds(0))
+			: m_chunk_time(chunk_time)
+		{
+		}
+
+		~FakeChunkReader() override { Close(); }
+
+		u32 GetBlockCount() const override { return IMAGE_SIZE / m_blocksize; }
+
+		u32 GetChunkReads() const { return m_chunk_reads.load(std::memory_order_relaxed); }
+
+	protected:
+		Chunk ChunkForOffset(u64 offset) override
+		{
+			Chunk chunk = {};
+			if (offset >= IMAGE_SIZE)
+			{
+				chunk.chunkID = -1;
+				return chunk;
+			}
+
+			chunk.chunkID = static_cast<s64>(offset / CHUNK_SIZE);
+			chunk.offset = static_cast<u64>(chunk.chunkID) * CHUNK_SIZE;
+			chunk.length = static_cast<u32>(std::min<u64>(IMAGE_SIZE - chunk.offset, CHUNK_SIZE));
+			return chunk;
+		}
+
+		int ReadChunk(void* dst, s64 chunkID) override
+		{
+			const u64 start = static_cast<u64>(chunkID) * CHUNK_SIZE;
+			if (chunkID < 0 || start >= IMAGE_SIZE)
+				return -1;
+
+			if (m_chunk_time.count() > 0)
+				std::this_thread::sleep_for(m_chunk_time);
+
+			const u32 length = static_cast<u32>(std::min<u64>(IMAGE_SIZE - start, CHUNK_SIZE));
+			u8* out = static_cast<u8*>(dst);
+			for (u32 i = 0; i < length; i++)
+				out[i] = ExpectedByte(start + i);
+
+			m_chunk_reads.fetch_add(1, std::memory_order_relaxed);
+			return static_cast<int>(length);
+		}
+
+		bool Open2(std::string filename, Error* error) override
+		{
+			m_filename = std::move(filename);
+			return true;
+		}
+
+		void Close2() override {}
+
+	private:
+		std::chrono::microseconds m_chunk_time;
+		std::atomic<u32> m_chunk_reads{0};
+	};
+
+	static ::testing::AssertionResult CheckRange(const std::vector<u8>& data, u64 offset)
+	{
+		for (size_t i = 0; i < data.size(); i++)
+		{
+			if (data[i] != ExpectedByte(offset + i))
+				return ::testing::AssertionFailure() << "mismatch at offset " << (offset + i);
+		}
+		return ::testing::AssertionSuccess();
+	}
+
+	static void OpenReader(FakeChunkReader& reader)
+	{
+		reader.DisableAccessProfile();
+		ASSERT_TRUE(reader.Open("fake.iso", nullptr));
+		reader.SetBlockSize(SECTOR_SIZE);
+	}
+} // namespace
+
+TEST(ThreadedFileReaderTest, SequentialReadsReadEachChunkOnce)
+{
+	FakeChunkReader reader(std::chrono::microseconds(200));
+	OpenReader(reader);
+
+	std::vector<u8> data(16 * SECTOR_SIZE);
+	for (u32 sector = 0; sector < IMAGE_SIZE / SECTOR_SIZE; sector += 16)
+	{
+		const u32 count = std::min<u32>(16, IMAGE_SIZE / SECTOR_SIZE - sector);
+		data.resize(count * SECTOR_SIZE);
+		ASSERT_EQ(reader.ReadSync(data.data(), sector, count), static_cast<int>(data.size()));
+		ASSERT_TRUE(CheckRange(data, static_cast<u64>(sector) * SECTOR_SIZE));
+	}
+
+	// Reading in order never throws away a chunk it's about to need, and readahead stops at the end of
+	// the image, so each chunk is read exactly once.
+	EXPECT_EQ(reader.GetChunkReads(), (IMAGE_SIZE + CHUNK_SIZE - 1) / CHUNK_SIZE);
+}
+
+TEST(ThreadedFileReaderTest, ReadsStraddlingChunks)
+{
+	FakeChunkReader reader;
+	OpenReader(reader);
+
+	// Three sectors either side of every chunk boundary, through both the sync and async paths.
+	const u32 sectors_per_chunk = CHUNK_SIZE / SECTOR_SIZE;
+	std::vector<u8> data(6 * SECTOR_SIZE);
+	for (u32 chunk = 1; chunk < IMAGE_SIZE / CHUNK_SIZE; chunk++)
+	{
+		const u32 sector = chunk * sectors_per_chunk - 3;
+		if (chunk & 1)
+		{
+			ASSERT_EQ(reader.ReadSync(data.data(), sector, 6), static_cast<int>(data.size()));
+		}
+		else
+		{
+			reader.BeginRead(data.data(), sector, 6);
+			ASSERT_EQ(reader.FinishRead(), static_cast<int>(data.size()));
+		}
+		ASSERT_TRUE(CheckRange(data, static_cast<u64>(sector) * SECTOR_SIZE)) << "chunk " << chunk;
+	}
+}
+
+TEST(ThreadedFileReaderTest, ReadLargerThanAllBuffers)
+{
+	FakeChunkReader reader;
+	OpenReader(reader);
+
+	// The buffers hold 16MB at most, so this has to be served without keeping all of it cached.
+	std::vector<u8> data(IMAGE_SIZE - SECTOR_SIZE);
+	ASSERT_EQ(reader.ReadSync(data.data(), 1, IMAGE_SIZE / SECTOR_SIZE - 1), static_cast<int>(data.size()));
+	EXPECT_TRUE(CheckRange(data, SECTOR_SIZE));
+}
+
+TEST(ThreadedFileReaderTest, SeeksShrinkWindowWithoutCorruptingReads)
+{
+	FakeChunkReader reader(std::chrono::microseconds(100));
+	OpenReader(reader);
+
+	// Runs of sequential reads to grow the window, broken up by seeks which shrink it again and drop
+	// queued readahead, while the read thread may still be filling buffers from before the seek.
+	std::mt19937 rng(7);
+	std::vector<u8> data;
+	const u32 total_sectors = IMAGE_SIZE / SECTOR_SIZE;
+	for (u32 run = 0; run < 40; run++)
+	{
+		u32 sector = rng() % total_sectors;
+		const u32 reads = 1 + rng() % 24;
+		for (u32 i = 0; i < reads && sector < total_sectors; i++)
+		{
+			const u32 count = std::min<u32>(1 + rng() % 32, total_sectors - sector);
+			data.resize(count * SECTOR_SIZE);
+			if (i & 1)
+			{
+				reader.BeginRead(data.data(), sector, count);
+				ASSERT_EQ(reader.FinishRead(), static_cast<int>(data.size()));
+			}
+			else
+			{
+				ASSERT_EQ(reader.ReadSync(data.data(), sector, count), static_cast<int>(data.size()));
+			}
+			ASSERT_TRUE(CheckRange(data, static_cast<u64>(sector) * SECTOR_SIZE)) << "run " << run << ", read " << i;
+			sector += count + ((rng() % 4) == 0 ? 2 : 0);
+		}
+	}
+}
+
+TEST(ThreadedFileReaderTest, SmallBlockSizeAndEndOfImage)
+{
+	FakeChunkReader reader;
+	OpenReader(reader);
+	reader.SetBlockSize(16);
+
+	// The last chunk is short, a read running past the end of it stops there.
+	const u32 total_blocks = IMAGE_SIZE / 16;
+	std::vector<u8> data(64 * 16);
+	ASSERT_EQ(reader.ReadSync(data.data(), total_blocks - 64, 64), static_cast<int>(data.size()));
+	EXPECT_TRUE(CheckRange(data, IMAGE_SIZE - data.size()));
+
+	EXPECT_EQ(reader.ReadSync(data.data(), total_blocks - 32, 64), 32 * 16);
+}
@@ -1,7 +1,6 @@
 package com.izzy2lost.psx2;
 
 import android.content.Context;
-import android.view.InputDevice;
 import android.util.Log;
 import java.util.ArrayList;
 import java.util.List;
@@ -20,31 +19,18 @@ public class ControllerConfig {
     public static List<ControllerInfo> getConnectedControllers() {
         List<ControllerInfo> controllers = new ArrayList<>();
         
-        int[] deviceIds = InputDevice.getDeviceIds();
-        for (int deviceId : deviceIds) {
-            InputDevice device = InputDevice.getDevice(deviceId);
-            if (device != null && isController(device)) {
-                controllers.add(new ControllerInfo(deviceId, device.getName(), getControllerType(device)));
-            }
+        for (ControllerRegistry.Device device : ControllerRegistry.getGamepads()) {
+            controllers.add(new ControllerInfo(device.deviceId, device.name, device.type));
         }
         
         return controllers;
     }
     
     /**
-     * Check if a device is a controller
-     */
-    private static boolean isController(InputDevice device) {
-        int sources = device.getSources();
-        return (sources & InputDevice.SOURCE_GAMEPAD) == InputDevice.SOURCE_GAMEPAD ||
-               (sources & InputDevice.SOURCE_JOYSTICK) == InputDevice.SOURCE_JOYSTICK;
-    }
-    
-    /**
-     * Get controller type description
+     * Get controller type description from the device name
      */
-    private static String getControllerType(InputDevice device) {
-        String name = device.getName().toLowerCase(Locale.ROOT);
+    static String getControllerType(String deviceName) {
+        String name = deviceName.toLowerCase(Locale.ROOT);
         
         if (name.contains("xbox")) {
             return "Xbox Controller";
@@ -1,11 +1,11 @@
 package com.izzy2lost.psx2;
 
-import android.view.InputDevice;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 import android.util.Log;
 import android.util.SparseArray;
-import android.util.SparseIntArray;
+
+import com.izzy2lost.psx2.core.AxisMath;
 
 /**
  * Controller input handler based on AetherSX2's PAD implementation
@@ -41,56 +41,12 @@ public class ControllerInputHandler {
     public static final int PAD_R_DOWN = 122;
     public static final int PAD_R_LEFT = 123;
     
-    // Analog stick deadzone (matching AetherSX2's default)
-    private static final float ANALOG_DEADZONE = 0.15f;
-    
     // Button combo detection
     private boolean mSelectPressed = false;
     private boolean mStartPressed = false;
     private long mComboDetectionTime = 0;
     private static final long COMBO_TIMEOUT_MS = 500; // 500ms window for combo
     
-    // Key mapping from Android KeyEvent to PS2 buttons
-    private static final SparseIntArray sKeyMapping = new SparseIntArray();
-    
-    // Motion axis mapping from Android MotionEvent to PS2 analog inputs
-    private static final SparseIntArray sAxisMapping = new SparseIntArray();
-    
-    static {
-        // Initialize key mappings (Android KeyEvent -> PS2 button)
-        // Since our constants now match Android keycodes, we can map directly
-        sKeyMapping.put(KeyEvent.KEYCODE_BUTTON_A, PAD_CROSS);      // A -> Cross (X)
-        sKeyMapping.put(KeyEvent.KEYCODE_BUTTON_B, PAD_CIRCLE);     // B -> Circle
-        sKeyMapping.put(KeyEvent.KEYCODE_BUTTON_X, PAD_SQUARE);     // X -> Square
-        sKeyMapping.put(KeyEvent.KEYCODE_BUTTON_Y, PAD_TRIANGLE);   // Y -> Triangle
-        
-        sKeyMapping.put(KeyEvent.KEYCODE_BUTTON_L1, PAD_L1);
-        sKeyMapping.put(KeyEvent.KEYCODE_BUTTON_R1, PAD_R1);
-        sKeyMapping.put(KeyEvent.KEYCODE_BUTTON_L2, PAD_L2);
-        sKeyMapping.put(KeyEvent.KEYCODE_BUTTON_R2, PAD_R2);
-        
-        sKeyMapping.put(KeyEvent.KEYCODE_BUTTON_THUMBL, PAD_L3);
-        sKeyMapping.put(KeyEvent.KEYCODE_BUTTON_THUMBR, PAD_R3);
-        
-        sKeyMapping.put(KeyEvent.KEYCODE_BUTTON_SELECT, PAD_SELECT);
-        sKeyMapping.put(KeyEvent.KEYCODE_BUTTON_START, PAD_START);
-        
-        // D-Pad
-        sKeyMapping.put(KeyEvent.KEYCODE_DPAD_UP, PAD_UP);
-        sKeyMapping.put(KeyEvent.KEYCODE_DPAD_DOWN, PAD_DOWN);
-        sKeyMapping.put(KeyEvent.KEYCODE_DPAD_LEFT, PAD_LEFT);
-        sKeyMapping.put(KeyEvent.KEYCODE_DPAD_RIGHT, PAD_RIGHT);
-        
-        // Initialize axis mappings for analog sticks
-        // Map to our custom analog codes that MainActivity expects
-        sAxisMapping.put(MotionEvent.AXIS_X, PAD_L_LEFT);           // Left stick X (negative = left)
-        sAxisMapping.put(MotionEvent.AXIS_Y, PAD_L_UP);             // Left stick Y (negative = up)
-        sAxisMapping.put(MotionEvent.AXIS_Z, PAD_R_LEFT);           // Right stick X (negative = left)
-        sAxisMapping.put(MotionEvent.AXIS_RZ, PAD_R_UP);            // Right stick Y (negative = up)
-        sAxisMapping.put(MotionEvent.AXIS_LTRIGGER, PAD_L2);        // Left trigger
-        sAxisMapping.put(MotionEvent.AXIS_RTRIGGER, PAD_R2);        // Right trigger
-    }
-    
     public interface ControllerInputListener {
         void onControllerButtonPressed(int controllerId, int button, boolean pressed);
         void onControllerAnalogInput(int controllerId, int axis, float value);
@@ -124,15 +80,15 @@ public class ControllerInputHandler {
      * Handle key events from controllers
      */
     public boolean handleKeyEvent(KeyEvent event) {
-        if (!isFromController(event)) {
+        ControllerRegistry.Device device = ControllerRegistry.getDevice(event.getDeviceId());
+        if (device == null || !device.acceptsInput) {
             return false;
         }
         
-        int keyCode = event.getKeyCode();
-        int ps2Button = sKeyMapping.get(keyCode, Integer.MIN_VALUE);
+        int ps2Button = device.mapKey(event.getKeyCode());
         
-        if (ps2Button != Integer.MIN_VALUE) {
-            int controllerId = event.getDeviceId();
+        if (ps2Button != ControllerRegistry.NO_MAPPING) {
+            int controllerId = device.deviceId;
             boolean pressed = (event.getAction() == KeyEvent.ACTION_DOWN);
             
             // Check for Select+Start combo
@@ -195,76 +151,32 @@ public class ControllerInputHandler {
      * Handle motion events from controllers (analog sticks, triggers)
      */
     public boolean handleMotionEvent(MotionEvent event) {
-        if (!isFromController(event)) {
+        ControllerRegistry.Device device = ControllerRegistry.getDevice(event.getDeviceId());
+        if (device == null || !device.acceptsInput) {
             return false;
         }
 
-        int controllerId = event.getDeviceId();
+        int controllerId = device.deviceId;
         
         // Handle left stick X axis
         float leftX = event.getAxisValue(MotionEvent.AXIS_X);
-        leftX = applyDeadzone(leftX, ANALOG_DEADZONE);
-        if (mListener != null) {
-            // Only send the direction that's actually being pressed
-            if (leftX < 0) {
-                mListener.onControllerAnalogInput(controllerId, PAD_L_LEFT, -leftX);  // Left direction (positive value)
-                mListener.onControllerAnalogInput(controllerId, PAD_L_RIGHT, 0);      // Clear right
-            } else if (leftX > 0) {
-                mListener.onControllerAnalogInput(controllerId, PAD_L_RIGHT, leftX);  // Right direction
-                mListener.onControllerAnalogInput(controllerId, PAD_L_LEFT, 0);       // Clear left
-            } else {
-                mListener.onControllerAnalogInput(controllerId, PAD_L_LEFT, 0);       // Clear both
-                mListener.onControllerAnalogInput(controllerId, PAD_L_RIGHT, 0);
-            }
-        }
-        
+        leftX = AxisMath.applyDeadzone(leftX, device.getDeadzone(ControllerRegistry.AXIS_SLOT_LX));
+        sendSplitAxis(controllerId, PAD_L_LEFT, PAD_L_RIGHT, leftX);
+
         // Handle left stick Y axis
         float leftY = event.getAxisValue(MotionEvent.AXIS_Y);
-        leftY = applyDeadzone(leftY, ANALOG_DEADZONE);
-        if (mListener != null) {
-            if (leftY < 0) {
-                mListener.onControllerAnalogInput(controllerId, PAD_L_UP, -leftY);    // Up direction (positive value)
-                mListener.onControllerAnalogInput(controllerId, PAD_L_DOWN, 0);       // Clear down
-            } else if (leftY > 0) {
-                mListener.onControllerAnalogInput(controllerId, PAD_L_DOWN, leftY);   // Down direction
-                mListener.onControllerAnalogInput(controllerId, PAD_L_UP, 0);         // Clear up
-            } else {
-                mListener.onControllerAnalogInput(controllerId, PAD_L_UP, 0);         // Clear both
-                mListener.onControllerAnalogInput(controllerId, PAD_L_DOWN, 0);
-            }
-        }
-        
+        leftY = AxisMath.applyDeadzone(leftY, device.getDeadzone(ControllerRegistry.AXIS_SLOT_LY));
+        sendSplitAxis(controllerId, PAD_L_UP, PAD_L_DOWN, leftY);
+
         // Handle right stick X axis
         float rightX = event.getAxisValue(MotionEvent.AXIS_Z);
-        rightX = applyDeadzone(rightX, ANALOG_DEADZONE);
-        if (mListener != null) {
-            if (rightX < 0) {
-                mListener.onControllerAnalogInput(controllerId, PAD_R_LEFT, -rightX); // Left direction (positive value)
-                mListener.onControllerAnalogInput(controllerId, PAD_R_RIGHT, 0);      // Clear right
-            } else if (rightX > 0) {
-                mListener.onControllerAnalogInput(controllerId, PAD_R_RIGHT, rightX); // Right direction
-                mListener.onControllerAnalogInput(controllerId, PAD_R_LEFT, 0);       // Clear left
-            } else {
-                mListener.onControllerAnalogInput(controllerId, PAD_R_LEFT, 0);       // Clear both
-                mListener.onControllerAnalogInput(controllerId, PAD_R_RIGHT, 0);
-            }
-        }
-        
+        rightX = AxisMath.applyDeadzone(rightX, device.getDeadzone(ControllerRegistry.AXIS_SLOT_RX));
+        sendSplitAxis(controllerId, PAD_R_LEFT, PAD_R_RIGHT, rightX);
+
         // Handle right stick Y axis
         float rightY = event.getAxisValue(MotionEvent.AXIS_RZ);
-        rightY = applyDeadzone(rightY, ANALOG_DEADZONE);
-        if (mListener != null) {
-            if (rightY < 0) {
-                mListener.onControllerAnalogInput(controllerId, PAD_R_UP, -rightY);   // Up direction (positive value)
-                mListener.onControllerAnalogInput(controllerId, PAD_R_DOWN, 0);       // Clear down
-            } else if (rightY > 0) {
-                mListener.onControllerAnalogInput(controllerId, PAD_R_DOWN, rightY);  // Down direction
-                mListener.onControllerAnalogInput(controllerId, PAD_R_UP, 0);         // Clear up
-            } else {
-                mListener.onControllerAnalogInput(controllerId, PAD_R_UP, 0);         // Clear both
-                mListener.onControllerAnalogInput(controllerId, PAD_R_DOWN, 0);
-            }
-        }
+        rightY = AxisMath.applyDeadzone(rightY, device.getDeadzone(ControllerRegistry.AXIS_SLOT_RY));
+        sendSplitAxis(controllerId, PAD_R_UP, PAD_R_DOWN, rightY);
         
         // Handle triggers
         float leftTrigger = event.getAxisValue(MotionEvent.AXIS_LTRIGGER);
@@ -310,32 +222,14 @@ public class ControllerInputHandler {
     }
     
     /**
-     * Check if the input event is from a controller
+     * Send both halves of a centred axis; only the direction being pressed is non-zero.
      */
-    private boolean isFromController(android.view.InputEvent event) {
-        InputDevice device = event.getDevice();
-        if (device == null) {
-            return false;
+    private void sendSplitAxis(int controllerId, int negativeInput, int positiveInput, float value) {
+        if (mListener == null) {
+            return;
         }
-        
-        int sources = device.getSources();
-        return (sources & InputDevice.SOURCE_GAMEPAD) == InputDevice.SOURCE_GAMEPAD ||
-               (sources & InputDevice.SOURCE_JOYSTICK) == InputDevice.SOURCE_JOYSTICK ||
-               (sources & InputDevice.SOURCE_DPAD) == InputDevice.SOURCE_DPAD;
-    }
-    
-    /**
-     * Apply deadzone to analog input
-     */
-    private float applyDeadzone(float value, float deadzone) {
-        if (Math.abs(value) < deadzone) {
-            return 0.0f;
-        }
-        
-        // Scale the remaining range
-        float sign = Math.signum(value);
-        float scaledValue = (Math.abs(value) - deadzone) / (1.0f - deadzone);
-        return sign * scaledValue;
+        mListener.onControllerAnalogInput(controllerId, negativeInput, AxisMath.negativeHalf(value));
+        mListener.onControllerAnalogInput(controllerId, positiveInput, AxisMath.positiveHalf(value));
     }
     
     /**
@@ -365,7 +259,7 @@ public class ControllerInputHandler {
      * Get controller name for debugging
      */
     public static String getControllerName(int deviceId) {
-        InputDevice device = InputDevice.getDevice(deviceId);
-        return device != null ? device.getName() : "Unknown Controller";
+        ControllerRegistry.Device device = ControllerRegistry.getDevice(deviceId);
+        return device != null ? device.name : "Unknown Controller";
     }
 }
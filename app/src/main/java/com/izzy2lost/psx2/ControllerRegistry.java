@@ -0,0 +1,376 @@
+package com.izzy2lost.psx2;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.hardware.input.InputManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+import android.view.InputDevice;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Cache of connected input devices, kept current by an InputDeviceListener.
+ * Capabilities, axis ranges/deadzones and a per-device keycode -> PS2 pad lookup
+ * table (defaults plus user remaps) are computed once when a device appears or
+ * changes, so the input hot path is a single array index per event.
+ */
+public final class ControllerRegistry {
+    private static final String TAG = "ControllerRegistry";
+    private static final String PREFS_REMAPS = "controller_remaps";
+
+    /** Returned by {@link Device#mapKey(int)} when a keycode has no pad binding. */
+    public static final int NO_MAPPING = Integer.MIN_VALUE;
+
+    // Analog stick deadzone (matching AetherSX2's default)
+    public static final float DEFAULT_DEADZONE = 0.15f;
+
+    // Axis slots cached per device, see Device#getDeadzone / Device#hasAxis
+    public static final int AXIS_SLOT_LX = 0;
+    public static final int AXIS_SLOT_LY = 1;
+    public static final int AXIS_SLOT_RX = 2;
+    public static final int AXIS_SLOT_RY = 3;
+    public static final int AXIS_SLOT_LTRIGGER = 4;
+    public static final int AXIS_SLOT_RTRIGGER = 5;
+    public static final int AXIS_SLOT_HAT_X = 6;
+    public static final int AXIS_SLOT_HAT_Y = 7;
+    private static final int[] AXIS_SLOT_IDS = {
+            MotionEvent.AXIS_X, MotionEvent.AXIS_Y, MotionEvent.AXIS_Z, MotionEvent.AXIS_RZ,
+            MotionEvent.AXIS_LTRIGGER, MotionEvent.AXIS_RTRIGGER,
+            MotionEvent.AXIS_HAT_X, MotionEvent.AXIS_HAT_Y
+    };
+
+    private static final int KEYMAP_SIZE = KeyEvent.getMaxKeyCode() + 1;
+    private static final int[] sDefaultKeyMap = new int[KEYMAP_SIZE];
+
+    static {
+        Arrays.fill(sDefaultKeyMap, NO_MAPPING);
+        sDefaultKeyMap[KeyEvent.KEYCODE_BUTTON_A] = ControllerInputHandler.PAD_CROSS;      // A -> Cross (X)
+        sDefaultKeyMap[KeyEvent.KEYCODE_BUTTON_B] = ControllerInputHandler.PAD_CIRCLE;     // B -> Circle
+        sDefaultKeyMap[KeyEvent.KEYCODE_BUTTON_X] = ControllerInputHandler.PAD_SQUARE;     // X -> Square
+        sDefaultKeyMap[KeyEvent.KEYCODE_BUTTON_Y] = ControllerInputHandler.PAD_TRIANGLE;   // Y -> Triangle
+
+        sDefaultKeyMap[KeyEvent.KEYCODE_BUTTON_L1] = ControllerInputHandler.PAD_L1;
+        sDefaultKeyMap[KeyEvent.KEYCODE_BUTTON_R1] = ControllerInputHandler.PAD_R1;
+        sDefaultKeyMap[KeyEvent.KEYCODE_BUTTON_L2] = ControllerInputHandler.PAD_L2;
+        sDefaultKeyMap[KeyEvent.KEYCODE_BUTTON_R2] = ControllerInputHandler.PAD_R2;
+
+        sDefaultKeyMap[KeyEvent.KEYCODE_BUTTON_THUMBL] = ControllerInputHandler.PAD_L3;
+        sDefaultKeyMap[KeyEvent.KEYCODE_BUTTON_THUMBR] = ControllerInputHandler.PAD_R3;
+
+        sDefaultKeyMap[KeyEvent.KEYCODE_BUTTON_SELECT] = ControllerInputHandler.PAD_SELECT;
+        sDefaultKeyMap[KeyEvent.KEYCODE_BUTTON_START] = ControllerInputHandler.PAD_START;
+
+        // D-Pad
+        sDefaultKeyMap[KeyEvent.KEYCODE_DPAD_UP] = ControllerInputHandler.PAD_UP;
+        sDefaultKeyMap[KeyEvent.KEYCODE_DPAD_DOWN] = ControllerInputHandler.PAD_DOWN;
+        sDefaultKeyMap[KeyEvent.KEYCODE_DPAD_LEFT] = ControllerInputHandler.PAD_LEFT;
+        sDefaultKeyMap[KeyEvent.KEYCODE_DPAD_RIGHT] = ControllerInputHandler.PAD_RIGHT;
+    }
+
+    public interface Listener {
+        void onControllersChanged();
+    }
+
+    /**
+     * Immutable snapshot of one input device. Replaced wholesale on change, so it
+     * can be read from the input thread without locking.
+     */
+    public static final class Device {
+        public final int deviceId;
+        public final String name;
+        public final String descriptor;
+        public final String type;
+        public final int sources;
+        /** Gamepad or joystick source; what the controller list shows. */
+        public final boolean isGamepad;
+        /** Gamepad, joystick or DPAD source; events from it are routed to the pad. */
+        public final boolean acceptsInput;
+        /** External physical controller (virtual/built-in inputs filtered out). */
+        public final boolean isExternalController;
+
+        private final float[] mAxisMin = new float[AXIS_SLOT_IDS.length];
+        private final float[] mAxisMax = new float[AXIS_SLOT_IDS.length];
+        private final float[] mDeadzone = new float[AXIS_SLOT_IDS.length];
+        private final boolean[] mHasAxis = new boolean[AXIS_SLOT_IDS.length];
+        private final int[] mKeyMap;
+
+        Device(InputDevice device, int[] keyMap) {
+            deviceId = device.getId();
+            name = device.getName() != null ? device.getName() : "Unknown Controller";
+            descriptor = device.getDescriptor();
+            type = ControllerConfig.getControllerType(name);
+            sources = device.getSources();
+            isGamepad = hasSource(sources, InputDevice.SOURCE_GAMEPAD) || hasSource(sources, InputDevice.SOURCE_JOYSTICK);
+            acceptsInput = isGamepad || hasSource(sources, InputDevice.SOURCE_DPAD);
+            isExternalController = acceptsInput && !looksVirtual(device);
+            mKeyMap = keyMap;
+
+            for (int slot = 0; slot < AXIS_SLOT_IDS.length; slot++) {
+                InputDevice.MotionRange range = device.getMotionRange(AXIS_SLOT_IDS[slot]);
+                if (range == null) {
+                    mAxisMin[slot] = -1.0f;
+                    mAxisMax[slot] = 1.0f;
+                    mDeadzone[slot] = DEFAULT_DEADZONE;
+                    continue;
+                }
+                mHasAxis[slot] = true;
+                mAxisMin[slot] = range.getMin();
+                mAxisMax[slot] = range.getMax();
+                // Honour the driver's reported flat region when it is wider than ours.
+                float halfRange = range.getRange() > 0.0f ? range.getRange() * 0.5f : 1.0f;
+                mDeadzone[slot] = Math.max(DEFAULT_DEADZONE, range.getFlat() / halfRange);
+            }
+        }
+
+        /** PS2 pad code for an Android keycode, or {@link #NO_MAPPING}. */
+        public int mapKey(int keyCode) {
+            return (keyCode >= 0 && keyCode < mKeyMap.length) ? mKeyMap[keyCode] : NO_MAPPING;
+        }
+
+        public boolean hasAxis(int slot) { return mHasAxis[slot]; }
+        public float getAxisMin(int slot) { return mAxisMin[slot]; }
+        public float getAxisMax(int slot) { return mAxisMax[slot]; }
+        public float getDeadzone(int slot) { return mDeadzone[slot]; }
+
+        private static boolean hasSource(int sources, int source) {
+            return (sources & source) == source;
+        }
+
+        private static boolean looksVirtual(InputDevice device) {
+            // Filter out virtual/built-in devices which can falsely report DPAD sources
+            try {
+                if (device.isVirtual()) return true;
+            } catch (Throwable ignored) {}
+
+            // Heuristic: devices with both vendor and product = 0 are often virtual
+            try {
+                if (device.getVendorId() == 0 && device.getProductId() == 0) return true;
+            } catch (Throwable ignored) {}
+
+            // Filter by name for common virtual/built-in inputs
+            String name = device.getName();
+            if (name != null) {
+                String lower = name.toLowerCase(Locale.ROOT);
+                return lower.contains("virtual") || lower.contains("uinput") || lower.contains("touch")
+                        || lower.contains("keyboard") || lower.contains("keypad") || lower.contains("gpio");
+            }
+            return false;
+        }
+    }
+
+    private static final InputManager.InputDeviceListener sDeviceListener = new InputManager.InputDeviceListener() {
+        @Override public void onInputDeviceAdded(int deviceId) { refreshDevice(deviceId); }
+        @Override public void onInputDeviceRemoved(int deviceId) { removeDevice(deviceId); }
+        @Override public void onInputDeviceChanged(int deviceId) { refreshDevice(deviceId); }
+    };
+
+    private static final CopyOnWriteArrayList<Listener> sListeners = new CopyOnWriteArrayList<>();
+    private static volatile SparseArray<Device> sDevices = new SparseArray<>();
+    // Negative entries: ids seen on the input path with no registered device, so later events
+    // for them are a single lookup. Cleared whenever the listener hears about that id.
+    private static volatile SparseBooleanArray sMissingIds = new SparseBooleanArray();
+    private static InputManager sInputManager;
+    private static SharedPreferences sRemapPrefs;
+
+    private ControllerRegistry() {}
+
+    /**
+     * Start tracking devices. Safe to call more than once; later calls are no-ops.
+     */
+    public static synchronized void initialize(Context context) {
+        if (sInputManager != null) return;
+        Context app = context.getApplicationContext();
+        sRemapPrefs = app.getSharedPreferences(PREFS_REMAPS, Context.MODE_PRIVATE);
+        sInputManager = (InputManager) app.getSystemService(Context.INPUT_SERVICE);
+        if (sInputManager != null) {
+            sInputManager.registerInputDeviceListener(sDeviceListener, new Handler(Looper.getMainLooper()));
+        }
+        rebuildAll();
+    }
+
+    public static synchronized void release() {
+        if (sInputManager != null) {
+            try { sInputManager.unregisterInputDeviceListener(sDeviceListener); } catch (Exception ignored) {}
+            sInputManager = null;
+        }
+        sDevices = new SparseArray<>();
+        sMissingIds = new SparseBooleanArray();
+    }
+
+    public static void addListener(Listener listener) {
+        if (listener != null) sListeners.addIfAbsent(listener);
+    }
+
+    public static void removeListener(Listener listener) {
+        sListeners.remove(listener);
+    }
+
+    /**
+     * Cached device for an id, or null. Devices are only registered from the input
+     * device listener, so an unknown id (an event racing the add callback) is just
+     * remembered as missing until that callback arrives. This never queries
+     * InputDevice or notifies listeners on the input path.
+     */
+    public static Device getDevice(int deviceId) {
+        Device d = sDevices.get(deviceId);
+        if (d == null && deviceId >= 0 && !sMissingIds.get(deviceId)) {
+            markMissing(deviceId);
+        }
+        return d;
+    }
+
+    public static boolean hasExternalController() {
+        SparseArray<Device> devices = sDevices;
+        for (int i = 0; i < devices.size(); i++) {
+            if (devices.valueAt(i).isExternalController) return true;
+        }
+        return false;
+    }
+
+    public static List<Device> getGamepads() {
+        SparseArray<Device> devices = sDevices;
+        List<Device> out = new ArrayList<>();
+        for (int i = 0; i < devices.size(); i++) {
+            Device d = devices.valueAt(i);
+            if (d.isGamepad) out.add(d);
+        }
+        return out;
+    }
+
+    /**
+     * Bind an Android keycode to a PS2 pad code for every device sharing this
+     * descriptor. Pass {@link #NO_MAPPING} to unbind the key.
+     */
+    public static void setRemap(String descriptor, int keyCode, int padCode) {
+        if (sRemapPrefs == null || descriptor == null || keyCode < 0 || keyCode >= KEYMAP_SIZE) return;
+        int[] remaps = loadRemaps(descriptor);
+        remaps[keyCode] = padCode;
+        sRemapPrefs.edit().putString(descriptor, encodeRemaps(remaps)).apply();
+        rebuildAll();
+    }
+
+    public static void clearRemaps(String descriptor) {
+        if (sRemapPrefs == null || descriptor == null) return;
+        sRemapPrefs.edit().remove(descriptor).apply();
+        rebuildAll();
+    }
+
+    private static synchronized void markMissing(int deviceId) {
+        if (sMissingIds.get(deviceId)) return;
+        SparseBooleanArray next = sMissingIds.clone();
+        next.put(deviceId, true);
+        sMissingIds = next;
+        Log.d(TAG, "Input from unregistered device " + deviceId + ", ignoring until it is added");
+    }
+
+    private static synchronized void clearMissing(int deviceId) {
+        if (!sMissingIds.get(deviceId)) return;
+        SparseBooleanArray next = sMissingIds.clone();
+        next.delete(deviceId);
+        sMissingIds = next;
+    }
+
+    private static synchronized void rebuildAll() {
+        SparseArray<Device> next = new SparseArray<>();
+        try {
+            for (int id : InputDevice.getDeviceIds()) {
+                Device d = createDevice(InputDevice.getDevice(id));
+                if (d != null) next.put(id, d);
+            }
+        } catch (Throwable t) {
+            Log.w(TAG, "Failed to enumerate input devices", t);
+        }
+        sDevices = next;
+        sMissingIds = new SparseBooleanArray();
+        notifyListeners();
+    }
+
+    private static synchronized void refreshDevice(int deviceId) {
+        clearMissing(deviceId);
+        Device d = null;
+        try {
+            d = createDevice(InputDevice.getDevice(deviceId));
+        } catch (Throwable t) {
+            Log.w(TAG, "Failed to query input device " + deviceId, t);
+        }
+        if (d == null && sDevices.indexOfKey(deviceId) < 0) {
+            return;
+        }
+        SparseArray<Device> next = sDevices.clone();
+        if (d != null) {
+            next.put(deviceId, d);
+        } else {
+            next.remove(deviceId);
+        }
+        sDevices = next;
+        notifyListeners();
+    }
+
+    private static synchronized void removeDevice(int deviceId) {
+        clearMissing(deviceId);
+        if (sDevices.indexOfKey(deviceId) < 0) return;
+        SparseArray<Device> next = sDevices.clone();
+        next.remove(deviceId);
+        sDevices = next;
+        notifyListeners();
+    }
+
+    private static Device createDevice(InputDevice device) {
+        if (device == null) return null;
+        int[] keyMap = sDefaultKeyMap.clone();
+        String descriptor = device.getDescriptor();
+        if (descriptor != null && sRemapPrefs != null && sRemapPrefs.contains(descriptor)) {
+            int[] remaps = loadRemaps(descriptor);
+            for (int k = 0; k < KEYMAP_SIZE; k++) {
+                if (remaps[k] != UNSET) keyMap[k] = remaps[k];
+            }
+        }
+        return new Device(device, keyMap);
+    }
+
+    private static void notifyListeners() {
+        for (Listener l : sListeners) {
+            try { l.onControllersChanged(); } catch (Throwable t) { Log.w(TAG, "Listener failed", t); }
+        }
+    }
+
+    // Remaps are stored per device descriptor as "keycode:pad,keycode:pad"
+    private static final int UNSET = Integer.MAX_VALUE;
+
+    private static int[] loadRemaps(String descriptor) {
+        int[] remaps = new int[KEYMAP_SIZE];
+        Arrays.fill(remaps, UNSET);
+        String s = sRemapPrefs.getString(descriptor, null);
+        if (s == null || s.isEmpty()) return remaps;
+        for (String entry : s.split(",")) {
+            int sep = entry.indexOf(':');
+            if (sep <= 0) continue;
+            try {
+                int key = Integer.parseInt(entry.substring(0, sep).trim());
+                int pad = Integer.parseInt(entry.substring(sep + 1).trim());
+                if (key >= 0 && key < KEYMAP_SIZE) remaps[key] = pad;
+            } catch (NumberFormatException ignored) {}
+        }
+        return remaps;
+    }
+
+    private static String encodeRemaps(int[] remaps) {
+        StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < remaps.length; k++) {
+            if (remaps[k] == UNSET) continue;
+            if (sb.length() > 0) sb.append(',');
+            sb.append(k).append(':').append(remaps[k]);
+        }
+        return sb.toString();
+    }
+}
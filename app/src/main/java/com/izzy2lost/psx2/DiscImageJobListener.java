@@ -0,0 +1,22 @@
+package com.izzy2lost.psx2;
+
+/**
+ * Receives progress from a disc image job started through NativeApp.
+ * Called on the thread which started the job, so jobs belong on a background thread.
+ */
+public interface DiscImageJobListener {
+    /**
+     * @param status     what the job is doing, with its current throughput
+     * @param doneBytes  bytes of the image handled so far
+     * @param totalBytes size of the image
+     */
+    void onProgress(String status, long doneBytes, long totalBytes);
+
+    /**
+     * Hashes of one track, once a verification job has them all. Compare against Redump.
+     *
+     * @param crc32 as hex, like md5 and sha1
+     */
+    default void onTrackHashed(int number, String type, long size, String md5, String sha1, String crc32) {
+    }
+}
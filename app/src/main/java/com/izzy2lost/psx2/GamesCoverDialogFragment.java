@@ -30,6 +30,7 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 import com.google.android.material.button.MaterialButtonToggleGroup;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import androidx.core.view.GravityCompat;
+import com.izzy2lost.psx2.core.TitleSortKeys;
 import java.util.Locale;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -943,22 +944,7 @@ public class GamesCoverDialogFragment extends DialogFragment {
                 return Long.compare(tb, ta);
             });
         } else {
-            java.text.Normalizer.Form form = java.text.Normalizer.Form.NFD;
-            java.util.function.Function<Integer, String> keyFn = (Integer i) -> {
-                String t = origTitles[i];
-                if (t == null) return "";
-                String s = t.trim().toLowerCase(java.util.Locale.ROOT);
-                // Drop leading articles commonly used in titles
-                if (s.startsWith("the ")) s = s.substring(4);
-                else if (s.startsWith("an ")) s = s.substring(3);
-                else if (s.startsWith("a ")) s = s.substring(2);
-                // Remove diacritics
-                s = java.text.Normalizer.normalize(s, form).replaceAll("\\p{M}+", "");
-                // Strip non-alphanumeric at start
-                s = s.replaceFirst("^[^a-z0-9]+", "");
-                return s;
-            };
-            idxs.sort((a,b) -> keyFn.apply(a).compareTo(keyFn.apply(b)));
+            TitleSortKeys.sortIndices(idxs, origTitles);
         }
         titles = new String[idxs.size()];
         uris = new String[idxs.size()];
@@ -16,6 +16,7 @@ interface HIDDevice
     public int writeReport(byte[] report, boolean feature);
     public boolean readReport(byte[] report, boolean feature);
     public void setFrozen(boolean frozen);
+    public HIDReportRing getInputReportRing();
     public void close();
     public void shutdown();
 }
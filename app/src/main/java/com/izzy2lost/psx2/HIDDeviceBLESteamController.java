@@ -33,6 +33,8 @@ class HIDDeviceBLESteamController extends BluetoothGattCallback implements HIDDe
     private boolean mIsChromebook = false;
     private boolean mIsReconnecting = false;
     private boolean mFrozen = false;
+    // GATT callbacks arrive serially on one binder thread, so a small ring is enough
+    private final HIDReportRing mInputRing = new HIDReportRing(4, 64);
     private LinkedList<GattOperation> mOperations;
     GattOperation mCurrentOperation = null;
     private Handler mHandler;
@@ -547,8 +549,9 @@ class HIDDeviceBLESteamController extends BluetoothGattCallback implements HIDDe
     // Enable this for verbose logging of controller input reports
         //Log.v(TAG, "onCharacteristicChanged uuid=" + characteristic.getUuid() + " data=" + HexDump.dumpHexString(characteristic.getValue()));
 
-        if (characteristic.getUuid().equals(inputCharacteristic) && !mFrozen) {
-            mManager.HIDDeviceInputReport(getId(), characteristic.getValue());
+        if (characteristic.getUuid().equals(inputCharacteristic)) {
+            byte[] value = characteristic.getValue();
+            mInputRing.submit(mManager, getId(), mInputRing.acquire(value), Math.min(value.length, mInputRing.getSlotSize()), mFrozen);
         }
     }
 
@@ -699,6 +702,11 @@ class HIDDeviceBLESteamController extends BluetoothGattCallback implements HIDDe
         mFrozen = frozen;
     }
 
+    @Override
+    public HIDReportRing getInputReportRing() {
+        return mInputRing;
+    }
+
     @Override
     public void shutdown() {
         close();
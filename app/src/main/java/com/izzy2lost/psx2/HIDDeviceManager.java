@@ -21,6 +21,7 @@ import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -667,6 +668,19 @@ public class HIDDeviceManager {
         return false;
     }
 
+    /**
+     * Input report statistics for a device: { reports per second, total reports, dropped reports },
+     * or null if the device is unknown or has not started streaming.
+     */
+    public long[] getInputReportStats(int deviceID) {
+        HIDDevice device = getDevice(deviceID);
+        HIDReportRing ring = (device != null) ? device.getInputReportRing() : null;
+        if (ring == null) {
+            return null;
+        }
+        return new long[] { ring.getReportRate(), ring.getReportCount(), ring.getDropCount() };
+    }
+
     void closeDevice(int deviceID) {
         try {
             Log.v(TAG, "closeDevice deviceID=" + deviceID);
@@ -696,6 +710,7 @@ public class HIDDeviceManager {
     native void HIDDeviceOpenResult(int deviceID, boolean opened);
     native void HIDDeviceDisconnected(int deviceID);
 
-    native void HIDDeviceInputReport(int deviceID, byte[] report);
+    // Reads the first length bytes of a direct buffer in place; returns false if a queued report had to be dropped
+    native boolean HIDDeviceInputReportDirect(int deviceID, ByteBuffer report, int length);
     native void HIDDeviceReportResponse(int deviceID, byte[] report);
 }
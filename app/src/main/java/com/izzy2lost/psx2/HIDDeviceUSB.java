@@ -5,15 +5,19 @@ import android.hardware.usb.UsbDevice;
 import android.hardware.usb.UsbDeviceConnection;
 import android.hardware.usb.UsbEndpoint;
 import android.hardware.usb.UsbInterface;
+import android.hardware.usb.UsbRequest;
 import android.os.Build;
 import android.util.Log;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Locale;
+import java.util.concurrent.TimeoutException;
 
 class HIDDeviceUSB implements HIDDevice {
 
     private static final String TAG = "hidapi";
+    private static final int INPUT_REQUESTS_IN_FLIGHT = 4;
 
     protected HIDDeviceManager mManager;
     protected UsbDevice mDevice;
@@ -24,6 +28,7 @@ class HIDDeviceUSB implements HIDDevice {
     protected UsbEndpoint mInputEndpoint;
     protected UsbEndpoint mOutputEndpoint;
     protected InputThread mInputThread;
+    protected volatile HIDReportRing mInputRing;
     protected boolean mRunning;
     protected boolean mFrozen;
 
@@ -287,10 +292,78 @@ class HIDDeviceUSB implements HIDDevice {
         mFrozen = frozen;
     }
 
+    @Override
+    public HIDReportRing getInputReportRing() {
+        return mInputRing;
+    }
+
     protected class InputThread extends Thread {
         @Override
         public void run() {
             int packetSize = mInputEndpoint.getMaxPacketSize();
+            HIDReportRing ring = new HIDReportRing(INPUT_REQUESTS_IN_FLIGHT, packetSize);
+            mInputRing = ring;
+
+            // Keep several transfers queued so the endpoint is never idle while
+            // we hand the previous report to native code.
+            UsbRequest[] requests = new UsbRequest[ring.getSlotCount()];
+            boolean queued = true;
+            for (int i = 0; i < requests.length && queued; ++i) {
+                requests[i] = new UsbRequest();
+                requests[i].setClientData(ring.getSlot(i));
+                queued = requests[i].initialize(mConnection, mInputEndpoint) && requests[i].queue(ring.getSlot(i));
+            }
+
+            if (queued) {
+                runQueued(ring);
+                releaseRequests(requests);
+            } else {
+                // Requests queued before the failure would keep taking reports away from bulkTransfer
+                releaseRequests(requests);
+                Log.v(TAG, "UsbRequest setup failed on device " + getDeviceName() + ", using bulkTransfer");
+                runBulk(ring, packetSize);
+            }
+        }
+
+        private void releaseRequests(UsbRequest[] requests) {
+            for (UsbRequest request : requests) {
+                if (request != null) {
+                    request.cancel();
+                    request.close();
+                }
+            }
+        }
+
+        private void runQueued(HIDReportRing ring) {
+            while (mRunning) {
+                UsbRequest request;
+                try {
+                    request = mConnection.requestWait(1000);
+                } catch (TimeoutException e) {
+                    continue;
+                } catch (Exception e) {
+                    Log.v(TAG, "Exception in UsbDeviceConnection requestWait: " + e);
+                    break;
+                }
+                if (request == null) {
+                    // Connection closed or I/O error
+                    break;
+                }
+
+                ByteBuffer slot = (ByteBuffer) request.getClientData();
+                int r = slot.position();
+                if (r > 0) {
+                    ring.submit(mManager, mDeviceId, slot, r, mFrozen);
+                }
+                slot.clear();
+                if (!request.queue(slot)) {
+                    Log.v(TAG, "Failed to requeue input request on device " + getDeviceName());
+                    break;
+                }
+            }
+        }
+
+        private void runBulk(HIDReportRing ring, int packetSize) {
             byte[] packet = new byte[packetSize];
             while (mRunning) {
                 int r;
@@ -307,16 +380,9 @@ class HIDDeviceUSB implements HIDDevice {
                     // Could be a timeout or an I/O error
                 }
                 if (r > 0) {
-                    byte[] data;
-                    if (r == packetSize) {
-                        data = packet;
-                    } else {
-                        data = Arrays.copyOfRange(packet, 0, r);
-                    }
-
-                    if (!mFrozen) {
-                        mManager.HIDDeviceInputReport(mDeviceId, data);
-                    }
+                    ByteBuffer slot = ring.acquire();
+                    slot.put(packet, 0, r);
+                    ring.submit(mManager, mDeviceId, slot, r, mFrozen);
                 }
             }
         }
@@ -0,0 +1,118 @@
+package com.izzy2lost.psx2;
+
+import android.os.SystemClock;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Preallocated ring of direct ByteBuffers that input reports are received into.
+ * Slots are handed to native code by address, so a report is only copied once,
+ * into SDL's report queue, and never allocates on the Java side.
+ *
+ * Also tracks per-device report rate and drop counters.
+ */
+class HIDReportRing {
+
+    private static final long RATE_WINDOW_MS = 1000;
+
+    private final ByteBuffer[] mSlots;
+    private int mNextSlot;
+
+    private volatile long mReportCount;
+    private volatile long mDropCount;
+    private volatile int mReportRate;
+    private long mWindowStart;
+    private int mWindowReports;
+
+    HIDReportRing(int slotCount, int slotSize) {
+        mSlots = new ByteBuffer[slotCount];
+        for (int i = 0; i < slotCount; ++i) {
+            mSlots[i] = ByteBuffer.allocateDirect(slotSize).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        mWindowStart = SystemClock.elapsedRealtime();
+    }
+
+    int getSlotCount() {
+        return mSlots.length;
+    }
+
+    int getSlotSize() {
+        return mSlots[0].capacity();
+    }
+
+    ByteBuffer getSlot(int index) {
+        return mSlots[index];
+    }
+
+    /**
+     * Returns the next slot in round-robin order, cleared and ready to be filled.
+     */
+    ByteBuffer acquire() {
+        ByteBuffer slot = mSlots[mNextSlot];
+        mNextSlot = (mNextSlot + 1) % mSlots.length;
+        slot.clear();
+        return slot;
+    }
+
+    /**
+     * Copies a report delivered as a byte array (e.g. a GATT notification) into
+     * the next slot. Reports larger than a slot are truncated and counted as dropped.
+     */
+    ByteBuffer acquire(byte[] report) {
+        ByteBuffer slot = acquire();
+        int length = Math.min(report.length, slot.capacity());
+        if (length < report.length) {
+            ++mDropCount;
+        }
+        slot.put(report, 0, length);
+        return slot;
+    }
+
+    /**
+     * Passes the first {@code length} bytes of a slot to native code.
+     */
+    void submit(HIDDeviceManager manager, int deviceID, ByteBuffer slot, int length, boolean frozen) {
+        ++mReportCount;
+        updateRate();
+
+        if (frozen || manager == null) {
+            ++mDropCount;
+            return;
+        }
+        // Native returns false when SDL's queue overflowed and the oldest report was discarded
+        if (!manager.HIDDeviceInputReportDirect(deviceID, slot, length)) {
+            ++mDropCount;
+        }
+    }
+
+    long getReportCount() {
+        return mReportCount;
+    }
+
+    long getDropCount() {
+        return mDropCount;
+    }
+
+    /**
+     * Reports received during the last full one second window.
+     */
+    int getReportRate() {
+        if (SystemClock.elapsedRealtime() - mWindowStart > 2 * RATE_WINDOW_MS) {
+            // No reports for a while, the last window is stale
+            return 0;
+        }
+        return mReportRate;
+    }
+
+    private void updateRate() {
+        ++mWindowReports;
+        long now = SystemClock.elapsedRealtime();
+        long elapsed = now - mWindowStart;
+        if (elapsed >= RATE_WINDOW_MS) {
+            mReportRate = (int) (mWindowReports * 1000L / elapsed);
+            mWindowReports = 0;
+            mWindowStart = now;
+        }
+    }
+}
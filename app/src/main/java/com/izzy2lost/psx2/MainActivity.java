@@ -11,8 +11,6 @@ import android.database.Cursor;
 import android.os.Bundle;
 import android.text.TextUtils;
 import android.net.Uri;
-import android.view.InputDevice;
-import android.hardware.input.InputManager;
 import android.view.InputEvent;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
@@ -83,10 +81,10 @@ public class MainActivity extends AppCompatActivity implements GamesCoverDialogF
 
     private HIDDeviceManager mHIDDeviceManager;
     private ControllerInputHandler mControllerInputHandler;
+    private ThermalGovernorController mThermalGovernor;
     private Thread mEmulationThread = null;
     private boolean mSetupWizardActive = false;
     private boolean mHudVisible = false;
-    private InputManager mInputManager;
     
     // Track joystick directional pressed state to avoid duplicate down events
     private boolean joyUpPressed = false;
@@ -523,9 +521,15 @@ public class MainActivity extends AppCompatActivity implements GamesCoverDialogF
 
         Initialize();
 
+        // Steps resolution/blending/EE speedhacks down while the device is throttling
+        mThermalGovernor = new ThermalGovernorController(this, this::isThread);
+
         // Initialize RetroAchievements
         RetroAchievementsManager.initialize(this);
         
+        // Start caching input devices before anything queries them
+        ControllerRegistry.initialize(this);
+
         // Initialize controller input handler
         mControllerInputHandler = new ControllerInputHandler(this);
         
@@ -550,10 +554,7 @@ public class MainActivity extends AppCompatActivity implements GamesCoverDialogF
         }
 
         // Listen for controller attach/detach and update UI accordingly
-        mInputManager = (InputManager) getSystemService(Context.INPUT_SERVICE);
-        if (mInputManager != null) {
-            mInputManager.registerInputDeviceListener(mInputDeviceListener, null);
-        }
+        ControllerRegistry.addListener(mControllerRegistryListener);
         updateUiForControllerPresence();
 
         // Show first-run setup wizard if needed
@@ -1037,53 +1038,10 @@ public class MainActivity extends AppCompatActivity implements GamesCoverDialogF
     // Removed visibility toggle function
 
     // --- Controller presence handling ---
-    private final InputManager.InputDeviceListener mInputDeviceListener = new InputManager.InputDeviceListener() {
-        @Override public void onInputDeviceAdded(int deviceId) { updateUiForControllerPresence(); }
-        @Override public void onInputDeviceRemoved(int deviceId) { updateUiForControllerPresence(); }
-        @Override public void onInputDeviceChanged(int deviceId) { updateUiForControllerPresence(); }
-    };
-
-    private boolean isControllerDevice(InputDevice device) {
-        if (device == null) return false;
-
-        // Filter out virtual/built-in devices which can falsely report DPAD sources
-        try {
-            if (device.isVirtual()) return false;
-        } catch (Throwable ignored) {}
-
-        // Heuristic: devices with both vendor and product = 0 are often virtual
-        try {
-            if (device.getVendorId() == 0 && device.getProductId() == 0) return false;
-        } catch (Throwable ignored) {}
-
-        // Filter by name for common virtual/built-in inputs
-        String name = device.getName();
-        if (name != null) {
-            String lower = name.toLowerCase(Locale.ROOT);
-            if (lower.contains("virtual") || lower.contains("uinput") || lower.contains("touch")
-                    || lower.contains("keyboard") || lower.contains("keypad") || lower.contains("gpio")) {
-                return false;
-            }
-        }
-
-        int sources = device.getSources();
-        boolean gamepad = (sources & InputDevice.SOURCE_GAMEPAD) == InputDevice.SOURCE_GAMEPAD;
-        boolean joystick = (sources & InputDevice.SOURCE_JOYSTICK) == InputDevice.SOURCE_JOYSTICK;
-        boolean dpad = (sources & InputDevice.SOURCE_DPAD) == InputDevice.SOURCE_DPAD;
-
-        // Consider DPAD-only devices as controllers only if they are external (heuristic above)
-        return gamepad || joystick || dpad;
-    }
+    private final ControllerRegistry.Listener mControllerRegistryListener = this::updateUiForControllerPresence;
 
     private boolean isAnyControllerConnected() {
-        try {
-            int[] ids = InputDevice.getDeviceIds();
-            for (int id : ids) {
-                InputDevice dev = InputDevice.getDevice(id);
-                if (isControllerDevice(dev)) return true;
-            }
-        } catch (Throwable ignored) {}
-        return false;
+        return ControllerRegistry.hasExternalController();
     }
 
     private void updateUiForControllerPresence() {
@@ -1649,6 +1607,9 @@ public class MainActivity extends AppCompatActivity implements GamesCoverDialogF
     protected void onPause() {
         NativeApp.pause();
         super.onPause();
+        if (mThermalGovernor != null) {
+            mThermalGovernor.stop();
+        }
         ////
         if (mHIDDeviceManager != null) {
             mHIDDeviceManager.setFrozen(true);
@@ -1659,6 +1620,10 @@ public class MainActivity extends AppCompatActivity implements GamesCoverDialogF
     protected void onResume() {
         NativeApp.resume();
         super.onResume();
+        if (mThermalGovernor != null
+                && getSharedPreferences("app_prefs", MODE_PRIVATE).getBoolean("thermal_governor", true)) {
+            mThermalGovernor.start();
+        }
         ////
         if (mHIDDeviceManager != null) {
             mHIDDeviceManager.setFrozen(false);
@@ -1683,10 +1648,8 @@ public class MainActivity extends AppCompatActivity implements GamesCoverDialogF
             HIDDeviceManager.release(mHIDDeviceManager);
             mHIDDeviceManager = null;
         }
-        if (mInputManager != null) {
-            try { mInputManager.unregisterInputDeviceListener(mInputDeviceListener); } catch (Exception ignored) {}
-            mInputManager = null;
-        }
+        ControllerRegistry.removeListener(mControllerRegistryListener);
+        ControllerRegistry.release();
         ////
         if (mEmulationThread != null) {
             try {
@@ -13,6 +13,7 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.DialogFragment;
 
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+import com.izzy2lost.psx2.core.MemoryCardSaveList;
 
 import java.io.File;
 import java.io.RandomAccessFile;
@@ -103,30 +104,8 @@ public class MemoryCardSavesDialogFragment extends DialogFragment {
             String[] nativeSaves = NativeApp.getMemoryCardSaves(memcardFile.getAbsolutePath());
             
             if (nativeSaves != null) {
-                for (String saveInfo : nativeSaves) {
-                    // Format is "filename|size|isDirectory"
-                    String[] parts = saveInfo.split("\\|");
-                    if (parts.length >= 3) {
-                        String filename = parts[0];
-                        int size = Integer.parseInt(parts[1]);
-                        boolean isDir = parts[2].equals("1");
-                        
-                        String displayInfo;
-                        if (isDir) {
-                            displayInfo = String.format(Locale.getDefault(),
-                                "%s (%d files)",
-                                filename,
-                                size
-                            );
-                        } else {
-                            displayInfo = String.format(Locale.getDefault(),
-                                "%s (%d KB)",
-                                filename,
-                                size / 1024
-                            );
-                        }
-                        saves.add(displayInfo);
-                    }
+                for (MemoryCardSaveList.Entry entry : MemoryCardSaveList.parse(nativeSaves)) {
+                    saves.add(entry.toDisplayString(Locale.getDefault()));
                 }
             }
         } catch (Exception e) {
@@ -3,6 +3,7 @@ package com.izzy2lost.psx2;
 import android.content.ContentResolver;
 import android.content.Context;
 import android.net.Uri;
+import android.os.Looper;
 import android.os.ParcelFileDescriptor;
 import android.view.Surface;
 import java.io.File;
@@ -40,6 +41,17 @@ public class NativeApp {
     public static native String getGameTitleFromUri(String gameUri);
 	public static native String getGameSerial();
 	public static native float getFPS();
+	// Direct buffer holding the per-vsync metrics block, see PerformanceMetricsReader
+	public static native java.nio.ByteBuffer getPerformanceMetricsBuffer();
+	// Copies a consistent snapshot of that block into a direct buffer, false if it stayed busy
+	public static native boolean copyPerformanceMetrics(java.nio.ByteBuffer dst);
+	// big.LITTLE-aware pinning of the emulator threads, off by default. Covers EE/VU/GS, the GS-SW
+	// workers and the disc I/O threads; the UI and audio threads are left to the OS.
+	public static native void setThreadPlacementEnabled(boolean enabled);
+	public static native String getThreadPlacementReport();
+	// Thread activity tracing, off by default. dumpTrace() returns the written file or null.
+	public static native void setTracingEnabled(boolean enabled);
+	public static native String dumpTrace();
 
 	public static native String getPauseGameTitle();
 	public static native String getPauseGameSerial();
@@ -52,6 +64,8 @@ public class NativeApp {
 	public static native void speedhackLimitermode(int value);
 	public static native void speedhackEecyclerate(int value);
 	public static native void speedhackEecycleskip(int value);
+	// {upscale multiplier, blending accuracy, EE cycle rate, EE cycle skip} currently in effect
+	public static native float[] getPerformanceKnobs();
 
 	public static native void renderUpscalemultiplier(float value);
 	public static native void renderMipmap(int value);
@@ -98,6 +112,21 @@ public class NativeApp {
                                                         boolean enablePatches,
                                                         boolean enableCheats);
 
+    // Settings transaction: stage any number of keys, then commit them in one apply.
+    // Only keys whose value differs from the current one are written, and the core
+    // reconfigures just the subsystems affected. The apply is queued to the emulator thread
+    // and commit returns without waiting for it, the listener (may be null) gets the report.
+    public static native void beginSettingsTransaction();
+    // Like beginSettingsTransaction(), but the keys go to an override layer which takes precedence
+    // over per-game settings and is never saved. The staged keys replace all current overrides, so
+    // committing with nothing staged clears them. Overrides are also cleared whenever a game boots.
+    public static native void beginSettingsOverrideTransaction();
+    public static native void settingsTransactionPutBool(String section, String key, boolean value);
+    public static native void settingsTransactionPutInt(String section, String key, int value);
+    public static native void settingsTransactionPutFloat(String section, String key, float value);
+    public static native void settingsTransactionPutString(String section, String key, String value);
+    public static native void commitSettingsTransaction(SettingsCommitListener listener);
+
     // Query current runtime renderer from the core (reflects global/per-game)
     public static native int getCurrentRenderer();
 
@@ -151,6 +180,37 @@ public class NativeApp {
         }
     }
 
+    // Disc image conversion. Runs on the calling thread until the whole image has been compressed and
+    // read back, which takes minutes for a full DVD, and the listener is called on that same thread.
+    // So it must be called from a background thread, and throws IllegalStateException on the main one.
+    // Returns null on success, otherwise why it failed. Cancelling keeps what was converted,
+    // and converting the same image to the same destination again carries on from there.
+    public static final int DISC_IMAGE_FORMAT_CSO = 0;
+    public static final int DISC_IMAGE_FORMAT_ZSO = 1;
+    public static String convertDiscImage(String srcUri, String dstUri, int format, DiscImageJobListener listener) {
+        requireBackgroundThread("convertDiscImage");
+        return nativeConvertDiscImage(srcUri, dstUri, format, listener);
+    }
+    private static native String nativeConvertDiscImage(String srcUri, String dstUri, int format, DiscImageJobListener listener);
+    // Safe from any thread, the running job returns soon after.
+    public static native void cancelDiscImageJob();
+
+    // Disc image verification, MD5/SHA-1/CRC32 per track for Redump matching. Blocks and calls back on the
+    // calling thread like conversion, so the same background thread rule applies.
+    // The hashes are remembered until the image changes. Returns null on success, otherwise why it failed.
+    // The image is read through its own reader rather than the CDVD source, so this needs no CDVD_LOCK
+    // and can run while a game is.
+    public static String verifyDiscImage(String uri, DiscImageJobListener listener) {
+        requireBackgroundThread("verifyDiscImage");
+        return nativeVerifyDiscImage(uri, listener);
+    }
+    private static native String nativeVerifyDiscImage(String uri, DiscImageJobListener listener);
+
+    private static void requireBackgroundThread(String method) {
+        if (Looper.myLooper() == Looper.getMainLooper())
+            throw new IllegalStateException(method + " blocks until the whole image is read, call it from a background thread");
+    }
+
     // Get list of saves on a memory card
     // Returns array of strings in format "filename|size|isDirectory"
     public static native String[] getMemoryCardSaves(String memcardPath);
@@ -162,6 +222,8 @@ public class NativeApp {
     public static native String achievementsGetGameTitle();
     public static native int achievementsGetGameId();
     public static native String achievementsGetRichPresence();
+    // Time spared this session by reusing game hashes cached per disc image, instead of re-reading the boot ELF
+    public static native long achievementsGetHashTimeSavedMs();
     public static native void achievementsLogin(String username, String password);
     public static native void achievementsLogout();
     public static native void achievementsInitialize();
@@ -0,0 +1,167 @@
+package com.izzy2lost.psx2;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reads the performance metrics block that the native GS thread rewrites after every vsync.
+ *
+ * The block lives in native memory and is exposed once as a direct ByteBuffer. A sequence
+ * counter at offset 0 acts as a seqlock: it is odd while the block is being written, and a copy
+ * is only accepted if the counter was even and unchanged across the whole copy. Java has no
+ * load fence below API 33, so the copy itself is made natively into a private buffer; polling
+ * only reads the counter, and makes no JNI call until a new frame has been published.
+ *
+ * Instances are not thread safe; use one reader per polling thread.
+ */
+public final class PerformanceMetricsReader {
+
+    // Must match MetricsBlock in native-lib.cpp
+    private static final int VERSION = 1;
+    public static final int MAX_GS_SW_THREADS = 32;
+    public static final int FRAME_TIME_SAMPLES = 150;
+
+    private static final int OFFSET_SEQUENCE = 0;
+    private static final int OFFSET_VERSION = 4;
+    private static final int OFFSET_FRAME_NUMBER = 8;
+    private static final int OFFSET_FPS = 16;
+    private static final int OFFSET_INTERNAL_FPS = 20;
+    private static final int OFFSET_SPEED = 24;
+    private static final int OFFSET_MIN_FRAME_TIME = 28;
+    private static final int OFFSET_AVG_FRAME_TIME = 32;
+    private static final int OFFSET_MAX_FRAME_TIME = 36;
+    private static final int OFFSET_CPU_USAGE = 40;
+    private static final int OFFSET_CPU_TIME = 44;
+    private static final int OFFSET_GS_USAGE = 48;
+    private static final int OFFSET_GS_TIME = 52;
+    private static final int OFFSET_VU_USAGE = 56;
+    private static final int OFFSET_VU_TIME = 60;
+    private static final int OFFSET_GPU_USAGE = 64;
+    private static final int OFFSET_GPU_TIME = 68;
+    private static final int OFFSET_INTERNAL_FPS_METHOD = 72;
+    private static final int OFFSET_GS_SW_THREAD_COUNT = 76;
+    private static final int OFFSET_GS_SW_THREAD_USAGE = 80;
+    private static final int OFFSET_GS_SW_THREAD_TIME = OFFSET_GS_SW_THREAD_USAGE + MAX_GS_SW_THREADS * 4;
+    private static final int OFFSET_FRAME_TIME_HISTORY_POS = OFFSET_GS_SW_THREAD_TIME + MAX_GS_SW_THREADS * 4;
+    private static final int OFFSET_FRAME_TIME_HISTORY = OFFSET_FRAME_TIME_HISTORY_POS + 8;
+
+    // PerformanceMetrics::InternalFPSMethod
+    public static final int INTERNAL_FPS_NONE = 0;
+    public static final int INTERNAL_FPS_GS_PRIVILEGED_REGISTER = 1;
+    public static final int INTERNAL_FPS_DISPFB_BLIT = 2;
+
+    private final ByteBuffer mBuffer;
+    // Consistent copy of the block, only ever written by copyPerformanceMetrics()
+    private final ByteBuffer mSnapshot;
+    private int mSequence = -1;
+
+    public long frameNumber;
+    public float fps;
+    public float internalFps;
+    public float speed;
+    public float minimumFrameTime;
+    public float averageFrameTime;
+    public float maximumFrameTime;
+    public float cpuThreadUsage;
+    public float cpuThreadTime;
+    public float gsThreadUsage;
+    public float gsThreadTime;
+    public float vuThreadUsage;
+    public float vuThreadTime;
+    public float gpuUsage;
+    public float gpuTime;
+    public int internalFpsMethod;
+    public int gsSwThreadCount;
+    public final float[] gsSwThreadUsage = new float[MAX_GS_SW_THREADS];
+    public final float[] gsSwThreadTime = new float[MAX_GS_SW_THREADS];
+    /** Index of the oldest sample in {@link #frameTimeHistory}, i.e. the next one to be overwritten. */
+    public int frameTimeHistoryPos;
+    public final float[] frameTimeHistory = new float[FRAME_TIME_SAMPLES];
+
+    public PerformanceMetricsReader() {
+        ByteBuffer buffer = null;
+        if (!NativeApp.hasNoNativeBinary) {
+            try {
+                buffer = NativeApp.getPerformanceMetricsBuffer();
+            } catch (UnsatisfiedLinkError ignored) {
+            }
+        }
+        if (buffer != null) {
+            buffer.order(ByteOrder.nativeOrder());
+            if (buffer.capacity() < OFFSET_FRAME_TIME_HISTORY + FRAME_TIME_SAMPLES * 4
+                    || buffer.getInt(OFFSET_VERSION) != VERSION) {
+                buffer = null;
+            }
+        }
+        mBuffer = buffer;
+        mSnapshot = (buffer != null)
+                ? ByteBuffer.allocateDirect(buffer.capacity()).order(ByteOrder.nativeOrder())
+                : null;
+    }
+
+    public boolean isAvailable() {
+        return mBuffer != null;
+    }
+
+    /**
+     * Copies the latest consistent snapshot into the public fields.
+     *
+     * @return true if a new frame was published since the previous successful update;
+     * false if nothing changed, the block was busy on every attempt, or metrics are unavailable.
+     */
+    public boolean update() {
+        if (mBuffer == null) {
+            return false;
+        }
+
+        // Cheap early out for display-rate polling faster than the emulated frame rate
+        if (mBuffer.getInt(OFFSET_SEQUENCE) == mSequence) {
+            return false;
+        }
+        if (!NativeApp.copyPerformanceMetrics(mSnapshot)) {
+            return false;
+        }
+
+        final ByteBuffer b = mSnapshot;
+        mSequence = b.getInt(OFFSET_SEQUENCE);
+        final long frame = b.getLong(OFFSET_FRAME_NUMBER);
+        if (frame == frameNumber && frame != 0) {
+            return false;
+        }
+
+        frameNumber = frame;
+        fps = b.getFloat(OFFSET_FPS);
+        internalFps = b.getFloat(OFFSET_INTERNAL_FPS);
+        speed = b.getFloat(OFFSET_SPEED);
+        minimumFrameTime = b.getFloat(OFFSET_MIN_FRAME_TIME);
+        averageFrameTime = b.getFloat(OFFSET_AVG_FRAME_TIME);
+        maximumFrameTime = b.getFloat(OFFSET_MAX_FRAME_TIME);
+        cpuThreadUsage = b.getFloat(OFFSET_CPU_USAGE);
+        cpuThreadTime = b.getFloat(OFFSET_CPU_TIME);
+        gsThreadUsage = b.getFloat(OFFSET_GS_USAGE);
+        gsThreadTime = b.getFloat(OFFSET_GS_TIME);
+        vuThreadUsage = b.getFloat(OFFSET_VU_USAGE);
+        vuThreadTime = b.getFloat(OFFSET_VU_TIME);
+        gpuUsage = b.getFloat(OFFSET_GPU_USAGE);
+        gpuTime = b.getFloat(OFFSET_GPU_TIME);
+        internalFpsMethod = b.getInt(OFFSET_INTERNAL_FPS_METHOD);
+        gsSwThreadCount = Math.min(b.getInt(OFFSET_GS_SW_THREAD_COUNT), MAX_GS_SW_THREADS);
+        for (int i = 0; i < gsSwThreadCount; ++i) {
+            gsSwThreadUsage[i] = b.getFloat(OFFSET_GS_SW_THREAD_USAGE + i * 4);
+            gsSwThreadTime[i] = b.getFloat(OFFSET_GS_SW_THREAD_TIME + i * 4);
+        }
+        frameTimeHistoryPos = Math.floorMod(b.getInt(OFFSET_FRAME_TIME_HISTORY_POS), FRAME_TIME_SAMPLES);
+        for (int i = 0; i < FRAME_TIME_SAMPLES; ++i) {
+            frameTimeHistory[i] = b.getFloat(OFFSET_FRAME_TIME_HISTORY + i * 4);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the frame time {@code age} samples ago, where 0 is the most recent frame.
+     */
+    public float getFrameTime(int age) {
+        int index = frameTimeHistoryPos - 1 - age;
+        return frameTimeHistory[Math.floorMod(index, FRAME_TIME_SAMPLES)];
+    }
+}
@@ -0,0 +1,14 @@
+package com.izzy2lost.psx2;
+
+/**
+ * Receives the outcome of a settings transaction committed through NativeApp.
+ * Called on the emulator thread once it has applied the commit, or on the committing thread
+ * when there was nothing to apply, so keep it short and hand UI work back to the main looper.
+ */
+public interface SettingsCommitListener {
+    /**
+     * @param report how many of the staged keys changed, which subsystems were reconfigured
+     *               and how long the apply took on the emulator thread
+     */
+    void onSettingsApplied(String report);
+}
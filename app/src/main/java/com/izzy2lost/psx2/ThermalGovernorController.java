@@ -0,0 +1,168 @@
+package com.izzy2lost.psx2;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.PowerManager;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.izzy2lost.psx2.core.ThermalGovernor;
+
+/**
+ * Feeds device thermal state and emulator speed into a {@link ThermalGovernor} once a second,
+ * and applies its decisions through a single settings transaction.
+ *
+ * Step-downs are written as overrides, above per-game settings, and only for the knobs which
+ * differ from the baseline, so stepping all the way back up leaves the user's settings alone.
+ * If the settings in effect stop matching what was last applied (changed by hand, or a game
+ * with its own settings started), the overrides are dropped and the governor starts over from
+ * what's left as the new baseline. A change to a knob which is currently overridden only shows
+ * up once the governor releases it.
+ */
+final class ThermalGovernorController {
+    private static final String TAG = "ThermalGovernor";
+    private static final long POLL_INTERVAL_MS = 1000;
+
+    // Forecast used for PowerManager.getThermalHeadroom()
+    private static final int HEADROOM_FORECAST_SECONDS = 10;
+
+    interface RunningCheck {
+        boolean isEmulationRunning();
+    }
+
+    private final PowerManager mPowerManager;
+    private final RunningCheck mRunningCheck;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mPoll = this::poll;
+
+    private PerformanceMetricsReader mReader;
+    private ThermalGovernor mGovernor;
+    private ThermalGovernor.Knobs mBaseline;
+    private ThermalGovernor.Knobs mApplied;
+    private int mMismatchCount;
+    private boolean mResetPending;
+    private boolean mRunning;
+
+    ThermalGovernorController(Context context, RunningCheck runningCheck) {
+        mPowerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        mRunningCheck = runningCheck;
+    }
+
+    void start() {
+        if (mRunning) return;
+        mRunning = true;
+        mHandler.postDelayed(mPoll, POLL_INTERVAL_MS);
+    }
+
+    void stop() {
+        mRunning = false;
+        mHandler.removeCallbacks(mPoll);
+    }
+
+    private void poll() {
+        if (!mRunning) return;
+        mHandler.postDelayed(mPoll, POLL_INTERVAL_MS);
+
+        if (NativeApp.hasNoNativeBinary || !mRunningCheck.isEmulationRunning() || NativeApp.isPaused()
+                || mResetPending) {
+            return;
+        }
+
+        if (mReader == null) {
+            mReader = new PerformanceMetricsReader();
+        }
+        if (!mReader.isAvailable() || !mReader.update()) {
+            return;
+        }
+
+        ThermalGovernor.Knobs effective = readEffectiveKnobs();
+        if (effective == null) {
+            return;
+        }
+        if (mGovernor == null) {
+            mGovernor = new ThermalGovernor(effective);
+            mBaseline = effective;
+            mApplied = effective;
+        } else if (!effective.equals(mApplied)) {
+            // Allow one poll for an applied change to show up before treating it as the user's
+            if (++mMismatchCount >= 2) {
+                mMismatchCount = 0;
+                if (!mApplied.equals(mBaseline)) {
+                    // What's in effect includes our overrides, start over once they're gone
+                    Log.i(TAG, "Settings changed outside the governor, dropping overrides");
+                    clearOverrides();
+                    return;
+                }
+                Log.i(TAG, "Settings changed outside the governor, new baseline: " + effective);
+                mGovernor.setBaseline(effective);
+                mBaseline = effective;
+                mApplied = effective;
+            }
+            return;
+        }
+        mMismatchCount = 0;
+
+        ThermalGovernor.Sample sample = new ThermalGovernor.Sample(SystemClock.elapsedRealtime(),
+                getThermalStatus(), getThermalHeadroom(), mReader.speed,
+                mReader.averageFrameTime, mReader.maximumFrameTime);
+        ThermalGovernor.Decision decision = mGovernor.update(sample);
+        if (decision == null) {
+            return;
+        }
+
+        Log.i(TAG, decision.toString());
+        apply(decision.knobs);
+    }
+
+    private void apply(ThermalGovernor.Knobs knobs) {
+        NativeApp.beginSettingsOverrideTransaction();
+        if (knobs.upscaleMultiplier != mBaseline.upscaleMultiplier) {
+            NativeApp.settingsTransactionPutFloat("EmuCore/GS", "upscale_multiplier", knobs.upscaleMultiplier);
+        }
+        if (knobs.blendingAccuracy != mBaseline.blendingAccuracy) {
+            NativeApp.settingsTransactionPutInt("EmuCore/GS", "accurate_blending_unit", knobs.blendingAccuracy);
+        }
+        if (knobs.eeCycleRate != mBaseline.eeCycleRate) {
+            NativeApp.settingsTransactionPutInt("EmuCore/Speedhacks", "EECycleRate", knobs.eeCycleRate);
+        }
+        if (knobs.eeCycleSkip != mBaseline.eeCycleSkip) {
+            NativeApp.settingsTransactionPutInt("EmuCore/Speedhacks", "EECycleSkip", knobs.eeCycleSkip);
+        }
+        NativeApp.commitSettingsTransaction(report -> Log.i(TAG, "Applied " + knobs + ": " + report));
+        mApplied = knobs;
+    }
+
+    /** Drops all overrides, and reads a new baseline on the first poll after they've been applied. */
+    private void clearOverrides() {
+        mResetPending = true;
+        NativeApp.beginSettingsOverrideTransaction();
+        NativeApp.commitSettingsTransaction(report -> mHandler.post(() -> {
+            Log.i(TAG, "Overrides cleared: " + report);
+            mGovernor = null;
+            mResetPending = false;
+        }));
+    }
+
+    private static ThermalGovernor.Knobs readEffectiveKnobs() {
+        float[] v;
+        try {
+            v = NativeApp.getPerformanceKnobs();
+        } catch (UnsatisfiedLinkError e) {
+            return null;
+        }
+        if (v == null || v.length < 4) return null;
+        return new ThermalGovernor.Knobs(v[0], Math.round(v[1]), Math.round(v[2]), Math.round(v[3]));
+    }
+
+    private int getThermalStatus() {
+        if (mPowerManager == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) return -1;
+        return mPowerManager.getCurrentThermalStatus();
+    }
+
+    private float getThermalHeadroom() {
+        if (mPowerManager == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.R) return Float.NaN;
+        return mPowerManager.getThermalHeadroom(HEADROOM_FORECAST_SECONDS);
+    }
+}
@@ -4,13 +4,15 @@ import android.content.Context;
 import android.net.Uri;
 import android.content.SharedPreferences;
 
+import com.izzy2lost.psx2.core.GameSerials;
+import com.izzy2lost.psx2.core.GameTitleIndex;
+
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
-import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -58,12 +60,12 @@ public final class TitleResolver {
             if (serial == null || serial.isEmpty()) {
                 Uri u = Uri.parse(uriString);
                 String name = u.getLastPathSegment();
-                if (name != null) serial = normalizeCandidate(name);
+                if (name != null) serial = GameSerials.normalizeCandidate(name);
             }
 
             // 4) Lookup in index
             if (serial != null) {
-                serial = normalizeSerial(serial);
+                serial = GameSerials.normalize(serial);
                 String title = sSerialToTitle.get(serial);
                 if (title != null && !title.isEmpty()) {
                     putCachedTitle(ctx, uriString, title);
@@ -85,34 +87,7 @@ public final class TitleResolver {
     private static void loadYamlSafe(File file, Map<String, String> out) {
         if (file == null || !file.exists()) return;
         try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
-            String line;
-            String pendingSerial = null;
-            int currentIndent = 0;
-            while ((line = br.readLine()) != null) {
-                String l = line.trim();
-                if (l.isEmpty() || l.startsWith("#")) continue;
-                // Detect top-level or map-key serial of the form SERIAL:
-                String serialKey = extractSerialMapKey(line);
-                if (serialKey != null) {
-                    pendingSerial = normalizeSerial(serialKey);
-                    currentIndent = leadingSpaces(line);
-                    continue;
-                }
-                // If inside a serial block, parse a name/title field at greater indent
-                if (pendingSerial != null) {
-                    int indent = leadingSpaces(line);
-                    if (indent <= currentIndent) {
-                        // Out of this block
-                        pendingSerial = null;
-                        continue;
-                    }
-                    String title = extractTitleFromLine(l);
-                    if (title != null) {
-                        out.put(pendingSerial, title);
-                        pendingSerial = null;
-                    }
-                }
-            }
+            GameTitleIndex.load(br, out);
         } catch (Exception ignored) {}
     }
 
@@ -132,70 +107,4 @@ public final class TitleResolver {
             prefs.edit().putString(uri, title).apply();
         } catch (Throwable ignored) {}
     }
-
-    private static String extractTitleFromLine(String l) {
-        // Common YAML keys
-        int idx = indexOfKey(l, "name:");
-        if (idx < 0) idx = indexOfKey(l, "title:");
-        if (idx < 0) return null;
-        String v = l.substring(idx).trim();
-        // Strip key
-        int colon = v.indexOf(':');
-        if (colon >= 0) v = v.substring(colon + 1).trim();
-        // Trim quotes if present
-        if ((v.startsWith("\"") && v.endsWith("\"")) || (v.startsWith("'") && v.endsWith("'"))) {
-            v = v.substring(1, v.length() - 1);
-        }
-        return v.isEmpty() ? null : v;
-    }
-
-    private static int indexOfKey(String l, String key) {
-        int i = l.toLowerCase(Locale.ROOT).indexOf(key);
-        return i;
-    }
-
-    private static String extractSerialFromLine(String l) {
-        String upper = l.toUpperCase(Locale.ROOT);
-        java.util.regex.Matcher m = java.util.regex.Pattern
-                .compile("([A-Z]{4,5})[- _]?([0-9]{3})[._]?([0-9]{2})")
-                .matcher(upper);
-        if (m.find()) return m.group(1) + "-" + m.group(2) + m.group(3);
-        return null;
-    }
-
-    private static String extractSerialMapKey(String rawLine) {
-        // Matches: "SLUS-20312:" or "  SLUS_203.12:" (with indentation) at start of key
-        int colon = rawLine.indexOf(':');
-        if (colon <= 0) return null;
-        String key = rawLine.substring(0, colon).trim();
-        String s = extractSerialFromLine(key);
-        // Ensure the whole key is a serial, not just contains one
-        if (s != null) {
-            String normalizedKey = key.toUpperCase(Locale.ROOT).replace('_','-').replace(".", "");
-            String normalizedSerial = s.toUpperCase(Locale.ROOT).replace('_','-');
-            if (normalizedKey.replace("-", "").equals(normalizedSerial.replace("-", ""))) {
-                return s;
-            }
-        }
-        return null;
-    }
-
-    private static int leadingSpaces(String s) {
-        int i = 0;
-        while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
-        return i;
-    }
-
-    private static String normalizeCandidate(String s) {
-        if (s == null) return null;
-        String upper = s.toUpperCase(Locale.ROOT).replace('_', '-');
-        // Try to extract serial
-        return extractSerialFromLine(upper);
-    }
-
-    private static String normalizeSerial(String serial) {
-        String s = serial.toUpperCase(Locale.ROOT).replace('_', '-');
-        s = s.replaceAll("([A-Z]{4,5})-([0-9]{3})\\.([0-9]{2})", "$1-$2$3");
-        return s;
-    }
 }
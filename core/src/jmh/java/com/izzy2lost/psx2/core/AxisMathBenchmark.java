@@ -0,0 +1,50 @@
+package com.izzy2lost.psx2.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-event stick conditioning. Samples mimic a real stick: mostly resting near the
+ * centre with occasional full deflections, four axes per MotionEvent.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AxisMathBenchmark {
+    private static final int EVENTS = 1024;
+    private static final float DEADZONE = 0.15f;
+
+    private final float[] axes = new float[EVENTS * 4];
+
+    @Setup
+    public void setup() {
+        Random rng = new Random(3);
+        for (int i = 0; i < axes.length; i++) {
+            axes[i] = rng.nextInt(4) == 0 ? (rng.nextFloat() * 2.0f - 1.0f) : (float) (rng.nextGaussian() * 0.05);
+        }
+    }
+
+    @Benchmark
+    public void deadzoneAndSplit(Blackhole bh) {
+        for (float axis : axes) {
+            float value = AxisMath.applyDeadzone(axis, DEADZONE);
+            bh.consume(AxisMath.negativeHalf(value));
+            bh.consume(AxisMath.positiveHalf(value));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.izzy2lost.psx2.core;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Datasets shared by the benchmarks. The game databases are read from the app's assets,
+ * whose location the build passes in through the psx2.resources system property.
+ */
+final class BenchmarkData {
+    private BenchmarkData() {}
+
+    static Path resourcesDir() {
+        String dir = System.getProperty("psx2.resources");
+        return dir != null ? Paths.get(dir) : Paths.get("app", "src", "main", "assets", "resources");
+    }
+
+    static byte[] readResource(String name) {
+        try {
+            return Files.readAllBytes(resourcesDir().resolve(name));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static BufferedReader reader(byte[] data) {
+        return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(data), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,81 @@
+package com.izzy2lost.psx2.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Loading the full title index, as done on first launch, and serial lookups against it. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameTitleIndexBenchmark {
+    private byte[] gameIndex;
+    private byte[] redumpDatabase;
+    private String[] serialHints;
+
+    @Setup
+    public void setup() throws IOException {
+        gameIndex = BenchmarkData.readResource("GameIndex.yaml");
+        redumpDatabase = BenchmarkData.readResource("RedumpDatabase.yaml");
+
+        // The shapes serials arrive in: SYSTEM.CNF names, index keys and file names.
+        Map<String, String> index = new HashMap<>();
+        GameTitleIndex.load(BenchmarkData.reader(gameIndex), index);
+        List<String> hints = new ArrayList<>();
+        int i = 0;
+        for (String serial : index.keySet()) {
+            String digits = serial.substring(serial.indexOf('-') + 1);
+            String prefix = serial.substring(0, serial.indexOf('-'));
+            switch (i++ % 3) {
+                case 0: hints.add(prefix + "_" + digits.substring(0, 3) + "." + digits.substring(3)); break;
+                case 1: hints.add(serial.toLowerCase()); break;
+                default: hints.add("Game Title (" + prefix + "-" + digits + ").iso"); break;
+            }
+            if (hints.size() == 4096) break;
+        }
+        serialHints = hints.toArray(new String[0]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Map<String, String> loadGameIndex() throws IOException {
+        Map<String, String> out = new HashMap<>();
+        GameTitleIndex.load(BenchmarkData.reader(gameIndex), out);
+        return out;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Map<String, String> loadGameIndexAndRedump() throws IOException {
+        Map<String, String> out = new HashMap<>();
+        GameTitleIndex.load(BenchmarkData.reader(gameIndex), out);
+        GameTitleIndex.load(BenchmarkData.reader(redumpDatabase), out);
+        return out;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void normalizeSerials(Blackhole bh) {
+        for (String hint : serialHints) {
+            String serial = GameSerials.normalizeCandidate(hint);
+            bh.consume(serial != null ? GameSerials.normalize(serial) : null);
+        }
+    }
+}
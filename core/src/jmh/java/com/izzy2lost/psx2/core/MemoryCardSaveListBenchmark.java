@@ -0,0 +1,54 @@
+package com.izzy2lost.psx2.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a full 8MB memory card listing. A well-used card holds a few dozen save
+ * directories named after the game serial, e.g. "BASLUS-20312GAME".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemoryCardSaveListBenchmark {
+    private static final int SAVES = 48;
+
+    private final String[] records = new String[SAVES];
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < SAVES; i++) {
+            boolean dir = (i % 8) != 7;
+            records[i] = String.format(Locale.ROOT, "BASLUS-%05dSAVE%02d|%d|%d", 20000 + i * 37, i,
+                    dir ? 3 + (i % 5) : 8192 + i * 512, dir ? 1 : 0);
+        }
+    }
+
+    @Benchmark
+    public List<MemoryCardSaveList.Entry> parse() {
+        return MemoryCardSaveList.parse(records);
+    }
+
+    @Benchmark
+    public void parseAndFormat(Blackhole bh) {
+        for (MemoryCardSaveList.Entry entry : MemoryCardSaveList.parse(records)) {
+            bh.consume(entry.toDisplayString(Locale.ROOT));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.izzy2lost.psx2.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Alphabetical sorting of a game library, using real titles (including Japanese ones) from the index. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TitleSortKeysBenchmark {
+    @Param({"100", "1000"})
+    public int librarySize;
+
+    private String[] titles;
+    private List<Integer> indices;
+
+    @Setup
+    public void setup() throws IOException {
+        Map<String, String> index = new HashMap<>();
+        GameTitleIndex.load(BenchmarkData.reader(BenchmarkData.readResource("GameIndex.yaml")), index);
+        List<String> all = new ArrayList<>(index.values());
+        Collections.shuffle(all, new Random(1));
+        titles = all.subList(0, Math.min(librarySize, all.size())).toArray(new String[0]);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetOrder() {
+        indices = new ArrayList<>(titles.length);
+        for (int i = 0; i < titles.length; i++) indices.add(i);
+    }
+
+    @Benchmark
+    public void buildKeys(Blackhole bh) {
+        for (String title : titles) bh.consume(TitleSortKeys.build(title));
+    }
+
+    @Benchmark
+    public List<Integer> sortLibrary() {
+        TitleSortKeys.sortIndices(indices, titles);
+        return indices;
+    }
+}
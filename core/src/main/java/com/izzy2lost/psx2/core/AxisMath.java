@@ -0,0 +1,31 @@
+package com.izzy2lost.psx2.core;
+
+/**
+ * Analog stick conditioning. PS2 pads report each stick direction as its own 0..1 input,
+ * so a centred -1..1 axis is split into a negative and a positive half.
+ */
+public final class AxisMath {
+    private AxisMath() {}
+
+    /** Zeroes values inside the deadzone and rescales the rest back to the full range. */
+    public static float applyDeadzone(float value, float deadzone) {
+        float magnitude = Math.abs(value);
+        if (magnitude < deadzone) {
+            return 0.0f;
+        }
+
+        // Scale the remaining range
+        float scaledValue = (magnitude - deadzone) / (1.0f - deadzone);
+        return Math.copySign(scaledValue, value);
+    }
+
+    /** Magnitude of the left/up half of an axis, or 0 when it points the other way. */
+    public static float negativeHalf(float value) {
+        return value < 0.0f ? -value : 0.0f;
+    }
+
+    /** Magnitude of the right/down half of an axis, or 0 when it points the other way. */
+    public static float positiveHalf(float value) {
+        return value > 0.0f ? value : 0.0f;
+    }
+}
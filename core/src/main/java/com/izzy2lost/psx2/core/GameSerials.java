@@ -0,0 +1,58 @@
+package com.izzy2lost.psx2.core;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * PS2 disc serial parsing. Serials are normalized to the "SLUS-20312" form used as keys
+ * in GameIndex.yaml, regardless of whether they came from SYSTEM.CNF ("SLUS_203.12"),
+ * a file name or the index itself.
+ */
+public final class GameSerials {
+    private static final Pattern SERIAL = Pattern.compile("([A-Z]{4,5})[- _]?([0-9]{3})[._]?([0-9]{2})");
+    private static final Pattern DOTTED_SERIAL = Pattern.compile("([A-Z]{4,5})-([0-9]{3})\\.([0-9]{2})");
+
+    // Four letters plus five digits is the shortest key that can hold a serial.
+    private static final int MIN_SERIAL_LENGTH = 9;
+
+    private GameSerials() {}
+
+    /** Finds the first serial anywhere in {@code text}, or null. */
+    public static String extract(String text) {
+        Matcher m = SERIAL.matcher(text.toUpperCase(Locale.ROOT));
+        if (m.find()) return m.group(1) + "-" + m.group(2) + m.group(3);
+        return null;
+    }
+
+    /** Extracts a serial from a loose hint such as a file name, or null. */
+    public static String normalizeCandidate(String s) {
+        if (s == null) return null;
+        return extract(s.toUpperCase(Locale.ROOT).replace('_', '-'));
+    }
+
+    public static String normalize(String serial) {
+        String s = serial.toUpperCase(Locale.ROOT).replace('_', '-');
+        return DOTTED_SERIAL.matcher(s).replaceAll("$1-$2$3");
+    }
+
+    /**
+     * Returns the serial if the map key of a YAML line ("SLUS-20312:" or "  SLUS_203.12:")
+     * is a serial and nothing else, or null.
+     */
+    public static String fromMapKey(String rawLine) {
+        int colon = rawLine.indexOf(':');
+        if (colon < MIN_SERIAL_LENGTH) return null;
+        String key = rawLine.substring(0, colon).trim();
+        if (key.length() < MIN_SERIAL_LENGTH) return null;
+        String s = extract(key);
+        // Ensure the whole key is a serial, not just contains one
+        if (s != null) {
+            String normalizedKey = key.toUpperCase(Locale.ROOT).replace('_', '-').replace(".", "");
+            if (normalizedKey.replace("-", "").equals(s.replace("-", ""))) {
+                return s;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,76 @@
+package com.izzy2lost.psx2.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Line-based reader for the serial to title mapping in GameIndex.yaml and
+ * RedumpDatabase.yaml. Only the first name/title field of each serial block is used,
+ * so this deliberately avoids a full YAML parser.
+ */
+public final class GameTitleIndex {
+    private GameTitleIndex() {}
+
+    /** Adds every serial found in {@code reader} to {@code out}, keyed by normalized serial. */
+    public static void load(BufferedReader reader, Map<String, String> out) throws IOException {
+        String line;
+        String pendingSerial = null;
+        int currentIndent = 0;
+        while ((line = reader.readLine()) != null) {
+            String l = line.trim();
+            if (l.isEmpty() || l.charAt(0) == '#') continue;
+            // Detect top-level or map-key serial of the form SERIAL:
+            String serialKey = GameSerials.fromMapKey(line);
+            if (serialKey != null) {
+                pendingSerial = GameSerials.normalize(serialKey);
+                currentIndent = leadingSpaces(line);
+                continue;
+            }
+            // If inside a serial block, parse a name/title field at greater indent
+            if (pendingSerial != null) {
+                int indent = leadingSpaces(line);
+                if (indent <= currentIndent) {
+                    // Out of this block
+                    pendingSerial = null;
+                    continue;
+                }
+                String title = extractTitle(l);
+                if (title != null) {
+                    out.put(pendingSerial, title);
+                    pendingSerial = null;
+                }
+            }
+        }
+    }
+
+    static String extractTitle(String l) {
+        // Common YAML keys
+        int idx = indexOfKeyIgnoreCase(l, "name:");
+        if (idx < 0) idx = indexOfKeyIgnoreCase(l, "title:");
+        if (idx < 0) return null;
+        String v = l.substring(idx).trim();
+        // Strip key
+        int colon = v.indexOf(':');
+        if (colon >= 0) v = v.substring(colon + 1).trim();
+        // Trim quotes if present
+        if (v.length() >= 2 && ((v.startsWith("\"") && v.endsWith("\"")) || (v.startsWith("'") && v.endsWith("'")))) {
+            v = v.substring(1, v.length() - 1);
+        }
+        return v.isEmpty() ? null : v;
+    }
+
+    private static int indexOfKeyIgnoreCase(String l, String key) {
+        int last = l.length() - key.length();
+        for (int i = 0; i <= last; i++) {
+            if (l.regionMatches(true, i, key, 0, key.length())) return i;
+        }
+        return -1;
+    }
+
+    private static int leadingSpaces(String s) {
+        int i = 0;
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+}
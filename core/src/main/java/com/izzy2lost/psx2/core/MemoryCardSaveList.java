@@ -0,0 +1,64 @@
+package com.izzy2lost.psx2.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses the save listing returned by {@code NativeApp.getMemoryCardSaves()}, one
+ * "filename|size|isDirectory" record per entry. For directories the size is the number
+ * of files they contain.
+ */
+public final class MemoryCardSaveList {
+    public static final class Entry {
+        public final String name;
+        public final int size;
+        public final boolean directory;
+
+        public Entry(String name, int size, boolean directory) {
+            this.name = name;
+            this.size = size;
+            this.directory = directory;
+        }
+
+        public String toDisplayString(Locale locale) {
+            if (directory) {
+                return String.format(locale, "%s (%d files)", name, size);
+            }
+            return String.format(locale, "%s (%d KB)", name, size / 1024);
+        }
+    }
+
+    private MemoryCardSaveList() {}
+
+    /**
+     * Records with fewer than three fields are skipped, not counting empty fields at the end
+     * (as {@code String.split()} would).
+     *
+     * @throws NumberFormatException if a size field is not a number
+     */
+    public static List<Entry> parse(String[] records) {
+        List<Entry> entries = new ArrayList<>(records.length);
+        for (String record : records) {
+            int first = record.indexOf('|');
+            if (first < 0) continue;
+            int second = record.indexOf('|', first + 1);
+            if (second < 0) continue;
+            int third = record.indexOf('|', second + 1);
+            if (!hasFieldAfter(record, second)) continue;
+            String dirField = (third < 0) ? record.substring(second + 1) : record.substring(second + 1, third);
+
+            String name = record.substring(0, first);
+            int size = Integer.parseInt(record.substring(first + 1, second));
+            entries.add(new Entry(name, size, dirField.equals("1")));
+        }
+        return entries;
+    }
+
+    private static boolean hasFieldAfter(String record, int separator) {
+        for (int i = separator + 1; i < record.length(); i++) {
+            if (record.charAt(i) != '|') return true;
+        }
+        return false;
+    }
+}
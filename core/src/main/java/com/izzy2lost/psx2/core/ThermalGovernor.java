@@ -0,0 +1,300 @@
+package com.izzy2lost.psx2.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Steps quality and speed settings down while the device is hot, and back up once it has
+ * cooled off, so that thermal throttling costs some detail instead of emulation speed.
+ *
+ * <p>The governor is fed one {@link Sample} at a time (about once a second) and returns a
+ * {@link Decision} whenever the settings should change. It has no Android dependencies, so a
+ * recorded trace of samples can be replayed against it with {@link #replay}.
+ *
+ * <p>Stepping down needs sustained pressure: a hot device, or a warm device which is also
+ * running below full speed. Stepping back up needs a cool device at full speed for much
+ * longer, and that wait doubles every time a step up is followed by another throttle, so
+ * a device sitting at the edge doesn't flip between two levels.
+ */
+public final class ThermalGovernor {
+    // PowerManager.THERMAL_STATUS_*
+    public static final int THERMAL_STATUS_NONE = 0;
+    public static final int THERMAL_STATUS_LIGHT = 1;
+    public static final int THERMAL_STATUS_MODERATE = 2;
+    public static final int THERMAL_STATUS_SEVERE = 3;
+
+    // PowerManager.getThermalHeadroom(): 1.0 is where the device starts throttling hard
+    static final float HOT_HEADROOM = 0.95f;
+    static final float WARM_HEADROOM = 0.8f;
+    static final float COOL_HEADROOM = 0.7f;
+
+    /** Speed percentage below which the emulator counts as struggling. */
+    static final float SLOW_SPEED = 95.0f;
+    static final float FULL_SPEED = 99.0f;
+
+    static final long HOT_HOLD_MS = 3_000;
+    static final long WARM_HOLD_MS = 8_000;
+    static final long DOWN_COOLDOWN_MS = 10_000;
+    static final long UP_HOLD_MS = 60_000;
+    static final long MAX_UP_HOLD_MS = 600_000;
+
+    /** A step down this soon after a step up means the step up was premature. */
+    static final long REBOUND_MS = 120_000;
+
+    /** Samples further apart than this (e.g. while paused) restart the hold timers. */
+    static final long MAX_SAMPLE_GAP_MS = 5_000;
+
+    /** One reading of device and emulator state. */
+    public static final class Sample {
+        public final long timeMs;
+        /** PowerManager thermal status, or -1 if unavailable. */
+        public final int thermalStatus;
+        /** PowerManager thermal headroom, or NaN if unavailable. */
+        public final float thermalHeadroom;
+        /** Emulation speed in percent, 0 if not running. */
+        public final float speed;
+        public final float averageFrameTime;
+        public final float maximumFrameTime;
+
+        public Sample(long timeMs, int thermalStatus, float thermalHeadroom, float speed,
+                float averageFrameTime, float maximumFrameTime) {
+            this.timeMs = timeMs;
+            this.thermalStatus = thermalStatus;
+            this.thermalHeadroom = thermalHeadroom;
+            this.speed = speed;
+            this.averageFrameTime = averageFrameTime;
+            this.maximumFrameTime = maximumFrameTime;
+        }
+
+        /** Parses a line written by {@link #toString()}. */
+        public static Sample parse(String line) {
+            String[] f = line.trim().split(",");
+            if (f.length < 6) {
+                throw new IllegalArgumentException("Expected 6 fields: " + line);
+            }
+            return new Sample(Long.parseLong(f[0]), Integer.parseInt(f[1]), Float.parseFloat(f[2]),
+                    Float.parseFloat(f[3]), Float.parseFloat(f[4]), Float.parseFloat(f[5]));
+        }
+
+        /** Trace line: time,status,headroom,speed,avgFrameTime,maxFrameTime. */
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d,%d,%.3f,%.1f,%.2f,%.2f", timeMs, thermalStatus,
+                    thermalHeadroom, speed, averageFrameTime, maximumFrameTime);
+        }
+
+        boolean isRunning() {
+            return speed > 0.0f;
+        }
+
+        boolean isHot() {
+            return thermalStatus >= THERMAL_STATUS_MODERATE || thermalHeadroom >= HOT_HEADROOM;
+        }
+
+        boolean isWarm() {
+            return thermalStatus >= THERMAL_STATUS_LIGHT || thermalHeadroom >= WARM_HEADROOM;
+        }
+
+        boolean isCool() {
+            // NaN compares false, so a missing headroom reading doesn't block stepping up
+            return thermalStatus <= THERMAL_STATUS_NONE && !(thermalHeadroom >= COOL_HEADROOM);
+        }
+    }
+
+    /** The settings the governor controls, with the same ranges as the NativeApp setters. */
+    public static final class Knobs {
+        // Below these the speedhacks break too many games to apply without asking
+        static final int MIN_EE_CYCLE_RATE = -2;
+        static final int MAX_EE_CYCLE_SKIP = 1;
+
+        public final float upscaleMultiplier;
+        public final int blendingAccuracy;
+        public final int eeCycleRate;
+        public final int eeCycleSkip;
+
+        public Knobs(float upscaleMultiplier, int blendingAccuracy, int eeCycleRate, int eeCycleSkip) {
+            this.upscaleMultiplier = upscaleMultiplier;
+            this.blendingAccuracy = blendingAccuracy;
+            this.eeCycleRate = eeCycleRate;
+            this.eeCycleSkip = eeCycleSkip;
+        }
+
+        /**
+         * Returns the next cheaper settings, or null if there's nothing left to give up.
+         * Resolution and blending take turns first, then the EE speedhacks.
+         */
+        Knobs stepDown(int step) {
+            boolean canUpscale = upscaleMultiplier > 1.0f;
+            boolean canBlend = blendingAccuracy > 0;
+            if (canUpscale && (!canBlend || (step & 1) == 0)) {
+                float lower = Math.max(1.0f, (float) Math.ceil(upscaleMultiplier) - 1.0f);
+                return new Knobs(lower, blendingAccuracy, eeCycleRate, eeCycleSkip);
+            }
+            if (canBlend) {
+                return new Knobs(upscaleMultiplier, blendingAccuracy - 1, eeCycleRate, eeCycleSkip);
+            }
+            if (eeCycleRate > MIN_EE_CYCLE_RATE) {
+                return new Knobs(upscaleMultiplier, blendingAccuracy, eeCycleRate - 1, eeCycleSkip);
+            }
+            if (eeCycleSkip < MAX_EE_CYCLE_SKIP) {
+                return new Knobs(upscaleMultiplier, blendingAccuracy, eeCycleRate, eeCycleSkip + 1);
+            }
+            return null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Knobs)) return false;
+            Knobs k = (Knobs) o;
+            return Float.compare(upscaleMultiplier, k.upscaleMultiplier) == 0
+                    && blendingAccuracy == k.blendingAccuracy
+                    && eeCycleRate == k.eeCycleRate
+                    && eeCycleSkip == k.eeCycleSkip;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((Float.floatToIntBits(upscaleMultiplier) * 31 + blendingAccuracy) * 31 + eeCycleRate) * 31 + eeCycleSkip;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "upscale %.2fx, blending %d, EE cycle rate %d, EE cycle skip %d",
+                    upscaleMultiplier, blendingAccuracy, eeCycleRate, eeCycleSkip);
+        }
+    }
+
+    /** A change of level, with the settings to apply. */
+    public static final class Decision {
+        public final long timeMs;
+        public final int fromLevel;
+        public final int toLevel;
+        public final Knobs knobs;
+        public final String reason;
+
+        Decision(long timeMs, int fromLevel, int toLevel, Knobs knobs, String reason) {
+            this.timeMs = timeMs;
+            this.fromLevel = fromLevel;
+            this.toLevel = toLevel;
+            this.knobs = knobs;
+            this.reason = reason;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "t=%d level %d -> %d (%s): %s", timeMs, fromLevel, toLevel, reason, knobs);
+        }
+    }
+
+    // levels.get(0) is the user's own settings, each following level is one step cheaper
+    private final List<Knobs> levels = new ArrayList<>();
+    private int level;
+
+    private long lastSampleMs = -1;
+    private long pressureSinceMs = -1;
+    private long reliefSinceMs = -1;
+    private long lastChangeMs = Long.MIN_VALUE / 2;
+    private long lastStepUpMs = Long.MIN_VALUE / 2;
+    private long upHoldMs = UP_HOLD_MS;
+
+    public ThermalGovernor(Knobs baseline) {
+        setBaseline(baseline);
+    }
+
+    /**
+     * Starts over from new user settings, e.g. after they were changed by hand or a
+     * different game was started. Does not produce a decision, as the settings are already
+     * in effect.
+     */
+    public void setBaseline(Knobs baseline) {
+        levels.clear();
+        levels.add(baseline);
+        level = 0;
+        upHoldMs = UP_HOLD_MS;
+        pressureSinceMs = -1;
+        reliefSinceMs = -1;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public Knobs getKnobs() {
+        return levels.get(level);
+    }
+
+    /** Feeds one sample, returning the change to make or null to leave things as they are. */
+    public Decision update(Sample s) {
+        boolean gap = lastSampleMs >= 0 && s.timeMs - lastSampleMs > MAX_SAMPLE_GAP_MS;
+        lastSampleMs = s.timeMs;
+        if (!s.isRunning() || gap) {
+            pressureSinceMs = -1;
+            reliefSinceMs = -1;
+            if (!s.isRunning()) return null;
+        }
+
+        boolean struggling = s.speed < SLOW_SPEED;
+        boolean hot = s.isHot();
+        boolean pressure = hot || (s.isWarm() && struggling);
+        boolean relief = s.isCool() && s.speed >= FULL_SPEED;
+
+        pressureSinceMs = pressure ? (pressureSinceMs < 0 ? s.timeMs : pressureSinceMs) : -1;
+        reliefSinceMs = relief ? (reliefSinceMs < 0 ? s.timeMs : reliefSinceMs) : -1;
+
+        if (pressure) {
+            long hold = hot ? HOT_HOLD_MS : WARM_HOLD_MS;
+            if (s.timeMs - pressureSinceMs < hold || s.timeMs - lastChangeMs < DOWN_COOLDOWN_MS) {
+                return null;
+            }
+            Knobs next = (level + 1 < levels.size()) ? levels.get(level + 1) : levels.get(level).stepDown(level);
+            if (next == null) {
+                return null;
+            }
+            if (level + 1 == levels.size()) {
+                levels.add(next);
+            }
+            if (s.timeMs - lastStepUpMs < REBOUND_MS) {
+                // Once per step up, however many steps down it takes to settle again
+                upHoldMs = Math.min(upHoldMs * 2, MAX_UP_HOLD_MS);
+                lastStepUpMs = Long.MIN_VALUE / 2;
+            }
+            String reason = String.format(Locale.ROOT, "%s, status %d, headroom %.2f, speed %.0f%%, frame %.1f/%.1fms",
+                    hot ? "hot" : "warm and slow", s.thermalStatus, s.thermalHeadroom, s.speed,
+                    s.averageFrameTime, s.maximumFrameTime);
+            return change(s.timeMs, level + 1, reason);
+        }
+
+        if (relief && level > 0) {
+            if (s.timeMs - reliefSinceMs < upHoldMs || s.timeMs - lastChangeMs < upHoldMs) {
+                return null;
+            }
+            lastStepUpMs = s.timeMs;
+            String reason = String.format(Locale.ROOT, "cool for %ds, headroom %.2f, speed %.0f%%",
+                    (s.timeMs - reliefSinceMs) / 1000, s.thermalHeadroom, s.speed);
+            return change(s.timeMs, level - 1, reason);
+        }
+
+        return null;
+    }
+
+    private Decision change(long timeMs, int newLevel, String reason) {
+        Decision d = new Decision(timeMs, level, newLevel, levels.get(newLevel), reason);
+        level = newLevel;
+        lastChangeMs = timeMs;
+        pressureSinceMs = -1;
+        reliefSinceMs = -1;
+        return d;
+    }
+
+    /** Runs a recorded trace through a fresh governor and returns every decision it made. */
+    public static List<Decision> replay(Knobs baseline, Iterable<Sample> samples) {
+        ThermalGovernor governor = new ThermalGovernor(baseline);
+        List<Decision> decisions = new ArrayList<>();
+        for (Sample s : samples) {
+            Decision d = governor.update(s);
+            if (d != null) decisions.add(d);
+        }
+        return decisions;
+    }
+}
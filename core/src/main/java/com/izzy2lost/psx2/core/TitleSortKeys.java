@@ -0,0 +1,52 @@
+package com.izzy2lost.psx2.core;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Alphabetical ordering for the game list: case-insensitive, ignoring leading articles,
+ * diacritics and leading punctuation.
+ */
+public final class TitleSortKeys {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern LEADING_SYMBOLS = Pattern.compile("^[^a-z0-9]+");
+
+    private TitleSortKeys() {}
+
+    public static String build(String title) {
+        if (title == null) return "";
+        String s = title.trim().toLowerCase(Locale.ROOT);
+        // Drop leading articles commonly used in titles
+        if (s.startsWith("the ")) s = s.substring(4);
+        else if (s.startsWith("an ")) s = s.substring(3);
+        else if (s.startsWith("a ")) s = s.substring(2);
+        // Remove diacritics; ASCII titles (the common case) have none
+        if (!isAscii(s)) s = COMBINING_MARKS.matcher(Normalizer.normalize(s, Normalizer.Form.NFD)).replaceAll("");
+        // Strip non-alphanumeric at start
+        if (!s.isEmpty() && !isAsciiAlphanumeric(s.charAt(0))) s = LEADING_SYMBOLS.matcher(s).replaceFirst("");
+        return s;
+    }
+
+    /**
+     * Sorts {@code indices} into {@code titles} by sort key. Each key is built once up
+     * front rather than on every comparison.
+     */
+    public static void sortIndices(List<Integer> indices, String[] titles) {
+        String[] keys = new String[titles.length];
+        for (int i : indices) keys[i] = build(titles[i]);
+        indices.sort((a, b) -> keys[a].compareTo(keys[b]));
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+
+    private static boolean isAsciiAlphanumeric(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+    }
+}
@@ -0,0 +1,56 @@
+package com.izzy2lost.psx2.core;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class AxisMathTest {
+    /** ControllerInputHandler's deadzone, before it moved here. */
+    private static float oldDeadzone(float value, float deadzone) {
+        if (Math.abs(value) < deadzone) {
+            return 0.0f;
+        }
+        float sign = Math.signum(value);
+        float scaledValue = (Math.abs(value) - deadzone) / (1.0f - deadzone);
+        return sign * scaledValue;
+    }
+
+    private static final float[] DEADZONES = {0.0f, 0.05f, 0.1f, 0.15f, 0.25f, 0.5f, 0.9f};
+
+    @Test
+    public void deadzoneMatchesOldCurve() {
+        for (float deadzone : DEADZONES) {
+            for (int i = -1000; i <= 1000; i++) {
+                float value = i / 1000.0f;
+                assertEquals("value " + value + ", deadzone " + deadzone,
+                        Float.floatToIntBits(oldDeadzone(value, deadzone)),
+                        Float.floatToIntBits(AxisMath.applyDeadzone(value, deadzone)));
+            }
+        }
+    }
+
+    @Test
+    public void deadzoneZeroesInsideAndRescalesOutside() {
+        assertEquals(0.0f, AxisMath.applyDeadzone(0.09f, 0.1f), 0.0f);
+        assertEquals(0.0f, AxisMath.applyDeadzone(-0.09f, 0.1f), 0.0f);
+        // The edge of the deadzone starts at zero, full deflection stays full.
+        assertEquals(0.0f, AxisMath.applyDeadzone(0.1f, 0.1f), 1e-6f);
+        assertEquals(1.0f, AxisMath.applyDeadzone(1.0f, 0.1f), 1e-6f);
+        assertEquals(-1.0f, AxisMath.applyDeadzone(-1.0f, 0.1f), 1e-6f);
+        assertEquals(0.5f, AxisMath.applyDeadzone(0.55f, 0.1f), 1e-6f);
+        assertEquals(-0.5f, AxisMath.applyDeadzone(-0.55f, 0.1f), 1e-6f);
+        assertEquals(0.3f, AxisMath.applyDeadzone(0.3f, 0.0f), 0.0f);
+    }
+
+    @Test
+    public void halvesSplitAxis() {
+        for (int i = -1000; i <= 1000; i++) {
+            float value = i / 1000.0f;
+            // The old handler sent -value to the left/up input and value to the right/down one, zero to the other.
+            assertEquals(value < 0 ? -value : 0.0f, AxisMath.negativeHalf(value), 0.0f);
+            assertEquals(value > 0 ? value : 0.0f, AxisMath.positiveHalf(value), 0.0f);
+        }
+        assertEquals(0.0f, AxisMath.negativeHalf(Float.NaN), 0.0f);
+        assertEquals(0.0f, AxisMath.positiveHalf(Float.NaN), 0.0f);
+    }
+}
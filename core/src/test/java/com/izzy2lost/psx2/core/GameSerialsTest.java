@@ -0,0 +1,54 @@
+package com.izzy2lost.psx2.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class GameSerialsTest {
+    @Test
+    public void extractFindsSerialAnywhere() {
+        assertEquals("SLUS-20312", GameSerials.extract("SLUS_203.12"));
+        assertEquals("SLUS-20312", GameSerials.extract("slus-20312"));
+        assertEquals("SLUS-20312", GameSerials.extract("SLUS 20312"));
+        assertEquals("SCES-50490", GameSerials.extract("Final Fantasy X [SCES-50490] (Europe).iso"));
+        assertEquals("PAPXA-90512", GameSerials.extract("PAPXA_905.12"));
+        assertNull(GameSerials.extract("Final Fantasy X"));
+        assertNull(GameSerials.extract("SLUS-2031"));
+    }
+
+    @Test
+    public void extractTakesFirstSerial() {
+        assertEquals("SLUS-20312", GameSerials.extract("SLUS-20312 SCES-50490"));
+    }
+
+    @Test
+    public void normalizeCandidateAcceptsFileNames() {
+        assertEquals("SLUS-20312", GameSerials.normalizeCandidate("slus_203.12.iso"));
+        assertEquals("SLES-50330", GameSerials.normalizeCandidate("SLES_503.30;1"));
+        assertNull(GameSerials.normalizeCandidate("game.iso"));
+        assertNull(GameSerials.normalizeCandidate(null));
+    }
+
+    @Test
+    public void normalizeRewritesDottedSerials() {
+        assertEquals("SLUS-20312", GameSerials.normalize("SLUS_203.12"));
+        assertEquals("SLUS-20312", GameSerials.normalize("slus-203.12"));
+        assertEquals("SLUS-20312", GameSerials.normalize("SLUS-20312"));
+        // Anything else is only upper-cased, with underscores turned into dashes.
+        assertEquals("NOT-A-SERIAL", GameSerials.normalize("not_a_serial"));
+    }
+
+    @Test
+    public void fromMapKeyAcceptsOnlyWholeSerialKeys() {
+        assertEquals("SLUS-20312", GameSerials.fromMapKey("SLUS-20312:"));
+        assertEquals("SLUS-20312", GameSerials.fromMapKey("  SLUS_203.12:"));
+        assertEquals("SLUS-20312", GameSerials.fromMapKey("slus-20312: # comment"));
+        assertNull(GameSerials.fromMapKey("  name: SLUS-20312"));
+        assertNull(GameSerials.fromMapKey("SLUS-20312-A:"));
+        assertNull(GameSerials.fromMapKey("serial: SLUS-20312"));
+        assertNull(GameSerials.fromMapKey("SLUS-20312"));
+        assertNull(GameSerials.fromMapKey(":"));
+        assertNull(GameSerials.fromMapKey(""));
+    }
+}
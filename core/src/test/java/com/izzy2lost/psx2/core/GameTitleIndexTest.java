@@ -0,0 +1,182 @@
+package com.izzy2lost.psx2.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class GameTitleIndexTest {
+    /** TitleResolver's loader, before it moved here. */
+    private static final class OldLoader {
+        static void load(BufferedReader br, Map<String, String> out) throws IOException {
+            String line;
+            String pendingSerial = null;
+            int currentIndent = 0;
+            while ((line = br.readLine()) != null) {
+                String l = line.trim();
+                if (l.isEmpty() || l.startsWith("#")) continue;
+                String serialKey = extractSerialMapKey(line);
+                if (serialKey != null) {
+                    pendingSerial = normalizeSerial(serialKey);
+                    currentIndent = leadingSpaces(line);
+                    continue;
+                }
+                if (pendingSerial != null) {
+                    int indent = leadingSpaces(line);
+                    if (indent <= currentIndent) {
+                        pendingSerial = null;
+                        continue;
+                    }
+                    String title = extractTitleFromLine(l);
+                    if (title != null) {
+                        out.put(pendingSerial, title);
+                        pendingSerial = null;
+                    }
+                }
+            }
+        }
+
+        static String extractTitleFromLine(String l) {
+            int idx = l.toLowerCase(Locale.ROOT).indexOf("name:");
+            if (idx < 0) idx = l.toLowerCase(Locale.ROOT).indexOf("title:");
+            if (idx < 0) return null;
+            String v = l.substring(idx).trim();
+            int colon = v.indexOf(':');
+            if (colon >= 0) v = v.substring(colon + 1).trim();
+            if ((v.startsWith("\"") && v.endsWith("\"")) || (v.startsWith("'") && v.endsWith("'"))) {
+                v = v.substring(1, v.length() - 1);
+            }
+            return v.isEmpty() ? null : v;
+        }
+
+        static String extractSerialFromLine(String l) {
+            Matcher m = Pattern.compile("([A-Z]{4,5})[- _]?([0-9]{3})[._]?([0-9]{2})").matcher(l.toUpperCase(Locale.ROOT));
+            if (m.find()) return m.group(1) + "-" + m.group(2) + m.group(3);
+            return null;
+        }
+
+        static String extractSerialMapKey(String rawLine) {
+            int colon = rawLine.indexOf(':');
+            if (colon <= 0) return null;
+            String key = rawLine.substring(0, colon).trim();
+            String s = extractSerialFromLine(key);
+            if (s != null) {
+                String normalizedKey = key.toUpperCase(Locale.ROOT).replace('_', '-').replace(".", "");
+                String normalizedSerial = s.toUpperCase(Locale.ROOT).replace('_', '-');
+                if (normalizedKey.replace("-", "").equals(normalizedSerial.replace("-", ""))) {
+                    return s;
+                }
+            }
+            return null;
+        }
+
+        static String normalizeSerial(String serial) {
+            String s = serial.toUpperCase(Locale.ROOT).replace('_', '-');
+            return s.replaceAll("([A-Z]{4,5})-([0-9]{3})\\.([0-9]{2})", "$1-$2$3");
+        }
+
+        static int leadingSpaces(String s) {
+            int i = 0;
+            while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+            return i;
+        }
+    }
+
+    private static Map<String, String> load(String yaml) throws IOException {
+        Map<String, String> out = new HashMap<>();
+        GameTitleIndex.load(new BufferedReader(new StringReader(yaml)), out);
+        return out;
+    }
+
+    /** The app's database, passed in by the build through psx2.resources like the benchmarks. */
+    private static Path resource(String name) {
+        String dir = System.getProperty("psx2.resources");
+        return (dir != null ? Paths.get(dir) : Paths.get("..", "app", "src", "main", "assets", "resources")).resolve(name);
+    }
+
+    private static Map<String, String> assertSameAsOldLoader(String name) throws IOException {
+        Map<String, String> expected = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(resource(name), StandardCharsets.UTF_8)) {
+            OldLoader.load(reader, expected);
+        }
+        Map<String, String> actual = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(resource(name), StandardCharsets.UTF_8)) {
+            GameTitleIndex.load(reader, actual);
+        }
+        assertEquals(expected, actual);
+        return actual;
+    }
+
+    @Test
+    public void readsFirstTitleOfEachSerialBlock() throws IOException {
+        Map<String, String> titles = load(String.join("\n",
+                "# comment",
+                "SLUS-20312:",
+                "  name: \"Final Fantasy X\"",
+                "  region: \"NTSC-U\"",
+                "  name: Not this one",
+                "SLES_503.30:",
+                "  # comment inside a block",
+                "  Title: 'Grand Theft Auto: Vice City'",
+                "SCES-50490:",
+                "  region: \"PAL-E\"",
+                "SCUS-97328:",
+                "  gameFixes:",
+                "    - name: Nested"));
+        assertEquals(3, titles.size());
+        assertEquals("Final Fantasy X", titles.get("SLUS-20312"));
+        assertEquals("Grand Theft Auto: Vice City", titles.get("SLES-50330"));
+        // Only the first name/title line after the key counts, however deeply nested.
+        assertEquals("Nested", titles.get("SCUS-97328"));
+        assertNull(titles.get("SCES-50490"));
+    }
+
+    @Test
+    public void blockEndsAtSameIndent() throws IOException {
+        Map<String, String> titles = load(String.join("\n",
+                "  SLUS-20312:",
+                "  other: value",
+                "    name: Orphaned"));
+        assertTrue(titles.isEmpty());
+    }
+
+    @Test
+    public void extractTitleMatchesOldExtraction() {
+        String[] lines = {
+            "name: Final Fantasy X", "NAME: \"Quoted\"", "title: 'Single'", "name-en: Suffix", "name:",
+            "name: \"\"", "region: NTSC-U", "nickname: Nick", "title: name: Both", "name: 'Unbalanced",
+        };
+        for (String line : lines) {
+            assertEquals(line, OldLoader.extractTitleFromLine(line), GameTitleIndex.extractTitle(line));
+        }
+        // A lone quote used to throw, it's now kept as the title.
+        assertEquals("\"", GameTitleIndex.extractTitle("name: \""));
+    }
+
+    @Test
+    public void gameIndexMatchesOldLoader() throws IOException {
+        Map<String, String> titles = assertSameAsOldLoader("GameIndex.yaml");
+        assertTrue(titles.size() > 10000);
+        assertEquals("Final Fantasy X", titles.get("SLUS-20312"));
+    }
+
+    @Test
+    public void redumpDatabaseMatchesOldLoader() throws IOException {
+        // Serials are a field of each entry there rather than a map key, so neither loader finds any.
+        assertTrue(assertSameAsOldLoader("RedumpDatabase.yaml").isEmpty());
+    }
+}
@@ -0,0 +1,76 @@
+package com.izzy2lost.psx2.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Test;
+
+public class MemoryCardSaveListTest {
+    /** MemoryCardSavesDialogFragment's parsing, before it moved here. */
+    private static List<String> oldParse(String[] records) {
+        List<String> saves = new ArrayList<>();
+        for (String saveInfo : records) {
+            String[] parts = saveInfo.split("\\|");
+            if (parts.length >= 3) {
+                String filename = parts[0];
+                int size = Integer.parseInt(parts[1]);
+                boolean isDir = parts[2].equals("1");
+                if (isDir) {
+                    saves.add(String.format(Locale.ROOT, "%s (%d files)", filename, size));
+                } else {
+                    saves.add(String.format(Locale.ROOT, "%s (%d KB)", filename, size / 1024));
+                }
+            }
+        }
+        return saves;
+    }
+
+    private static List<String> parse(String[] records) {
+        List<String> saves = new ArrayList<>();
+        for (MemoryCardSaveList.Entry entry : MemoryCardSaveList.parse(records)) {
+            saves.add(entry.toDisplayString(Locale.ROOT));
+        }
+        return saves;
+    }
+
+    @Test
+    public void parsesFilesAndDirectories() {
+        List<MemoryCardSaveList.Entry> entries = MemoryCardSaveList.parse(new String[] {
+            "BASLUS-20312FFX|12|1", "icon.sys|964|0",
+        });
+        assertEquals(2, entries.size());
+        assertEquals("BASLUS-20312FFX", entries.get(0).name);
+        assertEquals(12, entries.get(0).size);
+        assertTrue(entries.get(0).directory);
+        assertFalse(entries.get(1).directory);
+        assertEquals("BASLUS-20312FFX (12 files)", entries.get(0).toDisplayString(Locale.ROOT));
+        assertEquals("icon.sys (0 KB)", entries.get(1).toDisplayString(Locale.ROOT));
+    }
+
+    @Test
+    public void matchesOldParsing() {
+        String[] records = {
+            "BASLUS-20312FFX|12|1", "save.dat|8192|0", "big.bin|1048576|0", "odd|5|2", "extra|3|1|more",
+            "trailing|3|1|", "empty dir field|7||x", "|4|0", "",
+            "no fields", "one|1", "two|1|", "two trailing|1||", "two more|1|||",
+        };
+        assertEquals(oldParse(records), parse(records));
+    }
+
+    @Test
+    public void badSizeThrows() {
+        for (String record : new String[] {"bad|size|0", "empty||1"}) {
+            try {
+                MemoryCardSaveList.parse(new String[] {record});
+                fail(record);
+            } catch (NumberFormatException expected) {
+            }
+        }
+    }
+}
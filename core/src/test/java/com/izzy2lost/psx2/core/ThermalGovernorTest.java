@@ -0,0 +1,229 @@
+package com.izzy2lost.psx2.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ThermalGovernorTest {
+    private static final ThermalGovernor.Knobs BASELINE = new ThermalGovernor.Knobs(3.0f, 2, 0, 0);
+
+    private static ThermalGovernor.Sample cool(long timeMs) {
+        return new ThermalGovernor.Sample(timeMs, ThermalGovernor.THERMAL_STATUS_NONE, 0.5f, 100.0f, 16.7f, 20.0f);
+    }
+
+    private static ThermalGovernor.Sample warm(long timeMs, float speed) {
+        return new ThermalGovernor.Sample(timeMs, ThermalGovernor.THERMAL_STATUS_LIGHT, 0.85f, speed, 16.7f, 20.0f);
+    }
+
+    private static ThermalGovernor.Sample hot(long timeMs) {
+        return new ThermalGovernor.Sample(timeMs, ThermalGovernor.THERMAL_STATUS_MODERATE, 0.96f, 90.0f, 18.5f, 25.0f);
+    }
+
+    private interface SampleAt {
+        ThermalGovernor.Sample at(long timeMs);
+    }
+
+    /** Feeds one sample a second over [fromMs, toMs) and returns the decisions made. */
+    private static List<ThermalGovernor.Decision> run(ThermalGovernor governor, long fromMs, long toMs, SampleAt sample) {
+        List<ThermalGovernor.Decision> decisions = new ArrayList<>();
+        for (long t = fromMs; t < toMs; t += 1_000) {
+            ThermalGovernor.Decision d = governor.update(sample.at(t));
+            if (d != null) decisions.add(d);
+        }
+        return decisions;
+    }
+
+    private static List<ThermalGovernor.Sample> loadTrace(String name) throws IOException {
+        List<ThermalGovernor.Sample> samples = new ArrayList<>();
+        try (InputStream in = ThermalGovernorTest.class.getResourceAsStream(name)) {
+            assertNotNull("missing trace " + name, in);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                samples.add(ThermalGovernor.Sample.parse(line));
+            }
+        }
+        return samples;
+    }
+
+    @Test
+    public void hotStepsDownAfterHold() {
+        ThermalGovernor governor = new ThermalGovernor(BASELINE);
+        List<ThermalGovernor.Decision> decisions = run(governor, 0, ThermalGovernor.HOT_HOLD_MS + 1_000, ThermalGovernorTest::hot);
+
+        assertEquals(1, decisions.size());
+        assertEquals(ThermalGovernor.HOT_HOLD_MS, decisions.get(0).timeMs);
+        assertEquals(0, decisions.get(0).fromLevel);
+        assertEquals(1, decisions.get(0).toLevel);
+        assertEquals(1, governor.getLevel());
+    }
+
+    @Test
+    public void warmStepsDownOnlyWhileSlow() {
+        ThermalGovernor governor = new ThermalGovernor(BASELINE);
+        assertEquals(0, run(governor, 0, 30_000, t -> warm(t, 100.0f)).size());
+
+        List<ThermalGovernor.Decision> decisions = run(governor, 30_000, 40_000, t -> warm(t, 90.0f));
+        assertEquals(1, decisions.size());
+        assertEquals(30_000 + ThermalGovernor.WARM_HOLD_MS, decisions.get(0).timeMs);
+    }
+
+    @Test
+    public void pressureMustBeSustained() {
+        ThermalGovernor governor = new ThermalGovernor(BASELINE);
+        // Hot for just under the hold, every time
+        for (long t = 0; t < 60_000; t += 1_000) {
+            boolean isHot = (t / 1_000) % ((ThermalGovernor.HOT_HOLD_MS / 1_000) + 1) != 0;
+            assertNull(governor.update(isHot ? hot(t) : cool(t)));
+        }
+        assertEquals(0, governor.getLevel());
+    }
+
+    @Test
+    public void sampleGapRestartsHold() {
+        ThermalGovernor governor = new ThermalGovernor(BASELINE);
+        assertNull(governor.update(hot(0)));
+        assertNull(governor.update(hot(1_000)));
+        // Paused for a while, the time away doesn't count as being hot
+        assertNull(governor.update(hot(1_000 + ThermalGovernor.MAX_SAMPLE_GAP_MS + 1_000)));
+        assertNull(governor.update(hot(2_000 + ThermalGovernor.MAX_SAMPLE_GAP_MS + 1_000)));
+    }
+
+    @Test
+    public void stepsDownAtMostEveryCooldown() {
+        ThermalGovernor governor = new ThermalGovernor(BASELINE);
+        List<ThermalGovernor.Decision> decisions = run(governor, 0, 60_000, ThermalGovernorTest::hot);
+
+        assertEquals(6, decisions.size());
+        for (int i = 0; i < decisions.size(); i++) {
+            assertEquals(i + 1, decisions.get(i).toLevel);
+            if (i > 0) {
+                assertEquals(ThermalGovernor.DOWN_COOLDOWN_MS, decisions.get(i).timeMs - decisions.get(i - 1).timeMs);
+            }
+        }
+    }
+
+    @Test
+    public void knobsStepDownInOrder() {
+        ThermalGovernor.Knobs[] expected = {
+            new ThermalGovernor.Knobs(2.0f, 2, 0, 0),
+            new ThermalGovernor.Knobs(2.0f, 1, 0, 0),
+            new ThermalGovernor.Knobs(1.0f, 1, 0, 0),
+            new ThermalGovernor.Knobs(1.0f, 0, 0, 0),
+            new ThermalGovernor.Knobs(1.0f, 0, -1, 0),
+            new ThermalGovernor.Knobs(1.0f, 0, -2, 0),
+            new ThermalGovernor.Knobs(1.0f, 0, -2, 1),
+        };
+
+        ThermalGovernor governor = new ThermalGovernor(BASELINE);
+        List<ThermalGovernor.Decision> decisions = run(governor, 0, 200_000, ThermalGovernorTest::hot);
+
+        assertEquals(expected.length, decisions.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], decisions.get(i).knobs);
+        }
+        assertEquals(expected[expected.length - 1], governor.getKnobs());
+    }
+
+    @Test
+    public void fractionalUpscaleStepsToWholeMultiplier() {
+        ThermalGovernor.Knobs knobs = new ThermalGovernor.Knobs(2.5f, 0, 0, 0).stepDown(0);
+        assertEquals(new ThermalGovernor.Knobs(2.0f, 0, 0, 0), knobs);
+    }
+
+    @Test
+    public void stepsBackUpThroughSameLevels() {
+        ThermalGovernor governor = new ThermalGovernor(BASELINE);
+        List<ThermalGovernor.Decision> down = run(governor, 0, 20_000, ThermalGovernorTest::hot);
+        assertEquals(2, down.size());
+
+        List<ThermalGovernor.Decision> up = run(governor, 20_000, 200_000, ThermalGovernorTest::cool);
+        assertEquals(2, up.size());
+        assertEquals(20_000 + ThermalGovernor.UP_HOLD_MS, up.get(0).timeMs);
+        assertEquals(down.get(0).knobs, up.get(0).knobs);
+        assertEquals(BASELINE, up.get(1).knobs);
+        assertEquals(0, governor.getLevel());
+    }
+
+    @Test
+    public void recoveryBackoffDoubles() {
+        ThermalGovernor governor = new ThermalGovernor(BASELINE);
+        long t = 0;
+        List<ThermalGovernor.Decision> decisions = run(governor, t, t += 5_000, ThermalGovernorTest::hot);
+        assertEquals(1, decisions.size());
+
+        long hold = ThermalGovernor.UP_HOLD_MS;
+        for (int round = 0; round < 6; round++) {
+            long coolFrom = t;
+            decisions = run(governor, t, t = coolFrom + hold + 1_000, ThermalGovernorTest::cool);
+            assertEquals("round " + round, 1, decisions.size());
+            assertEquals("round " + round, coolFrom + hold, decisions.get(0).timeMs);
+
+            // Throttles again within the rebound window, twice, which only counts as one premature step up
+            decisions = run(governor, t, t += 20_000, ThermalGovernorTest::hot);
+            assertEquals("round " + round, 2, decisions.size());
+
+            hold = Math.min(hold * 2, ThermalGovernor.MAX_UP_HOLD_MS);
+        }
+        assertEquals(ThermalGovernor.MAX_UP_HOLD_MS, hold);
+    }
+
+    @Test
+    public void recoveryBackoffNotRaisedByLateThrottle() {
+        ThermalGovernor governor = new ThermalGovernor(BASELINE);
+        run(governor, 0, 5_000, ThermalGovernorTest::hot);
+        List<ThermalGovernor.Decision> up = run(governor, 5_000, 70_000, ThermalGovernorTest::cool);
+        assertEquals(1, up.size());
+
+        long t = up.get(0).timeMs + ThermalGovernor.REBOUND_MS;
+        run(governor, up.get(0).timeMs + 1_000, t, ThermalGovernorTest::cool);
+        assertEquals(1, run(governor, t, t + 5_000, ThermalGovernorTest::hot).size());
+
+        List<ThermalGovernor.Decision> again = run(governor, t + 5_000, t + 200_000, ThermalGovernorTest::cool);
+        assertEquals(t + 5_000 + ThermalGovernor.UP_HOLD_MS, again.get(0).timeMs);
+    }
+
+    @Test
+    public void replaysRecordedTrace() throws IOException {
+        List<ThermalGovernor.Decision> decisions = ThermalGovernor.replay(BASELINE, loadTrace("thermal_trace.csv"));
+
+        // time, from level, to level
+        long[][] expected = {
+            {1_188_000, 0, 1}, // warm and below full speed for 8s
+            {1_303_000, 1, 2}, // hot for 3s
+            {1_313_000, 2, 3},
+            {1_323_000, 3, 4},
+            {1_520_000, 4, 3}, // cool at full speed for 60s
+            {1_543_000, 3, 4}, // hot again within 2 minutes, recovery now waits 120s
+            {1_553_000, 4, 5},
+            {1_820_000, 5, 4}, // 120s after the trace resumes from the pause and gap
+            {1_941_000, 4, 3},
+        };
+
+        assertEquals(expected.length, decisions.size());
+        for (int i = 0; i < expected.length; i++) {
+            ThermalGovernor.Decision d = decisions.get(i);
+            assertEquals(d.toString(), expected[i][0], d.timeMs);
+            assertEquals(d.toString(), expected[i][1], d.fromLevel);
+            assertEquals(d.toString(), expected[i][2], d.toLevel);
+        }
+    }
+
+    @Test
+    public void sampleRoundTripsThroughTraceLine() {
+        ThermalGovernor.Sample s = new ThermalGovernor.Sample(1234, 2, 0.875f, 97.5f, 17.25f, 30.5f);
+        ThermalGovernor.Sample parsed = ThermalGovernor.Sample.parse(s.toString());
+        assertEquals(s.toString(), parsed.toString());
+    }
+}
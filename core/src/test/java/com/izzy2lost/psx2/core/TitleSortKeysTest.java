@@ -0,0 +1,70 @@
+package com.izzy2lost.psx2.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Test;
+
+public class TitleSortKeysTest {
+    /** The key GamesCoverDialogFragment built on every comparison, before it moved here. */
+    private static String oldKey(String t) {
+        if (t == null) return "";
+        String s = t.trim().toLowerCase(Locale.ROOT);
+        if (s.startsWith("the ")) s = s.substring(4);
+        else if (s.startsWith("an ")) s = s.substring(3);
+        else if (s.startsWith("a ")) s = s.substring(2);
+        s = Normalizer.normalize(s, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        s = s.replaceFirst("^[^a-z0-9]+", "");
+        return s;
+    }
+
+    private static final String[] TITLES = {
+        "The Legend of Spyro", "A Bug's Life", "An American Tail", "Anarchy Reigns", "Theme Park",
+        "  The  Getaway ", "THE BOUNCER", "Ace Combat 04", ".hack//Infection", "'99 Koshien",
+        "007: Nightfire", "\u014ckami", "\u00c9lite Beat", "Pok\u00e9mon", "\u00f1", "\u00df Test", "...", "", "the", "a ",
+        "\uff26\uff49\uff4e\uff41\uff4c", "\u65e5\u672c\u8a9e\u30bf\u30a4\u30c8\u30eb", "\u00a1Viva Pi\u00f1ata!", "Crash Bandicoot: The Wrath of Cortex",
+    };
+
+    @Test
+    public void buildMatchesOldKeys() {
+        for (String title : TITLES) {
+            assertEquals(title, oldKey(title), TitleSortKeys.build(title));
+        }
+        assertEquals("", TitleSortKeys.build(null));
+    }
+
+    @Test
+    public void buildIgnoresArticlesCaseDiacriticsAndLeadingSymbols() {
+        assertEquals("legend of spyro", TitleSortKeys.build("The Legend of Spyro"));
+        assertEquals("bug's life", TitleSortKeys.build("A Bug's Life"));
+        assertEquals("american tail", TitleSortKeys.build("An American Tail"));
+        assertEquals("anarchy reigns", TitleSortKeys.build("Anarchy Reigns"));
+        assertEquals("okami", TitleSortKeys.build("\u014ckami"));
+        assertEquals("hack//infection", TitleSortKeys.build(".hack//Infection"));
+        assertEquals("viva pinata!", TitleSortKeys.build("\u00a1Viva Pi\u00f1ata!"));
+    }
+
+    @Test
+    public void sortIndicesMatchesOldOrder() {
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < TITLES.length; i++) indices.add(i);
+        List<Integer> expected = new ArrayList<>(indices);
+        expected.sort((a, b) -> oldKey(TITLES[a]).compareTo(oldKey(TITLES[b])));
+
+        TitleSortKeys.sortIndices(indices, TITLES);
+        assertEquals(expected, indices);
+    }
+
+    @Test
+    public void sortIndicesOnlyTouchesListedTitles() {
+        String[] titles = {"Zone of the Enders", null, "The Bouncer", "Ape Escape"};
+        List<Integer> indices = new ArrayList<>(Arrays.asList(0, 2, 3));
+        TitleSortKeys.sortIndices(indices, titles);
+        assertEquals(Arrays.asList(3, 2, 0), indices);
+    }
+}